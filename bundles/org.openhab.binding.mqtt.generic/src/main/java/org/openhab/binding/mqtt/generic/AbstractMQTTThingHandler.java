@@ -70,7 +70,13 @@ import org.slf4j.LoggerFactory;
  * While setting up your {@link ChannelState} you would set the callback to your thing handler,
  * because this base class implements {@link ChannelStateUpdateListener}.
  *
+ * <p>
+ * If several channels of your thing use the same state topic, pass {@link #stateTopicDispatcher} to
+ * {@link ChannelState#setStateTopicDispatcher(StateTopicDispatcher)}. The topic is then subscribed once, and each
+ * received payload is decoded and transformed once for all of these channels.
+ *
  * @author David Graeff - Initial contribution
+ * @author Tobias Brandt - Shared state topic subscriptions
  */
 @NonNullByDefault
 public abstract class AbstractMQTTThingHandler extends BaseThingHandler
@@ -81,6 +87,9 @@ public abstract class AbstractMQTTThingHandler extends BaseThingHandler
 
     protected @Nullable MqttBrokerConnection connection;
 
+    // Shares state topic subscriptions between the channel states of this thing
+    protected final StateTopicDispatcher stateTopicDispatcher = new StateTopicDispatcher();
+
     private AtomicBoolean messageReceived = new AtomicBoolean(false);
     private Map<String, @Nullable ChannelState> availabilityStates = new ConcurrentHashMap<>();
     private AvailabilityMode availabilityMode = AvailabilityMode.ALL;
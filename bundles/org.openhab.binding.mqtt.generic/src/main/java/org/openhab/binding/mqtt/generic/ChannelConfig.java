@@ -44,6 +44,12 @@ public class ChannelConfig {
     public boolean retained = false;
     /** If true, the state topic will not update a state, but trigger a channel instead. */
     public boolean trigger = false;
+    /**
+     * If true, a received payload that is identical to the previous one is skipped, unless
+     * {@link #forceUpdateAfter} payloads have been skipped in a row. 0 never forces an update.
+     */
+    public boolean skipUnchanged = false;
+    public int forceUpdateAfter = 10;
     public String unit = "";
 
     public String transformationPattern = "";
@@ -69,6 +69,12 @@ public class ChannelConfigBuilder {
         return this;
     }
 
+    public ChannelConfigBuilder withSkipUnchanged(boolean skipUnchanged, int forceUpdateAfter) {
+        config.skipUnchanged = skipUnchanged;
+        config.forceUpdateAfter = forceUpdateAfter;
+        return this;
+    }
+
     public ChannelConfigBuilder makeTrigger(boolean trigger) {
         config.trigger = trigger;
         return this;
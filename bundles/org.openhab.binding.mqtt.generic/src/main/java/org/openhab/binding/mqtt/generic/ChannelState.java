@@ -12,8 +12,8 @@
  */
 package org.openhab.binding.mqtt.generic;
 
-import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.IllegalFormatException;
 import java.util.List;
 import java.util.concurrent.CompletableFuture;
@@ -36,6 +36,7 @@ import org.openhab.core.types.Command;
 import org.openhab.core.types.State;
 import org.openhab.core.types.Type;
 import org.openhab.core.types.TypeParser;
+import org.openhab.core.types.UnDefType;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -44,6 +45,7 @@ import org.slf4j.LoggerFactory;
  * Updates to the value are propagated via the {@link ChannelStateUpdateListener}.
  *
  * @author David Graeff - Initial contribution
+ * @author Tobias Brandt - Shared state topic subscriptions, skip unchanged payloads
  */
 @NonNullByDefault
 public class ChannelState implements MqttMessageSubscriber {
@@ -62,11 +64,17 @@ public class ChannelState implements MqttMessageSubscriber {
     protected final List<ChannelStateTransformation> transformationsIn = new ArrayList<>();
     protected final List<ChannelStateTransformation> transformationsOut = new ArrayList<>();
     private @Nullable ChannelStateUpdateListener channelStateUpdateListener;
+    private @Nullable StateTopicDispatcher stateTopicDispatcher;
     protected boolean hasSubscribed = false;
     private @Nullable ScheduledFuture<?> scheduledFuture;
     private CompletableFuture<@Nullable Void> future = CompletableFuture.completedFuture(null);
     private final Object futureLock = new Object();
 
+    // The last processed message, if unchanged payloads are skipped
+    private @Nullable String lastTopic;
+    private byte @Nullable [] lastPayload;
+    private int skippedCount;
+
     /**
      * Creates a new channel state.
      *
@@ -160,23 +168,42 @@ public class ChannelState implements MqttMessageSubscriber {
      */
     @Override
     public void processMessage(String topic, byte[] payload) {
+        processMessage(topic, new IncomingMessage(payload));
+    }
+
+    /**
+     * Incoming message, which may be shared with other channel states subscribed to the same topic.
+     *
+     * @param topic The topic. Is the same as the field stateTopic.
+     * @param message The message. The payload must be UTF8 encoded text or binary data.
+     */
+    public void processMessage(String topic, IncomingMessage message) {
         final ChannelStateUpdateListener channelStateUpdateListener = this.channelStateUpdateListener;
         if (channelStateUpdateListener == null) {
             logger.warn("MQTT message received for topic {}, but MessageSubscriber object hasn't been started!", topic);
             return;
         }
 
+        if (config.skipUnchanged && !config.trigger && isUnchanged(topic, message.getPayload())) {
+            logger.trace("Skipping unchanged payload on '{}' for channel {}", topic, channelUID);
+            receivedOrTimeout();
+            return;
+        }
+
         if (cachedValue.isBinary()) {
-            cachedValue.update(payload);
+            cachedValue.update(message.getPayload());
             channelStateUpdateListener.updateChannelState(channelUID, cachedValue.getChannelState());
             receivedOrTimeout();
             return;
         }
 
         // String value: Apply transformations
-        String strValue = new String(payload, StandardCharsets.UTF_8);
+        String strValue = message.getString();
+        String chain = "";
         for (ChannelStateTransformation t : transformationsIn) {
-            String transformedValue = t.processValue(strValue);
+            // the length of the pattern keeps the key unambiguous, whatever characters the pattern contains
+            chain = chain + "|" + t.serviceName + ":" + t.pattern.length() + ":" + t.pattern;
+            String transformedValue = message.transform(chain, t, strValue);
             if (transformedValue != null) {
                 strValue = transformedValue;
             } else {
@@ -233,6 +260,30 @@ public class ChannelState implements MqttMessageSubscriber {
         receivedOrTimeout();
     }
 
+    /**
+     * Returns true if the payload is identical to the last processed one on the same topic, and fewer than
+     * forceUpdateAfter payloads have been skipped since. Otherwise remembers the payload as the last processed one.
+     */
+    private synchronized boolean isUnchanged(String topic, byte[] payload) {
+        // no value yet, or it was reset since the last message
+        boolean hasValue = !(cachedValue.getChannelState() instanceof UnDefType);
+        if (hasValue && topic.equals(lastTopic) && Arrays.equals(payload, lastPayload)
+                && (config.forceUpdateAfter <= 0 || skippedCount < config.forceUpdateAfter)) {
+            skippedCount++;
+            return true;
+        }
+        lastTopic = topic;
+        lastPayload = payload.clone();
+        skippedCount = 0;
+        return false;
+    }
+
+    private synchronized void resetLastPayload() {
+        lastTopic = null;
+        lastPayload = null;
+        skippedCount = 0;
+    }
+
     /**
      * Returns the state topic. Might be an empty string if this is a stateless channel (TRIGGER kind channel).
      */
@@ -270,7 +321,11 @@ public class ChannelState implements MqttMessageSubscriber {
     public CompletableFuture<@Nullable Void> stop() {
         final MqttBrokerConnection connection = this.connection;
         if (connection != null && !config.stateTopic.isBlank()) {
-            return connection.unsubscribe(config.stateTopic, this).thenRun(this::internalStop);
+            final StateTopicDispatcher stateTopicDispatcher = this.stateTopicDispatcher;
+            CompletableFuture<Boolean> unsubscribed = stateTopicDispatcher != null
+                    ? stateTopicDispatcher.unsubscribe(connection, this)
+                    : connection.unsubscribe(config.stateTopic, this);
+            return unsubscribed.thenRun(this::internalStop);
         } else {
             internalStop();
             return CompletableFuture.completedFuture(null);
@@ -283,6 +338,7 @@ public class ChannelState implements MqttMessageSubscriber {
         this.channelStateUpdateListener = null;
         hasSubscribed = false;
         cachedValue.resetState();
+        resetLastPayload();
     }
 
     private void receivedOrTimeout() {
@@ -330,7 +386,11 @@ public class ChannelState implements MqttMessageSubscriber {
 
             this.future = new CompletableFuture<>();
         }
-        connection.subscribe(config.stateTopic, this).thenRun(() -> {
+        final StateTopicDispatcher stateTopicDispatcher = this.stateTopicDispatcher;
+        CompletableFuture<Boolean> subscribed = stateTopicDispatcher != null
+                ? stateTopicDispatcher.subscribe(connection, this)
+                : connection.subscribe(config.stateTopic, this);
+        subscribed.thenRun(() -> {
             hasSubscribed = true;
             logger.debug("Subscribed channel {} to topic: {}", this.channelUID, config.stateTopic);
             if (timeout > 0 && !future.isDone()) {
@@ -420,6 +480,8 @@ public class ChannelState implements MqttMessageSubscriber {
 
         int qos = (config.qos != null) ? config.qos : connection.getQos();
 
+        // the device may report its previous state again, e.g. if it rejects the command, which must not be skipped
+        resetLastPayload();
         return connection.publish(config.commandTopic, commandString.getBytes(), qos, config.retained);
     }
 
@@ -437,6 +499,17 @@ public class ChannelState implements MqttMessageSubscriber {
         this.channelStateUpdateListener = channelStateUpdateListener;
     }
 
+    /**
+     * Subscribe to the state topic through the given dispatcher, which shares the subscription and the processing of
+     * incoming messages with other channel states of the same topic. Must be set before
+     * {@link #start(MqttBrokerConnection, ScheduledExecutorService, int)}.
+     *
+     * @param stateTopicDispatcher A dispatcher, or null to subscribe directly on the connection
+     */
+    public void setStateTopicDispatcher(@Nullable StateTopicDispatcher stateTopicDispatcher) {
+        this.stateTopicDispatcher = stateTopicDispatcher;
+    }
+
     public @Nullable MqttBrokerConnection getConnection() {
         return connection;
     }
@@ -0,0 +1,77 @@
+/**
+ * Copyright (c) 2010-2024 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.mqtt.generic;
+
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+
+/**
+ * A message received on a state topic, shared by all {@link ChannelState}s subscribed to that topic.
+ *
+ * The payload is decoded only once, and the result of each chain of incoming transformations is kept, so channels
+ * with the same transformations, or a common prefix of them, run them only once per message.
+ * An instance is used by one thread at a time.
+ *
+ * @author Tobias Brandt - Initial contribution
+ */
+@NonNullByDefault
+public class IncomingMessage {
+    private final byte[] payload;
+    private @Nullable String string;
+    private final Map<String, @Nullable String> transformed = new HashMap<>();
+
+    public IncomingMessage(byte[] payload) {
+        this.payload = payload;
+    }
+
+    /**
+     * Returns the raw payload.
+     */
+    public byte[] getPayload() {
+        return payload;
+    }
+
+    /**
+     * Returns the payload decoded as UTF-8 text.
+     */
+    public String getString() {
+        String localString = string;
+        if (localString == null) {
+            localString = new String(payload, StandardCharsets.UTF_8);
+            string = localString;
+        }
+        return localString;
+    }
+
+    /**
+     * Applies a transformation to the result of the preceding transformations of a chain, or returns the result of an
+     * earlier call for the same chain.
+     *
+     * @param chain A key identifying this transformation and all preceding ones
+     * @param transformation The transformation
+     * @param value The result of the preceding transformations
+     * @return The transformed value. May be null.
+     */
+    public @Nullable String transform(String chain, ChannelStateTransformation transformation, String value) {
+        if (transformed.containsKey(chain)) {
+            return transformed.get(chain);
+        }
+        String result = transformation.processValue(value);
+        transformed.put(chain, result);
+        return result;
+    }
+}
@@ -0,0 +1,113 @@
+/**
+ * Copyright (c) 2010-2024 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.mqtt.generic;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.openhab.core.io.transport.mqtt.MqttBrokerConnection;
+import org.openhab.core.io.transport.mqtt.MqttMessageSubscriber;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Subscribes to each state topic only once on behalf of all {@link ChannelState}s of a thing that use it.
+ *
+ * Each received message is wrapped into one {@link IncomingMessage} and handed to all channel states of the topic, so
+ * the payload is decoded once and shared transformations run once, instead of once per channel.
+ *
+ * @author Tobias Brandt - Initial contribution
+ */
+@NonNullByDefault
+public class StateTopicDispatcher {
+    private final Logger logger = LoggerFactory.getLogger(StateTopicDispatcher.class);
+
+    // guarded by itself
+    private final Map<String, TopicSubscription> subscriptions = new HashMap<>();
+
+    /**
+     * Adds the channel state to the subscribers of its state topic. The topic is subscribed on the connection, if this
+     * is the first channel state using it. A subscription of the topic on another connection is removed.
+     *
+     * @param connection A broker connection
+     * @param state A channel state with a state topic
+     * @return A future that completes with true if subscribing worked and exceptionally otherwise.
+     */
+    public CompletableFuture<Boolean> subscribe(MqttBrokerConnection connection, ChannelState state) {
+        String topic = state.getStateTopic();
+        synchronized (subscriptions) {
+            TopicSubscription subscription = subscriptions.get(topic);
+            if (subscription != null && !subscription.connection.equals(connection)) {
+                // the thing uses another connection now, its channel states subscribe again on the new one
+                subscription.connection.unsubscribe(topic, subscription);
+                subscription = null;
+            }
+            if (subscription == null) {
+                subscription = new TopicSubscription(connection);
+                subscriptions.put(topic, subscription);
+                subscription.future = connection.subscribe(topic, subscription);
+            }
+            subscription.states.addIfAbsent(state);
+            logger.trace("{} channel states share topic {}", subscription.states.size(), topic);
+            return subscription.future;
+        }
+    }
+
+    /**
+     * Removes the channel state from the subscribers of its state topic. The topic is unsubscribed on the connection,
+     * if no other channel state uses it.
+     *
+     * @param connection A broker connection
+     * @param state A channel state with a state topic
+     * @return A future that completes with true if unsubscribing worked and exceptionally otherwise.
+     */
+    public CompletableFuture<Boolean> unsubscribe(MqttBrokerConnection connection, ChannelState state) {
+        String topic = state.getStateTopic();
+        synchronized (subscriptions) {
+            TopicSubscription subscription = subscriptions.get(topic);
+            if (subscription == null || !subscription.connection.equals(connection)) {
+                return CompletableFuture.completedFuture(true);
+            }
+            subscription.states.remove(state);
+            if (!subscription.states.isEmpty()) {
+                return CompletableFuture.completedFuture(true);
+            }
+            subscriptions.remove(topic);
+            return connection.unsubscribe(topic, subscription);
+        }
+    }
+
+    /**
+     * The subscription of one topic on one connection.
+     */
+    private static class TopicSubscription implements MqttMessageSubscriber {
+        final MqttBrokerConnection connection;
+        final CopyOnWriteArrayList<ChannelState> states = new CopyOnWriteArrayList<>();
+        CompletableFuture<Boolean> future = CompletableFuture.completedFuture(true);
+
+        TopicSubscription(MqttBrokerConnection connection) {
+            this.connection = connection;
+        }
+
+        @Override
+        public void processMessage(String topic, byte[] payload) {
+            IncomingMessage message = new IncomingMessage(payload);
+            for (ChannelState state : states) {
+                state.processMessage(topic, message);
+            }
+        }
+    }
+}
@@ -130,6 +130,8 @@ public class GenericMQTTThingHandler extends AbstractMQTTThingHandler implements
      */
     protected ChannelState createChannelState(ChannelConfig channelConfig, ChannelUID channelUID, Value valueState) {
         ChannelState state = new ChannelState(channelConfig, channelUID, valueState, this);
+        // Channels of the same state topic share the subscription and the decoded payload
+        state.setStateTopicDispatcher(stateTopicDispatcher);
 
         // Incoming value transformations
         state.addTransformation(channelConfig.transformationPattern, transformationServiceProvider);
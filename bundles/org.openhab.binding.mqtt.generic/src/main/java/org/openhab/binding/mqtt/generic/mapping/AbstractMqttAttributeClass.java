@@ -42,6 +42,8 @@ import org.slf4j.LoggerFactory;
  * {@link #subscribeAndReceive(MqttBrokerConnection, ScheduledExecutorService, String, AttributeChanged, int)} is
  * required.
  * Unsubscribe with a call to {@link #unsubscribe()}.
+ * Alternatively the field values can be received via an {@link AttributeTopicRouter} that is passed to
+ * subscribeAndReceive instead of a timeout.
  * </p>
  *
  * <p>
@@ -95,6 +97,7 @@ import org.slf4j.LoggerFactory;
  * UTF-8 strings.
  *
  * @author David Graeff - Initial contribution
+ * @author Tobias Brandt - Receive via an attribute topic router
  */
 @NonNullByDefault
 public abstract class AbstractMqttAttributeClass implements SubscribeFieldToMQTTtopic.FieldChanged {
@@ -102,6 +105,7 @@ public abstract class AbstractMqttAttributeClass implements SubscribeFieldToMQTT
     protected transient List<SubscribeFieldToMQTTtopic> subscriptions = new ArrayList<>();
     public transient WeakReference<@Nullable MqttBrokerConnection> connection = new WeakReference<>(null);
     protected transient WeakReference<@Nullable ScheduledExecutorService> scheduler = new WeakReference<>(null);
+    private transient @Nullable AttributeTopicRouter router;
     private final String prefix;
     private transient String basetopic = "";
     protected transient AttributeChanged attributeChangedListener = (b, c, d, e, f) -> {
@@ -137,6 +141,14 @@ public abstract class AbstractMqttAttributeClass implements SubscribeFieldToMQTT
      * @return Returns a future that completes as soon as all unsubscriptions have been performed.
      */
     public CompletableFuture<@Nullable Void> unsubscribe() {
+        final AttributeTopicRouter router = this.router;
+        if (router != null) {
+            subscriptions.forEach(router::removeField);
+            subscriptions.clear();
+            this.router = null;
+            return CompletableFuture.completedFuture(null);
+        }
+
         final MqttBrokerConnection connection = this.connection.get();
         if (connection == null) {
             subscriptions.clear();
@@ -168,6 +180,41 @@ public abstract class AbstractMqttAttributeClass implements SubscribeFieldToMQTT
     public CompletableFuture<@Nullable Void> subscribeAndReceive(MqttBrokerConnection connection,
             ScheduledExecutorService scheduler, String basetopic, @Nullable AttributeChanged attributeChangedListener,
             int timeout) {
+        final CompletableFuture<@Nullable Void> startFuture = prepareSubscriptions(connection, scheduler, basetopic,
+                attributeChangedListener);
+
+        final CompletableFuture<?>[] futures = subscriptions.stream()
+                .map(m -> m.subscribeAndReceive(connection, timeout)).toArray(CompletableFuture[]::new);
+        return CompletableFuture.allOf(startFuture, CompletableFuture.allOf(futures));
+    }
+
+    /**
+     * Receive the values of all subtopics that match field names of the java object via the given router, instead of
+     * subscribing to each of them on the broker connection. No timeouts are scheduled, see
+     * {@link SubscribeFieldToMQTTtopic#receive(AttributeTopicRouter)}.
+     *
+     * @param connection A MQTT broker connection. Passed on to the field change listener.
+     * @param scheduler A scheduler. Passed on to the field change listener.
+     * @param basetopic The base topic. Given a base topic of "base/topic", a field "test" would be registered as
+     *            "base/topic/test".
+     * @param attributeChangedListener Field change listener
+     * @param router The router that delivers the messages of the field topics
+     * @return Returns a future that completes as soon as values for all mandatory fields have been received.
+     */
+    public CompletableFuture<@Nullable Void> subscribeAndReceive(MqttBrokerConnection connection,
+            ScheduledExecutorService scheduler, String basetopic, @Nullable AttributeChanged attributeChangedListener,
+            AttributeTopicRouter router) {
+        final CompletableFuture<@Nullable Void> startFuture = prepareSubscriptions(connection, scheduler, basetopic,
+                attributeChangedListener);
+        this.router = router;
+
+        final CompletableFuture<?>[] futures = subscriptions.stream().map(m -> m.receive(router))
+                .toArray(CompletableFuture[]::new);
+        return CompletableFuture.allOf(startFuture, CompletableFuture.allOf(futures));
+    }
+
+    private CompletableFuture<@Nullable Void> prepareSubscriptions(MqttBrokerConnection connection,
+            ScheduledExecutorService scheduler, String basetopic, @Nullable AttributeChanged attributeChangedListener) {
         // We first need to unsubscribe old subscriptions if any
         final CompletableFuture<@Nullable Void> startFuture;
         if (!subscriptions.isEmpty()) {
@@ -175,6 +222,7 @@ public abstract class AbstractMqttAttributeClass implements SubscribeFieldToMQTT
         } else {
             startFuture = CompletableFuture.completedFuture(null);
         }
+        this.router = null;
 
         this.connection = new WeakReference<>(connection);
         this.scheduler = new WeakReference<>(scheduler);
@@ -188,10 +236,7 @@ public abstract class AbstractMqttAttributeClass implements SubscribeFieldToMQTT
 
         subscriptions = getAllFields(getFieldsOf().getClass()).stream().filter(AbstractMqttAttributeClass::filterField)
                 .map(this::mapFieldToSubscriber).collect(Collectors.toList());
-
-        final CompletableFuture<?>[] futures = subscriptions.stream()
-                .map(m -> m.subscribeAndReceive(connection, timeout)).toArray(CompletableFuture[]::new);
-        return CompletableFuture.allOf(startFuture, CompletableFuture.allOf(futures));
+        return startFuture;
     }
 
     /**
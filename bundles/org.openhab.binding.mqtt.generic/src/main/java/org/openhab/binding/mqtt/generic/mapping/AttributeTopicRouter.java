@@ -0,0 +1,40 @@
+/**
+ * Copyright (c) 2010-2024 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.mqtt.generic.mapping;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+
+/**
+ * Delivers the messages of the field topics of attribute classes, instead of one broker subscription per field.
+ * An implementation usually holds a single wildcard subscription, e.g. for all attributes of a device.
+ * Used by {@link AbstractMqttAttributeClass}.
+ *
+ * @author Tobias Brandt - Initial contribution
+ */
+@NonNullByDefault
+public interface AttributeTopicRouter {
+    /**
+     * Routes the messages of the field's topic to the field. If a value has already been received for the topic, it
+     * is passed to the field before this method returns.
+     *
+     * @param field The field subscriber
+     */
+    void addField(SubscribeFieldToMQTTtopic field);
+
+    /**
+     * Stops routing messages to the field.
+     *
+     * @param field The field subscriber
+     */
+    void removeField(SubscribeFieldToMQTTtopic field);
+}
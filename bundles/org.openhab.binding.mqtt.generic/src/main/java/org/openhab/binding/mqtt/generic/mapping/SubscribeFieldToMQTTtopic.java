@@ -35,6 +35,7 @@ import org.slf4j.LoggerFactory;
  * Used by {@link AbstractMqttAttributeClass}.
  *
  * @author David Graeff - Initial contribution
+ * @author Tobias Brandt - Receive via an attribute topic router
  */
 @NonNullByDefault
 public class SubscribeFieldToMQTTtopic implements MqttMessageSubscriber {
@@ -205,6 +206,32 @@ public class SubscribeFieldToMQTTtopic implements MqttMessageSubscriber {
         return future;
     }
 
+    /**
+     * Receive the values of the MQTT topic via the given router instead of a subscription of its own.
+     * No timeout is scheduled. The returned future of an optional field completes as soon as the router has passed an
+     * already received value, if any, the one of a mandatory field completes when a value is received or
+     * {@link #stopWaiting()} is called.
+     *
+     * @param router The router that delivers the messages of the topic.
+     * @return Returns a future that completes as described above.
+     */
+    public CompletableFuture<@Nullable Void> receive(AttributeTopicRouter router) {
+        router.addField(this);
+        if (!mandatory) {
+            future.complete(null);
+        }
+        return future;
+    }
+
+    /**
+     * Stop waiting for a value, like a timeout would. Does nothing if the returned future is already complete.
+     */
+    public void stopWaiting() {
+        if (!future.isDone()) {
+            timeoutReached();
+        }
+    }
+
     /**
      * Return true if the corresponding field has received a value at least once.
      */
@@ -46,10 +46,12 @@ import org.openhab.binding.mqtt.generic.values.DateTimeValue;
 import org.openhab.binding.mqtt.generic.values.ImageValue;
 import org.openhab.binding.mqtt.generic.values.LocationValue;
 import org.openhab.binding.mqtt.generic.values.NumberValue;
+import org.openhab.binding.mqtt.generic.values.OnOffValue;
 import org.openhab.binding.mqtt.generic.values.PercentageValue;
 import org.openhab.binding.mqtt.generic.values.TextValue;
 import org.openhab.core.io.transport.mqtt.MqttBrokerConnection;
 import org.openhab.core.library.types.HSBType;
+import org.openhab.core.library.types.OnOffType;
 import org.openhab.core.library.types.PercentType;
 import org.openhab.core.library.types.RawType;
 import org.openhab.core.library.types.StringType;
@@ -147,6 +149,61 @@ public class ChannelStateTests {
         verify(channelStateUpdateListenerMock).updateChannelState(eq(channelUIDMock), any());
     }
 
+    @Test
+    public void receiveUnchangedSkippedTest() throws Exception {
+        ChannelState c = spy(new ChannelState(
+                ChannelConfigBuilder.create("state", "command").withSkipUnchanged(true, 2).build(), channelUIDMock,
+                textValue, channelStateUpdateListenerMock));
+
+        CompletableFuture<@Nullable Void> future = c.start(connectionMock, scheduler, 100);
+        c.processMessage("state", "A TEST".getBytes());
+        future.get(300, TimeUnit.MILLISECONDS);
+
+        // two unchanged payloads are skipped, the third one is processed anyway
+        c.processMessage("state", "A TEST".getBytes());
+        c.processMessage("state", "A TEST".getBytes());
+        verify(channelStateUpdateListenerMock, times(1)).updateChannelState(eq(channelUIDMock), any());
+        c.processMessage("state", "A TEST".getBytes());
+        verify(channelStateUpdateListenerMock, times(2)).updateChannelState(eq(channelUIDMock), any());
+
+        // a changed payload is always processed
+        c.processMessage("state", "ANOTHER TEST".getBytes());
+        verify(channelStateUpdateListenerMock, times(3)).updateChannelState(eq(channelUIDMock), any());
+        assertThat(textValue.getChannelState().toString(), is("ANOTHER TEST"));
+    }
+
+    @Test
+    public void receiveUnchangedAfterCommandTest() throws Exception {
+        OnOffValue value = new OnOffValue();
+        ChannelState c = spy(new ChannelState(
+                ChannelConfigBuilder.create("state", "command").withSkipUnchanged(true, 10).build(), channelUIDMock,
+                value, channelStateUpdateListenerMock));
+
+        CompletableFuture<@Nullable Void> future = c.start(connectionMock, scheduler, 100);
+        c.processMessage("state", "ON".getBytes());
+        future.get(300, TimeUnit.MILLISECONDS);
+        verify(channelStateUpdateListenerMock, times(1)).updateChannelState(eq(channelUIDMock), eq(OnOffType.ON));
+
+        // the command is not applied by the device, which reports its unchanged state again
+        c.publishValue(OnOffType.OFF).get();
+        verify(connectionMock).publish(eq("command"), eq("OFF".getBytes()), anyInt(), anyBoolean());
+        c.processMessage("state", "ON".getBytes());
+
+        verify(channelStateUpdateListenerMock, times(2)).updateChannelState(eq(channelUIDMock), eq(OnOffType.ON));
+    }
+
+    @Test
+    public void receiveUnchangedNotSkippedByDefaultTest() throws Exception {
+        ChannelState c = spy(new ChannelState(config, channelUIDMock, textValue, channelStateUpdateListenerMock));
+
+        CompletableFuture<@Nullable Void> future = c.start(connectionMock, scheduler, 100);
+        c.processMessage("state", "A TEST".getBytes());
+        future.get(300, TimeUnit.MILLISECONDS);
+        c.processMessage("state", "A TEST".getBytes());
+
+        verify(channelStateUpdateListenerMock, times(2)).updateChannelState(eq(channelUIDMock), any());
+    }
+
     @Test
     public void receiveStringTest() throws Exception {
         ChannelState c = spy(new ChannelState(config, channelUIDMock, textValue, channelStateUpdateListenerMock));
@@ -0,0 +1,130 @@
+/**
+ * Copyright (c) 2010-2024 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.mqtt.generic;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.openhab.binding.mqtt.generic.values.TextValue;
+import org.openhab.core.io.transport.mqtt.MqttBrokerConnection;
+import org.openhab.core.io.transport.mqtt.MqttMessageSubscriber;
+import org.openhab.core.thing.ChannelUID;
+import org.openhab.core.transform.TransformationService;
+
+/**
+ * Tests the {@link StateTopicDispatcher} class.
+ *
+ * @author Tobias Brandt - Initial contribution
+ */
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+@NonNullByDefault
+public class StateTopicDispatcherTests {
+
+    private static final String JSON = "{\"temperature\":23.2,\"humidity\":45}";
+
+    private @Mock @NonNullByDefault({}) MqttBrokerConnection connectionMock;
+    private @Mock @NonNullByDefault({}) MqttBrokerConnection otherConnectionMock;
+    private @Mock @NonNullByDefault({}) ChannelStateUpdateListener channelStateUpdateListenerMock;
+    private @Mock @NonNullByDefault({}) TransformationService jsonPathServiceMock;
+    private @Mock @NonNullByDefault({}) TransformationServiceProvider transformationServiceProviderMock;
+
+    private @NonNullByDefault({}) ScheduledExecutorService scheduler;
+
+    private final StateTopicDispatcher dispatcher = new StateTopicDispatcher();
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        doReturn(CompletableFuture.completedFuture(true)).when(connectionMock).subscribe(any(), any());
+        doReturn(CompletableFuture.completedFuture(true)).when(connectionMock).unsubscribe(any(), any());
+        doReturn(CompletableFuture.completedFuture(true)).when(otherConnectionMock).subscribe(any(), any());
+        doReturn(CompletableFuture.completedFuture(true)).when(otherConnectionMock).unsubscribe(any(), any());
+        when(transformationServiceProviderMock.getTransformationService(anyString())).thenReturn(jsonPathServiceMock);
+        when(jsonPathServiceMock.transform("$.temperature", JSON)).thenReturn("23.2");
+        when(jsonPathServiceMock.transform("$.humidity", JSON)).thenReturn("45");
+
+        scheduler = new ScheduledThreadPoolExecutor(1);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        scheduler.shutdownNow();
+    }
+
+    private ChannelState createChannelState(String id, String transformation) {
+        ChannelState state = new ChannelState(ChannelConfigBuilder.create("state", "").build(),
+                new ChannelUID("mqtt:topic:broker:thing:" + id), new TextValue(), channelStateUpdateListenerMock);
+        state.addTransformation(transformation, transformationServiceProviderMock);
+        state.setStateTopicDispatcher(dispatcher);
+        return state;
+    }
+
+    @Test
+    public void subscribeOnce() throws Exception {
+        ChannelState temperature1 = createChannelState("temperature1", "JSONPATH:$.temperature");
+        ChannelState temperature2 = createChannelState("temperature2", "JSONPATH:$.temperature");
+        ChannelState humidity = createChannelState("humidity", "JSONPATH:$.humidity");
+
+        temperature1.start(connectionMock, scheduler, 0).get(100, TimeUnit.MILLISECONDS);
+        temperature2.start(connectionMock, scheduler, 0).get(100, TimeUnit.MILLISECONDS);
+        humidity.start(connectionMock, scheduler, 0).get(100, TimeUnit.MILLISECONDS);
+
+        ArgumentCaptor<MqttMessageSubscriber> subscriber = ArgumentCaptor.forClass(MqttMessageSubscriber.class);
+        verify(connectionMock, times(1)).subscribe(eq("state"), subscriber.capture());
+
+        subscriber.getValue().processMessage("state", JSON.getBytes());
+
+        assertThat(temperature1.getCache().getChannelState().toString(), is("23.2"));
+        assertThat(temperature2.getCache().getChannelState().toString(), is("23.2"));
+        assertThat(humidity.getCache().getChannelState().toString(), is("45"));
+        // identical transformations run only once per message
+        verify(jsonPathServiceMock, times(1)).transform("$.temperature", JSON);
+        verify(jsonPathServiceMock, times(1)).transform("$.humidity", JSON);
+
+        temperature1.stop().get();
+        humidity.stop().get();
+        verify(connectionMock, never()).unsubscribe(any(), any());
+        temperature2.stop().get();
+        verify(connectionMock).unsubscribe(eq("state"), eq(subscriber.getValue()));
+    }
+
+    @Test
+    public void changedConnectionRemovesOldSubscription() throws Exception {
+        ChannelState temperature = createChannelState("temperature", "JSONPATH:$.temperature");
+        temperature.start(connectionMock, scheduler, 0).get(100, TimeUnit.MILLISECONDS);
+        ArgumentCaptor<MqttMessageSubscriber> subscriber = ArgumentCaptor.forClass(MqttMessageSubscriber.class);
+        verify(connectionMock).subscribe(eq("state"), subscriber.capture());
+
+        temperature.start(otherConnectionMock, scheduler, 0).get(100, TimeUnit.MILLISECONDS);
+
+        verify(connectionMock).unsubscribe(eq("state"), eq(subscriber.getValue()));
+        verify(otherConnectionMock).subscribe(eq("state"), any());
+    }
+}
@@ -120,7 +120,8 @@ public class GenericThingHandlerTests {
         assertThat(channelConfig.getStateTopic(), is("test/state"));
         assertThat(channelConfig.getCommandTopic(), is("test/command"));
 
-        verify(connectionMock).subscribe(eq(channelConfig.getStateTopic()), eq(channelConfig));
+        // subscribed through the state topic dispatcher of the thing
+        verify(connectionMock).subscribe(eq(channelConfig.getStateTopic()), any());
 
         verify(callbackMock).statusUpdated(eq(thingMock), argThat(arg -> ThingStatus.ONLINE.equals(arg.getStatus())
                 && ThingStatusDetail.NONE.equals(arg.getStatusDetail())));
@@ -57,6 +57,7 @@ import org.openhab.core.types.StateDescriptionFragment;
  * as keeps the {@link ChannelState} and {@link Channel} in one place.
  *
  * @author David Graeff - Initial contribution
+ * @author Tobias Brandt - Share state topic subscriptions between channels
  */
 @NonNullByDefault
 public class ComponentChannel {
@@ -239,6 +240,8 @@ public class ComponentChannel {
                     ChannelConfigBuilder.create().withRetain(retain).withQos(qos).withStateTopic(stateTopic)
                             .withCommandTopic(commandTopic).makeTrigger(trigger).withFormatter(format).build(),
                     channelUID, valueState, channelStateUpdateListener, commandFilter);
+            // channels of the same state topic, like the JSON state topic of zigbee2mqtt, share the subscription
+            channelState.setStateTopicDispatcher(component.getStateTopicDispatcher());
 
             // disabled by default components should always show up as advanced
             if (!component.isEnabledByDefault()) {
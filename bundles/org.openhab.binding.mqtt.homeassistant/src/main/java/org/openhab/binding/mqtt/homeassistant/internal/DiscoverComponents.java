@@ -14,8 +14,12 @@ package org.openhab.binding.mqtt.homeassistant.internal;
 
 import java.lang.ref.WeakReference;
 import java.util.HashSet;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
@@ -25,6 +29,7 @@ import org.eclipse.jdt.annotation.NonNullByDefault;
 import org.eclipse.jdt.annotation.Nullable;
 import org.openhab.binding.mqtt.generic.AvailabilityTracker;
 import org.openhab.binding.mqtt.generic.ChannelStateUpdateListener;
+import org.openhab.binding.mqtt.generic.StateTopicDispatcher;
 import org.openhab.binding.mqtt.generic.TransformationServiceProvider;
 import org.openhab.binding.mqtt.generic.utils.FutureCollector;
 import org.openhab.binding.mqtt.homeassistant.internal.component.AbstractComponent;
@@ -42,8 +47,14 @@ import com.google.gson.Gson;
 /**
  * Responsible for subscribing to the HomeAssistant MQTT components wildcard topic, either
  * in a time limited discovery mode or as a background discovery.
+ * <p>
+ * Configurations are parsed on the given executor, so components of different topics are created in parallel.
+ * A configuration whose hash equals the last one accepted for its {@link HaID} (see
+ * {@link #configAccepted(AbstractComponent)}) is not parsed again, which makes the retained configurations that are
+ * received again after each reconnect cheap.
  *
  * @author David Graeff - Initial contribution
+ * @author Tobias Brandt - Parallel and incremental discovery
  */
 @NonNullByDefault
 public class DiscoverComponents implements MqttMessageSubscriber {
@@ -53,6 +64,12 @@ public class DiscoverComponents implements MqttMessageSubscriber {
     private final ChannelStateUpdateListener updateListener;
     private final AvailabilityTracker tracker;
     private final TransformationServiceProvider transformationServiceProvider;
+    private final @Nullable StateTopicDispatcher stateTopicDispatcher;
+    private final Executor executor;
+
+    // hash of the last configuration accepted by the listener and of the last one received, per component
+    private final Map<HaID, Integer> acceptedConfigHashes = new ConcurrentHashMap<>();
+    private final Map<HaID, Integer> receivedConfigHashes = new ConcurrentHashMap<>();
 
     protected final CompletableFuture<@Nullable Void> discoverFinishedFuture = new CompletableFuture<>();
     private final Gson gson;
@@ -75,17 +92,23 @@ public class DiscoverComponents implements MqttMessageSubscriber {
      *
      * @param thingUID The Thing UID to perform the discovery for.
      * @param scheduler A scheduler for timeouts
+     * @param executor The executor to parse configurations and create components on
      * @param channelStateUpdateListener Channel update listener. Usually the handler.
+     * @param stateTopicDispatcher Shares the state topic subscriptions of the created channels. Usually the one of the
+     *            handler.
      */
-    public DiscoverComponents(ThingUID thingUID, ScheduledExecutorService scheduler,
+    public DiscoverComponents(ThingUID thingUID, ScheduledExecutorService scheduler, Executor executor,
             ChannelStateUpdateListener channelStateUpdateListener, AvailabilityTracker tracker, Gson gson,
-            TransformationServiceProvider transformationServiceProvider) {
+            TransformationServiceProvider transformationServiceProvider,
+            @Nullable StateTopicDispatcher stateTopicDispatcher) {
         this.thingUID = thingUID;
         this.scheduler = scheduler;
+        this.executor = executor;
         this.updateListener = channelStateUpdateListener;
         this.gson = gson;
         this.tracker = tracker;
         this.transformationServiceProvider = transformationServiceProvider;
+        this.stateTopicDispatcher = stateTopicDispatcher;
     }
 
     @Override
@@ -96,33 +119,61 @@ public class DiscoverComponents implements MqttMessageSubscriber {
 
         HaID haID = new HaID(topic);
         String config = new String(payload);
-        AbstractComponent<?> component = null;
-
-        if (config.length() > 0) {
-            try {
-                component = ComponentFactory.createComponent(thingUID, haID, config, updateListener, tracker, scheduler,
-                        gson, transformationServiceProvider);
-                component.setConfigSeen();
-
-                logger.trace("Found HomeAssistant component {}", haID);
-
-                if (discoveredListener != null) {
-                    discoveredListener.componentDiscovered(haID, component);
-                }
-            } catch (UnsupportedComponentException e) {
-                logger.warn("HomeAssistant discover error: thing {} component type is unsupported: {}", haID.objectID,
-                        haID.component);
-            } catch (ConfigurationException e) {
-                logger.warn("HomeAssistant discover error: invalid configuration of thing {} component {}: {}",
-                        haID.objectID, haID.component, e.getMessage());
-            } catch (Exception e) {
-                logger.warn("HomeAssistant discover error: {}", e.getMessage());
-            }
-        } else {
+
+        if (config.isEmpty()) {
+            receivedConfigHashes.remove(haID);
+            acceptedConfigHashes.remove(haID);
             logger.warn("Configuration of HomeAssistant thing {} is empty", haID.objectID);
+            return;
+        }
+
+        int configHash = config.hashCode();
+        receivedConfigHashes.put(haID, configHash);
+        if (Objects.equals(acceptedConfigHashes.get(haID), configHash)) {
+            logger.trace("Configuration of HomeAssistant component {} is unchanged", haID);
+            return;
+        }
+
+        executor.execute(() -> createComponent(haID, config, configHash));
+    }
+
+    private void createComponent(HaID haID, String config, int configHash) {
+        if (!Objects.equals(receivedConfigHashes.get(haID), configHash)) {
+            // superseded by a newer configuration of the same component
+            return;
+        }
+        try {
+            AbstractComponent<?> component = ComponentFactory.createComponent(thingUID, haID, config, updateListener,
+                    tracker, scheduler, gson, transformationServiceProvider, stateTopicDispatcher);
+            component.setConfigSeen();
+
+            logger.trace("Found HomeAssistant component {}", haID);
+
+            ComponentDiscovered discoveredListener = this.discoveredListener;
+            if (discoveredListener != null && Objects.equals(receivedConfigHashes.get(haID), configHash)) {
+                discoveredListener.componentDiscovered(haID, component);
+            }
+        } catch (UnsupportedComponentException e) {
+            logger.warn("HomeAssistant discover error: thing {} component type is unsupported: {}", haID.objectID,
+                    haID.component);
+        } catch (ConfigurationException e) {
+            logger.warn("HomeAssistant discover error: invalid configuration of thing {} component {}: {}",
+                    haID.objectID, haID.component, e.getMessage());
+        } catch (Exception e) {
+            logger.warn("HomeAssistant discover error: {}", e.getMessage());
         }
     }
 
+    /**
+     * Records the configuration of a component as accepted, so the same configuration is not parsed again when it is
+     * received the next time.
+     *
+     * @param component The component that was added to the thing or restored from its channels
+     */
+    public void configAccepted(AbstractComponent<?> component) {
+        acceptedConfigHashes.put(component.getHaID(), component.getConfigHash());
+    }
+
     /**
      * Start a components discovery.
      *
@@ -27,6 +27,7 @@ import org.eclipse.jdt.annotation.Nullable;
 import org.openhab.binding.mqtt.generic.AvailabilityTracker;
 import org.openhab.binding.mqtt.generic.ChannelStateUpdateListener;
 import org.openhab.binding.mqtt.generic.MqttChannelTypeProvider;
+import org.openhab.binding.mqtt.generic.StateTopicDispatcher;
 import org.openhab.binding.mqtt.generic.TransformationServiceProvider;
 import org.openhab.binding.mqtt.generic.values.Value;
 import org.openhab.binding.mqtt.homeassistant.generic.internal.MqttBindingConstants;
@@ -317,6 +318,11 @@ public abstract class AbstractComponent<C extends AbstractChannelConfiguration>
         return componentConfiguration.getTransformationServiceProvider();
     }
 
+    @Nullable
+    public StateTopicDispatcher getStateTopicDispatcher() {
+        return componentConfiguration.getStateTopicDispatcher();
+    }
+
     public boolean isEnabledByDefault() {
         return channelConfiguration.isEnabledByDefault();
     }
@@ -18,6 +18,7 @@ import org.eclipse.jdt.annotation.NonNullByDefault;
 import org.eclipse.jdt.annotation.Nullable;
 import org.openhab.binding.mqtt.generic.AvailabilityTracker;
 import org.openhab.binding.mqtt.generic.ChannelStateUpdateListener;
+import org.openhab.binding.mqtt.generic.StateTopicDispatcher;
 import org.openhab.binding.mqtt.generic.TransformationServiceProvider;
 import org.openhab.binding.mqtt.homeassistant.internal.HaID;
 import org.openhab.binding.mqtt.homeassistant.internal.config.dto.AbstractChannelConfiguration;
@@ -32,6 +33,7 @@ import com.google.gson.Gson;
  * https://www.home-assistant.io/docs/mqtt/discovery/
  *
  * @author David Graeff - Initial contribution
+ * @author Tobias Brandt - Share state topic subscriptions between channels
  */
 @NonNullByDefault
 public class ComponentFactory {
@@ -44,14 +46,17 @@ public class ComponentFactory {
      * @param channelConfigurationJSON Most components expect a "name", a "state_topic" and "command_topic" like with
      *            "{name:'Name',state_topic:'homeassistant/switch/0/object/state',command_topic:'homeassistant/switch/0/object/set'".
      * @param updateListener A channel state update listener
+     * @param stateTopicDispatcher Shares the state topic subscriptions of the channels, or null to subscribe each
+     *            channel on its own
      * @return A HA MQTT Component
      */
     public static AbstractComponent<?> createComponent(ThingUID thingUID, HaID haID, String channelConfigurationJSON,
             ChannelStateUpdateListener updateListener, AvailabilityTracker tracker, ScheduledExecutorService scheduler,
-            Gson gson, TransformationServiceProvider transformationServiceProvider) throws ConfigurationException {
+            Gson gson, TransformationServiceProvider transformationServiceProvider,
+            @Nullable StateTopicDispatcher stateTopicDispatcher) throws ConfigurationException {
         ComponentConfiguration componentConfiguration = new ComponentConfiguration(thingUID, haID,
                 channelConfigurationJSON, gson, updateListener, tracker, scheduler)
-                .transformationProvider(transformationServiceProvider);
+                .transformationProvider(transformationServiceProvider).stateTopicDispatcher(stateTopicDispatcher);
         switch (haID.component) {
             case "alarm_control_panel":
                 return new AlarmControlPanel(componentConfiguration);
@@ -101,6 +106,7 @@ public class ComponentFactory {
         private final Gson gson;
         private final ScheduledExecutorService scheduler;
         private @Nullable TransformationServiceProvider transformationServiceProvider;
+        private @Nullable StateTopicDispatcher stateTopicDispatcher;
 
         /**
          * Provide a thingUID and HomeAssistant topic ID to determine the channel group UID and type.
@@ -128,6 +134,11 @@ public class ComponentFactory {
             return this;
         }
 
+        public ComponentConfiguration stateTopicDispatcher(@Nullable StateTopicDispatcher stateTopicDispatcher) {
+            this.stateTopicDispatcher = stateTopicDispatcher;
+            return this;
+        }
+
         public ThingUID getThingUID() {
             return thingUID;
         }
@@ -149,6 +160,11 @@ public class ComponentFactory {
             return transformationServiceProvider;
         }
 
+        @Nullable
+        public StateTopicDispatcher getStateTopicDispatcher() {
+            return stateTopicDispatcher;
+        }
+
         public Gson getGson() {
             return gson;
         }
@@ -14,6 +14,7 @@ package org.openhab.binding.mqtt.homeassistant.internal.discovery;
 
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
@@ -66,8 +67,12 @@ import com.google.gson.GsonBuilder;
 /**
  * The {@link HomeAssistantDiscovery} is responsible for discovering device nodes that follow the
  * Home Assistant MQTT discovery convention (https://www.home-assistant.io/docs/mqtt/discovery/).
+ * <p>
+ * The parsed configuration of each topic is kept together with the hash of its payload, so the retained
+ * configurations received again after a reconnect are not deserialized again.
  *
  * @author David Graeff - Initial contribution
+ * @author Tobias Brandt - Incremental discovery
  */
 @Component(service = DiscoveryService.class, configurationPid = "discovery.mqttha", property = Constants.SERVICE_PID
         + "=discovery.mqttha")
@@ -79,6 +84,7 @@ public class HomeAssistantDiscovery extends AbstractMQTTDiscovery {
     protected final Map<String, Set<HaID>> componentsPerThingID = new TreeMap<>();
     protected final Map<String, ThingUID> thingIDPerTopic = new TreeMap<>();
     protected final Map<String, DiscoveryResult> results = new ConcurrentHashMap<>();
+    protected final Map<String, ParsedConfig> configPerTopic = new ConcurrentHashMap<>();
 
     private @Nullable ScheduledFuture<?> future;
     private final Gson gson;
@@ -202,8 +208,7 @@ public class HomeAssistantDiscovery extends AbstractMQTTDiscovery {
         HaID haID = new HaID(topic);
 
         try {
-            AbstractChannelConfiguration config = AbstractChannelConfiguration
-                    .fromString(new String(payload, StandardCharsets.UTF_8), gson);
+            AbstractChannelConfiguration config = parseConfig(topic, payload);
 
             final String thingID = config.getThingId(haID.objectID);
 
@@ -255,6 +260,18 @@ public class HomeAssistantDiscovery extends AbstractMQTTDiscovery {
         }
     }
 
+    private AbstractChannelConfiguration parseConfig(String topic, byte[] payload) {
+        int configHash = Arrays.hashCode(payload);
+        ParsedConfig parsed = configPerTopic.get(topic);
+        if (parsed != null && parsed.configHash() == configHash) {
+            return parsed.config();
+        }
+        AbstractChannelConfiguration config = AbstractChannelConfiguration
+                .fromString(new String(payload, StandardCharsets.UTF_8), gson);
+        configPerTopic.put(topic, new ParsedConfig(configHash, config));
+        return config;
+    }
+
     @Override
     protected void startScan() {
         super.startScan();
@@ -295,6 +312,7 @@ public class HomeAssistantDiscovery extends AbstractMQTTDiscovery {
         if (!topic.endsWith("/config")) {
             return;
         }
+        configPerTopic.remove(topic);
         if (thingIDPerTopic.containsKey(topic)) {
             ThingUID thingUID = thingIDPerTopic.remove(topic);
             if (thingUID != null) {
@@ -310,4 +328,7 @@ public class HomeAssistantDiscovery extends AbstractMQTTDiscovery {
             }
         }
     }
+
+    protected record ParsedConfig(int configHash, AbstractChannelConfiguration config) {
+    }
 }
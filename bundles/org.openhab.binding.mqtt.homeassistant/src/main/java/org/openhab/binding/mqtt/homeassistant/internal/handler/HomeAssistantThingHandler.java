@@ -45,6 +45,7 @@ import org.openhab.binding.mqtt.homeassistant.internal.component.ComponentFactor
 import org.openhab.binding.mqtt.homeassistant.internal.component.Update;
 import org.openhab.binding.mqtt.homeassistant.internal.config.ChannelConfigurationTypeAdapterFactory;
 import org.openhab.binding.mqtt.homeassistant.internal.exception.ConfigurationException;
+import org.openhab.core.common.ThreadPoolManager;
 import org.openhab.core.config.core.validation.ConfigValidationException;
 import org.openhab.core.io.transport.mqtt.MqttBrokerConnection;
 import org.openhab.core.thing.Channel;
@@ -79,8 +80,11 @@ import com.google.gson.GsonBuilder;
  * <br>
  *
  * If a Components configuration changes, the known ChannelGroupType and ChannelTypes are replaced with the new ones.
+ * Unchanged configurations, e.g. the retained ones received again after a reconnect, are skipped by
+ * {@link DiscoverComponents}.
  *
  * @author David Graeff - Initial contribution
+ * @author Tobias Brandt - Parallel and incremental discovery
  */
 @NonNullByDefault
 public class HomeAssistantThingHandler extends AbstractMQTTThingHandler
@@ -89,6 +93,7 @@ public class HomeAssistantThingHandler extends AbstractMQTTThingHandler
     private static final Comparator<Channel> CHANNEL_COMPARATOR_BY_UID = Comparator
             .comparing(channel -> channel.getUID().toString());
     private static final URI UPDATABLE_CONFIG_DESCRIPTION_URI = URI.create("thing-type:mqtt:homeassistant-updatable");
+    private static final String DISCOVERY_POOL_NAME = "binding.mqtt.homeassistant";
 
     private final Logger logger = LoggerFactory.getLogger(HomeAssistantThingHandler.class);
 
@@ -126,8 +131,9 @@ public class HomeAssistantThingHandler extends AbstractMQTTThingHandler
         this.transformationServiceProvider = transformationServiceProvider;
         this.attributeReceiveTimeout = attributeReceiveTimeout;
         this.delayedProcessing = new DelayedBatchProcessing<>(attributeReceiveTimeout, this, scheduler);
-        this.discoverComponents = new DiscoverComponents(thing.getUID(), scheduler, this, this, gson,
-                this.transformationServiceProvider);
+        this.discoverComponents = new DiscoverComponents(thing.getUID(), scheduler,
+                ThreadPoolManager.getPool(DISCOVERY_POOL_NAME), this, this, gson, this.transformationServiceProvider,
+                stateTopicDispatcher);
     }
 
     @Override
@@ -149,6 +155,7 @@ public class HomeAssistantThingHandler extends AbstractMQTTThingHandler
             if (component != null) {
                 // the types may have been removed in dispose() so we need to add them again
                 component.addChannelTypes(channelTypeProvider);
+                discoverComponents.configAccepted(component);
                 continue;
             }
 
@@ -161,7 +168,7 @@ public class HomeAssistantThingHandler extends AbstractMQTTThingHandler
             } else {
                 try {
                     component = ComponentFactory.createComponent(thingUID, haID, channelConfigurationJSON, this, this,
-                            scheduler, gson, transformationServiceProvider);
+                            scheduler, gson, transformationServiceProvider, stateTopicDispatcher);
                     final ChannelGroupUID groupUID = component.getGroupUID();
                     String id = null;
                     if (groupUID != null) {
@@ -169,6 +176,7 @@ public class HomeAssistantThingHandler extends AbstractMQTTThingHandler
                     }
                     haComponents.put(id, component);
                     component.addChannelTypes(channelTypeProvider);
+                    discoverComponents.configAccepted(component);
                 } catch (ConfigurationException e) {
                     logger.error("Cannot not restore component {}: {}", thing, e.getMessage());
                 }
@@ -284,6 +292,7 @@ public class HomeAssistantThingHandler extends AbstractMQTTThingHandler
                         known.stop();
                     } else {
                         known.setConfigSeen();
+                        discoverComponents.configAccepted(known);
                         continue;
                     }
                 }
@@ -292,6 +301,7 @@ public class HomeAssistantThingHandler extends AbstractMQTTThingHandler
                 discovered.addChannelTypes(channelTypeProvider);
                 // Add component to the component map
                 haComponents.put(id, discovered);
+                discoverComponents.configAccepted(discovered);
                 // Start component / Subscribe to channel topics
                 discovered.start(connection, scheduler, 0).exceptionally(e -> {
                     logger.warn("Failed to start component {}", discovered.getHaID(), e);
@@ -55,6 +55,7 @@ import org.slf4j.LoggerFactory;
  * and defines Devices, Nodes and Properties, corresponding to Things, Channel Groups and Channels respectively.
  *
  * @author David Graeff - Initial contribution
+ * @author Tobias Brandt - Wildcard subscription
  */
 @NonNullByDefault
 public class HomieThingHandler extends AbstractMQTTThingHandler implements DeviceCallback, Consumer<List<Object>> {
@@ -152,8 +153,11 @@ public class HomieThingHandler extends AbstractMQTTThingHandler implements Devic
                     "Homie devices require QoS 1 but Qos 0/2 is configured. Using override. Please check the configuration");
             connection.setQos(1);
         }
-        return device.subscribe(connection, scheduler, attributeReceiveTimeout)
-                .thenCompose((Void v) -> device.startChannels(connection, scheduler, attributeReceiveTimeout, this))
+        final CompletableFuture<@Nullable Void> subscribed = config.wildcardsubscription
+                ? device.subscribeWildcard(connection, scheduler, subscribeTimeout)
+                : device.subscribe(connection, scheduler, attributeReceiveTimeout);
+        return subscribed
+                .thenCompose(v -> device.startChannels(connection, scheduler, attributeReceiveTimeout, this))
                 .thenRun(() -> {
                     logger.debug("Homie device {} fully attached (start)", config.deviceid);
                 });
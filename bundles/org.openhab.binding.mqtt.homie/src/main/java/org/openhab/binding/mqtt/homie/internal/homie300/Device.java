@@ -51,7 +51,12 @@ import org.slf4j.LoggerFactory;
  * });
  * </pre>
  *
+ * Instead of {@link #subscribe(MqttBrokerConnection, ScheduledExecutorService, int)}, which subscribes to every
+ * attribute topic on its own, {@link #subscribeWildcard(MqttBrokerConnection, ScheduledExecutorService, int)}
+ * subscribes once to "basetopic/deviceid/#" and builds the tree from the streamed in retained messages.
+ *
  * @author David Graeff - Initial contribution
+ * @author Tobias Brandt - Wildcard subscription
  */
 @NonNullByDefault
 public class Device implements AbstractMqttAttributeClass.AttributeChanged {
@@ -69,6 +74,7 @@ public class Device implements AbstractMqttAttributeClass.AttributeChanged {
     private String topic = "";
     public String deviceID = "";
     private boolean initialized = false;
+    private @Nullable DeviceTopicRouter router;
 
     /**
      * Creates a Homie Device structure. It consists of device attributes, device statistics and nodes.
@@ -124,6 +130,40 @@ public class Device implements AbstractMqttAttributeClass.AttributeChanged {
                 });
     }
 
+    /**
+     * Subscribe once to the wildcard topic of the device and receive all device, node and property attributes via
+     * this single subscription. This will not subscribe to the property values though. If that worked
+     * {@link #isInitialized()} will return true.
+     *
+     * Call {@link #startChannels(MqttBrokerConnection, ScheduledExecutorService, int, HomieThingHandler)} subsequently.
+     *
+     * @param connection A broker connection
+     * @param scheduler A scheduler to realize the timeout
+     * @param timeout Time in milliseconds without any received attribute after which missing attributes are no longer
+     *            waited for
+     * @return A future that is complete as soon as the device state, all attributes of the device and its nodes and
+     *         all advertised properties have been received, or the timeout has passed.
+     */
+    public CompletableFuture<@Nullable Void> subscribeWildcard(MqttBrokerConnection connection,
+            ScheduledExecutorService scheduler, int timeout) {
+        if (topic.isEmpty()) {
+            throw new IllegalStateException("You must call initialize()!");
+        }
+
+        final DeviceTopicRouter router = new DeviceTopicRouter(topic, scheduler, timeout);
+        this.router = router;
+        final CompletableFuture<@Nullable Void> attributesFuture = attributes
+                .subscribeAndReceive(connection, scheduler, topic, this, router)
+                // On success, create all nodes and tell the handler about the ready state
+                .thenCompose(b -> attributesReceived(connection, scheduler, timeout));
+
+        return CompletableFuture.allOf(router.start(connection), attributesFuture)
+                // No matter if values have been received or not -> the subscription has been performed
+                .whenComplete((r, e) -> {
+                    initialized = true;
+                });
+    }
+
     public CompletableFuture<@Nullable Void> attributesReceived(MqttBrokerConnection connection,
             ScheduledExecutorService scheduler, int timeout) {
         callback.readyStateChanged(attributes.state);
@@ -176,8 +216,12 @@ public class Device implements AbstractMqttAttributeClass.AttributeChanged {
      * Unsubscribe from everything.
      */
     public CompletableFuture<@Nullable Void> stop() {
-        return attributes.unsubscribe().thenCompose(
-                b -> CompletableFuture.allOf(nodes.stream().map(Node::stop).toArray(CompletableFuture[]::new)));
+        final DeviceTopicRouter router = this.router;
+        this.router = null;
+        final CompletableFuture<?> routerStopped = router != null ? router.stop()
+                : CompletableFuture.completedFuture(null);
+        return CompletableFuture.allOf(routerStopped, attributes.unsubscribe().thenCompose(
+                b -> CompletableFuture.allOf(nodes.stream().map(Node::stop).toArray(CompletableFuture[]::new))));
     }
 
     /**
@@ -309,8 +353,11 @@ public class Device implements AbstractMqttAttributeClass.AttributeChanged {
 
     CompletableFuture<@Nullable Void> applyNodes(MqttBrokerConnection connection, ScheduledExecutorService scheduler,
             int timeout) {
+        final DeviceTopicRouter router = this.router;
         return nodes.apply(Objects.requireNonNull(attributes.nodes),
-                node -> node.subscribe(connection, scheduler, timeout), this::createNode, this::notifyNodeRemoved)
+                node -> router != null ? node.subscribe(connection, scheduler, router)
+                        : node.subscribe(connection, scheduler, timeout),
+                this::createNode, this::notifyNodeRemoved)
                 .exceptionally(e -> {
                     logger.warn("Could not subscribe", e);
                     return null;
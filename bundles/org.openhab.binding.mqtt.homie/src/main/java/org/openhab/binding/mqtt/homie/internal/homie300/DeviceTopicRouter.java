@@ -0,0 +1,291 @@
+/**
+ * Copyright (c) 2010-2024 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.mqtt.homie.internal.homie300;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.openhab.binding.mqtt.generic.mapping.AttributeTopicRouter;
+import org.openhab.binding.mqtt.generic.mapping.SubscribeFieldToMQTTtopic;
+import org.openhab.core.io.transport.mqtt.MqttBrokerConnection;
+import org.openhab.core.io.transport.mqtt.MqttMessageSubscriber;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Subscribes once to "basetopic/deviceid/#" and routes the received attribute messages ("$..." topics) of the device,
+ * its nodes and properties to their attribute classes.
+ *
+ * <p>
+ * The last message of each attribute topic is kept, so attribute classes that are only created later, e.g. the nodes
+ * after "$nodes" has been received, get the retained values that have already been streamed in.
+ * </p>
+ *
+ * <p>
+ * The future returned by {@link #start(MqttBrokerConnection)} completes as soon as all mandatory attributes (including
+ * the "$state" of the device) of the registered attribute classes and at least one attribute of each registered
+ * attribute class (e.g. of each advertised property) have been received. Fields that still wait for a value are
+ * released when no attribute message was received for the given idle timeout, using a single scheduled task. A field
+ * counts once per topic; registering another field for the same topic replaces the previous one.
+ * </p>
+ *
+ * @author Tobias Brandt - Initial contribution
+ */
+@NonNullByDefault
+public class DeviceTopicRouter implements MqttMessageSubscriber, AttributeTopicRouter {
+    private final Logger logger = LoggerFactory.getLogger(DeviceTopicRouter.class);
+    private final String topic;
+    private final ScheduledExecutorService scheduler;
+    private final int idleTimeout;
+    private final CompletableFuture<@Nullable Void> treeReceived = new CompletableFuture<>();
+
+    // all fields below are guarded by this
+    private final Map<String, SubscribeFieldToMQTTtopic> fields = new HashMap<>();
+    private final Map<String, byte[]> retained = new HashMap<>();
+    private final Map<String, Group> groups = new HashMap<>();
+    // the topics of the fields that have received a value
+    private final Set<String> receivedFields = new HashSet<>();
+    private int pendingMandatoryFields;
+    private int groupsWithoutValue;
+    private long lastMessageTime;
+    private @Nullable ScheduledFuture<?> idleTimer;
+    private @Nullable MqttBrokerConnection connection;
+    private boolean subscribed;
+
+    /**
+     * Fields of one attribute class, i.e. with the same parent topic
+     */
+    private static class Group {
+        int fields;
+        int receivedFields;
+    }
+
+    /**
+     * Creates a router for a device.
+     *
+     * @param topic The device topic, e.g. "homie/deviceid"
+     * @param scheduler A scheduler to realize the idle timeout
+     * @param idleTimeout Time in milliseconds without any attribute message after which fields stop waiting for a value
+     */
+    public DeviceTopicRouter(String topic, ScheduledExecutorService scheduler, int idleTimeout) {
+        this.topic = topic;
+        this.scheduler = scheduler;
+        this.idleTimeout = idleTimeout;
+    }
+
+    /**
+     * Subscribe to the wildcard topic of the device. Register the attribute classes of the device before.
+     *
+     * @param connection A broker connection
+     * @return A future that completes as soon as the attribute tree of the device has been received or the idle
+     *         timeout has passed.
+     */
+    public CompletableFuture<@Nullable Void> start(MqttBrokerConnection connection) {
+        synchronized (this) {
+            this.connection = connection;
+        }
+        connection.subscribe(topic + "/#", this).thenRun(() -> {
+            synchronized (this) {
+                // The retained messages follow the subscription acknowledgement
+                subscribed = true;
+                lastMessageTime = System.currentTimeMillis();
+                scheduleIdleTimer();
+            }
+        }).exceptionally(e -> {
+            logger.debug("Failed to subscribe to topic {}/#", topic, e);
+            releasePendingFields();
+            return null;
+        });
+        return treeReceived;
+    }
+
+    /**
+     * Unsubscribe from the wildcard topic and forget all received messages.
+     */
+    public CompletableFuture<Boolean> stop() {
+        final MqttBrokerConnection connection;
+        synchronized (this) {
+            connection = this.connection;
+            this.connection = null;
+            subscribed = false;
+            cancelIdleTimer();
+            retained.clear();
+        }
+        treeReceived.complete(null);
+        if (connection == null) {
+            return CompletableFuture.completedFuture(true);
+        }
+        return connection.unsubscribe(topic + "/#", this);
+    }
+
+    @Override
+    public void addField(SubscribeFieldToMQTTtopic field) {
+        final byte[] payload;
+        synchronized (this) {
+            final SubscribeFieldToMQTTtopic previous = fields.get(field.topic);
+            if (previous != null) {
+                unregisterField(previous);
+            }
+            fields.put(field.topic, field);
+            Group group = groups.computeIfAbsent(parentTopic(field.topic), t -> new Group());
+            if (group.fields++ == 0) {
+                groupsWithoutValue++;
+            }
+            if (field.isMandatory()) {
+                pendingMandatoryFields++;
+                scheduleIdleTimer();
+            }
+            payload = retained.get(field.topic);
+        }
+        if (payload != null) {
+            field.processMessage(field.topic, payload);
+            fieldProcessed(field);
+        }
+        checkTreeReceived();
+    }
+
+    @Override
+    public synchronized void removeField(SubscribeFieldToMQTTtopic field) {
+        unregisterField(field);
+        checkTreeReceived();
+    }
+
+    private void unregisterField(SubscribeFieldToMQTTtopic field) {
+        if (!fields.remove(field.topic, field)) {
+            return;
+        }
+        final boolean received = receivedFields.remove(field.topic);
+        if (field.isMandatory() && !received) {
+            pendingMandatoryFields--;
+        }
+        final String parentTopic = parentTopic(field.topic);
+        final Group group = groups.get(parentTopic);
+        if (group == null) {
+            return;
+        }
+        final boolean hadValue = group.receivedFields > 0;
+        group.fields--;
+        if (received) {
+            group.receivedFields--;
+        }
+        if (group.fields == 0) {
+            groups.remove(parentTopic);
+            if (!hadValue) {
+                groupsWithoutValue--;
+            }
+        } else if (hadValue && group.receivedFields == 0) {
+            groupsWithoutValue++;
+        }
+    }
+
+    @Override
+    public void processMessage(String topic, byte[] payload) {
+        // Only attribute topics are routed, property values are received by the channel states
+        if (!topic.startsWith("$", topic.lastIndexOf('/') + 1)) {
+            return;
+        }
+        final SubscribeFieldToMQTTtopic field;
+        synchronized (this) {
+            lastMessageTime = System.currentTimeMillis();
+            if (payload.length > 0) {
+                retained.put(topic, payload);
+            } else {
+                retained.remove(topic);
+            }
+            field = fields.get(topic);
+        }
+        if (field != null) {
+            field.processMessage(topic, payload);
+            fieldProcessed(field);
+        }
+        // The field change listeners may have registered the fields of new nodes or properties in the meantime
+        checkTreeReceived();
+    }
+
+    private synchronized void checkTreeReceived() {
+        if (connection != null && !treeReceived.isDone() && pendingMandatoryFields == 0 && groupsWithoutValue == 0) {
+            logger.debug("Received the attribute tree of {}", topic);
+            treeReceived.complete(null);
+        }
+    }
+
+    private synchronized void fieldProcessed(SubscribeFieldToMQTTtopic field) {
+        if (!field.hasReceivedValue() || fields.get(field.topic) != field || !receivedFields.add(field.topic)) {
+            return;
+        }
+        if (field.isMandatory()) {
+            pendingMandatoryFields--;
+        }
+        Group group = groups.get(parentTopic(field.topic));
+        if (group != null && group.receivedFields++ == 0) {
+            groupsWithoutValue--;
+        }
+    }
+
+    private void scheduleIdleTimer() {
+        if (subscribed && idleTimer == null) {
+            idleTimer = scheduler.schedule(this::idleTimeoutReached, idleTimeout, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private void cancelIdleTimer() {
+        final ScheduledFuture<?> idleTimer = this.idleTimer;
+        if (idleTimer != null) {
+            idleTimer.cancel(false);
+            this.idleTimer = null;
+        }
+    }
+
+    private void idleTimeoutReached() {
+        synchronized (this) {
+            idleTimer = null;
+            if (!subscribed) {
+                return;
+            }
+            final long idleTime = System.currentTimeMillis() - lastMessageTime;
+            if (idleTime < idleTimeout) {
+                idleTimer = scheduler.schedule(this::idleTimeoutReached, idleTimeout - idleTime,
+                        TimeUnit.MILLISECONDS);
+                return;
+            }
+        }
+        releasePendingFields();
+    }
+
+    private void releasePendingFields() {
+        final List<SubscribeFieldToMQTTtopic> pending;
+        synchronized (this) {
+            pending = new ArrayList<>(fields.values());
+            pending.removeIf(field -> receivedFields.contains(field.topic));
+        }
+        pending.forEach(SubscribeFieldToMQTTtopic::stopWaiting);
+        if (!treeReceived.isDone()) {
+            logger.debug("Did not receive the complete attribute tree of {} in time", topic);
+            treeReceived.complete(null);
+        }
+    }
+
+    private static String parentTopic(String fieldTopic) {
+        return fieldTopic.substring(0, fieldTopic.lastIndexOf('/'));
+    }
+}
@@ -23,6 +23,7 @@ import java.util.stream.Stream;
 import org.eclipse.jdt.annotation.NonNullByDefault;
 import org.eclipse.jdt.annotation.Nullable;
 import org.openhab.binding.mqtt.generic.mapping.AbstractMqttAttributeClass;
+import org.openhab.binding.mqtt.generic.mapping.AttributeTopicRouter;
 import org.openhab.binding.mqtt.generic.tools.ChildMap;
 import org.openhab.binding.mqtt.homie.generic.internal.MqttBindingConstants;
 import org.openhab.core.io.transport.mqtt.MqttBrokerConnection;
@@ -44,6 +45,7 @@ import org.slf4j.LoggerFactory;
  * It corresponds to a ChannelGroup.
  *
  * @author David Graeff - Initial contribution
+ * @author Tobias Brandt - Receive attributes via a device topic router
  */
 @NonNullByDefault
 public class Node implements AbstractMqttAttributeClass.AttributeChanged {
@@ -58,6 +60,7 @@ public class Node implements AbstractMqttAttributeClass.AttributeChanged {
     public final ChannelGroupTypeUID channelGroupTypeUID;
     private final String topic;
     private boolean initialized = false;
+    private @Nullable AttributeTopicRouter router;
 
     /**
      * Creates a Homie Node.
@@ -93,6 +96,19 @@ public class Node implements AbstractMqttAttributeClass.AttributeChanged {
                 });
     }
 
+    /**
+     * Parse node properties, receiving the node and property attributes via the given router.
+     * The returned future completes as soon as the mandatory node attributes have been received.
+     */
+    public CompletableFuture<@Nullable Void> subscribe(MqttBrokerConnection connection,
+            ScheduledExecutorService scheduler, AttributeTopicRouter router) {
+        this.router = router;
+        return attributes.subscribeAndReceive(connection, scheduler, topic, this, router)
+                .thenCompose(b -> attributesReceived(connection, scheduler, 0)).whenComplete((r, e) -> {
+                    initialized = true;
+                });
+    }
+
     public CompletableFuture<@Nullable Void> attributesReceived(MqttBrokerConnection connection,
             ScheduledExecutorService scheduler, int timeout) {
         callback.nodeAddedOrChanged(this);
@@ -110,6 +126,7 @@ public class Node implements AbstractMqttAttributeClass.AttributeChanged {
      * @return Returns a future that completes as soon as all unsubscriptions have been performed.
      */
     public CompletableFuture<@Nullable Void> stop() {
+        router = null;
         return attributes.unsubscribe().thenCompose(b -> CompletableFuture
                 .allOf(properties.stream().map(Property::stop).toArray(CompletableFuture[]::new)));
     }
@@ -177,9 +194,11 @@ public class Node implements AbstractMqttAttributeClass.AttributeChanged {
 
     protected CompletableFuture<@Nullable Void> applyProperties(MqttBrokerConnection connection,
             ScheduledExecutorService scheduler, int timeout) {
+        final AttributeTopicRouter router = this.router;
         return properties.apply(Objects.requireNonNull(attributes.properties),
-                prop -> prop.subscribe(connection, scheduler, timeout), this::createProperty,
-                this::notifyPropertyRemoved).exceptionally(e -> {
+                prop -> router != null ? prop.subscribe(connection, scheduler, router)
+                        : prop.subscribe(connection, scheduler, timeout),
+                this::createProperty, this::notifyPropertyRemoved).exceptionally(e -> {
                     logger.warn("Could not subscribe", e);
                     return null;
                 });
@@ -31,6 +31,7 @@ import org.eclipse.jdt.annotation.Nullable;
 import org.openhab.binding.mqtt.generic.ChannelConfigBuilder;
 import org.openhab.binding.mqtt.generic.ChannelState;
 import org.openhab.binding.mqtt.generic.mapping.AbstractMqttAttributeClass.AttributeChanged;
+import org.openhab.binding.mqtt.generic.mapping.AttributeTopicRouter;
 import org.openhab.binding.mqtt.generic.mapping.ColorMode;
 import org.openhab.binding.mqtt.generic.values.ColorValue;
 import org.openhab.binding.mqtt.generic.values.DateTimeValue;
@@ -65,6 +66,7 @@ import org.slf4j.LoggerFactory;
  * A homie Property (which translates into a channel).
  *
  * @author David Graeff - Initial contribution
+ * @author Tobias Brandt - Receive attributes via a device topic router
  */
 @NonNullByDefault
 public class Property implements AttributeChanged {
@@ -124,6 +126,20 @@ public class Property implements AttributeChanged {
                 });
     }
 
+    /**
+     * Receive the property attributes via the given router. Attributes that have already been received are applied
+     * immediately, later ones update the channel.
+     *
+     * @return Returns a future that completes as soon as the attributes have been registered with the router.
+     */
+    public CompletableFuture<@Nullable Void> subscribe(MqttBrokerConnection connection,
+            ScheduledExecutorService scheduler, AttributeTopicRouter router) {
+        return attributes.subscribeAndReceive(connection, scheduler, topic, this, router)
+                .thenRun(this::attributesReceived).whenComplete((r, e) -> {
+                    initialized = true;
+                });
+    }
+
     private @Nullable BigDecimal convertFromString(String value) {
         try {
             return new BigDecimal(value);
@@ -0,0 +1,187 @@
+/**
+ * Copyright (c) 2010-2024 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.mqtt.homie.internal.homie300;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+import static org.openhab.binding.mqtt.homie.internal.handler.ThingChannelConstants.TEST_HOMIE_THING;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.openhab.binding.mqtt.generic.mapping.SubscribeFieldToMQTTtopic;
+import org.openhab.binding.mqtt.homie.internal.homie300.DeviceAttributes.ReadyState;
+import org.openhab.binding.mqtt.homie.internal.homie300.PropertyAttributes.DataTypeEnum;
+import org.openhab.core.io.transport.mqtt.MqttBrokerConnection;
+import org.openhab.core.io.transport.mqtt.MqttMessageSubscriber;
+
+/**
+ * Tests cases for {@link DeviceTopicRouter} and {@link Device#subscribeWildcard}.
+ *
+ * @author Tobias Brandt - Initial contribution
+ */
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+@NonNullByDefault
+public class DeviceTopicRouterTests {
+    private static final String DEVICE_TOPIC = "homie/device";
+
+    private @Mock @NonNullByDefault({}) MqttBrokerConnection connectionMock;
+    private @Mock @NonNullByDefault({}) ScheduledExecutorService schedulerMock;
+    private @Mock @NonNullByDefault({}) ScheduledFuture<?> scheduledFutureMock;
+    private @Mock @NonNullByDefault({}) DeviceCallback callbackMock;
+
+    private @NonNullByDefault({}) Device device;
+
+    /**
+     * Field targets for the router tests
+     */
+    public static class Attributes {
+        public String name = "";
+        public int number;
+    }
+
+    @BeforeEach
+    public void setUp() {
+        doReturn(CompletableFuture.completedFuture(true)).when(connectionMock).subscribe(any(), any());
+        doReturn(CompletableFuture.completedFuture(true)).when(connectionMock).unsubscribe(any(), any());
+        doReturn(scheduledFutureMock).when(schedulerMock).schedule(any(Runnable.class), anyLong(), any(TimeUnit.class));
+
+        device = new Device(TEST_HOMIE_THING, callbackMock, new DeviceAttributes());
+        device.initialize("homie", "device", List.of());
+    }
+
+    private MqttMessageSubscriber wildcardSubscriber() {
+        ArgumentCaptor<MqttMessageSubscriber> captor = ArgumentCaptor.forClass(MqttMessageSubscriber.class);
+        verify(connectionMock).subscribe(eq(DEVICE_TOPIC + "/#"), captor.capture());
+        return captor.getValue();
+    }
+
+    private static void publish(MqttMessageSubscriber subscriber, String subtopic, String value) {
+        subscriber.processMessage(DEVICE_TOPIC + "/" + subtopic, value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void treeReceivedViaSingleSubscription() {
+        CompletableFuture<@Nullable Void> future = device.subscribeWildcard(connectionMock, schedulerMock, 500);
+        MqttMessageSubscriber subscriber = wildcardSubscriber();
+
+        // Children may be streamed in before the parent advertises them
+        publish(subscriber, "node/$name", "Node");
+        publish(subscriber, "node/$properties", "temperature");
+        publish(subscriber, "node/temperature/$name", "Temperature");
+        publish(subscriber, "node/temperature/$datatype", "float");
+        publish(subscriber, "node/temperature", "21.5");
+        publish(subscriber, "$homie", "3.0");
+        publish(subscriber, "$name", "Device");
+        publish(subscriber, "$nodes", "node");
+        assertFalse(future.isDone());
+
+        publish(subscriber, "$state", "ready");
+        assertTrue(future.isDone());
+        assertFalse(future.isCompletedExceptionally());
+        assertTrue(device.isInitialized());
+
+        assertThat(device.attributes.state, is(ReadyState.ready));
+        Node node = device.nodes.get("node");
+        assertThat(node, notNullValue());
+        Property property = node.properties.get("temperature");
+        assertThat(property, notNullValue());
+        assertThat(property.attributes.name, is("Temperature"));
+        assertThat(property.attributes.datatype, is(DataTypeEnum.float_));
+
+        // One SUBSCRIBE for the whole attribute tree
+        verify(connectionMock, times(1)).subscribe(any(), any());
+        verify(callbackMock).readyStateChanged(ReadyState.ready);
+        verify(callbackMock, atLeastOnce()).propertyAddedOrChanged(property);
+
+        // Later attribute changes are still routed
+        publish(subscriber, "node/temperature/$unit", "°C");
+        assertThat(property.attributes.unit, is("°C"));
+
+        device.stop();
+        verify(connectionMock).unsubscribe(DEVICE_TOPIC + "/#", subscriber);
+    }
+
+    @Test
+    public void missingAttributesReleasedAfterIdleTimeout() {
+        CompletableFuture<@Nullable Void> future = device.subscribeWildcard(connectionMock, schedulerMock, 0);
+        MqttMessageSubscriber subscriber = wildcardSubscriber();
+
+        publish(subscriber, "$homie", "3.0");
+        publish(subscriber, "$name", "Device");
+        publish(subscriber, "$nodes", "node");
+        assertFalse(future.isDone());
+
+        // A single timer instead of one per attribute
+        ArgumentCaptor<Runnable> timer = ArgumentCaptor.forClass(Runnable.class);
+        verify(schedulerMock, times(1)).schedule(timer.capture(), anyLong(), any(TimeUnit.class));
+        timer.getValue().run();
+
+        // The mandatory $state is missing
+        assertTrue(future.isCompletedExceptionally());
+        assertTrue(device.isInitialized());
+    }
+
+    private SubscribeFieldToMQTTtopic field(String fieldName, String subtopic) throws NoSuchFieldException {
+        return new SubscribeFieldToMQTTtopic(schedulerMock, Attributes.class.getField(fieldName), (f, v) -> {
+        }, DEVICE_TOPIC + "/" + subtopic, true);
+    }
+
+    @Test
+    public void duplicateFieldCountsOnce() throws NoSuchFieldException {
+        DeviceTopicRouter router = new DeviceTopicRouter(DEVICE_TOPIC, schedulerMock, 500);
+        router.addField(field("name", "$name"));
+        SubscribeFieldToMQTTtopic name = field("name", "$name");
+        router.addField(name);
+        CompletableFuture<@Nullable Void> future = router.start(connectionMock);
+        assertFalse(future.isDone());
+
+        publish(router, "$name", "Device");
+
+        assertTrue(name.hasReceivedValue());
+        assertTrue(future.isDone());
+    }
+
+    @Test
+    public void treeReceivedWhenAddedFieldTakesRetainedValue() throws NoSuchFieldException {
+        DeviceTopicRouter router = new DeviceTopicRouter(DEVICE_TOPIC, schedulerMock, 500);
+        router.addField(field("number", "$value"));
+        CompletableFuture<@Nullable Void> future = router.start(connectionMock);
+
+        // The retained value cannot be converted to the number field
+        publish(router, "$value", "text");
+        assertFalse(future.isDone());
+
+        // A field of the right type for the same topic replaces the number field and takes the retained value
+        router.addField(field("name", "$value"));
+        assertTrue(future.isDone());
+    }
+}
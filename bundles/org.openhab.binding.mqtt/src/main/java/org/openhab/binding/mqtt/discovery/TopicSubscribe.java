@@ -24,7 +24,11 @@ import org.openhab.core.thing.ThingUID;
  * Represents a MQTT subscription for one specific topic. This is an immutable class.
  *
  * @author David Graeff - Initial contribution
+ * @deprecated Discovery messages are routed by the broker handler, register a {@link MQTTTopicDiscoveryParticipant}
+ *             with {@link MQTTTopicDiscoveryService#subscribe} instead. This class is no longer used by the MQTT
+ *             bindings and will be removed in a future release.
  */
+@Deprecated
 @NonNullByDefault
 public class TopicSubscribe implements MqttMessageSubscriber {
     final @Nullable MqttBrokerConnection connection;
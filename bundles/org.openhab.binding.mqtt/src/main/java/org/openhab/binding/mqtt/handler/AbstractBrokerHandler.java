@@ -12,8 +12,10 @@
  */
 package org.openhab.binding.mqtt.handler;
 
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.CompletableFuture;
@@ -22,16 +24,18 @@ import java.util.concurrent.TimeoutException;
 import org.eclipse.jdt.annotation.NonNullByDefault;
 import org.eclipse.jdt.annotation.Nullable;
 import org.openhab.binding.mqtt.discovery.MQTTTopicDiscoveryParticipant;
-import org.openhab.binding.mqtt.discovery.TopicSubscribe;
+import org.openhab.binding.mqtt.internal.MqttTopicTrie;
 import org.openhab.binding.mqtt.internal.action.MQTTActions;
 import org.openhab.core.io.transport.mqtt.MqttBrokerConnection;
 import org.openhab.core.io.transport.mqtt.MqttConnectionObserver;
 import org.openhab.core.io.transport.mqtt.MqttConnectionState;
+import org.openhab.core.io.transport.mqtt.MqttMessageSubscriber;
 import org.openhab.core.thing.Bridge;
 import org.openhab.core.thing.Channel;
 import org.openhab.core.thing.ChannelUID;
 import org.openhab.core.thing.ThingStatus;
 import org.openhab.core.thing.ThingStatusDetail;
+import org.openhab.core.thing.ThingUID;
 import org.openhab.core.thing.binding.BaseBridgeHandler;
 import org.openhab.core.thing.binding.ThingHandlerService;
 import org.openhab.core.types.Command;
@@ -42,7 +46,13 @@ import org.slf4j.LoggerFactory;
  * This base implementation handles connection changes of the {@link MqttBrokerConnection}
  * and puts the Thing on or offline. It also provides a basic dispose() implementation.
  *
+ * <p>
+ * Each discovery topic filter is subscribed once on the connection, no matter how many discovery participants use it.
+ * All filters share one subscriber, which looks up the participants of a received topic with a single
+ * {@link MqttTopicTrie} match. A participant registered on several matching filters sees each message once.
+ *
  * @author David Graeff - Initial contribution
+ * @author Tobias Brandt - Route discovery messages with a topic trie
  */
 @NonNullByDefault
 public abstract class AbstractBrokerHandler extends BaseBridgeHandler implements MqttConnectionObserver {
@@ -50,7 +60,15 @@ public abstract class AbstractBrokerHandler extends BaseBridgeHandler implements
     private final Logger logger = LoggerFactory.getLogger(AbstractBrokerHandler.class);
 
     final Map<ChannelUID, PublishTriggerChannel> channelStateByChannelUID = new HashMap<>();
-    private final Map<String, @Nullable Map<MQTTTopicDiscoveryParticipant, @Nullable TopicSubscribe>> discoveryTopics = new HashMap<>();
+
+    // all fields below are guarded by discoveryTopics
+    private final Map<String, Set<MQTTTopicDiscoveryParticipant>> discoveryTopics = new HashMap<>();
+    // the participants of the registered topic filters
+    private final MqttTopicTrie<DiscoveryRoute> discoveryRoutes = new MqttTopicTrie<>();
+    // the topic filters subscribed on discoveryConnection, all with discoveryRouter
+    private final Set<String> discoverySubscriptions = new HashSet<>();
+    private final DiscoveryRouter discoveryRouter = new DiscoveryRouter();
+    private @Nullable MqttBrokerConnection discoveryConnection;
 
     protected @Nullable MqttBrokerConnection connection;
     protected CompletableFuture<MqttBrokerConnection> connectionFuture = new CompletableFuture<>();
@@ -116,28 +134,11 @@ public abstract class AbstractBrokerHandler extends BaseBridgeHandler implements
         });
         connectionFuture.complete(connection);
 
-        discoveryTopics.forEach((topic, listenerMap) -> {
-            listenerMap.replaceAll((listener, oldTopicSubscribe) -> {
-                if (oldTopicSubscribe.isStarted()) {
-                    oldTopicSubscribe.stop();
-                }
-
-                TopicSubscribe topicSubscribe = new TopicSubscribe(connection, topic, listener, thing.getUID());
-                if (discoveryEnabled()) {
-                    topicSubscribe.start().handle((result, ex) -> {
-                        if (ex != null) {
-                            logger.warn("Failed to subscribe {} to discovery topic {} on broker {}", listener, topic,
-                                    thing.getUID());
-                        } else {
-                            logger.trace("Subscribed {} to discovery topic {} on broker {}", listener, topic,
-                                    thing.getUID());
-                        }
-                        return null;
-                    });
-                }
-                return topicSubscribe;
-            });
-        });
+        synchronized (discoveryTopics) {
+            stopDiscoverySubscriptions();
+            discoveryConnection = connection;
+            discoveryTopics.keySet().forEach(this::startDiscoverySubscription);
+        }
     }
 
     @Override
@@ -169,11 +170,10 @@ public abstract class AbstractBrokerHandler extends BaseBridgeHandler implements
         channelStateByChannelUID.clear();
 
         // keep topics, but stop subscriptions
-        discoveryTopics.forEach((topic, listenerMap) -> {
-            listenerMap.forEach((listener, topicSubscribe) -> {
-                topicSubscribe.stop();
-            });
-        });
+        synchronized (discoveryTopics) {
+            stopDiscoverySubscriptions();
+            discoveryConnection = null;
+        }
 
         if (connection != null) {
             connection.removeConnectionObserver(this);
@@ -193,30 +193,20 @@ public abstract class AbstractBrokerHandler extends BaseBridgeHandler implements
      * @param topic the topic (wildcards supported)
      */
     public final void registerDiscoveryListener(MQTTTopicDiscoveryParticipant listener, String topic) {
-        Map<MQTTTopicDiscoveryParticipant, @Nullable TopicSubscribe> topicListeners = discoveryTopics
-                .computeIfAbsent(topic, t -> new HashMap<>());
-        topicListeners.compute(listener, (k, v) -> {
-            if (v != null) {
+        synchronized (discoveryTopics) {
+            Set<MQTTTopicDiscoveryParticipant> topicListeners = discoveryTopics.computeIfAbsent(topic,
+                    t -> new HashSet<>());
+            if (!topicListeners.add(listener)) {
                 logger.warn("Duplicate subscription for {} to discovery topic {} on broker {}. Check discovery logic!",
                         listener, topic, thing.getUID());
-                v.stop();
+                return;
             }
-
-            TopicSubscribe topicSubscribe = new TopicSubscribe(connection, topic, listener, thing.getUID());
-            if (discoveryEnabled()) {
-                topicSubscribe.start().handle((result, ex) -> {
-                    if (ex != null) {
-                        logger.warn("Failed to subscribe {} to discovery topic {} on broker {}", listener, topic,
-                                thing.getUID());
-                    } else {
-                        logger.trace("Subscribed {} to discovery topic {} on broker {}", listener, topic,
-                                thing.getUID());
-                    }
-                    return null;
-                });
+            discoveryRoutes.add(topic, new DiscoveryRoute(topic, listener));
+            logger.trace("Registered {} for discovery topic {} on broker {}", listener, topic, thing.getUID());
+            if (!discoverySubscriptions.contains(topic)) {
+                startDiscoverySubscription(topic);
             }
-            return topicSubscribe;
-        });
+        }
     }
 
     /**
@@ -226,33 +216,134 @@ public abstract class AbstractBrokerHandler extends BaseBridgeHandler implements
      * @param topic the topic (as specified during registration)
      */
     public final void unregisterDiscoveryListener(MQTTTopicDiscoveryParticipant listener, String topic) {
-        discoveryTopics.compute(topic, (k, v) -> {
-            if (v == null) {
+        synchronized (discoveryTopics) {
+            Set<MQTTTopicDiscoveryParticipant> topicListeners = discoveryTopics.get(topic);
+            if (topicListeners == null) {
                 logger.warn(
                         "Tried to unsubscribe {} from  discovery topic {} on broker {} but topic not registered at all. Check discovery logic!",
                         listener, topic, thing.getUID());
-                return null;
+                return;
             }
-            v.compute(listener, (l, w) -> {
-                if (w == null) {
-                    logger.warn(
-                            "Tried to unsubscribe {} from  discovery topic {} on broker {} but topic not registered for listener. Check discovery logic!",
-                            listener, topic, thing.getUID());
-                } else {
-                    w.stop();
-                    logger.trace("Unsubscribed {} from discovery topic {} on broker {}", listener, topic,
-                            thing.getUID());
-                }
-                return null;
-            });
-            return v.isEmpty() ? null : v;
+            if (!topicListeners.remove(listener)) {
+                logger.warn(
+                        "Tried to unsubscribe {} from  discovery topic {} on broker {} but topic not registered for listener. Check discovery logic!",
+                        listener, topic, thing.getUID());
+                return;
+            }
+            discoveryRoutes.remove(topic, new DiscoveryRoute(topic, listener));
+            logger.trace("Unsubscribed {} from discovery topic {} on broker {}", listener, topic, thing.getUID());
+            if (topicListeners.isEmpty()) {
+                discoveryTopics.remove(topic);
+                stopDiscoverySubscription(topic);
+            }
+        }
+    }
+
+    /**
+     * Subscribes the discovery router to the topic on the current connection. Must be called with discoveryTopics
+     * locked.
+     */
+    private void startDiscoverySubscription(String topic) {
+        final MqttBrokerConnection connection = discoveryConnection;
+        if (connection == null || !discoveryEnabled()) {
+            return;
+        }
+        discoverySubscriptions.add(topic);
+        discoveryRouter.reset();
+        connection.subscribe(topic, discoveryRouter).handle((result, ex) -> {
+            if (ex != null) {
+                logger.warn("Failed to subscribe to discovery topic {} on broker {}", topic, thing.getUID());
+            } else {
+                logger.trace("Subscribed to discovery topic {} on broker {}", topic, thing.getUID());
+            }
+            return null;
         });
     }
 
+    /**
+     * Unsubscribes the discovery router from the topic. Must be called with discoveryTopics locked.
+     */
+    private void stopDiscoverySubscription(String topic) {
+        final MqttBrokerConnection connection = discoveryConnection;
+        discoveryRouter.reset();
+        if (discoverySubscriptions.remove(topic) && connection != null) {
+            connection.unsubscribe(topic, discoveryRouter);
+        }
+    }
+
+    /**
+     * Unsubscribes the discovery router from all topics. Must be called with discoveryTopics locked.
+     */
+    private void stopDiscoverySubscriptions() {
+        final MqttBrokerConnection connection = discoveryConnection;
+        if (connection != null) {
+            discoverySubscriptions.forEach(topic -> connection.unsubscribe(topic, discoveryRouter));
+        }
+        discoverySubscriptions.clear();
+        discoveryRouter.reset();
+    }
+
     /**
      * check whether discovery is disabled on this broker
      *
      * @return true if discovery disabled
      */
     public abstract boolean discoveryEnabled();
+
+    /**
+     * Receives the messages of all discovery topic filters. The connection calls the subscriber once for every matching
+     * subscribed filter, so the further calls for the same topic and payload are skipped.
+     */
+    private class DiscoveryRouter implements MqttMessageSubscriber {
+        // guarded by discoveryTopics
+        private @Nullable String lastTopic;
+        private byte[] lastPayload = new byte[0];
+        private int remainingCopies;
+
+        @Override
+        public void processMessage(String topic, byte[] payload) {
+            final MqttBrokerConnection connection;
+            final Set<MQTTTopicDiscoveryParticipant> participants = new HashSet<>();
+            synchronized (discoveryTopics) {
+                connection = discoveryConnection;
+                if (connection == null) {
+                    return;
+                }
+                if (remainingCopies > 0 && topic.equals(lastTopic) && Arrays.equals(payload, lastPayload)) {
+                    remainingCopies--;
+                    return;
+                }
+                Set<String> filters = new HashSet<>();
+                for (DiscoveryRoute route : discoveryRoutes.match(topic)) {
+                    if (discoverySubscriptions.contains(route.filter())) {
+                        filters.add(route.filter());
+                        participants.add(route.participant());
+                    }
+                }
+                lastTopic = topic;
+                lastPayload = payload;
+                remainingCopies = Math.max(filters.size() - 1, 0);
+            }
+            ThingUID thingUID = thing.getUID();
+            for (MQTTTopicDiscoveryParticipant participant : participants) {
+                if (payload.length > 0) {
+                    participant.receivedMessage(thingUID, connection, topic, payload);
+                } else {
+                    participant.topicVanished(thingUID, connection, topic);
+                }
+            }
+        }
+
+        void reset() {
+            lastTopic = null;
+            lastPayload = new byte[0];
+            remainingCopies = 0;
+        }
+    }
+
+    /**
+     * A participant registered on a discovery topic filter.
+     */
+    private record DiscoveryRoute(String filter, MQTTTopicDiscoveryParticipant participant) {
+    }
 }
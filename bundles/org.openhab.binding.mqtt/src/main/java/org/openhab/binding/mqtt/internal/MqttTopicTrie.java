@@ -0,0 +1,162 @@
+/**
+ * Copyright (c) 2010-2024 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.mqtt.internal;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+
+/**
+ * Index of values by MQTT topic filter, which finds all values whose filter matches a topic in O(topic depth).
+ *
+ * Each topic level of a filter is one node of the trie. A topic is matched by walking down the exact level, the
+ * single-level wildcard <code>+</code> and the multi-level wildcard <code>#</code> children of each node, so the cost
+ * does not depend on the number of stored filters. As in the MQTT specification, wildcards on the first level do not
+ * match topics starting with <code>$</code>.
+ *
+ * @author Tobias Brandt - Initial contribution
+ *
+ * @param <T> The type of the stored values
+ */
+@NonNullByDefault
+public class MqttTopicTrie<T> {
+    private static final String SINGLE_LEVEL = "+";
+    private static final String MULTI_LEVEL = "#";
+
+    // guarded by this
+    private final Node<T> root = new Node<>();
+    private int size;
+
+    /**
+     * Adds a value for the given topic filter.
+     *
+     * @param filter A topic filter, may contain wildcards
+     * @param value The value
+     * @return true if the value was not yet stored for this filter
+     */
+    public synchronized boolean add(String filter, T value) {
+        Node<T> node = root;
+        for (String level : filter.split("/", -1)) {
+            node = node.children.computeIfAbsent(level, l -> new Node<>());
+        }
+        if (node.values.add(value)) {
+            size++;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Removes a value of the given topic filter.
+     *
+     * @param filter A topic filter, as given to {@link #add(String, Object)}
+     * @param value The value
+     * @return true if the value was stored for this filter
+     */
+    public synchronized boolean remove(String filter, T value) {
+        if (remove(root, filter.split("/", -1), 0, value)) {
+            size--;
+            return true;
+        }
+        return false;
+    }
+
+    private boolean remove(Node<T> node, String[] levels, int index, T value) {
+        if (index == levels.length) {
+            return node.values.remove(value);
+        }
+        Node<T> child = node.children.get(levels[index]);
+        if (child == null || !remove(child, levels, index + 1, value)) {
+            return false;
+        }
+        if (child.isEmpty()) {
+            node.children.remove(levels[index]);
+        }
+        return true;
+    }
+
+    /**
+     * Returns whether any value is stored for exactly this topic filter.
+     *
+     * @param filter A topic filter
+     */
+    public synchronized boolean contains(String filter) {
+        Node<T> node = root;
+        for (String level : filter.split("/", -1)) {
+            node = node.children.get(level);
+            if (node == null) {
+                return false;
+            }
+        }
+        return !node.values.isEmpty();
+    }
+
+    /**
+     * Returns the values of all topic filters matching the given topic.
+     *
+     * @param topic A topic without wildcards
+     * @return A new set with the matching values
+     */
+    public synchronized Set<T> match(String topic) {
+        Set<T> result = new HashSet<>();
+        collect(root, topic.split("/", -1), 0, !topic.startsWith("$"), result);
+        return result;
+    }
+
+    private void collect(Node<T> node, String[] levels, int index, boolean wildcards, Set<T> result) {
+        if (wildcards) {
+            // "#" also matches the parent level, so "a/#" matches "a"
+            Node<T> multiLevel = node.children.get(MULTI_LEVEL);
+            if (multiLevel != null) {
+                result.addAll(multiLevel.values);
+            }
+        }
+        if (index == levels.length) {
+            result.addAll(node.values);
+            return;
+        }
+        Node<T> exact = node.children.get(levels[index]);
+        if (exact != null) {
+            collect(exact, levels, index + 1, true, result);
+        }
+        if (wildcards) {
+            Node<T> singleLevel = node.children.get(SINGLE_LEVEL);
+            if (singleLevel != null) {
+                collect(singleLevel, levels, index + 1, true, result);
+            }
+        }
+    }
+
+    /**
+     * Returns the number of stored values, counting a value once per filter.
+     */
+    public synchronized int size() {
+        return size;
+    }
+
+    public synchronized boolean isEmpty() {
+        return size == 0;
+    }
+
+    private static class Node<T> {
+        final Map<String, Node<T>> children = new HashMap<>();
+        final Set<T> values = new HashSet<>();
+
+        boolean isEmpty() {
+            return children.isEmpty() && values.isEmpty();
+        }
+    }
+}
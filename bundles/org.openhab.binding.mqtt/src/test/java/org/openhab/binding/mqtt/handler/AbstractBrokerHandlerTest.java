@@ -0,0 +1,137 @@
+/**
+ * Copyright (c) 2010-2024 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.mqtt.handler;
+
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import java.util.concurrent.CompletableFuture;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.openhab.binding.mqtt.discovery.MQTTTopicDiscoveryParticipant;
+import org.openhab.core.io.transport.mqtt.MqttBrokerConnection;
+import org.openhab.core.io.transport.mqtt.MqttMessageSubscriber;
+import org.openhab.core.thing.Bridge;
+import org.openhab.core.thing.ThingUID;
+
+/**
+ * Tests the discovery message routing of the {@link AbstractBrokerHandler}.
+ *
+ * @author Tobias Brandt - Initial contribution
+ */
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+@NonNullByDefault
+public class AbstractBrokerHandlerTest {
+    private static final ThingUID BROKER_UID = new ThingUID("mqtt:broker:test");
+    private static final String TOPIC = "homeassistant/sensor/abc/config";
+
+    private @Mock @NonNullByDefault({}) Bridge thingMock;
+    private @Mock @NonNullByDefault({}) MqttBrokerConnection connectionMock;
+    private @Mock @NonNullByDefault({}) MQTTTopicDiscoveryParticipant participant1;
+    private @Mock @NonNullByDefault({}) MQTTTopicDiscoveryParticipant participant2;
+
+    private @NonNullByDefault({}) AbstractBrokerHandler handler;
+
+    @BeforeEach
+    public void setUp() {
+        when(thingMock.getUID()).thenReturn(BROKER_UID);
+        doReturn(CompletableFuture.completedFuture(true)).when(connectionMock).start();
+        doReturn(CompletableFuture.completedFuture(true)).when(connectionMock).subscribe(any(), any());
+        doReturn(CompletableFuture.completedFuture(true)).when(connectionMock).unsubscribe(any(), any());
+
+        handler = new AbstractBrokerHandler(thingMock) {
+            @Override
+            public boolean discoveryEnabled() {
+                return true;
+            }
+        };
+        handler.connection = connectionMock;
+        handler.initialize();
+    }
+
+    private MqttMessageSubscriber subscriberOf(String filter) {
+        ArgumentCaptor<MqttMessageSubscriber> subscriber = ArgumentCaptor.forClass(MqttMessageSubscriber.class);
+        verify(connectionMock).subscribe(eq(filter), subscriber.capture());
+        return subscriber.getValue();
+    }
+
+    @Test
+    public void participantReceivesMessageOnceForOverlappingFilters() {
+        handler.registerDiscoveryListener(participant1, "homeassistant/#");
+        handler.registerDiscoveryListener(participant1, "homeassistant/+/+/config");
+        handler.registerDiscoveryListener(participant2, "homeassistant/+/+/config");
+
+        // the connection passes the message once for every matching filter, each time with its own payload array
+        subscriberOf("homeassistant/#").processMessage(TOPIC, "{}".getBytes());
+        subscriberOf("homeassistant/+/+/config").processMessage(TOPIC, "{}".getBytes());
+
+        verify(participant1, times(1)).receivedMessage(eq(BROKER_UID), eq(connectionMock), eq(TOPIC), any());
+        verify(participant2, times(1)).receivedMessage(eq(BROKER_UID), eq(connectionMock), eq(TOPIC), any());
+    }
+
+    @Test
+    public void filtersShareOneSubscriber() {
+        handler.registerDiscoveryListener(participant1, "homeassistant/#");
+        handler.registerDiscoveryListener(participant2, "homeassistant/+/+/config");
+
+        assertSame(subscriberOf("homeassistant/#"), subscriberOf("homeassistant/+/+/config"));
+    }
+
+    @Test
+    public void repeatedMessageIsPassedOnAfterAllFiltersReceivedIt() {
+        handler.registerDiscoveryListener(participant1, "homeassistant/#");
+        handler.registerDiscoveryListener(participant2, "homeassistant/+/+/config");
+        MqttMessageSubscriber subscriber = subscriberOf("homeassistant/#");
+
+        for (int i = 0; i < 2; i++) {
+            subscriber.processMessage(TOPIC, "{}".getBytes());
+            subscriber.processMessage(TOPIC, "{}".getBytes());
+        }
+
+        verify(participant1, times(2)).receivedMessage(eq(BROKER_UID), eq(connectionMock), eq(TOPIC), any());
+        verify(participant2, times(2)).receivedMessage(eq(BROKER_UID), eq(connectionMock), eq(TOPIC), any());
+    }
+
+    @Test
+    public void sameTopicAndPayloadIsPassedOnAgain() {
+        handler.registerDiscoveryListener(participant1, "homeassistant/#");
+        byte[] payload = "{}".getBytes();
+
+        subscriberOf("homeassistant/#").processMessage(TOPIC, payload);
+        subscriberOf("homeassistant/#").processMessage(TOPIC, payload);
+
+        verify(participant1, times(2)).receivedMessage(BROKER_UID, connectionMock, TOPIC, payload);
+    }
+
+    @Test
+    public void emptyPayloadIsPassedOnAsVanishedTopic() {
+        handler.registerDiscoveryListener(participant1, "homeassistant/#");
+        handler.registerDiscoveryListener(participant1, "homeassistant/sensor/#");
+
+        subscriberOf("homeassistant/#").processMessage(TOPIC, new byte[0]);
+        subscriberOf("homeassistant/sensor/#").processMessage(TOPIC, new byte[0]);
+
+        verify(participant1, times(1)).topicVanished(BROKER_UID, connectionMock, TOPIC);
+        verify(participant1, never()).receivedMessage(any(), any(), any(), any());
+    }
+}
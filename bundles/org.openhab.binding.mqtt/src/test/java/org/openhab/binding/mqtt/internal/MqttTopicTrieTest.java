@@ -0,0 +1,183 @@
+/**
+ * Copyright (c) 2010-2024 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.mqtt.internal;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.lessThan;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.junit.jupiter.api.Disabled;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests the {@link MqttTopicTrie}.
+ *
+ * @author Tobias Brandt - Initial contribution
+ */
+@NonNullByDefault
+public class MqttTopicTrieTest {
+
+    private final MqttTopicTrie<String> trie = new MqttTopicTrie<>();
+
+    @Test
+    public void exactMatch() {
+        trie.add("a/b/c", "abc");
+        assertEquals(Set.of("abc"), trie.match("a/b/c"));
+        assertEquals(Set.of(), trie.match("a/b"));
+        assertEquals(Set.of(), trie.match("a/b/c/d"));
+    }
+
+    @Test
+    public void singleLevelWildcard() {
+        trie.add("a/+/c", "a+c");
+        trie.add("+/+", "++");
+        assertEquals(Set.of("a+c"), trie.match("a/b/c"));
+        assertEquals(Set.of("++"), trie.match("a/b"));
+        assertEquals(Set.of("++"), trie.match("a/"));
+        assertEquals(Set.of(), trie.match("a"));
+    }
+
+    @Test
+    public void multiLevelWildcard() {
+        trie.add("a/#", "a#");
+        trie.add("#", "#");
+        assertEquals(Set.of("a#", "#"), trie.match("a"));
+        assertEquals(Set.of("a#", "#"), trie.match("a/b/c"));
+        assertEquals(Set.of("#"), trie.match("b/c"));
+    }
+
+    @Test
+    public void systemTopics() {
+        trie.add("#", "#");
+        trie.add("+/info", "+info");
+        trie.add("$SYS/#", "sys");
+        assertEquals(Set.of("sys"), trie.match("$SYS/info"));
+    }
+
+    @Test
+    public void addAndRemove() {
+        assertTrue(trie.add("a/+", "one"));
+        assertTrue(trie.add("a/+", "two"));
+        assertFalse(trie.add("a/+", "one"));
+        assertEquals(2, trie.size());
+        assertTrue(trie.contains("a/+"));
+        assertFalse(trie.contains("a"));
+
+        assertTrue(trie.remove("a/+", "one"));
+        assertFalse(trie.remove("a/+", "one"));
+        assertFalse(trie.remove("a/b", "two"));
+        assertEquals(Set.of("two"), trie.match("a/b"));
+
+        assertTrue(trie.remove("a/+", "two"));
+        assertTrue(trie.isEmpty());
+        assertFalse(trie.contains("a/+"));
+        assertEquals(Set.of(), trie.match("a/b"));
+    }
+
+    @Test
+    public void syntheticDiscoveryTree() {
+        List<String> filters = List.of("homeassistant/+/+/config", "homeassistant/+/+/+/config", "homeassistant/#",
+                "homie/+/$homie", "homie/#", "+/+/+/+", "homeassistant/sensor/#");
+        filters.forEach(filter -> trie.add(filter, filter));
+
+        // 5000 discovery topics of the form homeassistant/<component>/<node>/<object>/config
+        String[] components = { "sensor", "binary_sensor", "light", "switch", "climate" };
+        for (int i = 0; i < 5000; i++) {
+            String topic = "homeassistant/" + components[i % components.length] + "/node" + (i / 50) + "/object" + i
+                    + "/config";
+            assertEquals(naiveMatch(filters, topic), trie.match(topic), topic);
+        }
+        assertEquals(naiveMatch(filters, "homie/device/$homie"), trie.match("homie/device/$homie"));
+        assertEquals(naiveMatch(filters, "homeassistant/light/node/config"),
+                trie.match("homeassistant/light/node/config"));
+    }
+
+    @Test
+    @Disabled("benchmark, run manually")
+    public void benchmarkAgainstMatchingEachFilter() {
+        // a broker with per device discovery filters, as used by bindings that subscribe for each configured device
+        List<String> filters = new ArrayList<>(List.of("homeassistant/+/+/config", "homeassistant/+/+/+/config",
+                "homie/+/$homie", "homie/#"));
+        for (int i = 0; i < 1000; i++) {
+            filters.add("homeassistant/+/node" + i + "/#");
+        }
+        filters.forEach(filter -> trie.add(filter, filter));
+        List<Pattern> patterns = filters.stream().map(MqttTopicTrieTest::toPattern).toList();
+
+        String[] components = { "sensor", "binary_sensor", "light", "switch", "climate" };
+        List<String> topics = new ArrayList<>();
+        for (int i = 0; i < 5000; i++) {
+            topics.add("homeassistant/" + components[i % components.length] + "/node" + (i / 5) + "/object" + i
+                    + "/config");
+        }
+
+        // warm up both variants before measuring
+        int matches = matchTrie(topics) + matchEachFilter(patterns, topics);
+        long start = System.nanoTime();
+        for (int round = 0; round < 20; round++) {
+            matches += matchTrie(topics);
+        }
+        long trieTime = System.nanoTime() - start;
+        start = System.nanoTime();
+        for (int round = 0; round < 20; round++) {
+            matches += matchEachFilter(patterns, topics);
+        }
+        long eachFilterTime = System.nanoTime() - start;
+
+        assertTrue(matches > 0);
+        assertThat("trie takes " + trieTime / 1000000 + " ms, matching each filter " + eachFilterTime / 1000000
+                + " ms", trieTime, lessThan(eachFilterTime));
+    }
+
+    private int matchTrie(List<String> topics) {
+        int matches = 0;
+        for (String topic : topics) {
+            matches += trie.match(topic).size();
+        }
+        return matches;
+    }
+
+    private static int matchEachFilter(List<Pattern> patterns, List<String> topics) {
+        int matches = 0;
+        for (String topic : topics) {
+            for (Pattern pattern : patterns) {
+                if (pattern.matcher(topic).matches()) {
+                    matches++;
+                }
+            }
+        }
+        return matches;
+    }
+
+    private static Set<String> naiveMatch(List<String> filters, String topic) {
+        Set<String> result = new HashSet<>();
+        for (String filter : filters) {
+            if (toPattern(filter).matcher(topic).matches()) {
+                result.add(filter);
+            }
+        }
+        return result;
+    }
+
+    private static Pattern toPattern(String filter) {
+        return Pattern.compile(
+                filter.replace("$", "\\$").replace("+", "[^/]*").replace("/#", "(/.*)?").replace("#", ".*"));
+    }
+}
@@ -0,0 +1,314 @@
+/**
+ * Copyright (c) 2010-2024 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.persistence.dynamodb.internal;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import software.amazon.awssdk.awscore.exception.AwsServiceException;
+import software.amazon.awssdk.enhanced.dynamodb.DynamoDbAsyncTable;
+import software.amazon.awssdk.enhanced.dynamodb.DynamoDbEnhancedAsyncClient;
+import software.amazon.awssdk.enhanced.dynamodb.model.BatchWriteItemEnhancedRequest;
+import software.amazon.awssdk.enhanced.dynamodb.model.BatchWriteResult;
+import software.amazon.awssdk.enhanced.dynamodb.model.WriteBatch;
+import software.amazon.awssdk.services.dynamodb.model.ProvisionedThroughputExceededException;
+import software.amazon.awssdk.services.dynamodb.model.ResourceNotFoundException;
+
+/**
+ * Buffers items and writes them with BatchWriteItem requests of up to 25 items of one table.
+ *
+ * A flush starts when bufferSize items are queued or bufferCommitIntervalMillis after the first item was queued, and
+ * continues one request at a time until the buffer is empty. Unprocessed items and items rejected due to throttling
+ * are queued again, and the delay between requests is doubled. Each request written without throttling halves the
+ * delay again, so the write rate follows the provisioned capacity.
+ *
+ * A request must not contain two items with the same key, i.e. the same name and timestamp. Of such items, only the
+ * one queued last is written.
+ *
+ * If the table does not exist yet, the items are written with {@link TableCreatingPutItem}, which creates it.
+ *
+ * @author Tobias Brandt - Initial contribution
+ */
+@NonNullByDefault
+public class DynamoDBBatchWriter {
+    /** Maximum number of items in one BatchWriteItem request */
+    static final int MAX_BATCH_SIZE = 25;
+    /** Maximum number of buffered items, the oldest ones are dropped beyond this */
+    static final int MAX_BUFFERED = 10_000;
+    private static final long MIN_DELAY_MILLIS = 50;
+    private static final long MAX_DELAY_MILLIS = 20_000;
+
+    private final Logger logger = LoggerFactory.getLogger(DynamoDBBatchWriter.class);
+
+    private final DynamoDBPersistenceService service;
+    private final DynamoDbEnhancedAsyncClient client;
+    private final ExecutorService executor;
+    private final ScheduledExecutorService scheduler;
+    private final int bufferSize;
+    private final long commitIntervalMillis;
+
+    // all fields below are guarded by this
+    private final Map<String, Deque<PendingPut>> buffer = new LinkedHashMap<>();
+    private int buffered;
+    private long delayMillis;
+    private boolean writing;
+    private @Nullable ScheduledFuture<?> flushJob;
+    private CompletableFuture<Void> idle = CompletableFuture.completedFuture(null);
+
+    public DynamoDBBatchWriter(DynamoDBPersistenceService service, DynamoDbEnhancedAsyncClient client,
+            ExecutorService executor, ScheduledExecutorService scheduler, int bufferSize, long commitIntervalMillis) {
+        this.service = service;
+        this.client = client;
+        this.executor = executor;
+        this.scheduler = scheduler;
+        this.bufferSize = bufferSize;
+        this.commitIntervalMillis = commitIntervalMillis;
+    }
+
+    /**
+     * Queues an item to be written to the given table.
+     */
+    @SuppressWarnings("unchecked")
+    public synchronized <T extends DynamoDBItem<?>> void add(DynamoDbAsyncTable<T> table, T item) {
+        buffer.computeIfAbsent(table.tableName(), k -> new ArrayDeque<>())
+                .addLast(new PendingPut((DynamoDbAsyncTable<DynamoDBItem<?>>) (DynamoDbAsyncTable<?>) table, item));
+        buffered++;
+        if (buffered > MAX_BUFFERED) {
+            dropOldest();
+        }
+        if (writing) {
+            return;
+        }
+        if (buffered >= bufferSize) {
+            startWriting();
+        } else if (flushJob == null) {
+            flushJob = scheduler.schedule(this::flush, commitIntervalMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Starts writing all buffered items, unless writing is already in progress.
+     */
+    public synchronized void flush() {
+        if (!writing && buffered > 0) {
+            startWriting();
+        }
+    }
+
+    /**
+     * Writes the buffered items and waits until the buffer is empty or the timeout has passed.
+     */
+    public void close(Duration timeout) {
+        CompletableFuture<Void> localIdle;
+        synchronized (this) {
+            flush();
+            localIdle = idle;
+        }
+        try {
+            localIdle.get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException | TimeoutException e) {
+            logger.warn("Buffered items were not written within {} ms. {} items are discarded.", timeout.toMillis(),
+                    getBuffered());
+        }
+        synchronized (this) {
+            ScheduledFuture<?> localFlushJob = flushJob;
+            if (localFlushJob != null) {
+                localFlushJob.cancel(false);
+                flushJob = null;
+            }
+            buffer.clear();
+            buffered = 0;
+        }
+    }
+
+    public synchronized int getBuffered() {
+        return buffered;
+    }
+
+    public synchronized long getDelayMillis() {
+        return delayMillis;
+    }
+
+    private void startWriting() {
+        ScheduledFuture<?> localFlushJob = flushJob;
+        if (localFlushJob != null) {
+            localFlushJob.cancel(false);
+            flushJob = null;
+        }
+        writing = true;
+        idle = new CompletableFuture<>();
+        executor.execute(this::writeNext);
+    }
+
+    private void dropOldest() {
+        for (Deque<PendingPut> puts : buffer.values()) {
+            PendingPut dropped = puts.pollFirst();
+            if (dropped != null) {
+                buffered--;
+                logger.warn("Write buffer is full, dropped {}", dropped.item());
+                return;
+            }
+        }
+    }
+
+    /**
+     * Takes up to {@link #MAX_BATCH_SIZE} items of the first table with buffered items and writes them.
+     */
+    private void writeNext() {
+        List<PendingPut> batch = List.of();
+        synchronized (this) {
+            Iterator<Deque<PendingPut>> iterator = buffer.values().iterator();
+            while (iterator.hasNext() && batch.isEmpty()) {
+                Deque<PendingPut> puts = iterator.next();
+                int size = puts.size();
+                batch = takeBatch(puts);
+                buffered -= size - puts.size();
+                if (puts.isEmpty()) {
+                    iterator.remove();
+                }
+            }
+            if (batch.isEmpty()) {
+                writing = false;
+                idle.complete(null);
+                return;
+            }
+        }
+
+        DynamoDbAsyncTable<DynamoDBItem<?>> table = batch.get(0).table();
+        WriteBatch.Builder<DynamoDBItem<?>> writeBatch = WriteBatch.builder(table.tableSchema().itemType().rawClass())
+                .mappedTableResource(table);
+        batch.forEach(put -> writeBatch.addPutItem(put.item()));
+        BatchWriteItemEnhancedRequest request = BatchWriteItemEnhancedRequest.builder().addWriteBatch(writeBatch.build())
+                .build();
+        try {
+            client.batchWriteItem(request).whenCompleteAsync((result, exception) -> {
+                try {
+                    handleResult(table, batch, result, exception);
+                } finally {
+                    scheduleNext();
+                }
+            }, executor);
+        } catch (RuntimeException e) {
+            logger.warn("BatchWriteItem: failed with {} {}. Aborting.", e.getClass().getSimpleName(), e.getMessage());
+            scheduleNext();
+        }
+    }
+
+    /**
+     * Takes up to {@link #MAX_BATCH_SIZE} items with distinct keys from the head of the queue. Of items with the same
+     * key, the one queued last replaces the earlier ones, as DynamoDB rejects a request with duplicate keys.
+     */
+    static List<PendingPut> takeBatch(Deque<PendingPut> puts) {
+        Map<String, PendingPut> batch = new LinkedHashMap<>();
+        PendingPut put;
+        while (batch.size() < MAX_BATCH_SIZE && (put = puts.pollFirst()) != null) {
+            batch.put(put.key(), put);
+        }
+        return new ArrayList<>(batch.values());
+    }
+
+    private void handleResult(DynamoDbAsyncTable<DynamoDBItem<?>> table, List<PendingPut> batch,
+            @Nullable BatchWriteResult result, @Nullable Throwable exception) {
+        if (exception == null && result != null) {
+            List<DynamoDBItem<?>> unprocessed = result.unprocessedPutItemsForTable(table);
+            if (unprocessed.isEmpty()) {
+                logger.trace("BatchWriteItem: {} items written to {}", batch.size(), table.tableName());
+                throttled(false);
+            } else {
+                logger.debug("BatchWriteItem: {} of {} items to {} were not processed, retrying", unprocessed.size(),
+                        batch.size(), table.tableName());
+                requeue(unprocessed.stream().map(item -> new PendingPut(table, item)).toList());
+                throttled(true);
+            }
+            return;
+        }
+
+        Throwable cause = exception instanceof CompletionException && exception.getCause() != null
+                ? exception.getCause()
+                : exception;
+        if (cause instanceof ProvisionedThroughputExceededException
+                || (cause instanceof AwsServiceException awsException && awsException.isThrottlingException())) {
+            logger.debug("BatchWriteItem: throttled by {}, retrying {} items", table.tableName(), batch.size());
+            requeue(batch);
+            throttled(true);
+        } else if (cause instanceof ResourceNotFoundException) {
+            logger.trace("BatchWriteItem: Table '{}' was not present. Writing items one by one, creating the table",
+                    table.tableName());
+            for (PendingPut put : batch) {
+                try {
+                    new TableCreatingPutItem<>(service, put.item(), put.table()).putItemAsync();
+                } catch (IllegalStateException e) {
+                    logger.warn("Not ready to store, not storing {}", put.item());
+                }
+            }
+        } else {
+            logger.warn("BatchWriteItem: failed (final) with {} {}. Aborting.",
+                    cause == null ? "unknown error" : cause.getClass().getSimpleName(),
+                    cause == null ? "" : cause.getMessage());
+        }
+    }
+
+    private synchronized void requeue(List<PendingPut> puts) {
+        for (int i = puts.size() - 1; i >= 0; i--) {
+            PendingPut put = puts.get(i);
+            buffer.computeIfAbsent(put.table().tableName(), k -> new ArrayDeque<>()).addFirst(put);
+            buffered++;
+        }
+    }
+
+    private synchronized void throttled(boolean throttled) {
+        if (throttled) {
+            delayMillis = Math.min(MAX_DELAY_MILLIS, Math.max(MIN_DELAY_MILLIS, delayMillis * 2));
+        } else {
+            delayMillis = delayMillis / 2 < MIN_DELAY_MILLIS ? 0 : delayMillis / 2;
+        }
+    }
+
+    private synchronized void scheduleNext() {
+        if (delayMillis > 0) {
+            scheduler.schedule(() -> executor.execute(this::writeNext), delayMillis, TimeUnit.MILLISECONDS);
+        } else {
+            executor.execute(this::writeNext);
+        }
+    }
+
+    record PendingPut(DynamoDbAsyncTable<DynamoDBItem<?>> table, DynamoDBItem<?> item) {
+        /**
+         * @return the primary key of the item, with the timestamp in the millisecond resolution it is stored with
+         */
+        String key() {
+            return item.getName() + "/" + item.getTime().toInstant().toEpochMilli();
+        }
+    }
+}
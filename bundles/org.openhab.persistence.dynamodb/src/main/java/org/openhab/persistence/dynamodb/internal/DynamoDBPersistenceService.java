@@ -27,6 +27,7 @@ import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.stream.Collectors;
 
@@ -89,6 +90,7 @@ import software.amazon.awssdk.services.dynamodb.model.ResourceNotFoundException;
  *
  * @author Sami Salonen - Initial contribution
  * @author Kai Kreuzer - Migration to 3.x
+ * @author Tobias Brandt - Buffered batch writes
  *
  */
 @NonNullByDefault
@@ -115,6 +117,9 @@ public class DynamoDBPersistenceService implements QueryablePersistenceService {
     private final ExecutorService executor = ThreadPoolManager.getPool(DYNAMODB_THREADPOOL_NAME);
     private static final Duration TIMEOUT_API_CALL = Duration.ofSeconds(60);
     private static final Duration TIMEOUT_API_CALL_ATTEMPT = Duration.ofSeconds(5);
+    private static final Duration TIMEOUT_BUFFER_FLUSH = Duration.ofSeconds(30);
+    private final ScheduledExecutorService scheduler = ThreadPoolManager.getScheduledPool("persist");
+    private @Nullable DynamoDBBatchWriter batchWriter;
     private Map<Class<? extends DynamoDBItem<?>>, DynamoDbAsyncTable<? extends DynamoDBItem<?>>> tableCache = new ConcurrentHashMap<>(
             2);
 
@@ -197,6 +202,14 @@ public class DynamoDBPersistenceService implements QueryablePersistenceService {
             return;
         }
 
+        DynamoDbEnhancedAsyncClient localClient = client;
+        if (localDbConfig.getBufferSize() > 1 && localClient != null) {
+            logger.debug("Buffering up to {} items for {} ms before writing", localDbConfig.getBufferSize(),
+                    localDbConfig.getBufferCommitIntervalMillis());
+            batchWriter = new DynamoDBBatchWriter(this, localClient, executor, scheduler,
+                    localDbConfig.getBufferSize(), localDbConfig.getBufferCommitIntervalMillis());
+        }
+
         isProperlyConfigured = true;
         logger.debug("dynamodb persistence service activated");
     }
@@ -320,6 +333,11 @@ public class DynamoDBPersistenceService implements QueryablePersistenceService {
         if (client == null || localLowLevelClient == null) {
             return;
         }
+        DynamoDBBatchWriter localBatchWriter = batchWriter;
+        if (localBatchWriter != null) {
+            localBatchWriter.close(TIMEOUT_BUFFER_FLUSH);
+            batchWriter = null;
+        }
         localLowLevelClient.close();
         lowLevelClient = null;
         client = null;
@@ -561,6 +579,24 @@ public class DynamoDBPersistenceService implements QueryablePersistenceService {
             }
             logger.trace("store() called with item {} {} '{}', which was converted to DTO {}",
                     copiedItem.getClass().getSimpleName(), effectiveName, copiedItem.getState(), dto);
+            DynamoDBBatchWriter localBatchWriter = batchWriter;
+            if (localBatchWriter != null) {
+                dto.accept(new DynamoDBItemVisitor<@Nullable Void>() {
+
+                    @Override
+                    public @Nullable Void visit(DynamoDBBigDecimalItem dynamoBigDecimalItem) {
+                        localBatchWriter.add(getTable(DynamoDBBigDecimalItem.class), dynamoBigDecimalItem);
+                        return null;
+                    }
+
+                    @Override
+                    public @Nullable Void visit(DynamoDBStringItem dynamoStringItem) {
+                        localBatchWriter.add(getTable(DynamoDBStringItem.class), dynamoStringItem);
+                        return null;
+                    }
+                });
+                return;
+            }
             dto.accept(new DynamoDBItemVisitor<TableCreatingPutItem<? extends DynamoDBItem<?>>>() {
 
                 @Override
@@ -314,7 +314,7 @@ public class BaseIntegrationTest extends JavaTest {
         return service;
     }
 
-    private static Map<String, Object> getConfig(@Nullable Boolean legacy, @Nullable String table,
+    protected static Map<String, Object> getConfig(@Nullable Boolean legacy, @Nullable String table,
             @Nullable String tablePrefix) {
         Map<String, Object> config = new HashMap<>();
         if (legacy != null) {
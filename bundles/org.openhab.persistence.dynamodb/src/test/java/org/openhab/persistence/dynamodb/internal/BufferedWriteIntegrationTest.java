@@ -0,0 +1,91 @@
+/**
+ * Copyright (c) 2010-2024 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.persistence.dynamodb.internal;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.openhab.core.library.items.NumberItem;
+import org.openhab.core.library.types.DecimalType;
+import org.openhab.core.persistence.FilterCriteria;
+import org.openhab.core.persistence.FilterCriteria.Ordering;
+import org.openhab.core.persistence.HistoricItem;
+
+/**
+ * Stores more items than fit into one BatchWriteItem request with buffered writes enabled.
+ *
+ * @author Tobias Brandt - Initial contribution
+ *
+ */
+@NonNullByDefault
+public class BufferedWriteIntegrationTest extends BaseIntegrationTest {
+
+    public static final boolean LEGACY_MODE = false;
+    private static final String NAME = "number";
+    private static final int STATE_COUNT = 60;
+
+    private static @Nullable ZonedDateTime storeStart;
+
+    @SuppressWarnings("null")
+    @BeforeAll
+    public static void populateData() {
+        Map<String, Object> config = getConfig(LEGACY_MODE, null, null);
+        config.put("bufferSize", "30");
+        config.put("bufferCommitIntervalMillis", "100");
+        service.activate(null, config);
+
+        storeStart = ZonedDateTime.now();
+
+        NumberItem item = (NumberItem) ITEMS.get(NAME);
+        for (int i = 0; i < STATE_COUNT; i++) {
+            item.setState(new DecimalType(i));
+            try {
+                // Add some delay to enforce different timestamps in ms accuracy
+                Thread.sleep(5);
+            } catch (InterruptedException e) {
+                fail("Interrupted");
+                return;
+            }
+            service.store(item);
+        }
+    }
+
+    @SuppressWarnings("null")
+    @Test
+    public void testAllStatesWritten() {
+        waitForAssert(() -> {
+            FilterCriteria criteria = new FilterCriteria();
+            criteria.setItemName(NAME);
+            criteria.setBeginDate(Objects.requireNonNull(storeStart));
+            criteria.setOrdering(Ordering.ASCENDING);
+            List<DecimalType> expectedStates = new ArrayList<>();
+            for (int i = 0; i < STATE_COUNT; i++) {
+                expectedStates.add(new DecimalType(i));
+            }
+            List<DecimalType> actualStates = new ArrayList<>();
+            for (HistoricItem actual : BaseIntegrationTest.service.query(criteria)) {
+                actualStates.add((DecimalType) actual.getState());
+            }
+            assertEquals(expectedStates, actualStates);
+        });
+    }
+}
@@ -0,0 +1,80 @@
+/**
+ * Copyright (c) 2010-2024 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.persistence.dynamodb.internal;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.math.BigDecimal;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.openhab.persistence.dynamodb.internal.DynamoDBBatchWriter.PendingPut;
+
+import software.amazon.awssdk.enhanced.dynamodb.DynamoDbAsyncTable;
+
+/**
+ * Tests how the {@link DynamoDBBatchWriter} forms BatchWriteItem requests.
+ *
+ * @author Tobias Brandt - Initial contribution
+ *
+ */
+@NonNullByDefault
+public class DynamoDBBatchWriterTest {
+    private static final ZonedDateTime TIME = ZonedDateTime.of(2024, 1, 1, 12, 0, 0, 0, ZoneId.of("UTC"));
+
+    @SuppressWarnings("unchecked")
+    private final DynamoDbAsyncTable<DynamoDBItem<?>> table = Mockito.mock(DynamoDbAsyncTable.class);
+
+    private PendingPut put(String name, int value, ZonedDateTime time) {
+        return new PendingPut(table, new DynamoDBBigDecimalItem(name, new BigDecimal(value), time, null));
+    }
+
+    private static List<Object> states(List<PendingPut> batch) {
+        return batch.stream().map(put -> (Object) put.item().getState()).toList();
+    }
+
+    @Test
+    public void duplicateKeysAreWrittenOnceWithTheLastValue() {
+        Deque<PendingPut> puts = new ArrayDeque<>();
+        puts.add(put("number", 1, TIME));
+        puts.add(put("other", 2, TIME));
+        // same millisecond, so the same key
+        puts.add(put("number", 3, TIME.plusNanos(1000)));
+
+        List<PendingPut> batch = DynamoDBBatchWriter.takeBatch(puts);
+
+        assertEquals(List.of(new BigDecimal(3), new BigDecimal(2)), states(batch));
+        assertTrue(puts.isEmpty());
+    }
+
+    @Test
+    public void batchHoldsAtMostMaxBatchSizeDistinctKeys() {
+        Deque<PendingPut> puts = new ArrayDeque<>();
+        for (int i = 0; i < DynamoDBBatchWriter.MAX_BATCH_SIZE + 5; i++) {
+            puts.add(put("number", i, TIME.plusSeconds(i)));
+            puts.add(put("number", -i, TIME.plusSeconds(i)));
+        }
+
+        List<PendingPut> batch = DynamoDBBatchWriter.takeBatch(puts);
+
+        assertEquals(DynamoDBBatchWriter.MAX_BATCH_SIZE, batch.size());
+        assertEquals(new BigDecimal(0), batch.get(0).item().getState());
+        assertEquals(new BigDecimal(-1), batch.get(1).item().getState());
+    }
+}
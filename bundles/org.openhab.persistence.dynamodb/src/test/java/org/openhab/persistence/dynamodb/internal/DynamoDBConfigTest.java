@@ -191,6 +191,7 @@ public class DynamoDBConfigTest {
         assertEquals(Optional.empty(), fromConfig.getRetryPolicy().map(RetryPolicy::retryMode));
         assertEquals(ExpectedTableSchema.NEW, fromConfig.getTableRevision());
         assertEquals(105, fromConfig.getExpireDays());
+        assertEquals(0, fromConfig.getBufferSize()); // buffering disabled by default
     }
 
     @SuppressWarnings("null")
@@ -254,5 +255,7 @@ public class DynamoDBConfigTest {
         assertEquals(5, fromConfig.getWriteCapacityUnits());
         assertEquals(Optional.empty(), fromConfig.getRetryPolicy().map(RetryPolicy::retryMode));
         assertEquals(ExpectedTableSchema.MAYBE_LEGACY, fromConfig.getTableRevision());
+        assertEquals(112, fromConfig.getBufferSize());
+        assertEquals(501, fromConfig.getBufferCommitIntervalMillis());
     }
 }
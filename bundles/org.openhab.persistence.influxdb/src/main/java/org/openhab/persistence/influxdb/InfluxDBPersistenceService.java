@@ -14,6 +14,9 @@ package org.openhab.persistence.influxdb;
 
 import static org.openhab.persistence.influxdb.internal.InfluxDBConstants.*;
 
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
 import java.time.Instant;
 import java.time.ZoneId;
 import java.time.ZonedDateTime;
@@ -25,15 +28,19 @@ import java.util.Locale;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
-import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.stream.Collectors;
 
 import org.eclipse.jdt.annotation.NonNullByDefault;
 import org.eclipse.jdt.annotation.Nullable;
+import org.openhab.core.OpenHAB;
+import org.openhab.core.common.NamedThreadFactory;
 import org.openhab.core.common.ThreadPoolManager;
 import org.openhab.core.config.core.ConfigurableService;
 import org.openhab.core.items.Item;
@@ -50,12 +57,17 @@ import org.openhab.core.persistence.strategy.PersistenceStrategy;
 import org.openhab.core.types.State;
 import org.openhab.core.types.UnDefType;
 import org.openhab.persistence.influxdb.internal.FilterCriteriaQueryCreator;
+import org.openhab.persistence.influxdb.internal.InfluxDBChunkSizer;
 import org.openhab.persistence.influxdb.internal.InfluxDBConfiguration;
 import org.openhab.persistence.influxdb.internal.InfluxDBHistoricItem;
 import org.openhab.persistence.influxdb.internal.InfluxDBMetadataService;
+import org.openhab.persistence.influxdb.internal.InfluxDBMetrics;
 import org.openhab.persistence.influxdb.internal.InfluxDBPersistentItemInfo;
 import org.openhab.persistence.influxdb.internal.InfluxDBRepository;
+import org.openhab.persistence.influxdb.internal.InfluxDBSpillStore;
 import org.openhab.persistence.influxdb.internal.InfluxDBStateConvertUtils;
+import org.openhab.persistence.influxdb.internal.InfluxDBStreamingResult;
+import org.openhab.persistence.influxdb.internal.InfluxDBWriteQueue;
 import org.openhab.persistence.influxdb.internal.InfluxPoint;
 import org.openhab.persistence.influxdb.internal.influx1.InfluxDB1RepositoryImpl;
 import org.openhab.persistence.influxdb.internal.influx2.InfluxDB2RepositoryImpl;
@@ -99,6 +111,13 @@ public class InfluxDBPersistenceService implements ModifiablePersistenceService
     private final Logger logger = LoggerFactory.getLogger(InfluxDBPersistenceService.class);
 
     private static final int COMMIT_INTERVAL = 3; // in s
+    private static final int SPILL_SEGMENT_SIZE = 10000; // points per spill file
+    private static final long MAX_PENDING_BYTES = 1024 * 1024; // triggers a write before the commit interval
+    private static final int MIN_CHUNK_SIZE = 100; // points per write request
+    private static final int MAX_CHUNK_SIZE = 10000;
+    private static final Duration TARGET_WRITE_LATENCY = Duration.ofSeconds(1);
+    private static final Duration QUERY_IDLE_TIMEOUT = Duration.ofSeconds(60); // releases abandoned query results
+    private static final Path SPILL_FOLDER = Path.of(OpenHAB.getUserDataFolder(), "persistence", "influxdb");
     protected static final String CONFIG_URI = "persistence:influxdb";
 
     // External dependencies
@@ -110,8 +129,15 @@ public class InfluxDBPersistenceService implements ModifiablePersistenceService
     private boolean serviceActivated;
 
     // storage
+    private final ScheduledExecutorService scheduler = ThreadPoolManager.getScheduledPool("org.openhab.influxdb");
     private final ScheduledFuture<?> storeJob;
-    private final BlockingQueue<InfluxPoint> pointsQueue = new LinkedBlockingQueue<>();
+    private final InfluxDBWriteQueue pointsQueue;
+    private final AtomicBoolean commitScheduled = new AtomicBoolean();
+    private final InfluxDBChunkSizer chunkSizer;
+    private final ExecutorService writeExecutor;
+
+    // metrics, only available with the core monitoring
+    private volatile @Nullable InfluxDBMetrics metrics;
 
     // conversion
     private final Set<ItemFactory> itemFactories = new HashSet<>();
@@ -124,10 +150,15 @@ public class InfluxDBPersistenceService implements ModifiablePersistenceService
         this.influxDBMetadataService = influxDBMetadataService;
         this.configuration = new InfluxDBConfiguration(config);
         if (configuration.isValid()) {
+            this.pointsQueue = new InfluxDBWriteQueue(configuration.getMaxQueueSize(), createSpillStore());
+            this.chunkSizer = new InfluxDBChunkSizer(MIN_CHUNK_SIZE, configuration.getBatchSize(), MAX_CHUNK_SIZE,
+                    TARGET_WRITE_LATENCY);
+            this.writeExecutor = Executors.newFixedThreadPool(Math.max(1, configuration.getWriteThreads()),
+                    new NamedThreadFactory("influxdb-write"));
             this.influxDBRepository = createInfluxDBRepository();
             this.influxDBRepository.connect();
-            this.storeJob = ThreadPoolManager.getScheduledPool("org.openhab.influxdb")
-                    .scheduleWithFixedDelay(this::commit, COMMIT_INTERVAL, COMMIT_INTERVAL, TimeUnit.SECONDS);
+            this.storeJob = scheduler.scheduleWithFixedDelay(this::commit, COMMIT_INTERVAL, COMMIT_INTERVAL,
+                    TimeUnit.SECONDS);
             serviceActivated = true;
         } else {
             throw new IllegalArgumentException("Configuration invalid.");
@@ -145,6 +176,20 @@ public class InfluxDBPersistenceService implements ModifiablePersistenceService
         };
     }
 
+    private @Nullable InfluxDBSpillStore createSpillStore() {
+        if (!configuration.isSpillToDisk()) {
+            return null;
+        }
+        try {
+            return new InfluxDBSpillStore(SPILL_FOLDER, Math.min(configuration.getMaxQueueSize(), SPILL_SEGMENT_SIZE),
+                    configuration.getMaxSpillSize() * 1024L * 1024L);
+        } catch (IOException e) {
+            logger.warn("Failed to create spill directory {}, points exceeding the queue size are discarded: {}",
+                    SPILL_FOLDER, e.getMessage());
+            return null;
+        }
+    }
+
     /**
      * Disconnect from database when service is deactivated
      */
@@ -155,9 +200,12 @@ public class InfluxDBPersistenceService implements ModifiablePersistenceService
         storeJob.cancel(false);
         commit(); // ensure we at least tried to store the data;
 
-        if (!pointsQueue.isEmpty()) {
+        if (!pointsQueue.persist()) {
             logger.warn("InfluxDB failed to finally store {} points.", pointsQueue.size());
+        } else if (pointsQueue.getSpillSize() > 0) {
+            logger.info("InfluxDB keeps {} bytes of spilled points for the next start.", pointsQueue.getSpillSize());
         }
+        writeExecutor.shutdown();
 
         influxDBRepository.disconnect();
         logger.info("InfluxDB persistence service stopped.");
@@ -210,10 +258,12 @@ public class InfluxDBPersistenceService implements ModifiablePersistenceService
                 logger.trace("Ignoring item {}, conversion to an InfluxDB point failed.", item.getName());
                 return;
             }
-            if (pointsQueue.offer(point)) {
-                logger.trace("Queued {} for item {}", point, item);
-            } else {
-                logger.warn("Failed to queue {} for item {}", point, item);
+            pointsQueue.add(point);
+            logger.trace("Queued {} for item {}", point, item);
+            boolean batchComplete = pointsQueue.size() >= configuration.getBatchSize()
+                    || pointsQueue.getPendingBytes() >= MAX_PENDING_BYTES;
+            if (batchComplete && commitScheduled.compareAndSet(false, true)) {
+                scheduler.execute(this::flush);
             }
         });
     }
@@ -243,6 +293,11 @@ public class InfluxDBPersistenceService implements ModifiablePersistenceService
                 logger.warn("Item name is missing in filter {} when querying data.", filter);
                 return List.of();
             }
+            if (configuration.isStreamQueries()) {
+                return new InfluxDBStreamingResult(
+                        () -> influxDBRepository.queryStream(filter, configuration.getRetentionPolicy()),
+                        this::mapRowToHistoricItem, scheduler, QUERY_IDLE_TIMEOUT);
+            }
 
             List<InfluxDBRepository.InfluxRow> results = influxDBRepository.query(filter,
                     configuration.getRetentionPolicy());
@@ -279,20 +334,76 @@ public class InfluxDBPersistenceService implements ModifiablePersistenceService
         return false;
     }
 
-    private void commit() {
-        if (!pointsQueue.isEmpty() && checkConnection()) {
-            List<InfluxPoint> points = new ArrayList<>();
-            pointsQueue.drainTo(points);
-            if (!influxDBRepository.write(points)) {
-                logger.warn("Re-queuing {} elements, failed to write batch.", points.size());
-                pointsQueue.addAll(points);
+    private synchronized void flush() {
+        // the service may have been deactivated since the flush was scheduled
+        if (serviceActivated) {
+            commit();
+        }
+    }
+
+    private synchronized void commit() {
+        commitScheduled.set(false);
+        boolean written = true;
+        // keep going while spilled points are replayed, otherwise wait for the next interval to collect a batch
+        while (written && !pointsQueue.isEmpty() && checkConnection()) {
+            List<InfluxPoint> points = pointsQueue.drain();
+            if (points.isEmpty()) {
+                continue;
+            }
+            List<InfluxPoint> failed = writeChunks(points);
+            written = failed.isEmpty();
+            if (!written) {
+                logger.warn("Re-queuing {} elements, failed to write batch.", failed.size());
+                pointsQueue.requeue(failed);
                 influxDBRepository.disconnect();
             } else {
                 logger.trace("Wrote {} elements to database", points.size());
+                pointsQueue.acknowledge();
+                written = pointsQueue.getSpillSize() > 0;
             }
         }
     }
 
+    /**
+     * Write the points in chunks of the current chunk size. Several chunks are written concurrently.
+     *
+     * @param points the points to write
+     * @return the points of all chunks that failed to be written, in their original order
+     */
+    private List<InfluxPoint> writeChunks(List<InfluxPoint> points) {
+        int chunkSize = chunkSizer.getChunkSize();
+        if (points.size() <= chunkSize) {
+            return writeChunk(points) ? List.of() : points;
+        }
+        List<List<InfluxPoint>> chunks = new ArrayList<>();
+        for (int i = 0; i < points.size(); i += chunkSize) {
+            chunks.add(points.subList(i, Math.min(points.size(), i + chunkSize)));
+        }
+        List<CompletableFuture<Boolean>> results = chunks.stream()
+                .map(chunk -> CompletableFuture.supplyAsync(() -> writeChunk(chunk), writeExecutor)).toList();
+        List<InfluxPoint> failed = new ArrayList<>();
+        for (int i = 0; i < chunks.size(); i++) {
+            if (!results.get(i).exceptionally(e -> false).join()) {
+                failed.addAll(chunks.get(i));
+            }
+        }
+        return failed;
+    }
+
+    private boolean writeChunk(List<InfluxPoint> chunk) {
+        long start = System.nanoTime();
+        boolean written = influxDBRepository.write(chunk);
+        long duration = System.nanoTime() - start;
+        InfluxDBMetrics metrics = this.metrics;
+        if (metrics != null) {
+            metrics.recordWrite(duration);
+        }
+        if (written) {
+            chunkSizer.update(chunk.size(), duration);
+        }
+        return written;
+    }
+
     /**
      * Convert incoming data to an {@link InfluxPoint} for further processing. This is needed because storage is
      * asynchronous and the item data may have changed.
@@ -351,6 +462,19 @@ public class InfluxDBPersistenceService implements ModifiablePersistenceService
         });
     }
 
+    @Reference(cardinality = ReferenceCardinality.OPTIONAL, policy = ReferencePolicy.DYNAMIC)
+    public synchronized void setMetrics(InfluxDBMetrics metrics) {
+        metrics.register(pointsQueue);
+        this.metrics = metrics;
+    }
+
+    public synchronized void unsetMetrics(InfluxDBMetrics metrics) {
+        if (this.metrics == metrics) {
+            metrics.unregister();
+            this.metrics = null;
+        }
+    }
+
     @Reference(cardinality = ReferenceCardinality.AT_LEAST_ONE, policy = ReferencePolicy.DYNAMIC)
     public void setItemFactory(ItemFactory itemFactory) {
         itemFactories.add(itemFactory);
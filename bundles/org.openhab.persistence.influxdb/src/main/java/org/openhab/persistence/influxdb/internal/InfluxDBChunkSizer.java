@@ -0,0 +1,58 @@
+/**
+ * Copyright (c) 2010-2024 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.persistence.influxdb.internal;
+
+import java.time.Duration;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+
+/**
+ * Tunes the number of points written with one request from the observed write latency.
+ *
+ * The chunk size is doubled while full chunks are written in less than half of the target latency, and halved as soon
+ * as a chunk takes longer than the target latency.
+ *
+ * @author Tobias Brandt - Initial contribution
+ */
+@NonNullByDefault
+public class InfluxDBChunkSizer {
+    private final int minChunkSize;
+    private final int maxChunkSize;
+    private final long targetLatencyNanos;
+    private int chunkSize;
+
+    public InfluxDBChunkSizer(int minChunkSize, int initialChunkSize, int maxChunkSize, Duration targetLatency) {
+        this.minChunkSize = minChunkSize;
+        this.maxChunkSize = maxChunkSize;
+        this.targetLatencyNanos = targetLatency.toNanos();
+        this.chunkSize = Math.max(minChunkSize, Math.min(maxChunkSize, initialChunkSize));
+    }
+
+    public synchronized int getChunkSize() {
+        return chunkSize;
+    }
+
+    /**
+     * Adapts the chunk size after a successful write.
+     *
+     * @param points number of points written
+     * @param latencyNanos time needed to write them
+     */
+    public synchronized void update(int points, long latencyNanos) {
+        if (latencyNanos > targetLatencyNanos) {
+            chunkSize = Math.max(minChunkSize, chunkSize / 2);
+        } else if (points >= chunkSize && latencyNanos < targetLatencyNanos / 2) {
+            chunkSize = Math.min(maxChunkSize, chunkSize * 2);
+        }
+    }
+}
@@ -39,6 +39,12 @@ public class InfluxDBConfiguration {
     public static final String ADD_CATEGORY_TAG_PARAM = "addCategoryTag";
     public static final String ADD_LABEL_TAG_PARAM = "addLabelTag";
     public static final String ADD_TYPE_TAG_PARAM = "addTypeTag";
+    public static final String MAX_QUEUE_SIZE_PARAM = "maxQueueSize";
+    public static final String SPILL_TO_DISK_PARAM = "spillToDisk";
+    public static final String MAX_SPILL_SIZE_PARAM = "maxSpillSize";
+    public static final String BATCH_SIZE_PARAM = "batchSize";
+    public static final String WRITE_THREADS_PARAM = "writeThreads";
+    public static final String STREAM_QUERIES_PARAM = "streamQueries";
     private final Logger logger = LoggerFactory.getLogger(InfluxDBConfiguration.class);
     private final String url;
     private final String user;
@@ -51,6 +57,12 @@ public class InfluxDBConfiguration {
     private final boolean addCategoryTag;
     private final boolean addTypeTag;
     private final boolean addLabelTag;
+    private final int maxQueueSize;
+    private final boolean spillToDisk;
+    private final int maxSpillSize;
+    private final int batchSize;
+    private final int writeThreads;
+    private final boolean streamQueries;
 
     public InfluxDBConfiguration(Map<String, Object> config) {
         url = ConfigParser.valueAsOrElse(config.get(URL_PARAM), String.class, "http://127.0.0.1:8086");
@@ -64,6 +76,12 @@ public class InfluxDBConfiguration {
         addCategoryTag = ConfigParser.valueAsOrElse(config.get(ADD_CATEGORY_TAG_PARAM), Boolean.class, false);
         addLabelTag = ConfigParser.valueAsOrElse(config.get(ADD_LABEL_TAG_PARAM), Boolean.class, false);
         addTypeTag = ConfigParser.valueAsOrElse(config.get(ADD_TYPE_TAG_PARAM), Boolean.class, false);
+        maxQueueSize = ConfigParser.valueAsOrElse(config.get(MAX_QUEUE_SIZE_PARAM), Integer.class, 100000);
+        spillToDisk = ConfigParser.valueAsOrElse(config.get(SPILL_TO_DISK_PARAM), Boolean.class, false);
+        maxSpillSize = ConfigParser.valueAsOrElse(config.get(MAX_SPILL_SIZE_PARAM), Integer.class, 100);
+        batchSize = ConfigParser.valueAsOrElse(config.get(BATCH_SIZE_PARAM), Integer.class, 1000);
+        writeThreads = ConfigParser.valueAsOrElse(config.get(WRITE_THREADS_PARAM), Integer.class, 2);
+        streamQueries = ConfigParser.valueAsOrElse(config.get(STREAM_QUERIES_PARAM), Boolean.class, false);
     }
 
     private InfluxDBVersion parseInfluxVersion(@Nullable String value) {
@@ -142,6 +160,36 @@ public class InfluxDBConfiguration {
         return addLabelTag;
     }
 
+    public int getMaxQueueSize() {
+        return maxQueueSize;
+    }
+
+    public boolean isSpillToDisk() {
+        return spillToDisk;
+    }
+
+    /**
+     * @return maximum size of spilled points on disk in MB
+     */
+    public int getMaxSpillSize() {
+        return maxSpillSize;
+    }
+
+    /**
+     * @return number of queued points that triggers a write before the next commit interval
+     */
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    public int getWriteThreads() {
+        return writeThreads;
+    }
+
+    public boolean isStreamQueries() {
+        return streamQueries;
+    }
+
     public String getUser() {
         return user;
     }
@@ -160,6 +208,8 @@ public class InfluxDBConfiguration {
                 + " chars', token='" + token.length() + " chars', databaseName='" + databaseName
                 + "', retentionPolicy='" + retentionPolicy + "', version=" + version + ", replaceUnderscore="
                 + replaceUnderscore + ", addCategoryTag=" + addCategoryTag + ", addTypeTag=" + addTypeTag
-                + ", addLabelTag=" + addLabelTag + '}';
+                + ", addLabelTag=" + addLabelTag + ", maxQueueSize=" + maxQueueSize + ", spillToDisk=" + spillToDisk
+                + ", maxSpillSize=" + maxSpillSize + ", batchSize=" + batchSize + ", writeThreads=" + writeThreads
+                + ", streamQueries=" + streamQueries + '}';
     }
 }
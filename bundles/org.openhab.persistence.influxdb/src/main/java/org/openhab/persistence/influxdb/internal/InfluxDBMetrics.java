@@ -0,0 +1,46 @@
+/**
+ * Copyright (c) 2010-2024 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.persistence.influxdb.internal;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+
+/**
+ * Exposes the state of the write queue as metrics.
+ *
+ * The only implementation is {@link InfluxDBMicrometerMetrics}, which is only available when the core monitoring is
+ * installed. The persistence service uses this interface, so it does not need the optional micrometer packages.
+ *
+ * @author Tobias Brandt - Initial contribution
+ */
+@NonNullByDefault
+public interface InfluxDBMetrics {
+
+    /**
+     * Registers the metrics of the given write queue, replacing the metrics of a previously registered queue.
+     *
+     * @param queue the write queue of the persistence service
+     */
+    void register(InfluxDBWriteQueue queue);
+
+    /**
+     * Removes the metrics registered by {@link #register(InfluxDBWriteQueue)}.
+     */
+    void unregister();
+
+    /**
+     * Records the duration of writing a chunk of points.
+     *
+     * @param nanos the duration in nanoseconds
+     */
+    void recordWrite(long nanos);
+}
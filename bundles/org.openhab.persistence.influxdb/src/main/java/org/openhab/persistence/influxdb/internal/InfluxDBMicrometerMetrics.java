@@ -0,0 +1,86 @@
+/**
+ * Copyright (c) 2010-2024 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.persistence.influxdb.internal;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.openhab.core.io.monitor.MeterRegistryProvider;
+import org.osgi.service.component.annotations.Activate;
+import org.osgi.service.component.annotations.Component;
+import org.osgi.service.component.annotations.Deactivate;
+import org.osgi.service.component.annotations.Reference;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.BaseUnits;
+
+/**
+ * Registers the write queue metrics with the {@link MeterRegistryProvider} of the core monitoring.
+ *
+ * This is the only class of the add-on using micrometer. Its component is only satisfied, and the class only loaded,
+ * when the core monitoring and micrometer are installed.
+ *
+ * @author Tobias Brandt - Initial contribution
+ */
+@NonNullByDefault
+@Component(service = InfluxDBMetrics.class)
+public class InfluxDBMicrometerMetrics implements InfluxDBMetrics {
+    private static final String METRIC_PREFIX = "openhab.persistence.influxdb.";
+
+    private final MeterRegistry meterRegistry;
+    private final Timer writeTimer;
+    // guarded by this
+    private List<Meter> queueMeters = List.of();
+
+    @Activate
+    public InfluxDBMicrometerMetrics(final @Reference MeterRegistryProvider meterRegistryProvider) {
+        this.meterRegistry = meterRegistryProvider.getOHMeterRegistry();
+        this.writeTimer = Timer.builder(METRIC_PREFIX + "write").description("Duration of writing a batch of points")
+                .register(meterRegistry);
+    }
+
+    @Deactivate
+    public synchronized void deactivate() {
+        unregister();
+        meterRegistry.remove(writeTimer);
+    }
+
+    @Override
+    public synchronized void register(InfluxDBWriteQueue queue) {
+        unregister();
+        queueMeters = List.of(
+                Gauge.builder(METRIC_PREFIX + "queue.size", queue, InfluxDBWriteQueue::size)
+                        .description("Points waiting in memory to be written").register(meterRegistry),
+                Gauge.builder(METRIC_PREFIX + "spill.size", queue, InfluxDBWriteQueue::getSpillSize)
+                        .description("Size of points spilled to disk").baseUnit(BaseUnits.BYTES)
+                        .register(meterRegistry),
+                FunctionCounter.builder(METRIC_PREFIX + "dropped", queue, InfluxDBWriteQueue::getDroppedCount)
+                        .description("Points discarded because the queue was full").register(meterRegistry));
+    }
+
+    @Override
+    public synchronized void unregister() {
+        queueMeters.forEach(meterRegistry::remove);
+        queueMeters = List.of();
+    }
+
+    @Override
+    public void recordWrite(long nanos) {
+        writeTimer.record(nanos, TimeUnit.NANOSECONDS);
+    }
+}
@@ -15,6 +15,7 @@ package org.openhab.persistence.influxdb.internal;
 import java.time.Instant;
 import java.util.List;
 import java.util.Map;
+import java.util.stream.Stream;
 
 import org.eclipse.jdt.annotation.NonNullByDefault;
 import org.openhab.core.persistence.FilterCriteria;
@@ -68,6 +69,17 @@ public interface InfluxDBRepository {
      */
     List<InfluxRow> query(FilterCriteria filter, String retentionPolicy);
 
+    /**
+     * Executes query and returns the rows while they are received from the server
+     *
+     * The stream keeps the response open until it is consumed completely or closed. Errors while reading the response
+     * are thrown as {@link RuntimeException} from the stream.
+     *
+     * @param filter the query filter
+     * @return Query results
+     */
+    Stream<InfluxRow> queryStream(FilterCriteria filter, String retentionPolicy);
+
     /**
      * Write points to database
      *
@@ -0,0 +1,344 @@
+/**
+ * Copyright (c) 2010-2024 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.persistence.influxdb.internal;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Stream;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Append-only store for {@link InfluxPoint}s that do not fit into memory while InfluxDB is not reachable.
+ *
+ * Points are appended to numbered segment files in the spill directory and read back segment by segment, oldest
+ * first. A segment is only deleted after its points have been written. Segments left over from a previous run are
+ * picked up again, so spilled points also survive a restart.
+ * This class is not thread-safe, access is synchronized by {@link InfluxDBWriteQueue}.
+ *
+ * @author Tobias Brandt - Initial contribution
+ */
+@NonNullByDefault
+public class InfluxDBSpillStore {
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final String SEGMENT_SUFFIX = ".bin";
+
+    private static final byte TYPE_STRING = 'S';
+    private static final byte TYPE_DECIMAL = 'D';
+    private static final byte TYPE_LONG = 'L';
+    private static final byte TYPE_INTEGER = 'I';
+    private static final byte TYPE_DOUBLE = 'F';
+    private static final byte TYPE_BOOLEAN = 'B';
+
+    private final Logger logger = LoggerFactory.getLogger(InfluxDBSpillStore.class);
+
+    private final Path directory;
+    private final int segmentSize;
+    private final long maxSize;
+
+    // segment number -> size of the segment file in bytes, sorted from oldest to newest
+    private final TreeMap<Long, Long> segments = new TreeMap<>();
+    private long size;
+
+    private @Nullable DataOutputStream activeSegment;
+    private long activeSegmentNumber;
+    private int activeSegmentPoints;
+
+    /**
+     * Creates a spill store and picks up segments left in the directory.
+     *
+     * @param directory directory the segment files are stored in
+     * @param segmentSize number of points per segment file
+     * @param maxSize maximum size of all segment files in bytes, the oldest segments are discarded beyond that
+     * @throws IOException if the directory can not be read or created
+     */
+    public InfluxDBSpillStore(Path directory, int segmentSize, long maxSize) throws IOException {
+        this.directory = directory;
+        this.segmentSize = Math.max(1, segmentSize);
+        this.maxSize = maxSize;
+        Files.createDirectories(directory);
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : files.toList()) {
+                Long number = segmentNumber(file);
+                if (number != null) {
+                    long fileSize = Files.size(file);
+                    segments.put(number, fileSize);
+                    size += fileSize;
+                }
+            }
+        }
+        activeSegmentNumber = segments.isEmpty() ? 0 : segments.lastKey() + 1;
+        if (!segments.isEmpty()) {
+            logger.info("Found {} spilled segments with {} bytes in {}, replaying them when InfluxDB is available",
+                    segments.size(), size, directory);
+        }
+    }
+
+    public boolean isEmpty() {
+        return segments.isEmpty();
+    }
+
+    /**
+     * @return size of all segment files in bytes
+     */
+    public long size() {
+        return size;
+    }
+
+    /**
+     * Appends a point after all points stored before.
+     *
+     * @param point the point to store
+     * @throws IOException if the point could not be written
+     */
+    public void append(InfluxPoint point) throws IOException {
+        DataOutputStream out = activeSegment;
+        if (out == null) {
+            out = openActiveSegment();
+        }
+        int before = out.size();
+        writePoint(out, point);
+        out.flush();
+        long written = out.size() - before;
+        segments.merge(activeSegmentNumber, written, Long::sum);
+        size += written;
+        if (++activeSegmentPoints >= segmentSize) {
+            closeActiveSegment();
+        }
+        discardOldSegments();
+    }
+
+    /**
+     * Stores points before all points stored so far, e.g. to keep queued points when the service is stopped.
+     *
+     * @param points the points to store, oldest first
+     * @throws IOException if the points could not be written
+     */
+    public void prepend(List<InfluxPoint> points) throws IOException {
+        if (points.isEmpty()) {
+            return;
+        }
+        long number = segments.isEmpty() ? activeSegmentNumber : segments.firstKey() - 1;
+        Path file = segmentFile(number);
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file)))) {
+            for (InfluxPoint point : points) {
+                writePoint(out, point);
+            }
+            out.flush();
+            segments.put(number, (long) out.size());
+            size += out.size();
+        }
+        if (number >= activeSegmentNumber) {
+            activeSegmentNumber = number + 1;
+        }
+    }
+
+    /**
+     * Reads the points of the oldest segment without removing it. The segment is only removed by
+     * {@link #removeSegment(long)} once its points have been written, so they are not lost if writing them fails.
+     *
+     * @return the oldest segment, or null if no points are stored
+     */
+    public @Nullable Segment readOldestSegment() {
+        if (segments.isEmpty()) {
+            return null;
+        }
+        long number = segments.firstKey();
+        if (number == activeSegmentNumber) {
+            closeActiveSegment();
+        }
+        Path file = segmentFile(number);
+        List<InfluxPoint> points = new ArrayList<>();
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            while (true) {
+                points.add(readPoint(in));
+            }
+        } catch (EOFException e) {
+            // end of segment, a truncated last point is skipped
+        } catch (IOException | RuntimeException e) {
+            logger.warn("Failed to read spilled points from {}, {} points recovered: {}", file, points.size(),
+                    e.getMessage());
+        }
+        return new Segment(number, points);
+    }
+
+    /**
+     * Removes a segment, e.g. after its points have been written.
+     *
+     * @param number the number of the segment returned by {@link #readOldestSegment()}
+     */
+    public void removeSegment(long number) {
+        deleteSegment(number);
+    }
+
+    /**
+     * Closes the segment currently written to, all segment files are kept.
+     */
+    public void close() {
+        closeActiveSegment();
+    }
+
+    private DataOutputStream openActiveSegment() throws IOException {
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(
+                segmentFile(activeSegmentNumber), StandardOpenOption.CREATE, StandardOpenOption.APPEND)));
+        segments.putIfAbsent(activeSegmentNumber, 0L);
+        activeSegment = out;
+        activeSegmentPoints = 0;
+        return out;
+    }
+
+    private void closeActiveSegment() {
+        DataOutputStream out = activeSegment;
+        if (out != null) {
+            try {
+                out.close();
+            } catch (IOException e) {
+                logger.debug("Failed to close spill segment {}: {}", activeSegmentNumber, e.getMessage());
+            }
+            activeSegment = null;
+            activeSegmentNumber++;
+        }
+    }
+
+    private void discardOldSegments() {
+        while (maxSize > 0 && size > maxSize && segments.size() > 1) {
+            long number = segments.firstKey();
+            logger.warn("Spilled points exceed {} bytes, discarding oldest segment {}", maxSize,
+                    segmentFile(number));
+            deleteSegment(number);
+        }
+    }
+
+    private void deleteSegment(long number) {
+        Long segmentSize = segments.remove(number);
+        if (segmentSize != null) {
+            size -= segmentSize;
+        }
+        try {
+            Files.deleteIfExists(segmentFile(number));
+        } catch (IOException e) {
+            logger.warn("Failed to delete spill segment {}: {}", segmentFile(number), e.getMessage());
+        }
+    }
+
+    private Path segmentFile(long number) {
+        return directory.resolve(SEGMENT_PREFIX + number + SEGMENT_SUFFIX);
+    }
+
+    private @Nullable Long segmentNumber(Path file) {
+        String name = file.getFileName().toString();
+        if (name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX)) {
+            try {
+                return Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+            } catch (NumberFormatException e) {
+                logger.debug("Ignoring unexpected file {} in spill directory", file);
+            }
+        }
+        return null;
+    }
+
+    private static void writePoint(DataOutputStream out, InfluxPoint point) throws IOException {
+        writeString(out, point.getMeasurementName());
+        out.writeLong(point.getTime().getEpochSecond());
+        out.writeInt(point.getTime().getNano());
+        Object value = point.getValue();
+        if (value instanceof BigDecimal decimal) {
+            out.writeByte(TYPE_DECIMAL);
+            writeString(out, decimal.toString());
+        } else if (value instanceof Long longValue) {
+            out.writeByte(TYPE_LONG);
+            out.writeLong(longValue);
+        } else if (value instanceof Integer intValue) {
+            out.writeByte(TYPE_INTEGER);
+            out.writeInt(intValue);
+        } else if (value instanceof Double doubleValue) {
+            out.writeByte(TYPE_DOUBLE);
+            out.writeDouble(doubleValue);
+        } else if (value instanceof Boolean booleanValue) {
+            out.writeByte(TYPE_BOOLEAN);
+            out.writeBoolean(booleanValue);
+        } else {
+            out.writeByte(TYPE_STRING);
+            writeString(out, String.valueOf(value));
+        }
+        Map<String, String> tags = point.getTags();
+        out.writeInt(tags.size());
+        for (Map.Entry<String, String> tag : tags.entrySet()) {
+            writeString(out, tag.getKey());
+            writeString(out, tag.getValue());
+        }
+    }
+
+    private static InfluxPoint readPoint(DataInputStream in) throws IOException {
+        InfluxPoint.Builder builder = InfluxPoint.newBuilder(readString(in))
+                .withTime(Instant.ofEpochSecond(in.readLong(), in.readInt()));
+        byte type = in.readByte();
+        Object value = switch (type) {
+            case TYPE_DECIMAL -> new BigDecimal(readString(in));
+            case TYPE_LONG -> in.readLong();
+            case TYPE_INTEGER -> in.readInt();
+            case TYPE_DOUBLE -> in.readDouble();
+            case TYPE_BOOLEAN -> in.readBoolean();
+            case TYPE_STRING -> readString(in);
+            default -> throw new IOException("Unknown value type " + type);
+        };
+        builder.withValue(value);
+        int tagCount = in.readInt();
+        for (int i = 0; i < tagCount; i++) {
+            builder.withTag(readString(in), readString(in));
+        }
+        return builder.build();
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length < 0) {
+            throw new IOException("Invalid string length " + length);
+        }
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Points of one segment file.
+     *
+     * @param number the number of the segment
+     * @param points the points of the segment, oldest first
+     */
+    public record Segment(long number, List<InfluxPoint> points) {
+    }
+}
@@ -0,0 +1,214 @@
+/**
+ * Copyright (c) 2010-2024 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.persistence.influxdb.internal;
+
+import java.lang.ref.Cleaner;
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.openhab.core.persistence.HistoricItem;
+import org.openhab.persistence.influxdb.internal.InfluxDBRepository.InfluxRow;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Query result that converts rows to {@link HistoricItem}s while they are received.
+ *
+ * Every {@link #iterator()} executes the query on the first call to {@link Iterator#hasNext()}. Its response is
+ * released as soon as the last row has been read or reading failed.
+ *
+ * Callers cannot close an {@link Iterator}, so a response which is not read to the end is released when the iterator
+ * has not been advanced for the idle timeout, or when it is garbage collected, whichever comes first. Reading from an
+ * iterator that has been closed that way, or failing to read the response, throws an {@link IllegalStateException}
+ * instead of ending the iteration early.
+ *
+ * @author Tobias Brandt - Initial contribution
+ */
+@NonNullByDefault
+public class InfluxDBStreamingResult implements Iterable<HistoricItem> {
+    private static final Cleaner CLEANER = Cleaner.create();
+
+    private final Supplier<Stream<InfluxRow>> query;
+    private final Function<InfluxRow, HistoricItem> mapper;
+    private final ScheduledExecutorService scheduler;
+    private final Duration idleTimeout;
+
+    public InfluxDBStreamingResult(Supplier<Stream<InfluxRow>> query, Function<InfluxRow, HistoricItem> mapper,
+            ScheduledExecutorService scheduler, Duration idleTimeout) {
+        this.query = query;
+        this.mapper = mapper;
+        this.scheduler = scheduler;
+        this.idleTimeout = idleTimeout;
+    }
+
+    @Override
+    public Iterator<HistoricItem> iterator() {
+        return new StreamingIterator();
+    }
+
+    private class StreamingIterator implements Iterator<HistoricItem> {
+        private @Nullable StreamResources resources;
+        private Cleaner.@Nullable Cleanable cleanable;
+        private @Nullable HistoricItem next;
+        private boolean done = false;
+
+        @Override
+        public boolean hasNext() {
+            if (next != null) {
+                return true;
+            }
+            if (done) {
+                return false;
+            }
+            StreamResources resources = this.resources;
+            if (resources == null) {
+                resources = open();
+            }
+            try {
+                InfluxRow row = resources.read();
+                if (row != null) {
+                    next = mapper.apply(row);
+                    return true;
+                }
+            } catch (RuntimeException e) {
+                close();
+                throw new IllegalStateException("Unable to read query result: " + e.getMessage(), e);
+            }
+            close();
+            return false;
+        }
+
+        @Override
+        public HistoricItem next() {
+            HistoricItem next = this.next;
+            if (next == null && hasNext()) {
+                next = this.next;
+            }
+            if (next == null) {
+                throw new NoSuchElementException();
+            }
+            this.next = null;
+            return next;
+        }
+
+        private StreamResources open() {
+            StreamResources resources = new StreamResources(query.get(), idleTimeout.toMillis());
+            this.resources = resources;
+            // the resources must not reference this iterator, otherwise it never becomes unreachable
+            cleanable = CLEANER.register(this, resources);
+            resources.scheduleIdleCheck(scheduler);
+            return resources;
+        }
+
+        private void close() {
+            done = true;
+            Cleaner.Cleanable cleanable = this.cleanable;
+            if (cleanable != null) {
+                cleanable.clean();
+            }
+            this.cleanable = null;
+            this.resources = null;
+        }
+    }
+
+    /**
+     * Response of one iterator, closed by the iterator itself, by the idle check or by the {@link Cleaner}.
+     */
+    private static class StreamResources implements Runnable {
+        private final Logger logger = LoggerFactory.getLogger(StreamResources.class);
+
+        private final Stream<InfluxRow> rows;
+        private final Iterator<InfluxRow> iterator;
+        private final long idleTimeoutMillis;
+        private volatile long lastAccess = System.nanoTime();
+        // guarded by this
+        private boolean reading = false;
+        private boolean closed = false;
+        private boolean timedOut = false;
+
+        StreamResources(Stream<InfluxRow> rows, long idleTimeoutMillis) {
+            this.rows = rows;
+            this.iterator = rows.iterator();
+            this.idleTimeoutMillis = idleTimeoutMillis;
+        }
+
+        /**
+         * Reads the next row.
+         *
+         * @return the row, or null if all rows have been read
+         * @throws IllegalStateException if the response has been released after the idle timeout
+         */
+        @Nullable
+        InfluxRow read() {
+            synchronized (this) {
+                if (closed) {
+                    throw new IllegalStateException(
+                            timedOut ? "Result was closed after it had not been read for " + idleTimeoutMillis + " ms"
+                                    : "Result is closed");
+                }
+                reading = true;
+            }
+            try {
+                // waiting for the server is not idle time, the idle check leaves the response open meanwhile
+                return iterator.hasNext() ? iterator.next() : null;
+            } finally {
+                synchronized (this) {
+                    reading = false;
+                    lastAccess = System.nanoTime();
+                }
+            }
+        }
+
+        void scheduleIdleCheck(ScheduledExecutorService scheduler) {
+            long idleMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - lastAccess);
+            scheduler.schedule(() -> {
+                synchronized (this) {
+                    if (closed) {
+                        return;
+                    }
+                    if (reading) {
+                        lastAccess = System.nanoTime();
+                    }
+                    if (TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - lastAccess) < idleTimeoutMillis) {
+                        scheduleIdleCheck(scheduler);
+                        return;
+                    }
+                    logger.warn("Closing query result which has not been read for {} ms", idleTimeoutMillis);
+                    timedOut = true;
+                    run();
+                }
+            }, Math.max(0, idleTimeoutMillis - idleMillis), TimeUnit.MILLISECONDS);
+        }
+
+        @Override
+        public synchronized void run() {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            try {
+                rows.close();
+            } catch (RuntimeException e) {
+                logger.debug("Unable to release query response: {}", e.getMessage());
+            }
+        }
+    }
+}
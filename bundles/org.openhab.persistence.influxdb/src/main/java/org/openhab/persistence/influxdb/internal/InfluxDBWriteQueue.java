@@ -0,0 +1,217 @@
+/**
+ * Copyright (c) 2010-2024 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.persistence.influxdb.internal;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.ListIterator;
+import java.util.Map;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Bounded queue of {@link InfluxPoint}s waiting to be written.
+ *
+ * At most {@code capacity} points are kept in memory. Without a {@link InfluxDBSpillStore} the oldest points are
+ * discarded when the queue is full. With a spill store further points are appended to disk instead and read back in
+ * order once the points in memory have been written. A replayed segment is kept on disk until
+ * {@link #acknowledge()} confirms that its points have been written.
+ *
+ * @author Tobias Brandt - Initial contribution
+ */
+@NonNullByDefault
+public class InfluxDBWriteQueue {
+    private final Logger logger = LoggerFactory.getLogger(InfluxDBWriteQueue.class);
+
+    private final int capacity;
+    private final @Nullable InfluxDBSpillStore spillStore;
+    private final ArrayDeque<InfluxPoint> points = new ArrayDeque<>();
+    private long pendingBytes;
+    private long droppedCount;
+    // number of the spilled segment returned by the last drain, until it is acknowledged or requeued
+    private @Nullable Long replayedSegment;
+
+    /**
+     * @param capacity maximum number of points kept in memory
+     * @param spillStore store for points that do not fit into memory, or null to discard the oldest points
+     */
+    public InfluxDBWriteQueue(int capacity, @Nullable InfluxDBSpillStore spillStore) {
+        this.capacity = Math.max(1, capacity);
+        this.spillStore = spillStore;
+    }
+
+    /**
+     * Adds a point after all points added before.
+     *
+     * @param point the point to add
+     */
+    public synchronized void add(InfluxPoint point) {
+        InfluxDBSpillStore spillStore = this.spillStore;
+        if (spillStore != null && (!spillStore.isEmpty() || points.size() >= capacity)) {
+            // once points are spilled, newer points must go to disk as well to keep the order
+            try {
+                spillStore.append(point);
+                return;
+            } catch (IOException e) {
+                logger.warn("Failed to spill point to disk, keeping it in memory: {}", e.getMessage());
+            }
+        } else if (points.size() >= capacity) {
+            removeFirst();
+            if (droppedCount++ == 0) {
+                logger.warn("InfluxDB write queue is full, discarding the oldest points");
+            }
+        }
+        points.addLast(point);
+        pendingBytes += estimateSize(point);
+    }
+
+    /**
+     * Removes all points held in memory. If there are none, the points of the oldest spilled segment are returned
+     * instead, and the segment is kept until the points are acknowledged.
+     *
+     * @return the oldest points, in the order they have been added
+     */
+    public synchronized List<InfluxPoint> drain() {
+        InfluxDBSpillStore spillStore = this.spillStore;
+        if (points.isEmpty() && spillStore != null && replayedSegment == null) {
+            InfluxDBSpillStore.Segment segment;
+            while ((segment = spillStore.readOldestSegment()) != null) {
+                if (!segment.points().isEmpty()) {
+                    replayedSegment = segment.number();
+                    return new ArrayList<>(segment.points());
+                }
+                spillStore.removeSegment(segment.number());
+            }
+        }
+        List<InfluxPoint> drained = new ArrayList<>(points);
+        points.clear();
+        pendingBytes = 0;
+        return drained;
+    }
+
+    /**
+     * Confirms that the points returned by the last {@link #drain()} have been written, so a replayed spill segment
+     * can be deleted.
+     */
+    public synchronized void acknowledge() {
+        Long replayedSegment = this.replayedSegment;
+        InfluxDBSpillStore spillStore = this.spillStore;
+        if (replayedSegment != null && spillStore != null) {
+            spillStore.removeSegment(replayedSegment);
+        }
+        this.replayedSegment = null;
+    }
+
+    /**
+     * Puts points that failed to be written back in front of the queue. Points of a replayed spill segment are not
+     * put back, the segment is replayed again instead.
+     *
+     * @param failed the points returned by {@link #drain()}
+     */
+    public synchronized void requeue(List<InfluxPoint> failed) {
+        if (replayedSegment != null) {
+            replayedSegment = null;
+            return;
+        }
+        ListIterator<InfluxPoint> iterator = failed.listIterator(failed.size());
+        while (iterator.hasPrevious()) {
+            InfluxPoint point = iterator.previous();
+            points.addFirst(point);
+            pendingBytes += estimateSize(point);
+        }
+        if (spillStore == null) {
+            while (points.size() > capacity) {
+                removeFirst();
+                droppedCount++;
+            }
+        }
+    }
+
+    /**
+     * Moves all points held in memory to the spill store, so they are written after a restart.
+     *
+     * @return true if no points are left in memory
+     */
+    public synchronized boolean persist() {
+        InfluxDBSpillStore spillStore = this.spillStore;
+        if (spillStore != null) {
+            try {
+                spillStore.prepend(new ArrayList<>(points));
+                points.clear();
+                pendingBytes = 0;
+            } catch (IOException e) {
+                logger.warn("Failed to spill {} points to disk: {}", points.size(), e.getMessage());
+            }
+            spillStore.close();
+        }
+        return points.isEmpty();
+    }
+
+    public synchronized boolean isEmpty() {
+        InfluxDBSpillStore spillStore = this.spillStore;
+        return points.isEmpty() && (spillStore == null || spillStore.isEmpty());
+    }
+
+    /**
+     * @return number of points held in memory
+     */
+    public synchronized int size() {
+        return points.size();
+    }
+
+    /**
+     * @return estimated size of the points held in memory in line protocol, in bytes
+     */
+    public synchronized long getPendingBytes() {
+        return pendingBytes;
+    }
+
+    /**
+     * @return size of spilled points on disk in bytes
+     */
+    public synchronized long getSpillSize() {
+        InfluxDBSpillStore spillStore = this.spillStore;
+        return spillStore == null ? 0 : spillStore.size();
+    }
+
+    /**
+     * @return number of points discarded because the queue was full
+     */
+    public synchronized long getDroppedCount() {
+        return droppedCount;
+    }
+
+    private void removeFirst() {
+        InfluxPoint point = points.pollFirst();
+        if (point != null) {
+            pendingBytes -= estimateSize(point);
+        }
+    }
+
+    private static long estimateSize(InfluxPoint point) {
+        // measurement, tags, field key "value", a number or string value and the timestamp
+        long size = point.getMeasurementName().length() + 32;
+        for (Map.Entry<String, String> tag : point.getTags().entrySet()) {
+            size += tag.getKey().length() + tag.getValue().length() + 2;
+        }
+        if (point.getValue() instanceof String value) {
+            size += value.length();
+        }
+        return size;
+    }
+}
@@ -0,0 +1,135 @@
+/**
+ * Copyright (c) 2010-2024 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.persistence.influxdb.internal.influx1;
+
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.influxdb.Cancellable;
+import org.influxdb.InfluxDBException;
+import org.influxdb.dto.QueryResult;
+
+/**
+ * Hands the chunks of a chunked InfluxDB 1 query over from the HTTP client thread to the consumer of the results.
+ *
+ * Only a few chunks are buffered, the HTTP client thread waits until the consumer has taken them. Closing the result
+ * cancels the query. As callers cannot close an abandoned iterator, the query is also cancelled when a chunk has not
+ * been taken within the timeout, so the HTTP client thread and the response are released.
+ *
+ * @author Tobias Brandt - Initial contribution
+ */
+@NonNullByDefault
+class InfluxDB1ChunkedQueryResult extends Spliterators.AbstractSpliterator<QueryResult> {
+    private static final int BUFFERED_CHUNKS = 2;
+    private static final long OFFER_TIMEOUT = 1; // in s, to re-check for cancellation
+
+    private final QueryResult end = new QueryResult();
+    private final BlockingQueue<QueryResult> chunks = new ArrayBlockingQueue<>(BUFFERED_CHUNKS);
+    private final long timeout;
+    private volatile boolean cancelled;
+    private volatile @Nullable Cancellable cancellable;
+    private volatile @Nullable Throwable failure;
+    private boolean done;
+
+    /**
+     * @param timeout maximum time to wait for the next chunk, and for the consumer to take a chunk, in ms
+     */
+    InfluxDB1ChunkedQueryResult(long timeout) {
+        super(Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL);
+        this.timeout = timeout;
+    }
+
+    void onNext(Cancellable cancellable, QueryResult result) {
+        this.cancellable = cancellable;
+        if (!put(result)) {
+            cancellable.cancel();
+        }
+    }
+
+    void onComplete() {
+        put(end);
+    }
+
+    void onFailure(Throwable throwable) {
+        failure = throwable;
+        put(end);
+    }
+
+    private boolean put(QueryResult result) {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeout);
+        try {
+            while (!cancelled) {
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) {
+                    // the consumer stopped reading without closing the result
+                    cancelled = true;
+                    break;
+                }
+                if (chunks.offer(result, Math.min(remaining, TimeUnit.SECONDS.toNanos(OFFER_TIMEOUT)),
+                        TimeUnit.NANOSECONDS)) {
+                    return true;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return false;
+    }
+
+    @Override
+    public boolean tryAdvance(Consumer<? super QueryResult> action) {
+        if (done) {
+            return false;
+        }
+        QueryResult chunk;
+        try {
+            chunk = chunks.poll(timeout, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            close();
+            throw new InfluxDBException("Interrupted while waiting for query results");
+        }
+        if (chunk == null) {
+            close();
+            throw new InfluxDBException("Timeout while waiting for query results");
+        } else if (chunk == end) {
+            done = true;
+            Throwable failure = this.failure;
+            if (failure != null) {
+                throw new InfluxDBException(failure);
+            }
+            return false;
+        }
+        action.accept(chunk);
+        return true;
+    }
+
+    /**
+     * Cancels the query if it is still running.
+     */
+    void close() {
+        done = true;
+        cancelled = true;
+        Cancellable cancellable = this.cancellable;
+        if (cancellable != null) {
+            cancellable.cancel();
+        }
+        chunks.clear();
+    }
+}
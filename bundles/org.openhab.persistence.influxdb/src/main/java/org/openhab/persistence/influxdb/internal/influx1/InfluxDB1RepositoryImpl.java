@@ -25,6 +25,8 @@ import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 import org.eclipse.jdt.annotation.NonNullByDefault;
 import org.eclipse.jdt.annotation.Nullable;
@@ -57,6 +59,9 @@ import com.influxdb.exceptions.InfluxException;
  */
 @NonNullByDefault
 public class InfluxDB1RepositoryImpl implements InfluxDBRepository {
+    private static final int QUERY_CHUNK_SIZE = 1000;
+    private static final long QUERY_CHUNK_TIMEOUT = 60000; // in ms
+
     private final Logger logger = LoggerFactory.getLogger(InfluxDB1RepositoryImpl.class);
     private final InfluxDBConfiguration configuration;
     private final FilterCriteriaQueryCreator queryCreator;
@@ -186,6 +191,36 @@ public class InfluxDB1RepositoryImpl implements InfluxDBRepository {
         }
     }
 
+    @Override
+    public Stream<InfluxRow> queryStream(FilterCriteria filter, String retentionPolicy) {
+        final InfluxDB currentClient = client;
+        if (currentClient == null) {
+            logger.warn("Failed to execute query '{}': API not present", filter);
+            return Stream.empty();
+        }
+        try {
+            String query = queryCreator.createQuery(filter, retentionPolicy);
+            logger.trace("Query {}", query);
+            Query parsedQuery = new Query(query, configuration.getDatabaseName());
+            InfluxDB1ChunkedQueryResult chunks = new InfluxDB1ChunkedQueryResult(QUERY_CHUNK_TIMEOUT);
+            currentClient.query(parsedQuery, QUERY_CHUNK_SIZE, chunks::onNext, chunks::onComplete, chunks::onFailure);
+            return StreamSupport.stream(chunks, false).onClose(chunks::close).flatMap(chunk -> {
+                if (chunk.hasError()) {
+                    // the server signals the end of a chunked response with an error "DONE"
+                    if (!"DONE".equals(chunk.getError())) {
+                        logger.warn("{}", chunk.getError());
+                    }
+                    return Stream.empty();
+                }
+                return convertClientResultToRepository(Objects.requireNonNullElse(chunk.getResults(), List.of()))
+                        .stream();
+            });
+        } catch (InfluxException | InfluxDBException e) {
+            logger.warn("Failed to execute query '{}': {}", filter, e.getMessage());
+            return Stream.empty();
+        }
+    }
+
     private List<InfluxRow> convertClientResultToRepository(List<QueryResult.Result> results) {
         List<InfluxRow> rows = new ArrayList<>();
         for (QueryResult.Result result : results) {
@@ -214,8 +249,10 @@ public class InfluxDB1RepositoryImpl implements InfluxDBRepository {
                                 throw new IllegalStateException("missing column");
                             }
                             for (List<Object> valueObject : allValues) {
-                                Double rawTime = (Double) valueObject.get(timestampColumn);
-                                Instant time = Instant.ofEpochMilli(rawTime.longValue());
+                                // chunked queries return RFC3339 timestamps instead of epoch milliseconds
+                                Object rawTime = valueObject.get(timestampColumn);
+                                Instant time = rawTime instanceof String text ? Instant.parse(text)
+                                        : Instant.ofEpochMilli(((Number) rawTime).longValue());
                                 Object value = valueObject.get(valueColumn);
                                 String itemName = itemNameColumn == -1 ? defaultItemName
                                         : Objects.requireNonNullElse((String) valueObject.get(itemNameColumn),
@@ -0,0 +1,59 @@
+/**
+ * Copyright (c) 2010-2024 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.persistence.influxdb.internal;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+import java.time.Duration;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests the {@link InfluxDBChunkSizer}.
+ *
+ * @author Tobias Brandt - Initial contribution
+ */
+@NonNullByDefault
+public class InfluxDBChunkSizerTest {
+    private static final long FAST = Duration.ofMillis(100).toNanos();
+    private static final long SLOW = Duration.ofSeconds(2).toNanos();
+
+    private final InfluxDBChunkSizer sizer = new InfluxDBChunkSizer(100, 1000, 4000, Duration.ofSeconds(1));
+
+    @Test
+    public void fastFullChunksGrowUpToMaximum() {
+        sizer.update(1000, FAST);
+        assertThat(sizer.getChunkSize(), is(2000));
+        sizer.update(2000, FAST);
+        sizer.update(4000, FAST);
+        assertThat(sizer.getChunkSize(), is(4000));
+    }
+
+    @Test
+    public void partialChunksDoNotGrow() {
+        sizer.update(10, FAST);
+        assertThat(sizer.getChunkSize(), is(1000));
+    }
+
+    @Test
+    public void slowChunksShrinkDownToMinimum() {
+        sizer.update(1000, SLOW);
+        assertThat(sizer.getChunkSize(), is(500));
+        for (int i = 0; i < 10; i++) {
+            sizer.update(500, SLOW);
+        }
+        assertThat(sizer.getChunkSize(), is(100));
+    }
+}
@@ -0,0 +1,109 @@
+/**
+ * Copyright (c) 2010-2024 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.persistence.influxdb.internal;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.openhab.core.library.types.DecimalType;
+import org.openhab.core.persistence.HistoricItem;
+import org.openhab.persistence.influxdb.internal.InfluxDBRepository.InfluxRow;
+
+/**
+ * Tests the {@link InfluxDBStreamingResult}.
+ *
+ * @author Tobias Brandt - Initial contribution
+ */
+@NonNullByDefault
+public class InfluxDBStreamingResultTest {
+    private final ScheduledExecutorService scheduler = mock(ScheduledExecutorService.class);
+    private final AtomicInteger queries = new AtomicInteger();
+    private final AtomicInteger closed = new AtomicInteger();
+
+    private static HistoricItem toHistoricItem(InfluxRow row) {
+        return new InfluxDBHistoricItem(row.itemName(), new DecimalType((Integer) row.value()),
+                ZonedDateTime.ofInstant(row.time(), ZoneId.systemDefault()));
+    }
+
+    private InfluxDBStreamingResult result(Stream<InfluxRow> rows) {
+        return new InfluxDBStreamingResult(() -> {
+            queries.incrementAndGet();
+            return rows.onClose(closed::incrementAndGet);
+        }, InfluxDBStreamingResultTest::toHistoricItem, scheduler, Duration.ZERO);
+    }
+
+    private static Stream<InfluxRow> rows(int count) {
+        return Stream.iterate(1, i -> i + 1).limit(count).map(i -> new InfluxRow(Instant.ofEpochSecond(i), "item", i));
+    }
+
+    @Test
+    public void queryRunsWhenIterated() {
+        InfluxDBStreamingResult result = result(rows(3));
+        assertThat(queries.get(), is(0));
+
+        List<HistoricItem> items = new ArrayList<>();
+        result.forEach(items::add);
+
+        assertThat(items, hasSize(3));
+        assertThat(items.get(2).getState(), is(new DecimalType(3)));
+        assertThat(queries.get(), is(1));
+        assertThat(closed.get(), is(1));
+    }
+
+    @Test
+    public void failureIsThrown() {
+        InfluxDBStreamingResult result = result(rows(3).peek(row -> {
+            if ((Integer) row.value() == 2) {
+                throw new IllegalArgumentException("connection lost");
+            }
+        }));
+
+        List<HistoricItem> items = new ArrayList<>();
+        assertThrows(IllegalStateException.class, () -> result.forEach(items::add));
+
+        assertThat(items, hasSize(1));
+        assertThat(closed.get(), is(1));
+    }
+
+    @Test
+    public void abandonedResultIsClosedAfterIdleTimeout() {
+        Iterator<HistoricItem> iterator = result(rows(3)).iterator();
+        iterator.next();
+        assertThat(closed.get(), is(0));
+
+        ArgumentCaptor<Runnable> idleCheck = ArgumentCaptor.forClass(Runnable.class);
+        verify(scheduler).schedule(idleCheck.capture(), anyLong(), any(TimeUnit.class));
+        idleCheck.getValue().run();
+
+        assertThat(closed.get(), is(1));
+        assertThrows(IllegalStateException.class, iterator::hasNext);
+    }
+}
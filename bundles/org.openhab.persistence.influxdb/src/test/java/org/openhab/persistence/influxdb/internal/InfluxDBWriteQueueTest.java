@@ -0,0 +1,142 @@
+/**
+ * Copyright (c) 2010-2024 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.persistence.influxdb.internal;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.List;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Tests the {@link InfluxDBWriteQueue} with and without {@link InfluxDBSpillStore}.
+ *
+ * @author Tobias Brandt - Initial contribution
+ */
+@NonNullByDefault
+public class InfluxDBWriteQueueTest {
+
+    private @TempDir @NonNullByDefault({}) Path tempDir;
+
+    private static InfluxPoint point(int value) {
+        return InfluxPoint.newBuilder("measurement").withTime(Instant.ofEpochSecond(1000 + value, 42))
+                .withValue(new BigDecimal(value)).withTag("item", "item" + value).build();
+    }
+
+    private static List<Object> values(List<InfluxPoint> points) {
+        return points.stream().map(InfluxPoint::getValue).toList();
+    }
+
+    @Test
+    public void fullQueueDiscardsOldestPoints() {
+        InfluxDBWriteQueue queue = new InfluxDBWriteQueue(2, null);
+        queue.add(point(1));
+        queue.add(point(2));
+        queue.add(point(3));
+
+        assertThat(queue.getDroppedCount(), is(1L));
+        assertThat(values(queue.drain()), contains(new BigDecimal(2), new BigDecimal(3)));
+        assertThat(queue.isEmpty(), is(true));
+    }
+
+    @Test
+    public void requeuedPointsAreWrittenFirst() {
+        InfluxDBWriteQueue queue = new InfluxDBWriteQueue(10, null);
+        queue.add(point(1));
+        queue.add(point(2));
+        List<InfluxPoint> failed = queue.drain();
+        queue.add(point(3));
+        queue.requeue(failed);
+
+        assertThat(values(queue.drain()),
+                contains(new BigDecimal(1), new BigDecimal(2), new BigDecimal(3)));
+    }
+
+    @Test
+    public void spilledPointsAreReplayedInOrder() throws IOException {
+        InfluxDBWriteQueue queue = new InfluxDBWriteQueue(2, new InfluxDBSpillStore(tempDir, 2, 0));
+        for (int i = 1; i <= 5; i++) {
+            queue.add(point(i));
+        }
+
+        assertThat(queue.size(), is(2));
+        assertThat(queue.getSpillSize(), greaterThan(0L));
+        assertThat(values(queue.drain()), contains(new BigDecimal(1), new BigDecimal(2)));
+        assertThat(values(queue.drain()), contains(new BigDecimal(3), new BigDecimal(4)));
+        queue.acknowledge();
+        List<InfluxPoint> last = queue.drain();
+        queue.acknowledge();
+        assertThat(values(last), contains(new BigDecimal(5)));
+        assertThat(last.get(0).getTime(), is(Instant.ofEpochSecond(1005, 42)));
+        assertThat(last.get(0).getTags().get("item"), is("item5"));
+        assertThat(queue.isEmpty(), is(true));
+        assertThat(queue.getSpillSize(), is(0L));
+    }
+
+    @Test
+    public void persistedPointsSurviveRestart() throws IOException {
+        InfluxDBWriteQueue queue = new InfluxDBWriteQueue(2, new InfluxDBSpillStore(tempDir, 10, 0));
+        queue.add(point(1));
+        queue.add(point(2));
+        queue.add(point(3));
+        assertThat(queue.persist(), is(true));
+
+        InfluxDBWriteQueue restarted = new InfluxDBWriteQueue(2, new InfluxDBSpillStore(tempDir, 10, 0));
+        assertThat(restarted.isEmpty(), is(false));
+        assertThat(values(restarted.drain()), contains(new BigDecimal(1), new BigDecimal(2)));
+        restarted.acknowledge();
+        assertThat(values(restarted.drain()), contains(new BigDecimal(3)));
+        restarted.acknowledge();
+        assertThat(restarted.isEmpty(), is(true));
+    }
+
+    @Test
+    public void failedReplayKeepsSpilledSegment() throws IOException {
+        InfluxDBWriteQueue queue = new InfluxDBWriteQueue(1, new InfluxDBSpillStore(tempDir, 10, 0));
+        queue.add(point(1));
+        queue.add(point(2));
+        queue.add(point(3));
+        queue.drain();
+        queue.acknowledge();
+
+        List<InfluxPoint> replayed = queue.drain();
+        assertThat(values(replayed), contains(new BigDecimal(2), new BigDecimal(3)));
+        queue.requeue(replayed);
+
+        assertThat(queue.size(), is(0));
+        assertThat(values(queue.drain()), contains(new BigDecimal(2), new BigDecimal(3)));
+        queue.acknowledge();
+        assertThat(queue.isEmpty(), is(true));
+    }
+
+    @Test
+    public void unacknowledgedSegmentSurvivesRestart() throws IOException {
+        InfluxDBWriteQueue queue = new InfluxDBWriteQueue(1, new InfluxDBSpillStore(tempDir, 10, 0));
+        queue.add(point(1));
+        queue.add(point(2));
+        queue.drain();
+        queue.acknowledge();
+        assertThat(values(queue.drain()), contains(new BigDecimal(2)));
+
+        // crash before the replayed points have been acknowledged
+        InfluxDBWriteQueue restarted = new InfluxDBWriteQueue(1, new InfluxDBSpillStore(tempDir, 10, 0));
+        assertThat(values(restarted.drain()), contains(new BigDecimal(2)));
+    }
+}
@@ -0,0 +1,83 @@
+/**
+ * Copyright (c) 2010-2024 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.persistence.influxdb.internal.influx1;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.StreamSupport;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.influxdb.Cancellable;
+import org.influxdb.dto.QueryResult;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests the {@link InfluxDB1ChunkedQueryResult}.
+ *
+ * @author Tobias Brandt - Initial contribution
+ */
+@NonNullByDefault
+public class InfluxDB1ChunkedQueryResultTest {
+
+    private static class TestCancellable implements Cancellable {
+        private boolean cancelled;
+
+        @Override
+        public void cancel() {
+            cancelled = true;
+        }
+
+        @Override
+        public boolean isCanceled() {
+            return cancelled;
+        }
+    }
+
+    @Test
+    public void chunksAreHandedOverInOrder() {
+        InfluxDB1ChunkedQueryResult result = new InfluxDB1ChunkedQueryResult(1000);
+        TestCancellable cancellable = new TestCancellable();
+        List<QueryResult> sent = List.of(new QueryResult(), new QueryResult());
+        new Thread(() -> {
+            sent.forEach(chunk -> result.onNext(cancellable, chunk));
+            result.onComplete();
+        }).start();
+
+        List<QueryResult> received = new ArrayList<>();
+        StreamSupport.stream(result, false).forEach(received::add);
+
+        assertThat(received, is(sent));
+        assertThat(cancellable.isCanceled(), is(false));
+    }
+
+    @Test
+    public void abandonedResultCancelsQueryAfterTimeout() {
+        InfluxDB1ChunkedQueryResult result = new InfluxDB1ChunkedQueryResult(50);
+        TestCancellable cancellable = new TestCancellable();
+        long start = System.nanoTime();
+
+        // nobody takes the chunks, only two of them fit into the buffer
+        result.onNext(cancellable, new QueryResult());
+        result.onNext(cancellable, new QueryResult());
+        assertThat(cancellable.isCanceled(), is(false));
+        result.onNext(cancellable, new QueryResult());
+        result.onNext(cancellable, new QueryResult());
+        result.onComplete();
+
+        assertThat(cancellable.isCanceled(), is(true));
+        assertThat(System.nanoTime() - start, lessThan(5_000_000_000L));
+    }
+}
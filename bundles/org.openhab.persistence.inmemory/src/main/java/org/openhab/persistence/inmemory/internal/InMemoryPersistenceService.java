@@ -12,23 +12,27 @@
  */
 package org.openhab.persistence.inmemory.internal;
 
+import java.io.IOException;
+import java.nio.file.Path;
 import java.time.Instant;
 import java.time.ZonedDateTime;
-import java.util.Comparator;
+import java.util.Collections;
 import java.util.Date;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
-import java.util.TreeSet;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.locks.Lock;
-import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
 import org.eclipse.jdt.annotation.NonNullByDefault;
 import org.eclipse.jdt.annotation.Nullable;
+import org.openhab.core.OpenHAB;
+import org.openhab.core.common.ThreadPoolManager;
 import org.openhab.core.config.core.ConfigParser;
 import org.openhab.core.config.core.ConfigurableService;
 import org.openhab.core.items.Item;
@@ -66,40 +70,93 @@ public class InMemoryPersistenceService implements ModifiablePersistenceService
     protected static final String CONFIG_URI = "persistence:inmemory";
     private final String MAX_ENTRIES_CONFIG = "maxEntries";
     private final long MAX_ENTRIES_DEFAULT = 512;
+    private final String SNAPSHOT_INTERVAL_CONFIG = "snapshotInterval";
+    private final long SNAPSHOT_INTERVAL_DEFAULT = 0; // in minutes, 0 = disabled
+    private static final Path SNAPSHOT_FILE = Path.of(OpenHAB.getUserDataFolder(), "persistence", "inmemory",
+            "snapshot.bin");
 
     private final Logger logger = LoggerFactory.getLogger(InMemoryPersistenceService.class);
 
     private final Map<String, PersistItem> persistMap = new ConcurrentHashMap<>();
     private long maxEntries = MAX_ENTRIES_DEFAULT;
 
+    private final ScheduledExecutorService scheduler = ThreadPoolManager.getScheduledPool("persistence");
+    private final InMemorySnapshot snapshot;
+    private long snapshotInterval = SNAPSHOT_INTERVAL_DEFAULT;
+    private @Nullable ScheduledFuture<?> snapshotJob;
+
+    public InMemoryPersistenceService() {
+        this(SNAPSHOT_FILE);
+    }
+
+    // Visible for testing
+    InMemoryPersistenceService(Path snapshotFile) {
+        this.snapshot = new InMemorySnapshot(snapshotFile);
+    }
+
     @Activate
     public void activate(Map<String, Object> config) {
+        snapshotInterval = ConfigParser.valueAsOrElse(config.get(SNAPSHOT_INTERVAL_CONFIG), Long.class,
+                SNAPSHOT_INTERVAL_DEFAULT);
+        if (snapshotInterval > 0) {
+            restoreSnapshot();
+        }
         modified(config);
         logger.debug("InMemory persistence service is now activated.");
     }
 
     @Modified
-    public void modified(Map<String, Object> config) {
+    public synchronized void modified(Map<String, Object> config) {
         maxEntries = ConfigParser.valueAsOrElse(config.get(MAX_ENTRIES_CONFIG), Long.class, MAX_ENTRIES_DEFAULT);
+        snapshotInterval = ConfigParser.valueAsOrElse(config.get(SNAPSHOT_INTERVAL_CONFIG), Long.class,
+                SNAPSHOT_INTERVAL_DEFAULT);
 
-        persistMap.values().forEach(persistItem -> {
-            Lock lock = persistItem.lock();
-            lock.lock();
-            try {
-                while (persistItem.database().size() > maxEntries) {
-                    persistItem.database().pollFirst();
-                }
-            } finally {
-                lock.unlock();
-            }
-        });
+        persistMap.values().forEach(persistItem -> persistItem.trim(maxEntries));
+
+        ScheduledFuture<?> snapshotJob = this.snapshotJob;
+        if (snapshotJob != null) {
+            snapshotJob.cancel(false);
+        }
+        this.snapshotJob = snapshotInterval > 0
+                ? scheduler.scheduleWithFixedDelay(this::writeSnapshot, snapshotInterval, snapshotInterval,
+                        TimeUnit.MINUTES)
+                : null;
     }
 
     @Deactivate
-    public void deactivate() {
+    public synchronized void deactivate() {
+        ScheduledFuture<?> snapshotJob = this.snapshotJob;
+        if (snapshotJob != null) {
+            snapshotJob.cancel(false);
+            this.snapshotJob = null;
+            writeSnapshot();
+        }
         logger.debug("InMemory persistence service deactivated.");
     }
 
+    private void restoreSnapshot() {
+        long start = System.nanoTime();
+        try {
+            Map<String, PersistItem> restored = snapshot.read();
+            persistMap.putAll(restored);
+            logger.debug("Restored {} items from snapshot in {} ms", restored.size(),
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        } catch (IOException e) {
+            logger.warn("Failed to restore snapshot: {}", e.getMessage());
+        }
+    }
+
+    private synchronized void writeSnapshot() {
+        long start = System.nanoTime();
+        try {
+            snapshot.write(persistMap);
+            logger.debug("Wrote snapshot of {} items in {} ms", persistMap.size(),
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        } catch (IOException e) {
+            logger.warn("Failed to write snapshot: {}", e.getMessage());
+        }
+    }
+
     @Override
     public String getId() {
         return SERVICE_ID;
@@ -148,14 +205,7 @@ public class InMemoryPersistenceService implements ModifiablePersistenceService
             return false;
         }
 
-        Lock lock = persistItem.lock();
-        lock.lock();
-        try {
-            List<PersistEntry> toRemove = persistItem.database().stream().filter(e -> applies(e, filter)).toList();
-            toRemove.forEach(persistItem.database()::remove);
-        } finally {
-            lock.unlock();
-        }
+        persistItem.remove(e -> applies(e, filter));
         return true;
     }
 
@@ -171,19 +221,12 @@ public class InMemoryPersistenceService implements ModifiablePersistenceService
             return List.of();
         }
 
-        Lock lock = persistItem.lock();
-        lock.lock();
-
-        Comparator<PersistEntry> comparator = filter.getOrdering() == FilterCriteria.Ordering.ASCENDING
-                ? Comparator.comparing(PersistEntry::timestamp)
-                : Comparator.comparing(PersistEntry::timestamp).reversed();
-
-        try {
-            return persistItem.database().stream().filter(e -> applies(e, filter)).sorted(comparator)
-                    .map(e -> toHistoricItem(itemName, e)).toList();
-        } finally {
-            lock.unlock();
+        List<HistoricItem> historicItems = persistItem.query(filter.getBeginDate(), filter.getEndDate()).stream()
+                .filter(e -> applies(e, filter)).map(e -> toHistoricItem(itemName, e)).collect(Collectors.toList());
+        if (filter.getOrdering() == FilterCriteria.Ordering.DESCENDING) {
+            Collections.reverse(historicItems);
         }
+        return historicItems;
     }
 
     @Override
@@ -193,38 +236,34 @@ public class InMemoryPersistenceService implements ModifiablePersistenceService
     }
 
     private PersistenceItemInfo toItemInfo(Map.Entry<String, PersistItem> itemEntry) {
-        Lock lock = itemEntry.getValue().lock();
-        lock.lock();
-        try {
-            String name = itemEntry.getKey();
-            Integer count = itemEntry.getValue().database().size();
-            Instant earliest = itemEntry.getValue().database().first().timestamp().toInstant();
-            Instant latest = itemEntry.getValue().database.last().timestamp.toInstant();
-            return new PersistenceItemInfo() {
-
-                @Override
-                public String getName() {
-                    return name;
-                }
-
-                @Override
-                public @Nullable Integer getCount() {
-                    return count;
-                }
-
-                @Override
-                public @Nullable Date getEarliest() {
-                    return Date.from(earliest);
-                }
-
-                @Override
-                public @Nullable Date getLatest() {
-                    return Date.from(latest);
-                }
-            };
-        } finally {
-            lock.unlock();
-        }
+        String name = itemEntry.getKey();
+        Integer count = itemEntry.getValue().size();
+        PersistEntry first = itemEntry.getValue().first();
+        PersistEntry last = itemEntry.getValue().last();
+        Instant earliest = first == null ? null : first.timestamp().toInstant();
+        Instant latest = last == null ? null : last.timestamp().toInstant();
+        return new PersistenceItemInfo() {
+
+            @Override
+            public String getName() {
+                return name;
+            }
+
+            @Override
+            public @Nullable Integer getCount() {
+                return count;
+            }
+
+            @Override
+            public @Nullable Date getEarliest() {
+                return earliest == null ? null : Date.from(earliest);
+            }
+
+            @Override
+            public @Nullable Date getLatest() {
+                return latest == null ? null : Date.from(latest);
+            }
+        };
     }
 
     private HistoricItem toHistoricItem(String itemName, PersistEntry entry) {
@@ -251,20 +290,17 @@ public class InMemoryPersistenceService implements ModifiablePersistenceService
             return;
         }
 
-        PersistItem persistItem = Objects.requireNonNull(persistMap.computeIfAbsent(itemName,
-                k -> new PersistItem(new TreeSet<>(Comparator.comparing(PersistEntry::timestamp)),
-                        new ReentrantLock())));
-
-        Lock lock = persistItem.lock();
-        lock.lock();
-        try {
-            persistItem.database().add(new PersistEntry(timestamp, state));
-
-            while (persistItem.database.size() > maxEntries) {
-                persistItem.database().pollFirst();
+        while (true) {
+            PersistItem persistItem = Objects.requireNonNull(persistMap.computeIfAbsent(itemName,
+                    k -> NumericPersistItem.supports(state) ? new NumericPersistItem(state) : new StatePersistItem()));
+            if (persistItem.add(timestamp, state, maxEntries)) {
+                return;
             }
-        } finally {
-            lock.unlock();
+            // the numeric storage does not support this state, move all states to the generic storage and retry
+            persistMap.computeIfPresent(itemName,
+                    (k, current) -> current == persistItem && current instanceof NumericPersistItem numericItem
+                            ? new StatePersistItem(numericItem.close())
+                            : current);
         }
     }
 
@@ -294,7 +330,8 @@ public class InMemoryPersistenceService implements ModifiablePersistenceService
             return !entry.state().equals(refState);
         }
 
-        if (entry.state() instanceof Comparable comparableState && entry.state.getClass().equals(refState.getClass())) {
+        if (entry.state() instanceof Comparable comparableState
+                && entry.state().getClass().equals(refState.getClass())) {
             if (operator == FilterCriteria.Operator.GT) {
                 return comparableState.compareTo(refState) > 0;
             }
@@ -312,10 +349,4 @@ public class InMemoryPersistenceService implements ModifiablePersistenceService
         }
         return true;
     }
-
-    private record PersistEntry(ZonedDateTime timestamp, State state) {
-    }
-
-    private record PersistItem(TreeSet<PersistEntry> database, Lock lock) {
-    }
 }
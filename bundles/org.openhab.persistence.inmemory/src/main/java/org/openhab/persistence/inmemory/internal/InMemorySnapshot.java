@@ -0,0 +1,317 @@
+/**
+ * Copyright (c) 2010-2024 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.persistence.inmemory.internal;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+import javax.measure.Unit;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.openhab.core.library.types.DateTimeType;
+import org.openhab.core.library.types.DecimalType;
+import org.openhab.core.library.types.HSBType;
+import org.openhab.core.library.types.NextPreviousType;
+import org.openhab.core.library.types.OnOffType;
+import org.openhab.core.library.types.OpenClosedType;
+import org.openhab.core.library.types.PercentType;
+import org.openhab.core.library.types.PlayPauseType;
+import org.openhab.core.library.types.PointType;
+import org.openhab.core.library.types.QuantityType;
+import org.openhab.core.library.types.RawType;
+import org.openhab.core.library.types.RewindFastforwardType;
+import org.openhab.core.library.types.StopMoveType;
+import org.openhab.core.library.types.StringListType;
+import org.openhab.core.library.types.StringType;
+import org.openhab.core.library.types.UpDownType;
+import org.openhab.core.types.State;
+import org.openhab.core.types.UnDefType;
+import org.openhab.core.types.util.UnitUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The {@link InMemorySnapshot} writes all {@link PersistItem}s to a memory-mapped file and reads them back.
+ *
+ * The file starts with a header of a magic number, the format version and the number of used bytes, followed by the
+ * items. Numeric items are written as two columns of timestamps and values, so they can be restored with bulk reads.
+ * Other states are written with their type and string representation and restored by the {@code valueOf} method of
+ * their type. Only the state types of the core library are restored, as the bundle cannot load other classes by name.
+ *
+ * @author Tobias Brandt - Initial contribution
+ */
+@NonNullByDefault
+class InMemorySnapshot {
+    private static final int MAGIC = 0x4f48494d; // "OHIM"
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 16;
+    private static final int WINDOW_SIZE = 1 << 20;
+
+    private static final byte END = 0;
+    private static final byte DECIMAL_ITEM = 1;
+    private static final byte QUANTITY_ITEM = 2;
+    private static final byte STATE_ITEM = 3;
+
+    private static final Map<String, Function<String, State>> STATE_PARSERS = Map.ofEntries( //
+            Map.entry(DecimalType.class.getName(), DecimalType::valueOf),
+            Map.entry(QuantityType.class.getName(), QuantityType::valueOf),
+            Map.entry(PercentType.class.getName(), PercentType::valueOf),
+            Map.entry(HSBType.class.getName(), HSBType::valueOf),
+            Map.entry(StringType.class.getName(), StringType::valueOf),
+            Map.entry(StringListType.class.getName(), StringListType::valueOf),
+            Map.entry(DateTimeType.class.getName(), DateTimeType::valueOf),
+            Map.entry(PointType.class.getName(), PointType::valueOf),
+            Map.entry(RawType.class.getName(), RawType::valueOf),
+            Map.entry(OnOffType.class.getName(), OnOffType::valueOf),
+            Map.entry(OpenClosedType.class.getName(), OpenClosedType::valueOf),
+            Map.entry(UpDownType.class.getName(), UpDownType::valueOf),
+            Map.entry(StopMoveType.class.getName(), StopMoveType::valueOf),
+            Map.entry(PlayPauseType.class.getName(), PlayPauseType::valueOf),
+            Map.entry(RewindFastforwardType.class.getName(), RewindFastforwardType::valueOf),
+            Map.entry(NextPreviousType.class.getName(), NextPreviousType::valueOf),
+            Map.entry(UnDefType.class.getName(), UnDefType::valueOf));
+
+    private final Logger logger = LoggerFactory.getLogger(InMemorySnapshot.class);
+    private final Path file;
+
+    InMemorySnapshot(Path file) {
+        this.file = file;
+    }
+
+    /**
+     * Writes all items to a temporary file that replaces the snapshot once it is complete.
+     */
+    void write(Map<String, PersistItem> persistMap) throws IOException {
+        Files.createDirectories(file.getParent());
+        Path tempFile = file.resolveSibling(file.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(tempFile, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE);
+            Output output = new Output(channel);
+            for (Map.Entry<String, PersistItem> entry : persistMap.entrySet()) {
+                writeItem(output, entry.getKey(), entry.getValue());
+            }
+            output.putByte(END);
+            output.force();
+
+            header.putInt(MAGIC).putInt(VERSION).putLong(output.size());
+            header.force();
+        }
+        Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private void writeItem(Output output, String name, PersistItem persistItem) throws IOException {
+        if (persistItem instanceof NumericPersistItem numericItem) {
+            Unit<?> unit = numericItem.getUnit();
+            output.putByte(unit == null ? DECIMAL_ITEM : QUANTITY_ITEM);
+            output.putString(name);
+            if (unit != null) {
+                output.putString(unit.toString());
+            }
+            numericItem.writeTo(output);
+        } else {
+            List<PersistEntry> entries = persistItem.query(null, null);
+            output.putByte(STATE_ITEM);
+            output.putString(name);
+            output.putInt(entries.size());
+            for (PersistEntry entry : entries) {
+                Instant timestamp = entry.timestamp().toInstant();
+                output.putLong(timestamp.getEpochSecond());
+                output.putInt(timestamp.getNano());
+                output.putString(entry.state().getClass().getName());
+                output.putString(entry.state().toFullString());
+            }
+        }
+    }
+
+    /**
+     * Reads all items of the snapshot. Items and states that cannot be restored are skipped.
+     *
+     * @return the items by name, empty if there is no valid snapshot
+     */
+    Map<String, PersistItem> read() throws IOException {
+        Map<String, PersistItem> persistMap = new HashMap<>();
+        if (!Files.exists(file)) {
+            return persistMap;
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long fileSize = channel.size();
+            if (fileSize < HEADER_SIZE || fileSize > Integer.MAX_VALUE) {
+                logger.warn("Ignoring snapshot '{}' with invalid size {}", file, fileSize);
+                return persistMap;
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, fileSize);
+            if (buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+                logger.warn("Ignoring snapshot '{}' with unknown format", file);
+                return persistMap;
+            }
+            long size = buffer.getLong();
+            if (size < HEADER_SIZE || size > fileSize) {
+                logger.warn("Ignoring incomplete snapshot '{}'", file);
+                return persistMap;
+            }
+            buffer.limit((int) size);
+            readItems(buffer, persistMap);
+        } catch (BufferUnderflowException | IllegalArgumentException e) {
+            logger.warn("Ignoring corrupt snapshot '{}'", file);
+            persistMap.clear();
+        }
+        return persistMap;
+    }
+
+    private void readItems(ByteBuffer buffer, Map<String, PersistItem> persistMap) {
+        byte type;
+        while ((type = buffer.get()) != END) {
+            String name = getString(buffer);
+            switch (type) {
+                case DECIMAL_ITEM -> persistMap.put(name, readNumericItem(buffer, null));
+                case QUANTITY_ITEM -> {
+                    String unitSymbol = getString(buffer);
+                    Unit<?> unit = UnitUtils.parseUnit(unitSymbol);
+                    NumericPersistItem persistItem = readNumericItem(buffer, unit);
+                    if (unit != null) {
+                        persistMap.put(name, persistItem);
+                    } else {
+                        logger.warn("Skipping item '{}' with unknown unit '{}' in snapshot", name, unitSymbol);
+                    }
+                }
+                case STATE_ITEM -> persistMap.put(name, readStateItem(buffer));
+                default -> throw new IllegalArgumentException("Unknown item type " + type);
+            }
+        }
+    }
+
+    private NumericPersistItem readNumericItem(ByteBuffer buffer, @Nullable Unit<?> unit) {
+        int count = getCount(buffer, Long.BYTES + Double.BYTES);
+        long[] timestamps = new long[count];
+        double[] values = new double[count];
+        buffer.asLongBuffer().get(timestamps);
+        buffer.position(buffer.position() + count * Long.BYTES);
+        buffer.asDoubleBuffer().get(values);
+        buffer.position(buffer.position() + count * Double.BYTES);
+        return new NumericPersistItem(unit, timestamps, values);
+    }
+
+    private StatePersistItem readStateItem(ByteBuffer buffer) {
+        int count = getCount(buffer, Long.BYTES + Integer.BYTES);
+        List<PersistEntry> entries = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            ZonedDateTime timestamp = ZonedDateTime
+                    .ofInstant(Instant.ofEpochSecond(buffer.getLong(), buffer.getInt()), ZoneId.systemDefault());
+            String type = getString(buffer);
+            String value = getString(buffer);
+            Function<String, State> parser = STATE_PARSERS.get(type);
+            if (parser == null) {
+                logger.debug("Skipping state '{}' of unsupported type {} in snapshot", value, type);
+                continue;
+            }
+            try {
+                entries.add(new PersistEntry(timestamp, parser.apply(value)));
+            } catch (IllegalArgumentException e) {
+                logger.debug("Skipping state '{}' of type {} in snapshot: {}", value, type, e.getMessage());
+            }
+        }
+        return new StatePersistItem(entries);
+    }
+
+    /**
+     * Reads a number of entries and checks that the remaining bytes can hold them.
+     */
+    private static int getCount(ByteBuffer buffer, int minEntrySize) {
+        int count = buffer.getInt();
+        if (count < 0 || (long) count * minEntrySize > buffer.remaining()) {
+            throw new IllegalArgumentException("Invalid number of entries " + count);
+        }
+        return count;
+    }
+
+    private static String getString(ByteBuffer buffer) {
+        byte[] bytes = new byte[getCount(buffer, 1)];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Writes to a file through memory-mapped windows, which are mapped one after the other while the file grows.
+     */
+    static class Output {
+        private final FileChannel channel;
+        private MappedByteBuffer window;
+        private long windowStart = HEADER_SIZE;
+
+        private Output(FileChannel channel) throws IOException {
+            this.channel = channel;
+            this.window = channel.map(FileChannel.MapMode.READ_WRITE, windowStart, WINDOW_SIZE);
+        }
+
+        private void ensure(int bytes) throws IOException {
+            if (window.remaining() < bytes) {
+                window.force();
+                windowStart += window.position();
+                window = channel.map(FileChannel.MapMode.READ_WRITE, windowStart, Math.max(WINDOW_SIZE, bytes));
+            }
+        }
+
+        void putByte(byte value) throws IOException {
+            ensure(Byte.BYTES);
+            window.put(value);
+        }
+
+        void putInt(int value) throws IOException {
+            ensure(Integer.BYTES);
+            window.putInt(value);
+        }
+
+        void putLong(long value) throws IOException {
+            ensure(Long.BYTES);
+            window.putLong(value);
+        }
+
+        void putDouble(double value) throws IOException {
+            ensure(Double.BYTES);
+            window.putDouble(value);
+        }
+
+        void putString(String value) throws IOException {
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            putInt(bytes.length);
+            ensure(bytes.length);
+            window.put(bytes);
+        }
+
+        private void force() {
+            window.force();
+        }
+
+        private long size() {
+            return windowStart + window.position();
+        }
+    }
+}
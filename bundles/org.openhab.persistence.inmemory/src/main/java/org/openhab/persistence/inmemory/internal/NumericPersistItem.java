@@ -0,0 +1,364 @@
+/**
+ * Copyright (c) 2010-2024 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.persistence.inmemory.internal;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.Predicate;
+
+import javax.measure.Unit;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.openhab.core.library.types.DecimalType;
+import org.openhab.core.library.types.QuantityType;
+import org.openhab.core.types.State;
+
+/**
+ * The {@link NumericPersistItem} stores {@link DecimalType} or {@link QuantityType} states of an item in two ring
+ * buffers of epoch milliseconds and double values. All quantities are converted to the unit of the first stored state.
+ *
+ * An entry needs 16 bytes instead of more than 100 bytes for a {@link PersistEntry}. Timestamps are truncated to
+ * milliseconds and returned in the system time zone, values are limited to the precision of a double.
+ *
+ * Reads are optimistic and only fall back to a read lock if a write happened at the same time.
+ *
+ * @author Tobias Brandt - Initial contribution
+ */
+@NonNullByDefault
+class NumericPersistItem implements PersistItem {
+    private static final int INITIAL_CAPACITY = 16;
+    private static final int MAX_CAPACITY = 1 << 30; // keeps index arithmetic within int range
+
+    private final StampedLock lock = new StampedLock();
+    private final @Nullable Unit<?> unit;
+
+    // guarded by lock, read optimistically
+    private long[] timestamps = new long[INITIAL_CAPACITY];
+    private double[] values = new double[INITIAL_CAPACITY];
+    private int head; // index of the oldest entry in the arrays
+    private int size;
+    private boolean closed;
+
+    /**
+     * @param state the first state, which determines the unit of all states
+     */
+    NumericPersistItem(State state) {
+        this.unit = state instanceof QuantityType<?> quantity ? quantity.getUnit() : null;
+    }
+
+    /**
+     * Creates an item from sorted timestamps without duplicates, e.g. from a snapshot.
+     *
+     * @param unit the unit of the values, or null for {@link DecimalType} states
+     * @param timestamps the timestamps in epoch milliseconds
+     * @param values the values belonging to the timestamps
+     */
+    NumericPersistItem(@Nullable Unit<?> unit, long[] timestamps, double[] values) {
+        this.unit = unit;
+        this.size = Math.min(timestamps.length, values.length);
+        int capacity = Math.max(size, INITIAL_CAPACITY);
+        this.timestamps = timestamps.length == capacity ? timestamps : Arrays.copyOf(timestamps, capacity);
+        this.values = values.length == capacity ? values : Arrays.copyOf(values, capacity);
+    }
+
+    @Nullable
+    Unit<?> getUnit() {
+        return unit;
+    }
+
+    /**
+     * @return true if the state can be stored in a {@link NumericPersistItem}
+     */
+    static boolean supports(State state) {
+        // subclasses like PercentType would lose their type
+        return state.getClass() == DecimalType.class || state.getClass() == QuantityType.class;
+    }
+
+    @Override
+    public boolean add(ZonedDateTime timestamp, State state, long maxEntries) {
+        double value;
+        Unit<?> unit = this.unit;
+        if (unit == null && state.getClass() == DecimalType.class) {
+            value = ((DecimalType) state).doubleValue();
+        } else if (unit != null && state.getClass() == QuantityType.class) {
+            QuantityType<?> converted = ((QuantityType<?>) state).toUnit(unit);
+            if (converted == null) {
+                return false;
+            }
+            value = converted.doubleValue();
+        } else {
+            return false;
+        }
+        long time = timestamp.toInstant().toEpochMilli();
+
+        long stamp = lock.writeLock();
+        try {
+            if (closed) {
+                return false;
+            }
+            int index = lowerBound(timestamps, values.length, head, size, time);
+            if (index < size && timestamps[physical(index)] == time) {
+                // keep the existing state, like the sorted set of other states does
+                return true;
+            }
+            int drop = size + 1 - limit(maxEntries);
+            if (drop > 0) {
+                if (index < drop) {
+                    // the new state is older than all states that are kept
+                    removeOldest(drop - 1);
+                    return true;
+                }
+                removeOldest(drop);
+                index -= drop;
+            }
+            ensureCapacity(size + 1);
+            for (int i = size; i > index; i--) {
+                int to = physical(i);
+                int from = physical(i - 1);
+                timestamps[to] = timestamps[from];
+                values[to] = values[from];
+            }
+            int target = physical(index);
+            timestamps[target] = time;
+            values[target] = value;
+            size++;
+            return true;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    @Override
+    public List<PersistEntry> query(@Nullable ZonedDateTime beginDate, @Nullable ZonedDateTime endDate) {
+        long from = Long.MIN_VALUE;
+        if (beginDate != null) {
+            Instant begin = beginDate.toInstant();
+            // entries are stored with millisecond precision, skip an entry before a sub-millisecond begin
+            from = begin.toEpochMilli() + (begin.getNano() % 1_000_000 == 0 ? 0 : 1);
+        }
+        long to = endDate == null ? Long.MAX_VALUE : endDate.toInstant().toEpochMilli();
+        if (from > to) {
+            return List.of();
+        }
+
+        Range range = null;
+        long stamp = lock.tryOptimisticRead();
+        if (stamp != 0) {
+            range = copyRange(from, to);
+        }
+        if (range == null || !lock.validate(stamp)) {
+            stamp = lock.readLock();
+            try {
+                range = copyRange(from, to);
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+        List<PersistEntry> entries = new ArrayList<>(range.timestamps().length);
+        for (int i = 0; i < range.timestamps().length; i++) {
+            entries.add(toEntry(range.timestamps()[i], range.values()[i]));
+        }
+        return entries;
+    }
+
+    /**
+     * Copies the entries between both timestamps. Tolerates inconsistent fields during an optimistic read, the result
+     * is discarded in that case.
+     */
+    private Range copyRange(long from, long to) {
+        long[] timestamps = this.timestamps;
+        double[] values = this.values;
+        int capacity = Math.min(timestamps.length, values.length);
+        int head = Math.floorMod(this.head, capacity);
+        int size = Math.max(0, Math.min(this.size, capacity));
+
+        int begin = lowerBound(timestamps, capacity, head, size, from);
+        int end = to == Long.MAX_VALUE ? size : lowerBound(timestamps, capacity, head, size, to + 1);
+        int count = Math.max(0, end - begin);
+        long[] rangeTimestamps = new long[count];
+        double[] rangeValues = new double[count];
+        for (int i = 0; i < count; i++) {
+            int index = (int) (((long) head + begin + i) % capacity);
+            rangeTimestamps[i] = timestamps[index];
+            rangeValues[i] = values[index];
+        }
+        return new Range(rangeTimestamps, rangeValues);
+    }
+
+    @Override
+    public void remove(Predicate<PersistEntry> filter) {
+        long stamp = lock.writeLock();
+        try {
+            int kept = 0;
+            for (int i = 0; i < size; i++) {
+                int from = physical(i);
+                if (!filter.test(toEntry(timestamps[from], values[from]))) {
+                    int to = physical(kept++);
+                    timestamps[to] = timestamps[from];
+                    values[to] = values[from];
+                }
+            }
+            size = kept;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    @Override
+    public void trim(long maxEntries) {
+        long stamp = lock.writeLock();
+        try {
+            removeOldest(size - limit(maxEntries));
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Closes the item for further states and returns all states, e.g. to move them to a {@link StatePersistItem}.
+     * {@link #add(ZonedDateTime, State, long)} returns false afterwards.
+     */
+    List<PersistEntry> close() {
+        long stamp = lock.writeLock();
+        try {
+            closed = true;
+            List<PersistEntry> entries = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                int index = physical(i);
+                entries.add(toEntry(timestamps[index], values[index]));
+            }
+            return entries;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Writes the number of states, all timestamps and then all values to a snapshot.
+     */
+    void writeTo(InMemorySnapshot.Output output) throws IOException {
+        long stamp = lock.readLock();
+        try {
+            output.putInt(size);
+            for (int i = 0; i < size; i++) {
+                output.putLong(timestamps[physical(i)]);
+            }
+            for (int i = 0; i < size; i++) {
+                output.putDouble(values[physical(i)]);
+            }
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    @Override
+    public int size() {
+        long stamp = lock.readLock();
+        try {
+            return size;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    @Override
+    public @Nullable PersistEntry first() {
+        return entryAt(0);
+    }
+
+    @Override
+    public @Nullable PersistEntry last() {
+        return entryAt(-1);
+    }
+
+    private @Nullable PersistEntry entryAt(int position) {
+        long stamp = lock.readLock();
+        try {
+            if (size == 0) {
+                return null;
+            }
+            int index = physical(position < 0 ? size + position : position);
+            return toEntry(timestamps[index], values[index]);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    private PersistEntry toEntry(long timestamp, double value) {
+        Unit<?> unit = this.unit;
+        State state = unit == null ? new DecimalType(value) : QuantityType.valueOf(value, unit);
+        return new PersistEntry(ZonedDateTime.ofInstant(Instant.ofEpochMilli(timestamp), ZoneId.systemDefault()),
+                state);
+    }
+
+    private int physical(int index) {
+        int physical = head + index;
+        return physical >= timestamps.length ? physical - timestamps.length : physical;
+    }
+
+    private void removeOldest(int count) {
+        if (count > 0) {
+            head = (head + count) % timestamps.length;
+            size -= count;
+        }
+    }
+
+    private void ensureCapacity(int required) {
+        int capacity = timestamps.length;
+        if (required <= capacity) {
+            return;
+        }
+        int newCapacity = (int) Math.min(MAX_CAPACITY, Math.max(required, 2L * capacity));
+        long[] newTimestamps = new long[newCapacity];
+        double[] newValues = new double[newCapacity];
+        int firstPart = Math.min(size, capacity - head);
+        System.arraycopy(timestamps, head, newTimestamps, 0, firstPart);
+        System.arraycopy(timestamps, 0, newTimestamps, firstPart, size - firstPart);
+        System.arraycopy(values, head, newValues, 0, firstPart);
+        System.arraycopy(values, 0, newValues, firstPart, size - firstPart);
+        timestamps = newTimestamps;
+        values = newValues;
+        head = 0;
+    }
+
+    private static int limit(long maxEntries) {
+        return maxEntries <= 0 ? MAX_CAPACITY : (int) Math.min(maxEntries, MAX_CAPACITY);
+    }
+
+    /**
+     * @return the position of the first entry with a timestamp not before the given one, or size if there is none
+     */
+    private static int lowerBound(long[] timestamps, int capacity, int head, int size, long timestamp) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (timestamps[(head + mid) % capacity] < timestamp) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private record Range(long[] timestamps, double[] values) {
+    }
+}
@@ -0,0 +1,71 @@
+/**
+ * Copyright (c) 2010-2024 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.persistence.inmemory.internal;
+
+import java.time.ZonedDateTime;
+import java.util.List;
+import java.util.function.Predicate;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.openhab.core.types.State;
+
+/**
+ * The {@link PersistItem} holds the persisted states of a single item, ordered by their timestamp.
+ *
+ * Only one state is kept per timestamp, storing another state with the same timestamp has no effect.
+ *
+ * @author Jan N. Klug - Initial contribution
+ */
+@NonNullByDefault
+interface PersistItem {
+
+    /**
+     * Stores a state and removes the oldest states exceeding {@code maxEntries}.
+     *
+     * @param timestamp the timestamp of the state
+     * @param state the state to store
+     * @param maxEntries maximum number of states to keep, 0 for no limit
+     * @return false if the state is not supported by this item and has not been stored
+     */
+    boolean add(ZonedDateTime timestamp, State state, long maxEntries);
+
+    /**
+     * Returns the states in ascending order of their timestamps.
+     *
+     * @param beginDate the earliest timestamp to return, or null
+     * @param endDate the latest timestamp to return, or null
+     * @return the states between both dates (inclusive)
+     */
+    List<PersistEntry> query(@Nullable ZonedDateTime beginDate, @Nullable ZonedDateTime endDate);
+
+    /**
+     * Removes all states matching the filter.
+     */
+    void remove(Predicate<PersistEntry> filter);
+
+    /**
+     * Removes the oldest states exceeding {@code maxEntries}.
+     *
+     * @param maxEntries maximum number of states to keep, 0 for no limit
+     */
+    void trim(long maxEntries);
+
+    int size();
+
+    @Nullable
+    PersistEntry first();
+
+    @Nullable
+    PersistEntry last();
+}
@@ -0,0 +1,126 @@
+/**
+ * Copyright (c) 2010-2024 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.persistence.inmemory.internal;
+
+import java.time.ZonedDateTime;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Predicate;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.openhab.core.types.State;
+
+/**
+ * The {@link StatePersistItem} stores states of any type in a sorted set.
+ *
+ * @author Jan N. Klug - Initial contribution
+ */
+@NonNullByDefault
+class StatePersistItem implements PersistItem {
+    private final TreeSet<PersistEntry> database = new TreeSet<>(Comparator.comparing(PersistEntry::timestamp));
+    private final Lock lock = new ReentrantLock();
+
+    StatePersistItem() {
+    }
+
+    /**
+     * Creates an item from the states of another item, e.g. one that does not support a new state.
+     */
+    StatePersistItem(Collection<PersistEntry> entries) {
+        database.addAll(entries);
+    }
+
+    @Override
+    public boolean add(ZonedDateTime timestamp, State state, long maxEntries) {
+        lock.lock();
+        try {
+            database.add(new PersistEntry(timestamp, state));
+            trimLocked(maxEntries);
+        } finally {
+            lock.unlock();
+        }
+        return true;
+    }
+
+    @Override
+    public List<PersistEntry> query(@Nullable ZonedDateTime beginDate, @Nullable ZonedDateTime endDate) {
+        lock.lock();
+        try {
+            return database.stream().filter(e -> beginDate == null || !beginDate.isAfter(e.timestamp()))
+                    .filter(e -> endDate == null || !endDate.isBefore(e.timestamp())).toList();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void remove(Predicate<PersistEntry> filter) {
+        lock.lock();
+        try {
+            database.removeIf(filter);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void trim(long maxEntries) {
+        lock.lock();
+        try {
+            trimLocked(maxEntries);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void trimLocked(long maxEntries) {
+        while (maxEntries > 0 && database.size() > maxEntries) {
+            database.pollFirst();
+        }
+    }
+
+    @Override
+    public int size() {
+        lock.lock();
+        try {
+            return database.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public @Nullable PersistEntry first() {
+        lock.lock();
+        try {
+            return database.isEmpty() ? null : database.first();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public @Nullable PersistEntry last() {
+        lock.lock();
+        try {
+            return database.isEmpty() ? null : database.last();
+        } finally {
+            lock.unlock();
+        }
+    }
+}
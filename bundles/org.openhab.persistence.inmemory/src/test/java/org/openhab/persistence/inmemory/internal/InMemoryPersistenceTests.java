@@ -21,6 +21,7 @@ import java.time.ZonedDateTime;
 import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
 import java.util.TreeSet;
 
 import org.eclipse.jdt.annotation.NonNullByDefault;
@@ -35,7 +36,10 @@ import org.openhab.core.items.GenericItem;
 import org.openhab.core.library.types.DecimalType;
 import org.openhab.core.library.types.HSBType;
 import org.openhab.core.library.types.PercentType;
+import org.openhab.core.library.types.QuantityType;
 import org.openhab.core.library.types.StringType;
+import org.openhab.core.library.unit.ImperialUnits;
+import org.openhab.core.library.unit.SIUnits;
 import org.openhab.core.persistence.FilterCriteria;
 import org.openhab.core.persistence.HistoricItem;
 import org.openhab.core.types.State;
@@ -275,4 +279,48 @@ public class InMemoryPersistenceTests {
 
         // begin date is before first date is already covered by case #1
     }
+
+    @Test
+    public void numericStatesKeepNewestEntries() {
+        service.activate(Map.of("maxEntries", 3L));
+        ZonedDateTime start = ZonedDateTime.of(2020, 12, 1, 12, 0, 0, 0, ZoneId.systemDefault());
+        service.store(item, start.plusHours(2), new DecimalType(3));
+        service.store(item, start.plusHours(4), new DecimalType(5));
+        service.store(item, start, new DecimalType(1));
+        service.store(item, start.plusHours(1), new DecimalType(2));
+        service.store(item, start.plusHours(3), new DecimalType(4));
+
+        List<Integer> resultSet = new ArrayList<>();
+        service.query(filterCriteria).forEach(h -> resultSet.add(((DecimalType) h.getState()).intValue()));
+
+        assertThat(resultSet, contains(3, 4, 5));
+    }
+
+    @Test
+    public void quantityStatesAreConvertedToFirstUnit() {
+        ZonedDateTime start = ZonedDateTime.of(2020, 12, 1, 12, 0, 0, 0, ZoneId.systemDefault());
+        service.store(item, start, new QuantityType<>(20, SIUnits.CELSIUS));
+        service.store(item, start.plusHours(1), new QuantityType<>(50, ImperialUnits.FAHRENHEIT));
+
+        List<QuantityType<?>> resultSet = new ArrayList<>();
+        service.query(filterCriteria).forEach(h -> resultSet.add((QuantityType<?>) h.getState()));
+
+        assertThat(resultSet, hasSize(2));
+        assertThat(resultSet.get(0).getUnit(), is(SIUnits.CELSIUS));
+        assertThat(resultSet.get(0).doubleValue(), is(closeTo(20, 0.001)));
+        assertThat(resultSet.get(1).getUnit(), is(SIUnits.CELSIUS));
+        assertThat(resultSet.get(1).doubleValue(), is(closeTo(10, 0.001)));
+    }
+
+    @Test
+    public void mixedStatesAreKept() {
+        ZonedDateTime start = ZonedDateTime.of(2020, 12, 1, 12, 0, 0, 0, ZoneId.systemDefault());
+        service.store(item, start, new DecimalType(1));
+        service.store(item, start.plusHours(1), new StringType("value"));
+
+        List<State> resultSet = new ArrayList<>();
+        service.query(filterCriteria).forEach(h -> resultSet.add(h.getState()));
+
+        assertThat(resultSet, contains(new DecimalType(1), new StringType("value")));
+    }
 }
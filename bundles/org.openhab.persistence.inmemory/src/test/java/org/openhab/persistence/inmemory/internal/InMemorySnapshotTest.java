@@ -0,0 +1,140 @@
+/**
+ * Copyright (c) 2010-2024 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.persistence.inmemory.internal;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.junit.jupiter.api.Disabled;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.openhab.core.items.GenericItem;
+import org.openhab.core.library.types.DecimalType;
+import org.openhab.core.library.types.HSBType;
+import org.openhab.core.library.types.OnOffType;
+import org.openhab.core.library.types.QuantityType;
+import org.openhab.core.library.types.StringType;
+import org.openhab.core.library.unit.SIUnits;
+import org.openhab.core.persistence.FilterCriteria;
+import org.openhab.core.types.State;
+
+/**
+ * The {@link InMemorySnapshotTest} contains tests for the snapshots of the {@link InMemoryPersistenceService}
+ *
+ * @author Tobias Brandt - Initial contribution
+ */
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+@NonNullByDefault
+public class InMemorySnapshotTest {
+    private static final Map<String, Object> CONFIG = Map.of("maxEntries", 0L, "snapshotInterval", 60L);
+    private static final ZonedDateTime START = ZonedDateTime.of(2022, 5, 31, 10, 0, 0, 0, ZoneId.systemDefault());
+
+    private @TempDir @NonNullByDefault({}) Path tempDir;
+    private @NonNullByDefault({}) @Mock GenericItem item;
+
+    private InMemoryPersistenceService startService(String name) {
+        when(item.getName()).thenReturn(name);
+        InMemoryPersistenceService service = new InMemoryPersistenceService(tempDir.resolve("snapshot.bin"));
+        service.activate(CONFIG);
+        return service;
+    }
+
+    private List<State> query(InMemoryPersistenceService service, String itemName) {
+        FilterCriteria filter = new FilterCriteria();
+        filter.setItemName(itemName);
+        List<State> states = new ArrayList<>();
+        service.query(filter).forEach(h -> states.add(h.getState()));
+        return states;
+    }
+
+    @Test
+    public void statesAreRestoredAfterRestart() {
+        InMemoryPersistenceService service = startService("decimal");
+        service.store(item, START, new DecimalType(1.5));
+        service.store(item, START.plusHours(1), new DecimalType(2));
+        when(item.getName()).thenReturn("quantity");
+        service.store(item, START, new QuantityType<>(20, SIUnits.CELSIUS));
+        when(item.getName()).thenReturn("string");
+        service.store(item, START, new StringType("value"));
+        when(item.getName()).thenReturn("switch");
+        service.store(item, START, OnOffType.ON);
+        when(item.getName()).thenReturn("color");
+        service.store(item, START, new HSBType("120,100,50"));
+        service.deactivate();
+
+        InMemoryPersistenceService restarted = startService("decimal");
+
+        assertThat(query(restarted, "decimal"), contains(new DecimalType(1.5), new DecimalType(2)));
+        assertThat(query(restarted, "quantity"), contains(new QuantityType<>(20, SIUnits.CELSIUS)));
+        assertThat(query(restarted, "string"), contains(new StringType("value")));
+        assertThat(query(restarted, "switch"), contains(OnOffType.ON));
+        assertThat(query(restarted, "color"), contains(new HSBType("120,100,50")));
+    }
+
+    @Test
+    public void corruptSnapshotIsIgnored() throws IOException {
+        Files.write(tempDir.resolve("snapshot.bin"), new byte[] { 0x4f, 0x48, 0x49, 0x4d, 0, 0, 0, 1, 0, 0, 0, 0, 0, 0,
+                0, 40, 1, 0, 0, 0, 100, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0 });
+
+        InMemoryPersistenceService service = startService("decimal");
+
+        assertThat(service.getItemInfo(), is(empty()));
+    }
+
+    /**
+     * Compares restoring a snapshot with storing the same values again, as a cold start would do.
+     */
+    @Test
+    @Disabled("benchmark, run manually")
+    public void benchmarkRestoreAgainstColdStart() {
+        int items = 10;
+        int valuesPerItem = 1_000_000;
+
+        long start = System.nanoTime();
+        InMemoryPersistenceService service = startService("item");
+        for (int i = 0; i < items; i++) {
+            when(item.getName()).thenReturn("item" + i);
+            for (int j = 0; j < valuesPerItem; j++) {
+                service.store(item, START.plusSeconds(j), new DecimalType(j));
+            }
+        }
+        long coldStart = System.nanoTime() - start;
+        service.deactivate();
+
+        start = System.nanoTime();
+        InMemoryPersistenceService restarted = startService("item0");
+        long restore = System.nanoTime() - start;
+
+        assertThat(restarted.getItemInfo(), hasSize(items));
+        assertThat(query(restarted, "item0"), hasSize(valuesPerItem));
+        assertThat("restore takes " + restore / 1_000_000 + " ms, storing the values again "
+                + coldStart / 1_000_000 + " ms", restore, lessThan(coldStart));
+    }
+}
@@ -41,6 +41,7 @@ public class JdbcConfiguration {
 
     private static final Pattern EXTRACT_CONFIG_PATTERN = Pattern.compile("^(.*?)\\.([0-9.a-zA-Z]+)$");
     private static final String DB_DAO_PACKAGE = "org.openhab.persistence.jdbc.internal.db.Jdbc";
+    private static final int HIKARI_DEFAULT_MAXIMUM_POOL_SIZE = 10;
 
     private Map<Object, Object> configuration;
 
@@ -66,6 +67,15 @@ public class JdbcConfiguration {
 
     private int errReconnectThreshold = 0;
 
+    // cursor based queries, disabled when queryFetchSize <= 0
+    private int queryFetchSize = 0;
+
+    // write-behind queue, disabled when batchSize <= 1
+    private int batchSize = 0;
+    private int batchInterval = 1000;
+    private int batchQueueCapacity = 10000;
+    private JdbcWriteBehindQueue.OverflowPolicy batchOverflowPolicy = JdbcWriteBehindQueue.OverflowPolicy.DROP_OLDEST;
+
     public int timerCount = 0;
     public int time1000Statements = 0;
     public long timer1000 = 0;
@@ -191,6 +201,34 @@ public class JdbcConfiguration {
             logger.debug("JDBC::updateConfig: rebuildTableNames={}", rebuildTableNames);
         }
 
+        String qf = (String) configuration.get("queryFetchSize");
+        if (qf != null && !qf.isBlank() && isNumericPattern.matcher(qf).matches()) {
+            queryFetchSize = Integer.parseInt(qf);
+            logger.debug("JDBC::updateConfig: queryFetchSize={}", queryFetchSize);
+        }
+
+        String bs = (String) configuration.get("batchSize");
+        if (bs != null && !bs.isBlank() && isNumericPattern.matcher(bs).matches()) {
+            batchSize = Integer.parseInt(bs);
+            logger.debug("JDBC::updateConfig: batchSize={}", batchSize);
+        }
+
+        String bi = (String) configuration.get("batchInterval");
+        if (bi != null && !bi.isBlank() && isNumericPattern.matcher(bi).matches()) {
+            batchInterval = Math.max(Integer.parseInt(bi), 1);
+            logger.debug("JDBC::updateConfig: batchInterval={}", batchInterval);
+        }
+
+        String bc = (String) configuration.get("batchQueueCapacity");
+        if (bc != null && !bc.isBlank() && isNumericPattern.matcher(bc).matches()) {
+            batchQueueCapacity = Math.max(Integer.parseInt(bc), 1);
+            logger.debug("JDBC::updateConfig: batchQueueCapacity={}", batchQueueCapacity);
+        }
+
+        String bo = (String) configuration.get("batchOverflowPolicy");
+        batchOverflowPolicy = JdbcWriteBehindQueue.OverflowPolicy.fromConfig(bo, batchOverflowPolicy);
+        logger.debug("JDBC::updateConfig: batchOverflowPolicy={}", batchOverflowPolicy);
+
         // undocumented
         String ac = (String) configuration.get("maximumPoolSize");
         if (ac != null && !ac.isBlank()) {
@@ -371,6 +409,49 @@ public class JdbcConfiguration {
         return errReconnectThreshold;
     }
 
+    public int getQueryFetchSize() {
+        return queryFetchSize;
+    }
+
+    /**
+     * Checks if states are queued and written in batches instead of being stored one by one.
+     *
+     * @return true if batchSize is greater than 1.
+     */
+    public boolean isBatchEnabled() {
+        return batchSize > 1;
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    public int getBatchInterval() {
+        return batchInterval;
+    }
+
+    public int getBatchQueueCapacity() {
+        return batchQueueCapacity;
+    }
+
+    public JdbcWriteBehindQueue.OverflowPolicy getBatchOverflowPolicy() {
+        return batchOverflowPolicy;
+    }
+
+    /**
+     * Number of states that may be written at the same time, one per connection of the pool.
+     *
+     * @return the maximum pool size, limited by the number of concurrent writers the database supports.
+     */
+    public int getStoreParallelism() {
+        int maximumPoolSize = HIKARI_DEFAULT_MAXIMUM_POOL_SIZE;
+        String mps = getHikariConfiguration().getProperty("maximumPoolSize");
+        if (mps != null && mps.matches("\\d+")) {
+            maximumPoolSize = Integer.parseInt(mps);
+        }
+        return Math.max(1, Math.min(maximumPoolSize, dBDAO.getMaxConcurrentWriters()));
+    }
+
     public boolean getRebuildTableNames() {
         return rebuildTableNames;
     }
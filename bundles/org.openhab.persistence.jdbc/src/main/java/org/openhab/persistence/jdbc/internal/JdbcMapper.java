@@ -20,6 +20,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 
 import org.eclipse.jdt.annotation.NonNullByDefault;
@@ -36,6 +37,7 @@ import org.openhab.persistence.jdbc.internal.dto.Column;
 import org.openhab.persistence.jdbc.internal.dto.ItemVO;
 import org.openhab.persistence.jdbc.internal.dto.ItemsVO;
 import org.openhab.persistence.jdbc.internal.dto.JdbcPersistenceItemInfo;
+import org.openhab.persistence.jdbc.internal.dto.PendingItemValue;
 import org.openhab.persistence.jdbc.internal.exceptions.JdbcException;
 import org.openhab.persistence.jdbc.internal.exceptions.JdbcSQLException;
 import org.slf4j.Logger;
@@ -56,13 +58,14 @@ public class JdbcMapper {
     private final TimeZoneProvider timeZoneProvider;
 
     // Error counter - used to reconnect to database on error
-    protected int errCnt;
-    protected boolean initialized = false;
+    protected volatile int errCnt;
+    protected volatile boolean initialized = false;
     protected @NonNullByDefault({}) JdbcConfiguration conf;
-    protected final Map<String, String> itemNameToTableNameMap = new HashMap<>();
+    protected final Map<String, String> itemNameToTableNameMap = new ConcurrentHashMap<>();
     protected @NonNullByDefault({}) NamingStrategy namingStrategy;
     private long afterAccessMin = 10000;
     private long afterAccessMax = 0;
+    private final Object logTimeLock = new Object();
 
     public JdbcMapper(TimeZoneProvider timeZoneProvider) {
         this.timeZoneProvider = timeZoneProvider;
@@ -225,6 +228,15 @@ public class JdbcMapper {
         errCnt = 0;
     }
 
+    protected void storeItemValues(Item item, List<PendingItemValue> values) throws JdbcException {
+        logger.debug("JDBC::storeItemValues: item={} count={}", item, values.size());
+        String tableName = getTable(item);
+        long timerStart = System.currentTimeMillis();
+        conf.getDBDAO().doStoreItemValues(item, tableName, values);
+        logTime("storeItemValues", timerStart, System.currentTimeMillis());
+        errCnt = 0;
+    }
+
     public long getRowCount(String tableName) throws JdbcSQLException {
         return conf.getDBDAO().doGetRowCount(tableName);
     }
@@ -242,6 +254,14 @@ public class JdbcMapper {
         return result;
     }
 
+    protected Iterable<HistoricItem> getHistItemFilterQueryCursor(FilterCriteria filter, int numberDecimalcount,
+            String table, Item item, int fetchSize) {
+        logger.debug("JDBC::getHistItemFilterQueryCursor table='{}' itemName='{}' fetchSize='{}'", table,
+                item.getName(), fetchSize);
+        return conf.getDBDAO().doGetHistItemFilterQueryCursor(item, filter, numberDecimalcount, table, item.getName(),
+                timeZoneProvider.getTimeZone(), fetchSize);
+    }
+
     protected void deleteItemValues(FilterCriteria filter, String table) throws JdbcSQLException {
         logger.debug("JDBC::deleteItemValues filter='{}' table='{}' itemName='{}'", true, table, filter.getItemName());
         long timerStart = System.currentTimeMillis();
@@ -253,7 +273,7 @@ public class JdbcMapper {
     /***********************
      * DATABASE CONNECTION *
      ***********************/
-    protected boolean openConnection() {
+    protected synchronized boolean openConnection() {
         logger.debug("JDBC::openConnection isDriverAvailable: {}", conf.isDriverAvailable());
         if (conf.isDriverAvailable() && !conf.isDbConnected()) {
             logger.info("JDBC::openConnection: Driver is available::Yank setupDataSource");
@@ -365,6 +385,18 @@ public class JdbcMapper {
             return tableName;
         }
 
+        // States of different items are stored in parallel, only one of them may create a table at a time
+        synchronized (itemNameToTableNameMap) {
+            tableName = itemNameToTableNameMap.get(itemName);
+            if (!Objects.isNull(tableName)) {
+                return tableName;
+            }
+            return createTable(item);
+        }
+    }
+
+    private String createTable(Item item) throws JdbcException {
+        String itemName = item.getName();
         logger.debug("JDBC::getTable: no table found for item '{}' in itemNameToTableNameMap", itemName);
 
         int itemId = 0;
@@ -383,7 +415,7 @@ public class JdbcMapper {
 
         // Create the table name
         logger.debug("JDBC::getTable: getTableName with rowId={} itemName={}", itemId, itemName);
-        tableName = namingStrategy.getTableName(itemId, itemName);
+        String tableName = namingStrategy.getTableName(itemId, itemName);
 
         // Create table for item
         String dataType = conf.getDBDAO().getDataType(item);
@@ -484,29 +516,38 @@ public class JdbcMapper {
      *****************/
     private void logTime(String me, long timerStart, long timerStop) {
         if (conf.enableLogTime && logger.isInfoEnabled()) {
-            conf.timerCount++;
             int timerDiff = (int) (timerStop - timerStart);
-            if (timerDiff < afterAccessMin) {
-                afterAccessMin = timerDiff;
-            }
-            if (timerDiff > afterAccessMax) {
-                afterAccessMax = timerDiff;
-            }
-            conf.timeAverage50arr.add(timerDiff);
-            conf.timeAverage100arr.add(timerDiff);
-            conf.timeAverage200arr.add(timerDiff);
-            if (conf.timerCount == 1) {
-                conf.timer1000 = System.currentTimeMillis();
-            }
-            if (conf.timerCount == 1001) {
-                conf.time1000Statements = Math.round(((int) (System.currentTimeMillis() - conf.timer1000)) / 1000);// Seconds
-                conf.timerCount = 0;
+            long min;
+            long max;
+            int timerCount;
+            // states are stored on several threads at the same time
+            synchronized (logTimeLock) {
+                conf.timerCount++;
+                if (timerDiff < afterAccessMin) {
+                    afterAccessMin = timerDiff;
+                }
+                if (timerDiff > afterAccessMax) {
+                    afterAccessMax = timerDiff;
+                }
+                conf.timeAverage50arr.add(timerDiff);
+                conf.timeAverage100arr.add(timerDiff);
+                conf.timeAverage200arr.add(timerDiff);
+                if (conf.timerCount == 1) {
+                    conf.timer1000 = System.currentTimeMillis();
+                }
+                if (conf.timerCount == 1001) {
+                    conf.time1000Statements = Math.round(((int) (System.currentTimeMillis() - conf.timer1000)) / 1000);// Seconds
+                    conf.timerCount = 0;
+                }
+                min = afterAccessMin;
+                max = afterAccessMax;
+                timerCount = conf.timerCount;
             }
             logger.info(
                     "JDBC::logTime: '{}':\n afterAccess     = {} ms\n timeAverage50  = {} ms\n timeAverage100 = {} ms\n timeAverage200 = {} ms\n afterAccessMin  = {} ms\n afterAccessMax  = {} ms\n 1000Statements = {} sec\n statementCount = {}\n",
                     me, timerDiff, conf.timeAverage50arr.getAverageInteger(),
-                    conf.timeAverage100arr.getAverageInteger(), conf.timeAverage200arr.getAverageInteger(),
-                    afterAccessMin, afterAccessMax, conf.time1000Statements, conf.timerCount);
+                    conf.timeAverage100arr.getAverageInteger(), conf.timeAverage200arr.getAverageInteger(), min, max,
+                    conf.time1000Statements, timerCount);
         }
     }
 }
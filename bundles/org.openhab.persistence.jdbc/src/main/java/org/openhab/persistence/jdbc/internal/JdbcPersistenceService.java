@@ -23,6 +23,9 @@ import java.util.Map.Entry;
 import java.util.Set;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.stream.Collectors;
 
 import org.eclipse.jdt.annotation.NonNullByDefault;
@@ -46,6 +49,7 @@ import org.openhab.core.types.UnDefType;
 import org.openhab.persistence.jdbc.internal.db.JdbcBaseDAO;
 import org.openhab.persistence.jdbc.internal.dto.Column;
 import org.openhab.persistence.jdbc.internal.dto.ItemsVO;
+import org.openhab.persistence.jdbc.internal.dto.PendingItemValue;
 import org.openhab.persistence.jdbc.internal.exceptions.JdbcException;
 import org.openhab.persistence.jdbc.internal.exceptions.JdbcSQLException;
 import org.osgi.framework.BundleContext;
@@ -70,6 +74,10 @@ import org.slf4j.LoggerFactory;
 @ConfigurableService(category = "persistence", label = "JDBC Persistence Service", description_uri = JdbcPersistenceServiceConstants.CONFIG_URI)
 public class JdbcPersistenceService extends JdbcMapper implements ModifiablePersistenceService {
 
+    private static final long STORE_EXECUTOR_SHUTDOWN_TIMEOUT_SECONDS = 10;
+    private static final int STORE_QUEUE_CAPACITY = 10000;
+    private static final long STORE_QUEUE_OFFER_TIMEOUT_MILLIS = 1000;
+
     private final Logger logger = LoggerFactory.getLogger(JdbcPersistenceService.class);
 
     private final ItemRegistry itemRegistry;
@@ -77,6 +85,11 @@ public class JdbcPersistenceService extends JdbcMapper implements ModifiablePers
     private final ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(1,
             new NamedThreadFactory(JdbcPersistenceServiceConstants.SERVICE_ID));
 
+    private volatile @Nullable JdbcStoreExecutor storeExecutor;
+    private volatile @Nullable JdbcWriteBehindQueue writeBehindQueue;
+    private @Nullable ScheduledFuture<?> writeBehindFlushJob;
+    private final AtomicBoolean writeBehindFlushPending = new AtomicBoolean();
+
     @Activate
     public JdbcPersistenceService(final @Reference ItemRegistry itemRegistry,
             final @Reference TimeZoneProvider timeZoneProvider) {
@@ -120,6 +133,9 @@ public class JdbcPersistenceService extends JdbcMapper implements ModifiablePers
     @Deactivate
     public void deactivate(final int reason) {
         logger.debug("JDBC::deactivate:  persistence bundle stopping. Disconnecting from database. reason={}", reason);
+        stopWriteBehind();
+        stopStoreExecutor(storeExecutor);
+        storeExecutor = null;
         // closeConnection();
         initialized = false;
     }
@@ -137,27 +153,57 @@ public class JdbcPersistenceService extends JdbcMapper implements ModifiablePers
 
     @Override
     public void store(Item item) {
-        scheduler.execute(() -> internalStore(item, null, item.getState()));
+        scheduleStore(item, null, item.getState());
     }
 
     @Override
     public void store(Item item, @Nullable String alias) {
         // alias is not supported
-        scheduler.execute(() -> internalStore(item, null, item.getState()));
+        scheduleStore(item, null, item.getState());
     }
 
     @Override
     public void store(Item item, ZonedDateTime date, State state) {
-        scheduler.execute(() -> internalStore(item, date, state));
+        scheduleStore(item, date, state);
     }
 
     @Override
     public void store(Item item, ZonedDateTime date, State state, @Nullable String alias) {
         // alias is not supported
-        scheduler.execute(() -> internalStore(item, date, state));
+        scheduleStore(item, date, state);
+    }
+
+    private void scheduleStore(Item item, @Nullable ZonedDateTime date, State state) {
+        JdbcWriteBehindQueue queue = writeBehindQueue;
+        if (queue == null) {
+            JdbcStoreExecutor executor = storeExecutor;
+            if (executor != null) {
+                if (!executor.execute(item.getName(), () -> internalStore(item, date, state))) {
+                    logger.warn("JDBC::store: Store queue is full, dropped state '{}' of item '{}'", state,
+                            item.getName());
+                }
+            } else {
+                scheduler.execute(() -> internalStore(item, date, state));
+            }
+            return;
+        }
+        // Do not queue undefined/uninitialized data
+        if (state instanceof UnDefType) {
+            logger.debug("JDBC::store: ignore Item '{}' because it is UnDefType", item.getName());
+            return;
+        }
+        int size = queue.add(new PendingItemValue(item, state, date == null ? ZonedDateTime.now() : date));
+        if (writeBehindQueue != queue) {
+            // the queue has been stopped meanwhile and may have been drained before the state was added
+            flushWriteBehindQueue(queue);
+            return;
+        }
+        if (size >= conf.getBatchSize() && writeBehindFlushPending.compareAndSet(false, true)) {
+            scheduler.execute(this::flushWriteBehindQueue);
+        }
     }
 
-    private synchronized void internalStore(Item item, @Nullable ZonedDateTime date, State state) {
+    private void internalStore(Item item, @Nullable ZonedDateTime date, State state) {
         // Do not store undefined/uninitialized data
         if (state instanceof UnDefType) {
             logger.debug("JDBC::store: ignore Item '{}' because it is UnDefType", item.getName());
@@ -181,6 +227,85 @@ public class JdbcPersistenceService extends JdbcMapper implements ModifiablePers
         }
     }
 
+    private void flushWriteBehindQueue() {
+        writeBehindFlushPending.set(false);
+        JdbcWriteBehindQueue queue = writeBehindQueue;
+        if (queue != null) {
+            flushWriteBehindQueue(queue);
+        }
+    }
+
+    private synchronized void flushWriteBehindQueue(JdbcWriteBehindQueue queue) {
+        if (queue.isEmpty()) {
+            return;
+        }
+        if (!checkDBAccessability()) {
+            logger.warn(
+                    "JDBC::flush: No connection to database. Keeping {} queued states! Will retry connecting to database when error count:{} equals errReconnectThreshold:{}",
+                    queue.size(), errCnt, conf.getErrReconnectThreshold());
+            return;
+        }
+        long timerStart = System.currentTimeMillis();
+        int count = 0;
+        for (List<PendingItemValue> values : queue.drain().values()) {
+            Item item = values.get(0).getItem();
+            try {
+                storeItemValues(item, values);
+            } catch (JdbcException e) {
+                logger.debug("JDBC::flush: Batch store failed for item '{}', storing states one by one: {}",
+                        item.getName(), e.getMessage());
+                for (PendingItemValue value : values) {
+                    try {
+                        storeItemValue(item, value.getState(), value.getDate());
+                    } catch (JdbcException e1) {
+                        logger.warn("JDBC::flush: Unable to store item", e1);
+                    }
+                }
+            }
+            count += values.size();
+        }
+        if (logger.isDebugEnabled()) {
+            logger.debug("JDBC: Stored {} queued states in SQL database in {} ms.", count,
+                    System.currentTimeMillis() - timerStart);
+        }
+    }
+
+    private synchronized void startWriteBehind() {
+        if (!conf.isBatchEnabled()) {
+            return;
+        }
+        writeBehindQueue = new JdbcWriteBehindQueue(conf.getBatchQueueCapacity(), conf.getBatchOverflowPolicy(),
+                conf.getBatchInterval());
+        writeBehindFlushJob = scheduler.scheduleWithFixedDelay(this::flushWriteBehindQueue, conf.getBatchInterval(),
+                conf.getBatchInterval(), TimeUnit.MILLISECONDS);
+        logger.debug("JDBC::startWriteBehind: batchSize={} batchInterval={} ms batchQueueCapacity={}",
+                conf.getBatchSize(), conf.getBatchInterval(), conf.getBatchQueueCapacity());
+    }
+
+    private synchronized void stopWriteBehind() {
+        ScheduledFuture<?> flushJob = writeBehindFlushJob;
+        if (flushJob != null) {
+            flushJob.cancel(false);
+            writeBehindFlushJob = null;
+        }
+        JdbcWriteBehindQueue queue = writeBehindQueue;
+        if (queue != null) {
+            writeBehindQueue = null;
+            flushWriteBehindQueue(queue);
+            if (!queue.isEmpty()) {
+                logger.warn("JDBC::stopWriteBehind: Unable to store {} queued states, they are discarded",
+                        queue.size());
+            }
+        }
+    }
+
+    private void stopStoreExecutor(@Nullable JdbcStoreExecutor executor) {
+        if (executor != null && !executor.shutdown(STORE_EXECUTOR_SHUTDOWN_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+            logger.warn("JDBC::stopStoreExecutor: Pending states have not been stored within {} seconds",
+                    STORE_EXECUTOR_SHUTDOWN_TIMEOUT_SECONDS);
+        }
+    }
+
     @Override
     public Set<PersistenceItemInfo> getItemInfo() {
         return getItems();
@@ -237,6 +362,14 @@ public class JdbcPersistenceService extends JdbcMapper implements ModifiablePers
             return List.of();
         }
 
+        if (conf.getQueryFetchSize() > 0 && filter.getPageSize() == Integer.MAX_VALUE) {
+            // Unbounded result: read it through a cursor while the caller iterates
+            logger.debug("JDBC: Query for item '{}' returns a cursor with fetch size {}", itemName,
+                    conf.getQueryFetchSize());
+            return getHistItemFilterQueryCursor(filter, conf.getNumberDecimalcount(), table, item,
+                    conf.getQueryFetchSize());
+        }
+
         try {
             long timerStart = System.currentTimeMillis();
             List<HistoricItem> items = getHistItemFilterQuery(filter, conf.getNumberDecimalcount(), table, item);
@@ -256,6 +389,9 @@ public class JdbcPersistenceService extends JdbcMapper implements ModifiablePers
     public void updateConfig(Map<Object, Object> configuration) {
         logger.debug("JDBC::updateConfig");
 
+        if (conf != null) {
+            stopWriteBehind();
+        }
         conf = new JdbcConfiguration(configuration);
         if (conf.valid && checkDBAccessability()) {
             namingStrategy = new NamingStrategy(conf);
@@ -270,6 +406,12 @@ public class JdbcPersistenceService extends JdbcMapper implements ModifiablePers
         } else {
             initialized = false;
         }
+        startWriteBehind();
+        JdbcStoreExecutor previousExecutor = storeExecutor;
+        storeExecutor = new JdbcStoreExecutor(conf.getStoreParallelism(), STORE_QUEUE_CAPACITY,
+                STORE_QUEUE_OFFER_TIMEOUT_MILLIS, JdbcPersistenceServiceConstants.SERVICE_ID + "-store");
+        logger.debug("JDBC::updateConfig: storing states on {} threads", conf.getStoreParallelism());
+        stopStoreExecutor(previousExecutor);
 
         logger.debug("JDBC::updateConfig: configuration complete for service={}.", getId());
     }
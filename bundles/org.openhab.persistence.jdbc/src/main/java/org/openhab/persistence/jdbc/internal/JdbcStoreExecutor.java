@@ -0,0 +1,109 @@
+/**
+ * Copyright (c) 2010-2024 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.persistence.jdbc.internal;
+
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.openhab.core.common.NamedThreadFactory;
+
+/**
+ * Executes store tasks on a bounded number of threads.
+ *
+ * Tasks are distributed to single threaded lanes by item name, so states of one item are written in the order they
+ * were stored, while different item tables are written in parallel.
+ *
+ * Each lane queues a bounded number of tasks. When a lane is full, the caller waits up to the offer timeout for room
+ * and the task is rejected after that, so a slow database neither grows the heap nor blocks the caller indefinitely.
+ *
+ * @author Tobias Brandt - Initial contribution
+ */
+@NonNullByDefault
+public class JdbcStoreExecutor {
+    private static final long KEEP_ALIVE_SECONDS = 60;
+
+    private final ThreadPoolExecutor[] lanes;
+
+    /**
+     * @param parallelism number of lanes
+     * @param capacity maximum number of queued tasks, shared equally by all lanes
+     * @param offerTimeoutMillis maximum time to wait for room in a full lane
+     * @param threadPoolName name of the lane threads
+     */
+    public JdbcStoreExecutor(int parallelism, int capacity, long offerTimeoutMillis, String threadPoolName) {
+        NamedThreadFactory threadFactory = new NamedThreadFactory(threadPoolName);
+        lanes = new ThreadPoolExecutor[Math.max(1, parallelism)];
+        int laneCapacity = Math.max(1, capacity / lanes.length);
+        for (int i = 0; i < lanes.length; i++) {
+            ThreadPoolExecutor lane = new ThreadPoolExecutor(1, 1, KEEP_ALIVE_SECONDS, TimeUnit.SECONDS,
+                    new LinkedBlockingQueue<>(laneCapacity), threadFactory, (task, executor) -> {
+                        // wait for room at the end of the lane, running the task elsewhere would break the order
+                        try {
+                            if (!executor.isShutdown() && executor.getQueue().offer(task, offerTimeoutMillis,
+                                    TimeUnit.MILLISECONDS)) {
+                                return;
+                            }
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                        }
+                        throw new RejectedExecutionException("Store queue is full");
+                    });
+            lane.allowCoreThreadTimeOut(true);
+            lanes[i] = lane;
+        }
+    }
+
+    /**
+     * Executes a task after all tasks previously submitted for the same item.
+     *
+     * @param itemName the item the task stores a state for
+     * @param task the task to execute
+     * @return false if the task has been rejected because the lane of the item stayed full
+     */
+    public boolean execute(String itemName, Runnable task) {
+        try {
+            lanes[Math.floorMod(itemName.hashCode(), lanes.length)].execute(task);
+            return true;
+        } catch (RejectedExecutionException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Executes all submitted tasks and stops the threads.
+     *
+     * @param timeout maximum time to wait for submitted tasks
+     * @param unit unit of the timeout
+     * @return true if all tasks have been executed
+     */
+    public boolean shutdown(long timeout, TimeUnit unit) {
+        for (ThreadPoolExecutor lane : lanes) {
+            lane.shutdown();
+        }
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        try {
+            for (ThreadPoolExecutor lane : lanes) {
+                if (!lane.awaitTermination(deadline - System.nanoTime(), TimeUnit.NANOSECONDS)) {
+                    return false;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+        return true;
+    }
+}
@@ -0,0 +1,157 @@
+/**
+ * Copyright (c) 2010-2024 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.persistence.jdbc.internal;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.openhab.persistence.jdbc.internal.dto.PendingItemValue;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Bounded queue of item states waiting to be written to the database.
+ *
+ * States are drained grouped per item, so that all pending values of one item table can be written with a single
+ * batch statement.
+ *
+ * @author Tobias Brandt - Initial contribution
+ */
+@NonNullByDefault
+public class JdbcWriteBehindQueue {
+
+    /**
+     * Defines what happens when a state is queued while the queue is full.
+     */
+    public enum OverflowPolicy {
+        /**
+         * Discard the oldest queued state to make room for the new one.
+         */
+        DROP_OLDEST,
+        /**
+         * Discard the new state.
+         */
+        DROP_NEWEST,
+        /**
+         * Block the caller until the queue has room again, but at most for the block timeout. The new state is
+         * discarded if the queue is still full then.
+         */
+        BLOCK;
+
+        public static OverflowPolicy fromConfig(@Nullable String value, OverflowPolicy defaultPolicy) {
+            if (value == null || value.isBlank()) {
+                return defaultPolicy;
+            }
+            try {
+                return valueOf(value.trim().toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                return defaultPolicy;
+            }
+        }
+    }
+
+    private final Logger logger = LoggerFactory.getLogger(JdbcWriteBehindQueue.class);
+
+    private final LinkedBlockingDeque<PendingItemValue> queue;
+    private final OverflowPolicy overflowPolicy;
+    private final long blockTimeoutMillis;
+    private long droppedCount = 0;
+
+    /**
+     * @param capacity maximum number of queued states
+     * @param overflowPolicy what to do when the queue is full
+     * @param blockTimeoutMillis maximum time to wait for room with {@link OverflowPolicy#BLOCK}
+     */
+    public JdbcWriteBehindQueue(int capacity, OverflowPolicy overflowPolicy, long blockTimeoutMillis) {
+        this.queue = new LinkedBlockingDeque<>(capacity);
+        this.overflowPolicy = overflowPolicy;
+        this.blockTimeoutMillis = blockTimeoutMillis;
+    }
+
+    /**
+     * Adds a state to the queue, applying the configured {@link OverflowPolicy} if the queue is full.
+     *
+     * @param value the state to queue
+     * @return number of queued states after adding
+     */
+    public int add(PendingItemValue value) {
+        switch (overflowPolicy) {
+            case BLOCK:
+                try {
+                    if (!queue.offerLast(value, blockTimeoutMillis, TimeUnit.MILLISECONDS)) {
+                        dropped(value);
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    dropped(value);
+                }
+                break;
+            case DROP_NEWEST:
+                if (!queue.offerLast(value)) {
+                    dropped(value);
+                }
+                break;
+            case DROP_OLDEST:
+            default:
+                while (!queue.offerLast(value)) {
+                    PendingItemValue oldest = queue.pollFirst();
+                    if (oldest != null) {
+                        dropped(oldest);
+                    }
+                }
+                break;
+        }
+        return queue.size();
+    }
+
+    /**
+     * Removes all queued states and returns them grouped by item name, preserving the order in which they were
+     * queued.
+     *
+     * @return map of item name to queued states of that item
+     */
+    public Map<String, List<PendingItemValue>> drain() {
+        List<PendingItemValue> values = new ArrayList<>(queue.size());
+        queue.drainTo(values);
+        Map<String, List<PendingItemValue>> valuesByItem = new LinkedHashMap<>();
+        for (PendingItemValue value : values) {
+            valuesByItem.computeIfAbsent(value.getItem().getName(), k -> new ArrayList<>()).add(value);
+        }
+        return valuesByItem;
+    }
+
+    public int size() {
+        return queue.size();
+    }
+
+    public boolean isEmpty() {
+        return queue.isEmpty();
+    }
+
+    public synchronized long getDroppedCount() {
+        return droppedCount;
+    }
+
+    private synchronized void dropped(PendingItemValue value) {
+        droppedCount++;
+        logger.warn("JDBC::writeBehind: queue is full, dropped state '{}' of item '{}' ({} dropped in total)",
+                value.getState(), value.getItem().getName(), droppedCount);
+    }
+}
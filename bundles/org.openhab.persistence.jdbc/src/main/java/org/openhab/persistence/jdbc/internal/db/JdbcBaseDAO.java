@@ -13,6 +13,10 @@
 package org.openhab.persistence.jdbc.internal.db;
 
 import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
 import java.time.Instant;
 import java.time.LocalDateTime;
 import java.time.ZoneId;
@@ -24,6 +28,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 
 import javax.measure.Quantity;
@@ -33,6 +38,7 @@ import org.eclipse.jdt.annotation.NonNullByDefault;
 import org.eclipse.jdt.annotation.Nullable;
 import org.knowm.yank.Yank;
 import org.knowm.yank.exceptions.YankSQLException;
+import org.openhab.core.common.ThreadPoolManager;
 import org.openhab.core.items.GroupItem;
 import org.openhab.core.items.Item;
 import org.openhab.core.library.items.ColorItem;
@@ -60,6 +66,7 @@ import org.openhab.persistence.jdbc.internal.dto.Column;
 import org.openhab.persistence.jdbc.internal.dto.ItemVO;
 import org.openhab.persistence.jdbc.internal.dto.ItemsVO;
 import org.openhab.persistence.jdbc.internal.dto.JdbcHistoricItem;
+import org.openhab.persistence.jdbc.internal.dto.PendingItemValue;
 import org.openhab.persistence.jdbc.internal.exceptions.JdbcSQLException;
 import org.openhab.persistence.jdbc.internal.utils.DbMetaData;
 import org.openhab.persistence.jdbc.internal.utils.StringUtilsExt;
@@ -73,6 +80,9 @@ import org.slf4j.LoggerFactory;
  */
 @NonNullByDefault
 public class JdbcBaseDAO {
+    /** Time after which the cursor of a lazy query result is closed if it is not read any further */
+    static final Duration CURSOR_IDLE_TIMEOUT = Duration.ofSeconds(60);
+
     private final Logger logger = LoggerFactory.getLogger(JdbcBaseDAO.class);
 
     public final Properties databaseProps = new Properties();
@@ -82,6 +92,10 @@ public class JdbcBaseDAO {
     // Get Database Meta data
     protected @Nullable DbMetaData dbMeta;
 
+    // Insert statements rendered from sqlInsertItemValue, keyed by table name, data type and timestamp mode. The same
+    // SQL text for every store of an item lets the driver statement cache find the prepared statement again.
+    private final Map<String, String> insertItemValueSqlCache = new ConcurrentHashMap<>();
+
     protected String sqlPingDB = "SELECT 1";
     protected String sqlGetDB = "SELECT DATABASE()";
     protected String sqlIfTableExists = "SHOW TABLES LIKE '#searchTable#'";
@@ -339,6 +353,7 @@ public class JdbcBaseDAO {
         } catch (YankSQLException e) {
             throw new JdbcSQLException(e);
         }
+        insertItemValueSqlCache.clear();
     }
 
     public void doDeleteItemsEntry(ItemsVO vo) throws JdbcSQLException {
@@ -401,6 +416,7 @@ public class JdbcBaseDAO {
                 throw new JdbcSQLException(e);
             }
         }
+        insertItemValueSqlCache.clear();
     }
 
     public void doCreateItemTable(ItemVO vo) throws JdbcSQLException {
@@ -430,10 +446,8 @@ public class JdbcBaseDAO {
 
     public void doStoreItemValue(Item item, State itemState, ItemVO vo) throws JdbcSQLException {
         ItemVO storedVO = storeItemValueProvider(item, itemState, vo);
-        String sql = StringUtilsExt.replaceArrayMerge(sqlInsertItemValue,
-                new String[] { "#tableName#", "#tablePrimaryValue#" },
-                new String[] { storedVO.getTableName(), sqlTypes.get("tablePrimaryValue") });
-        Object[] params = { storedVO.getValue(), storedVO.getValue() };
+        String sql = getInsertItemValueSql(storedVO, false);
+        Object[] params = storeItemValueParamsProvider(storedVO);
         logger.debug("JDBC::doStoreItemValue sql={} value='{}'", sql, storedVO.getValue());
         try {
             Yank.execute(sql, params);
@@ -444,10 +458,9 @@ public class JdbcBaseDAO {
 
     public void doStoreItemValue(Item item, State itemState, ItemVO vo, ZonedDateTime date) throws JdbcSQLException {
         ItemVO storedVO = storeItemValueProvider(item, itemState, vo);
-        String sql = StringUtilsExt.replaceArrayMerge(sqlInsertItemValue,
-                new String[] { "#tableName#", "#tablePrimaryValue#" }, new String[] { storedVO.getTableName(), "?" });
+        String sql = getInsertItemValueSql(storedVO, true);
         java.sql.Timestamp timestamp = new java.sql.Timestamp(date.toInstant().toEpochMilli());
-        Object[] params = { timestamp, storedVO.getValue(), storedVO.getValue() };
+        Object[] params = storeItemValueWithTimestampParamsProvider(storedVO, timestamp);
         logger.debug("JDBC::doStoreItemValue sql={} timestamp={} value='{}'", sql, timestamp, storedVO.getValue());
         try {
             Yank.execute(sql, params);
@@ -456,6 +469,39 @@ public class JdbcBaseDAO {
         }
     }
 
+    /**
+     * Stores several values of one item with a single JDBC batch statement.
+     *
+     * @param item the item the values belong to
+     * @param tableName the table of the item
+     * @param values the values to store, each with its own timestamp
+     * @throws JdbcSQLException on SQL errors
+     */
+    public void doStoreItemValues(Item item, String tableName, List<PendingItemValue> values)
+            throws JdbcSQLException {
+        if (values.isEmpty()) {
+            return;
+        }
+        String sql = "";
+        Object[][] params = new Object[values.size()][];
+        for (int i = 0; i < values.size(); i++) {
+            PendingItemValue value = values.get(i);
+            ItemVO storedVO = storeItemValueProvider(item, value.getState(), new ItemVO(tableName, null));
+            if (i == 0) {
+                // all values of one item share the same table and data type
+                sql = getInsertItemValueSql(storedVO, true);
+            }
+            java.sql.Timestamp timestamp = new java.sql.Timestamp(value.getDate().toInstant().toEpochMilli());
+            params[i] = storeItemValueWithTimestampParamsProvider(storedVO, timestamp);
+        }
+        logger.debug("JDBC::doStoreItemValues sql={} rows={}", sql, params.length);
+        try {
+            Yank.executeBatch(sql, params);
+        } catch (YankSQLException e) {
+            throw new JdbcSQLException(e);
+        }
+    }
+
     public List<HistoricItem> doGetHistItemFilterQuery(Item item, FilterCriteria filter, int numberDecimalcount,
             String table, String name, ZoneId timeZone) throws JdbcSQLException {
         String sql = histItemFilterQueryProvider(filter, numberDecimalcount, table, name, timeZone);
@@ -478,6 +524,41 @@ public class JdbcBaseDAO {
                 .collect(Collectors.<HistoricItem> toList());
     }
 
+    /**
+     * Queries historic values like {@link #doGetHistItemFilterQuery}, but returns a lazy {@link Iterable} reading
+     * the result through a database cursor instead of loading it into memory.
+     *
+     * The cursor of an iterator which is not read to the end is closed after {@link #CURSOR_IDLE_TIMEOUT}.
+     *
+     * @param fetchSize number of rows the driver fetches per round-trip
+     * @return lazy result, the database is queried when it is iterated
+     */
+    public Iterable<HistoricItem> doGetHistItemFilterQueryCursor(Item item, FilterCriteria filter,
+            int numberDecimalcount, String table, String name, ZoneId timeZone, int fetchSize) {
+        String sql = histItemFilterQueryProvider(filter, numberDecimalcount, table, name, timeZone);
+        logger.debug("JDBC::doGetHistItemFilterQueryCursor sql={}", sql);
+        // we already retrieve the unit here once as it is a very costly operation
+        String itemName = item.getName();
+        Unit<? extends Quantity<?>> unit = item instanceof NumberItem numberItem ? numberItem.getUnit() : null;
+        return new JdbcHistoricItemCursor(this, Yank.getDefaultConnectionPool(), sql, fetchSize,
+                (time, value) -> new JdbcHistoricItem(itemName, objectAsState(item, unit, value),
+                        objectAsZonedDateTime(time)),
+                ThreadPoolManager.getScheduledPool(ThreadPoolManager.THREAD_POOL_NAME_COMMON), CURSOR_IDLE_TIMEOUT);
+    }
+
+    /**
+     * Prepares a statement for reading a large result with a database cursor.
+     *
+     * @param connection the connection the statement belongs to
+     * @param statement the statement to prepare
+     * @param fetchSize number of rows the driver should fetch per round-trip
+     * @throws SQLException on SQL errors
+     */
+    protected void prepareStreamingQuery(Connection connection, Statement statement, int fetchSize)
+            throws SQLException {
+        statement.setFetchSize(fetchSize);
+    }
+
     public void doDeleteItemValues(FilterCriteria filter, String table, ZoneId timeZone) throws JdbcSQLException {
         String sql = histItemFilterDeleteProvider(filter, table, timeZone);
         logger.debug("JDBC::doDeleteItemValues sql={}", sql);
@@ -500,6 +581,15 @@ public class JdbcBaseDAO {
         }
     }
 
+    /**
+     * Returns how many connections may write to the database at the same time.
+     *
+     * @return the maximum number of concurrent writers
+     */
+    public int getMaxConcurrentWriters() {
+        return Integer.MAX_VALUE;
+    }
+
     /*************
      * Providers *
      *************/
@@ -559,6 +649,32 @@ public class JdbcBaseDAO {
         return queryString;
     }
 
+    private String getInsertItemValueSql(ItemVO storedVO, boolean withTimestamp) {
+        String key = storedVO.getTableName() + "|" + storedVO.getDbType() + "|" + withTimestamp;
+        return insertItemValueSqlCache.computeIfAbsent(key,
+                k -> withTimestamp ? storeItemValueWithTimestampSqlProvider(storedVO)
+                        : storeItemValueSqlProvider(storedVO));
+    }
+
+    protected String storeItemValueSqlProvider(ItemVO storedVO) {
+        return StringUtilsExt.replaceArrayMerge(sqlInsertItemValue,
+                new String[] { "#tableName#", "#tablePrimaryValue#" },
+                new String[] { storedVO.getTableName(), sqlTypes.get("tablePrimaryValue") });
+    }
+
+    protected Object[] storeItemValueParamsProvider(ItemVO storedVO) {
+        return new Object[] { storedVO.getValue(), storedVO.getValue() };
+    }
+
+    protected String storeItemValueWithTimestampSqlProvider(ItemVO storedVO) {
+        return StringUtilsExt.replaceArrayMerge(sqlInsertItemValue,
+                new String[] { "#tableName#", "#tablePrimaryValue#" }, new String[] { storedVO.getTableName(), "?" });
+    }
+
+    protected Object[] storeItemValueWithTimestampParamsProvider(ItemVO storedVO, java.sql.Timestamp timestamp) {
+        return new Object[] { timestamp, storedVO.getValue(), storedVO.getValue() };
+    }
+
     protected ItemVO storeItemValueProvider(Item item, State itemState, ItemVO vo) {
         String itemType = getItemType(item);
 
@@ -0,0 +1,239 @@
+/**
+ * Copyright (c) 2010-2024 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.persistence.jdbc.internal.db;
+
+import java.lang.ref.Cleaner;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiFunction;
+
+import javax.sql.DataSource;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.openhab.core.persistence.HistoricItem;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Lazy {@link Iterable} over the result of a history query.
+ *
+ * Every {@link #iterator()} opens its own database cursor on the first call to {@link Iterator#hasNext()} and maps
+ * rows one at a time, so memory use does not depend on the size of the result. The connection is returned to the
+ * pool as soon as the last row has been read or an error occurs.
+ *
+ * Callers cannot close an {@link Iterator}, so a cursor which is not read to the end is closed when it has not been
+ * advanced for the idle timeout, or when the iterator is garbage collected, whichever comes first. Reading from a
+ * cursor that has been closed that way, or failing to read the result, throws an {@link IllegalStateException}
+ * instead of ending the iteration early.
+ *
+ * @author Tobias Brandt - Initial contribution
+ */
+@NonNullByDefault
+public class JdbcHistoricItemCursor implements Iterable<HistoricItem> {
+    private static final Cleaner CLEANER = Cleaner.create();
+
+    private final Logger logger = LoggerFactory.getLogger(JdbcHistoricItemCursor.class);
+
+    private final JdbcBaseDAO dao;
+    private final DataSource dataSource;
+    private final String sql;
+    private final int fetchSize;
+    private final BiFunction<Object, Object, HistoricItem> rowMapper;
+    private final ScheduledExecutorService scheduler;
+    private final Duration idleTimeout;
+
+    JdbcHistoricItemCursor(JdbcBaseDAO dao, DataSource dataSource, String sql, int fetchSize,
+            BiFunction<Object, Object, HistoricItem> rowMapper, ScheduledExecutorService scheduler,
+            Duration idleTimeout) {
+        this.dao = dao;
+        this.dataSource = dataSource;
+        this.sql = sql;
+        this.fetchSize = fetchSize;
+        this.rowMapper = rowMapper;
+        this.scheduler = scheduler;
+        this.idleTimeout = idleTimeout;
+    }
+
+    @Override
+    public Iterator<HistoricItem> iterator() {
+        return new CursorIterator();
+    }
+
+    private class CursorIterator implements Iterator<HistoricItem> {
+        private @Nullable CursorResources resources;
+        private Cleaner.@Nullable Cleanable cleanable;
+        private @Nullable HistoricItem next;
+        private boolean done = false;
+
+        @Override
+        public boolean hasNext() {
+            if (next != null) {
+                return true;
+            }
+            if (done) {
+                return false;
+            }
+            try {
+                CursorResources resources = this.resources;
+                if (resources == null) {
+                    resources = open();
+                }
+                ResultSet resultSet = resources.touch();
+                if (resultSet.next()) {
+                    next = rowMapper.apply(resultSet.getObject(1), resultSet.getObject(2));
+                    return true;
+                }
+            } catch (SQLException e) {
+                close();
+                throw new IllegalStateException("Unable to read query result: " + e.getMessage(), e);
+            } catch (RuntimeException e) {
+                close();
+                throw e;
+            }
+            close();
+            return false;
+        }
+
+        @Override
+        public HistoricItem next() {
+            HistoricItem next = this.next;
+            if (next == null && hasNext()) {
+                next = this.next;
+            }
+            if (next == null) {
+                throw new NoSuchElementException();
+            }
+            this.next = null;
+            return next;
+        }
+
+        private CursorResources open() throws SQLException {
+            logger.debug("JDBC::query: opening cursor sql={} fetchSize={}", sql, fetchSize);
+            CursorResources resources = new CursorResources(idleTimeout.toMillis());
+            this.resources = resources;
+            // the resources must not reference this iterator, otherwise it never becomes unreachable
+            cleanable = CLEANER.register(this, resources);
+            Connection connection = dataSource.getConnection();
+            resources.connection = connection;
+            Statement statement = connection.createStatement(ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            resources.statement = statement;
+            dao.prepareStreamingQuery(connection, statement, fetchSize);
+            resources.resultSet = statement.executeQuery(sql);
+            resources.scheduleIdleCheck(scheduler);
+            return resources;
+        }
+
+        private void close() {
+            done = true;
+            Cleaner.Cleanable cleanable = this.cleanable;
+            if (cleanable != null) {
+                cleanable.clean();
+            }
+            this.cleanable = null;
+            this.resources = null;
+        }
+    }
+
+    /**
+     * Database resources of one iterator, closed by the iterator itself, by the idle check or by the {@link Cleaner}.
+     */
+    private static class CursorResources implements Runnable {
+        private final Logger logger = LoggerFactory.getLogger(CursorResources.class);
+
+        private final long idleTimeoutMillis;
+        private @Nullable Connection connection;
+        private @Nullable Statement statement;
+        private @Nullable ResultSet resultSet;
+        private volatile long lastAccess = System.nanoTime();
+        private boolean closed = false;
+        private boolean timedOut = false;
+
+        CursorResources(long idleTimeoutMillis) {
+            this.idleTimeoutMillis = idleTimeoutMillis;
+        }
+
+        /**
+         * Marks the cursor as in use and returns its result set.
+         *
+         * @throws SQLException if the cursor has been closed after the idle timeout
+         */
+        synchronized ResultSet touch() throws SQLException {
+            ResultSet resultSet = this.resultSet;
+            if (closed || resultSet == null) {
+                throw new SQLException(timedOut
+                        ? "Cursor was closed after it had not been read for " + idleTimeoutMillis + " ms"
+                        : "Cursor is closed");
+            }
+            lastAccess = System.nanoTime();
+            return resultSet;
+        }
+
+        void scheduleIdleCheck(ScheduledExecutorService scheduler) {
+            long idleMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - lastAccess);
+            scheduler.schedule(() -> {
+                synchronized (this) {
+                    if (closed) {
+                        return;
+                    }
+                    if (TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - lastAccess) < idleTimeoutMillis) {
+                        scheduleIdleCheck(scheduler);
+                        return;
+                    }
+                    logger.warn("JDBC::query: closing cursor which has not been read for {} ms", idleTimeoutMillis);
+                    timedOut = true;
+                    run();
+                }
+            }, Math.max(0, idleTimeoutMillis - idleMillis), TimeUnit.MILLISECONDS);
+        }
+
+        @Override
+        public synchronized void run() {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            try {
+                ResultSet resultSet = this.resultSet;
+                if (resultSet != null) {
+                    resultSet.close();
+                }
+                Statement statement = this.statement;
+                if (statement != null) {
+                    statement.close();
+                }
+            } catch (SQLException e) {
+                logger.debug("JDBC::query: Unable to close cursor: {}", e.getMessage());
+            } finally {
+                Connection connection = this.connection;
+                if (connection != null) {
+                    try {
+                        connection.close();
+                    } catch (SQLException e) {
+                        logger.debug("JDBC::query: Unable to release connection: {}", e.getMessage());
+                    }
+                }
+                this.resultSet = null;
+                this.statement = null;
+                this.connection = null;
+            }
+        }
+    }
+}
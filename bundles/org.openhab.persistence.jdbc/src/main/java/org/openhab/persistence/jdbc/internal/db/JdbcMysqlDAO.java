@@ -12,6 +12,9 @@
  */
 package org.openhab.persistence.jdbc.internal.db;
 
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
 import java.util.Objects;
 
 import org.eclipse.jdt.annotation.NonNullByDefault;
@@ -115,6 +118,12 @@ public class JdbcMysqlDAO extends JdbcBaseDAO {
     /*************
      * ITEM DAOs *
      *************/
+    @Override
+    protected void prepareStreamingQuery(Connection connection, Statement statement, int fetchSize)
+            throws SQLException {
+        // Connector/J ignores positive fetch sizes unless useCursorFetch=true, Integer.MIN_VALUE streams row by row
+        statement.setFetchSize(Integer.MIN_VALUE);
+    }
 
     /****************************
      * SQL generation Providers *
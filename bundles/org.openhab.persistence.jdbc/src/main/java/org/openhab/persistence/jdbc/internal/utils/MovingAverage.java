@@ -23,6 +23,7 @@ import org.eclipse.jdt.annotation.NonNullByDefault;
  * Calculates the average/mean of a number series.
  *
  * @author Helmut Lehmeyer - Initial contribution
+ * @author Tobias Brandt - Thread safety
  */
 @NonNullByDefault
 public class MovingAverage {
@@ -48,7 +49,7 @@ public class MovingAverage {
         add(new BigDecimal(num));
     }
 
-    public void add(BigDecimal num) {
+    public synchronized void add(BigDecimal num) {
         sum = sum.add(num);
         win.add(num);
         if (win.size() > period) {
@@ -56,7 +57,7 @@ public class MovingAverage {
         }
     }
 
-    public BigDecimal getAverage() {
+    public synchronized BigDecimal getAverage() {
         if (win.isEmpty()) {
             return BigDecimal.ZERO; // technically the average is undefined
         }
@@ -0,0 +1,82 @@
+/**
+ * Copyright (c) 2010-2024 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.persistence.jdbc.internal;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests the {@link JdbcStoreExecutor}.
+ *
+ * @author Tobias Brandt - Initial contribution
+ */
+@NonNullByDefault
+public class JdbcStoreExecutorTest {
+
+    @Test
+    void tasksOfOneItemAreExecutedInOrder() throws InterruptedException {
+        JdbcStoreExecutor executor = new JdbcStoreExecutor(4, 10000, 1000, "test-store");
+        Map<String, List<Integer>> executed = new ConcurrentHashMap<>();
+        for (int i = 0; i < 1000; i++) {
+            String itemName = "Item" + (i % 10);
+            int value = i;
+            executor.execute(itemName,
+                    () -> executed.computeIfAbsent(itemName, k -> Collections.synchronizedList(new ArrayList<>()))
+                            .add(value));
+        }
+
+        assertThat(executor.shutdown(10, TimeUnit.SECONDS), is(true));
+        assertThat(executed.size(), is(10));
+        for (List<Integer> values : executed.values()) {
+            assertThat(values.size(), is(100));
+            List<Integer> sorted = new ArrayList<>(values);
+            Collections.sort(sorted);
+            assertThat(values, is(sorted));
+        }
+    }
+
+    @Test
+    void fullLaneRejectsTaskAfterOfferTimeout() throws InterruptedException {
+        JdbcStoreExecutor executor = new JdbcStoreExecutor(1, 1, 10, "test-store");
+        CountDownLatch blocked = new CountDownLatch(1);
+        CountDownLatch running = new CountDownLatch(1);
+
+        assertThat(executor.execute("Item1", () -> {
+            running.countDown();
+            try {
+                blocked.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }), is(true));
+        assertThat(running.await(5, TimeUnit.SECONDS), is(true));
+        assertThat(executor.execute("Item1", () -> {
+        }), is(true));
+        assertThat(executor.execute("Item1", () -> {
+        }), is(false));
+
+        blocked.countDown();
+        assertThat(executor.shutdown(10, TimeUnit.SECONDS), is(true));
+    }
+}
@@ -0,0 +1,102 @@
+/**
+ * Copyright (c) 2010-2024 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.persistence.jdbc.internal;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+import java.time.ZonedDateTime;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.junit.jupiter.api.Test;
+import org.openhab.core.library.items.NumberItem;
+import org.openhab.core.library.types.DecimalType;
+import org.openhab.persistence.jdbc.internal.JdbcWriteBehindQueue.OverflowPolicy;
+import org.openhab.persistence.jdbc.internal.dto.PendingItemValue;
+
+/**
+ * Tests the {@link JdbcWriteBehindQueue}.
+ *
+ * @author Tobias Brandt - Initial contribution
+ */
+@NonNullByDefault
+public class JdbcWriteBehindQueueTest {
+
+    private final NumberItem item1 = new NumberItem("Item1");
+    private final NumberItem item2 = new NumberItem("Item2");
+
+    private PendingItemValue value(NumberItem item, int value) {
+        return new PendingItemValue(item, new DecimalType(value), ZonedDateTime.now());
+    }
+
+    @Test
+    void drainGroupsValuesPerItemInQueueOrder() {
+        JdbcWriteBehindQueue queue = new JdbcWriteBehindQueue(10, OverflowPolicy.DROP_OLDEST, 0);
+        queue.add(value(item1, 1));
+        queue.add(value(item2, 2));
+        queue.add(value(item1, 3));
+
+        Map<String, List<PendingItemValue>> drained = queue.drain();
+
+        assertThat(drained.keySet(), contains("Item1", "Item2"));
+        assertThat(drained.get("Item1").stream().map(PendingItemValue::getState).toList(),
+                contains(new DecimalType(1), new DecimalType(3)));
+        assertThat(queue.isEmpty(), is(true));
+    }
+
+    @Test
+    void dropOldestKeepsNewestValues() {
+        JdbcWriteBehindQueue queue = new JdbcWriteBehindQueue(2, OverflowPolicy.DROP_OLDEST, 0);
+        queue.add(value(item1, 1));
+        queue.add(value(item1, 2));
+        queue.add(value(item1, 3));
+
+        assertThat(queue.getDroppedCount(), is(1L));
+        assertThat(queue.drain().get("Item1").stream().map(PendingItemValue::getState).toList(),
+                contains(new DecimalType(2), new DecimalType(3)));
+    }
+
+    @Test
+    void dropNewestKeepsOldestValues() {
+        JdbcWriteBehindQueue queue = new JdbcWriteBehindQueue(2, OverflowPolicy.DROP_NEWEST, 0);
+        queue.add(value(item1, 1));
+        queue.add(value(item1, 2));
+        queue.add(value(item1, 3));
+
+        assertThat(queue.getDroppedCount(), is(1L));
+        assertThat(queue.drain().get("Item1").stream().map(PendingItemValue::getState).toList(),
+                contains(new DecimalType(1), new DecimalType(2)));
+    }
+
+    @Test
+    void blockDropsNewestValueAfterTimeout() {
+        JdbcWriteBehindQueue queue = new JdbcWriteBehindQueue(2, OverflowPolicy.BLOCK, 10);
+        queue.add(value(item1, 1));
+        queue.add(value(item1, 2));
+        queue.add(value(item1, 3));
+
+        assertThat(queue.getDroppedCount(), is(1L));
+        assertThat(queue.drain().get("Item1").stream().map(PendingItemValue::getState).toList(),
+                contains(new DecimalType(1), new DecimalType(2)));
+    }
+
+    @Test
+    void overflowPolicyFromConfigFallsBackToDefault() {
+        assertThat(OverflowPolicy.fromConfig("drop_newest", OverflowPolicy.DROP_OLDEST),
+                is(OverflowPolicy.DROP_NEWEST));
+        assertThat(OverflowPolicy.fromConfig("invalid", OverflowPolicy.DROP_OLDEST), is(OverflowPolicy.DROP_OLDEST));
+        assertThat(OverflowPolicy.fromConfig(null, OverflowPolicy.BLOCK), is(OverflowPolicy.BLOCK));
+    }
+}
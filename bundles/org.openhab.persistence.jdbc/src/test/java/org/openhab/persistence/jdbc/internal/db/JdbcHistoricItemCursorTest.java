@@ -0,0 +1,113 @@
+/**
+ * Copyright (c) 2010-2024 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.persistence.jdbc.internal.db;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+
+import javax.sql.DataSource;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.openhab.core.library.types.DecimalType;
+import org.openhab.core.persistence.HistoricItem;
+import org.openhab.persistence.jdbc.internal.dto.JdbcHistoricItem;
+
+/**
+ * Tests the {@link JdbcHistoricItemCursor}.
+ *
+ * @author Tobias Brandt - Initial contribution
+ */
+@NonNullByDefault
+public class JdbcHistoricItemCursorTest {
+
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+    private final DataSource dataSource = mock(DataSource.class);
+    private final Connection connection = mock(Connection.class);
+    private final Statement statement = mock(Statement.class);
+    private final ResultSet resultSet = mock(ResultSet.class);
+
+    @BeforeEach
+    public void setup() throws SQLException {
+        when(dataSource.getConnection()).thenReturn(connection);
+        when(connection.createStatement(anyInt(), anyInt())).thenReturn(statement);
+        when(statement.executeQuery(anyString())).thenReturn(resultSet);
+        when(resultSet.getObject(1)).thenReturn("time");
+        when(resultSet.getObject(2)).thenReturn(1, 2, 3);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        scheduler.shutdownNow();
+    }
+
+    private JdbcHistoricItemCursor cursor(Duration idleTimeout) {
+        return new JdbcHistoricItemCursor(mock(JdbcBaseDAO.class), dataSource, "SELECT time, value FROM item0001", 10,
+                (time, value) -> new JdbcHistoricItem("item", new DecimalType((Integer) value), ZonedDateTime.now()),
+                scheduler, idleTimeout);
+    }
+
+    @Test
+    public void readsAllRowsAndReleasesConnection() throws SQLException {
+        when(resultSet.next()).thenReturn(true, true, true, false);
+
+        List<Object> states = new ArrayList<>();
+        for (HistoricItem item : cursor(Duration.ofMinutes(1))) {
+            states.add(item.getState());
+        }
+
+        assertThat(states, contains(new DecimalType(1), new DecimalType(2), new DecimalType(3)));
+        verify(resultSet).close();
+        verify(statement).close();
+        verify(connection).close();
+    }
+
+    @Test
+    public void readErrorIsThrownAndReleasesConnection() throws SQLException {
+        when(resultSet.next()).thenReturn(true).thenThrow(new SQLException("connection reset"));
+
+        Iterator<HistoricItem> iterator = cursor(Duration.ofMinutes(1)).iterator();
+        iterator.next();
+
+        assertThrows(IllegalStateException.class, iterator::hasNext);
+        verify(connection).close();
+    }
+
+    @Test
+    public void abandonedIteratorReleasesConnectionAfterIdleTimeout() throws SQLException {
+        when(resultSet.next()).thenReturn(true);
+
+        Iterator<HistoricItem> iterator = cursor(Duration.ofMillis(50)).iterator();
+        iterator.next();
+
+        verify(connection, timeout(2000)).close();
+        assertThrows(IllegalStateException.class, iterator::next);
+    }
+}
@@ -35,12 +35,18 @@ public class JpaConfiguration {
     private static final String CFG_USERNAME = "user";
     private static final String CFG_PASSWORD = "password";
     private static final String CFG_SYNCMAPPING = "syncmappings";
+    private static final String CFG_BATCH_SIZE = "batchSize";
+    private static final String CFG_BATCH_INTERVAL = "batchInterval";
+    private static final String CFG_QUERY_PAGE_SIZE = "queryPageSize";
 
     public final String dbConnectionUrl;
     public final String dbDriverClass;
     public final String dbUserName;
     public final String dbPassword;
     public final String dbSyncMapping;
+    public final int batchSize;
+    public final int batchInterval;
+    public final int queryPageSize;
 
     public JpaConfiguration(final Map<String, @Nullable Object> properties) throws IllegalArgumentException {
         logger.debug("Creating JPA config...");
@@ -81,6 +87,23 @@ public class JpaConfiguration {
         }
         dbSyncMapping = param == null ? "" : param;
 
+        batchSize = getInt(properties, CFG_BATCH_SIZE, 0);
+        batchInterval = getInt(properties, CFG_BATCH_INTERVAL, 1000);
+        queryPageSize = getInt(properties, CFG_QUERY_PAGE_SIZE, 0);
+
         logger.debug("Creating JPA config... done");
     }
+
+    private int getInt(Map<String, @Nullable Object> properties, String key, int defaultValue) {
+        Object value = properties.get(key);
+        if (value == null || value.toString().isBlank()) {
+            return defaultValue;
+        }
+        try {
+            return Integer.parseInt(value.toString().trim());
+        } catch (NumberFormatException e) {
+            logger.warn("{} '{}' is not a valid number, using default {}", key, value, defaultValue);
+            return defaultValue;
+        }
+    }
 }
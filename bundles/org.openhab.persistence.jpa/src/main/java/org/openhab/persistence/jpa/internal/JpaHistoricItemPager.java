@@ -0,0 +1,161 @@
+/**
+ * Copyright (c) 2010-2024 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.persistence.jpa.internal;
+
+import java.util.Date;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.openhab.core.items.Item;
+import org.openhab.core.persistence.HistoricItem;
+import org.openhab.persistence.jpa.internal.model.JpaPersistentItem;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.Query;
+
+/**
+ * Lazy {@link Iterable} over the result of a history query.
+ *
+ * The result is read in pages of a fixed size, each with its own {@link EntityManager}, so only one page is held in
+ * memory. A page is only read when the previous one has been consumed. Pages after the first one continue after the
+ * timestamp and id of the last read row instead of skipping rows with {@link Query#setFirstResult(int)}, so rows
+ * inserted between two pages neither shift the following pages nor cause rows to be skipped or read twice.
+ *
+ * @author Tobias Brandt - Initial contribution
+ */
+@NonNullByDefault
+public class JpaHistoricItemPager implements Iterable<HistoricItem> {
+    private final Logger logger = LoggerFactory.getLogger(JpaHistoricItemPager.class);
+
+    private final EntityManagerFactory emf;
+    private final String queryString;
+    private final Map<String, Object> parameters;
+    private final boolean ascending;
+    private final Item item;
+    private final int firstResult;
+    private final int maxResults;
+    private final int pageSize;
+
+    /**
+     * @param emf the factory to create an entity manager per page from
+     * @param queryString the JPQL query selecting <code>n</code> with a <code>WHERE</code> clause and without order
+     * @param parameters the query parameters
+     * @param ascending whether the results are ordered by ascending timestamps
+     * @param item the item to map the results to
+     * @param firstResult the position of the first result
+     * @param maxResults the maximum number of results
+     * @param pageSize the number of results read at once
+     */
+    public JpaHistoricItemPager(EntityManagerFactory emf, String queryString, Map<String, Object> parameters,
+            boolean ascending, Item item, int firstResult, int maxResults, int pageSize) {
+        this.emf = emf;
+        this.queryString = queryString;
+        this.parameters = parameters;
+        this.ascending = ascending;
+        this.item = item;
+        this.firstResult = firstResult;
+        this.maxResults = maxResults;
+        this.pageSize = pageSize;
+    }
+
+    @Override
+    public Iterator<HistoricItem> iterator() {
+        return new PageIterator();
+    }
+
+    private class PageIterator implements Iterator<HistoricItem> {
+        private List<JpaPersistentItem> page = List.of();
+        private @Nullable JpaPersistentItem last;
+        private int index;
+        private int read;
+        private boolean done;
+
+        @Override
+        public boolean hasNext() {
+            if (index < page.size()) {
+                return true;
+            }
+            if (done) {
+                return false;
+            }
+            page = readPage();
+            if (!page.isEmpty()) {
+                last = page.get(page.size() - 1);
+            }
+            index = 0;
+            read += page.size();
+            if (page.size() < pageSize || read >= maxResults) {
+                done = true;
+            }
+            return !page.isEmpty();
+        }
+
+        @Override
+        public HistoricItem next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            return JpaHistoricItem.fromPersistedItem(page.get(index++), item);
+        }
+
+        private List<JpaPersistentItem> readPage() {
+            int size = Math.min(pageSize, maxResults - read);
+            EntityManager em = emf.createEntityManager();
+            try {
+                // In RESOURCE_LOCAL calls to EntityManager require a begin/commit
+                em.getTransaction().begin();
+
+                String direction = ascending ? "ASC" : "DESC";
+                String order = " ORDER BY n.timestamp " + direction + ", n.id " + direction;
+                JpaPersistentItem last = this.last;
+                Query query;
+                if (last == null) {
+                    query = em.createQuery(queryString + order);
+                    query.setFirstResult(firstResult);
+                } else {
+                    String after = ascending ? ">" : "<";
+                    query = em.createQuery(queryString + " AND (n.timestamp " + after
+                            + " :lastTimestamp OR (n.timestamp = :lastTimestamp AND n.id " + after + " :lastId))"
+                            + order);
+                    query.setParameter("lastTimestamp", Date.from(last.getTimestamp().toInstant()));
+                    query.setParameter("lastId", last.getId());
+                }
+                parameters.forEach(query::setParameter);
+                query.setMaxResults(size);
+
+                @SuppressWarnings("unchecked")
+                List<JpaPersistentItem> result = query.getResultList();
+                logger.debug("Read page of {} results after {} results", result.size(), read);
+
+                em.getTransaction().commit();
+                return result;
+            } catch (Exception e) {
+                logger.error("Error while querying database!", e);
+                if (em.getTransaction().isActive()) {
+                    em.getTransaction().rollback();
+                }
+                done = true;
+                return List.of();
+            } finally {
+                em.close();
+            }
+        }
+    }
+}
@@ -12,15 +12,20 @@
  */
 package org.openhab.persistence.jpa.internal;
 
+import java.util.ArrayList;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
 
 import org.eclipse.jdt.annotation.NonNullByDefault;
 import org.eclipse.jdt.annotation.Nullable;
+import org.openhab.core.common.ThreadPoolManager;
 import org.openhab.core.config.core.ConfigurableService;
 import org.openhab.core.items.Item;
 import org.openhab.core.items.ItemNotFoundException;
@@ -53,6 +58,7 @@ import jakarta.persistence.Query;
  * JPA based implementation of QueryablePersistenceService.
  *
  * @author Manfred Bergmann - Initial contribution
+ * @author Tobias Brandt - Write-behind mode and paged queries
  */
 @NonNullByDefault
 @Component(service = { PersistenceService.class,
@@ -75,6 +81,14 @@ public class JpaPersistenceService implements QueryablePersistenceService {
 
     private boolean initialized;
 
+    // items waiting to be persisted in write-behind mode, guarded by itself
+    private final List<JpaPersistentItem> pendingItems = new ArrayList<>();
+    private final ScheduledExecutorService scheduler = ThreadPoolManager.getScheduledPool("persist");
+    private @Nullable ScheduledFuture<?> flushJob;
+    // reused for all flushes, guarded by writeLock
+    private final Object writeLock = new Object();
+    private @Nullable EntityManager writer;
+
     @Activate
     public JpaPersistenceService(BundleContext context, Map<String, @Nullable Object> properties,
             final @Reference ItemRegistry itemRegistry) {
@@ -108,6 +122,7 @@ public class JpaPersistenceService implements QueryablePersistenceService {
     @Deactivate
     public void deactivate() {
         logger.debug("Deactivating JPA persistence service");
+        flush();
         closeEntityManagerFactory();
     }
 
@@ -156,7 +171,23 @@ public class JpaPersistenceService implements QueryablePersistenceService {
         pItem.setRealName(item.getName());
         pItem.setTimestamp(new Date());
 
+        if (config.batchSize > 1) {
+            enqueue(pItem);
+            logger.debug("Storing item...queued");
+            return;
+        }
+
         EntityManager em = getEntityManagerFactory().createEntityManager();
+        try {
+            persist(em, pItem);
+        } finally {
+            em.close();
+        }
+
+        logger.debug("Storing item...done");
+    }
+
+    private void persist(EntityManager em, JpaPersistentItem pItem) {
         try {
             logger.debug("Persisting item...");
             // In RESOURCE_LOCAL calls to EntityManager require a begin/commit
@@ -168,16 +199,93 @@ public class JpaPersistenceService implements QueryablePersistenceService {
             if (e.getCause() instanceof EntityExistsException) {
                 // there's a UNIQUE constraint in the database, and we tried to write
                 // a duplicate timestamp. Just ignore
-                logger.debug("Failed to persist item {} because of duplicate timestamp", name);
+                logger.debug("Failed to persist item {} because of duplicate timestamp", pItem.getName());
             } else {
                 logger.error("Error while persisting item! Rolling back!", e);
             }
-            em.getTransaction().rollback();
-        } finally {
-            em.close();
+            if (em.getTransaction().isActive()) {
+                em.getTransaction().rollback();
+            }
         }
+    }
 
-        logger.debug("Storing item...done");
+    /**
+     * Queues an item for the write-behind mode. The queue is persisted when it holds batchSize items or after
+     * batchInterval milliseconds, whichever comes first.
+     */
+    private void enqueue(JpaPersistentItem pItem) {
+        boolean full;
+        synchronized (pendingItems) {
+            pendingItems.add(pItem);
+            full = pendingItems.size() >= config.batchSize;
+            if (!full && flushJob == null) {
+                flushJob = scheduler.schedule(this::flush, config.batchInterval, TimeUnit.MILLISECONDS);
+            }
+        }
+        if (full) {
+            flush();
+        }
+    }
+
+    /**
+     * Persists all queued items in a single transaction. If the transaction fails, e.g. because of a duplicate
+     * timestamp, the items are persisted one by one.
+     */
+    private void flush() {
+        List<JpaPersistentItem> items;
+        synchronized (pendingItems) {
+            ScheduledFuture<?> localFlushJob = flushJob;
+            if (localFlushJob != null) {
+                localFlushJob.cancel(false);
+                flushJob = null;
+            }
+            if (pendingItems.isEmpty()) {
+                return;
+            }
+            items = new ArrayList<>(pendingItems);
+            pendingItems.clear();
+        }
+
+        synchronized (writeLock) {
+            EntityManager em = writer;
+            if (em == null || !em.isOpen()) {
+                em = getEntityManagerFactory().createEntityManager();
+                writer = em;
+            }
+            try {
+                logger.debug("Persisting {} items...", items.size());
+                em.getTransaction().begin();
+                for (JpaPersistentItem pItem : items) {
+                    em.persist(pItem);
+                }
+                em.getTransaction().commit();
+                logger.debug("Persisting {} items...done", items.size());
+            } catch (Exception e) {
+                logger.debug("Failed to persist {} items in one transaction, persisting them one by one: {}",
+                        items.size(), e.getMessage());
+                if (em.getTransaction().isActive()) {
+                    em.getTransaction().rollback();
+                }
+                em.clear();
+                for (JpaPersistentItem pItem : items) {
+                    persist(em, pItem);
+                    em.clear();
+                }
+            } finally {
+                // the persisted items are not needed anymore
+                em.clear();
+            }
+        }
+    }
+
+    private void closeWriter() {
+        synchronized (writeLock) {
+            EntityManager em = writer;
+            if (em != null && em.isOpen()) {
+                em.close();
+            }
+            writer = null;
+        }
     }
 
     @Override
@@ -194,6 +302,9 @@ public class JpaPersistenceService implements QueryablePersistenceService {
             return List.of();
         }
 
+        // make queued items visible to the query
+        flush();
+
         String itemName = filter.getItemName();
         if (itemName == null) {
             logger.warn("Item name is missing in filter {}", filter);
@@ -224,8 +335,22 @@ public class JpaPersistenceService implements QueryablePersistenceService {
             queryString += " AND n.timestamp <= :endDate";
             hasEndDate = true;
         }
-        queryString += " ORDER BY n.timestamp " + sortOrder;
 
+        if (config.queryPageSize > 0) {
+            Map<String, Object> parameters = new HashMap<>();
+            parameters.put("itemName", item.getName());
+            if (hasBeginDate) {
+                parameters.put("beginDate", Date.from(filter.getBeginDate().toInstant()));
+            }
+            if (hasEndDate) {
+                parameters.put("endDate", Date.from(filter.getEndDate().toInstant()));
+            }
+            return new JpaHistoricItemPager(getEntityManagerFactory(), queryString, parameters,
+                    filter.getOrdering() == Ordering.ASCENDING, item, filter.getPageNumber() * filter.getPageSize(),
+                    filter.getPageSize(), config.queryPageSize);
+        }
+
+        queryString += " ORDER BY n.timestamp " + sortOrder;
         logger.debug("The query: {}", queryString);
 
         EntityManager em = getEntityManagerFactory().createEntityManager();
@@ -288,6 +413,10 @@ public class JpaPersistenceService implements QueryablePersistenceService {
         if (config.dbUserName.isBlank() && config.dbPassword.isBlank()) {
             logger.info("It is recommended to use a password to protect the JPA persistence data store");
         }
+        if (config.batchSize > 1) {
+            // let OpenJPA send the inserts of a flush as JDBC batches
+            properties.put("openjpa.jdbc.DBDictionary", "batchLimit=" + config.batchSize);
+        }
         if (!config.dbSyncMapping.isBlank()) {
             logger.info("You are setting openjpa.jdbc.SynchronizeMappings, I hope you know what you're doing!");
             properties.put("openjpa.jdbc.SynchronizeMappings", config.dbSyncMapping);
@@ -303,6 +432,7 @@ public class JpaPersistenceService implements QueryablePersistenceService {
      * Closes EntityManagerFactory
      */
     protected void closeEntityManagerFactory() {
+        closeWriter();
         if (emf != null) {
             emf.close();
             emf = null;
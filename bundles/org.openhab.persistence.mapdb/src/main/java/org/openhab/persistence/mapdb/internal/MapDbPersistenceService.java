@@ -12,6 +12,10 @@
  */
 package org.openhab.persistence.mapdb.internal;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
 import java.io.File;
 import java.io.IOException;
 import java.nio.file.DirectoryStream;
@@ -25,6 +29,9 @@ import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -32,8 +39,11 @@ import org.eclipse.jdt.annotation.NonNullByDefault;
 import org.eclipse.jdt.annotation.Nullable;
 import org.mapdb.DB;
 import org.mapdb.DBMaker;
+import org.mapdb.Serializer;
 import org.openhab.core.OpenHAB;
 import org.openhab.core.common.ThreadPoolManager;
+import org.openhab.core.config.core.ConfigParser;
+import org.openhab.core.config.core.ConfigurableService;
 import org.openhab.core.items.Item;
 import org.openhab.core.library.types.DateTimeType;
 import org.openhab.core.persistence.FilterCriteria;
@@ -48,26 +58,40 @@ import org.osgi.framework.Constants;
 import org.osgi.service.component.annotations.Activate;
 import org.osgi.service.component.annotations.Component;
 import org.osgi.service.component.annotations.Deactivate;
+import org.osgi.service.component.annotations.Modified;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
+import com.google.gson.JsonParseException;
 
 /**
  * This is the implementation of the MapDB {@link PersistenceService}. To learn more about MapDB please visit their
  * <a href="http://www.mapdb.org/">website</a>.
  *
+ * Items are stored in a compact binary format, see {@link StateCodec}. Entries of the JSON format used by earlier
+ * versions are converted once when the database is opened. Commits of stores within the commit interval are combined
+ * into a single commit.
+ *
  * @author Jens Viebig - Initial contribution
  * @author Martin Kühl - Port to 3.x
  */
 @NonNullByDefault
-@Component(service = { PersistenceService.class, QueryablePersistenceService.class }, property = Constants.SERVICE_PID
-        + "=org.openhab.mapdb")
+@Component(service = { PersistenceService.class,
+        QueryablePersistenceService.class }, configurationPid = "org.openhab.mapdb", //
+        property = Constants.SERVICE_PID + "=org.openhab.mapdb")
+@ConfigurableService(category = "persistence", label = "MapDB Persistence Service", description_uri = MapDbPersistenceService.CONFIG_URI)
 public class MapDbPersistenceService implements QueryablePersistenceService {
 
     private static final String SERVICE_ID = "mapdb";
     private static final String SERVICE_LABEL = "MapDB";
+    protected static final String CONFIG_URI = "persistence:mapdb";
+    private static final String COMMIT_INTERVAL_CONFIG = "commitInterval";
+    private static final long COMMIT_INTERVAL_DEFAULT = 1000; // in milliseconds, 0 = commit every store
+    private static final String LEGACY_MAP_NAME = "itemStore";
+    private static final String MAP_NAME = "items";
+    private static final byte FORMAT_VERSION = 1;
     private static final Path DB_DIR = new File(OpenHAB.getUserDataFolder(), "persistence").toPath().resolve("mapdb");
     private static final Path BACKUP_DIR = DB_DIR.resolve("backup");
     private static final String DB_FILE_NAME = "storage.mapdb";
@@ -75,20 +99,26 @@ public class MapDbPersistenceService implements QueryablePersistenceService {
     private final Logger logger = LoggerFactory.getLogger(MapDbPersistenceService.class);
 
     private final ExecutorService threadPool = ThreadPoolManager.getPool(getClass().getSimpleName());
+    private final ScheduledExecutorService scheduler = ThreadPoolManager.getScheduledPool("persistence");
 
     /**
      * holds the local instance of the MapDB database
      */
 
     private @NonNullByDefault({}) DB db;
-    private @NonNullByDefault({}) Map<String, String> map;
+    private @NonNullByDefault({}) Map<String, byte[]> map;
+
+    private final AtomicBoolean commitScheduled = new AtomicBoolean();
+    private volatile long commitInterval = COMMIT_INTERVAL_DEFAULT;
 
+    // only used for converting entries of the JSON format
     private transient Gson mapper = new GsonBuilder().setDateFormat(DateTimeType.DATE_PATTERN_JSON_COMPAT)
             .registerTypeHierarchyAdapter(State.class, new StateTypeAdapter()).create();
 
     @Activate
-    public void activate() {
+    public void activate(Map<String, Object> config) {
         logger.debug("MapDB persistence service is being activated");
+        modified(config);
 
         try {
             Files.createDirectories(DB_DIR);
@@ -100,8 +130,7 @@ public class MapDbPersistenceService implements QueryablePersistenceService {
 
         File dbFile = DB_DIR.resolve(DB_FILE_NAME).toFile();
         try {
-            db = DBMaker.newFileDB(dbFile).closeOnJvmShutdown().make();
-            map = db.createTreeMap("itemStore").makeOrGet();
+            openDb(dbFile);
         } catch (RuntimeException re) {
             Throwable cause = re.getCause();
             if (cause instanceof ClassNotFoundException cnf) {
@@ -132,8 +161,7 @@ public class MapDbPersistenceService implements QueryablePersistenceService {
                     return;
                 }
 
-                db = DBMaker.newFileDB(dbFile).closeOnJvmShutdown().make();
-                map = db.createTreeMap("itemStore").makeOrGet();
+                openDb(dbFile);
             } else {
                 logger.warn("Failed to create or open the MapDB: {}", re.getMessage());
                 logger.warn("MapDB persistence service activation has failed.");
@@ -142,11 +170,58 @@ public class MapDbPersistenceService implements QueryablePersistenceService {
         logger.debug("MapDB persistence service is now activated");
     }
 
+    private void openDb(File dbFile) {
+        db = DBMaker.newFileDB(dbFile).closeOnJvmShutdown().make();
+        map = db.createTreeMap(MAP_NAME).valueSerializer(Serializer.BYTE_ARRAY).makeOrGet();
+        if (db.exists(LEGACY_MAP_NAME)) {
+            Map<String, String> legacyMap = db.getTreeMap(LEGACY_MAP_NAME);
+            int converted = 0;
+            int failed = 0;
+            for (Map.Entry<String, String> entry : legacyMap.entrySet()) {
+                if (map.containsKey(entry.getKey())) {
+                    continue;
+                }
+                Optional<MapDbItem> item;
+                try {
+                    item = deserializeJson(entry.getValue());
+                } catch (JsonParseException e) {
+                    item = Optional.empty();
+                }
+                if (item.isPresent()) {
+                    map.put(entry.getKey(), serialize(item.get()));
+                    converted++;
+                } else {
+                    logger.warn("Failed to convert MapDB entry '{}' to the binary format: {}", entry.getKey(),
+                            entry.getValue());
+                    failed++;
+                }
+            }
+            if (failed == 0) {
+                db.delete(LEGACY_MAP_NAME);
+            } else {
+                logger.warn("Keeping the {} MapDB entries in the JSON format that could not be converted", failed);
+            }
+            db.commit();
+            logger.info("Converted {} MapDB entries to the binary format", converted);
+        }
+    }
+
+    @Modified
+    public void modified(Map<String, Object> config) {
+        commitInterval = ConfigParser.valueAsOrElse(config.get(COMMIT_INTERVAL_CONFIG), Long.class,
+                COMMIT_INTERVAL_DEFAULT);
+    }
+
     @Deactivate
     public void deactivate() {
         logger.debug("MapDB persistence service deactivated");
         if (db != null) {
-            db.close();
+            synchronized (this) {
+                if (commitScheduled.getAndSet(false)) {
+                    db.commit();
+                }
+                db.close();
+            }
         }
     }
 
@@ -162,7 +237,8 @@ public class MapDbPersistenceService implements QueryablePersistenceService {
 
     @Override
     public Set<PersistenceItemInfo> getItemInfo() {
-        return map.values().stream().map(this::deserialize).flatMap(MapDbPersistenceService::streamOptional)
+        return map.entrySet().stream().map(entry -> deserialize(entry.getKey(), entry.getValue()))
+                .flatMap(MapDbPersistenceService::streamOptional)
                 .collect(Collectors.<PersistenceItemInfo> toUnmodifiableSet());
     }
 
@@ -187,29 +263,84 @@ public class MapDbPersistenceService implements QueryablePersistenceService {
         mItem.setState(state);
         mItem.setTimestamp(new Date());
         threadPool.submit(() -> {
-            String json = serialize(mItem);
-            map.put(localAlias, json);
-            db.commit();
-            logger.debug("Stored '{}' with state '{}' as '{}' in MapDB database", localAlias, state, json);
+            map.put(localAlias, serialize(mItem));
+            scheduleCommit();
+            logger.debug("Stored '{}' with state '{}' in MapDB database", localAlias, state);
         });
     }
 
+    /**
+     * Commits immediately or schedules a commit at the end of the commit interval, unless one is already scheduled.
+     */
+    private void scheduleCommit() {
+        long commitInterval = this.commitInterval;
+        if (commitInterval <= 0) {
+            commit();
+        } else if (commitScheduled.compareAndSet(false, true)) {
+            scheduler.schedule(this::commit, commitInterval, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private synchronized void commit() {
+        // stores from now on need another commit
+        commitScheduled.set(false);
+        if (!db.isClosed()) {
+            db.commit();
+        }
+    }
+
     @Override
     public Iterable<HistoricItem> query(FilterCriteria filter) {
-        String json = map.get(filter.getItemName());
-        if (json == null) {
+        String name = filter.getItemName();
+        if (name == null) {
+            return List.of();
+        }
+        byte[] bytes = map.get(name);
+        if (bytes == null) {
             return List.of();
         }
-        Optional<MapDbItem> item = deserialize(json);
+        Optional<MapDbItem> item = deserialize(name, bytes);
         return item.isPresent() ? List.of(item.get()) : List.of();
     }
 
-    private String serialize(MapDbItem item) {
-        return mapper.toJson(item);
+    private byte[] serialize(MapDbItem item) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(32);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(FORMAT_VERSION);
+            out.writeLong(item.getTimestamp().toInstant().toEpochMilli());
+            StateCodec.write(out, item.getState());
+        } catch (IOException e) {
+            // not thrown when writing to a byte array
+            throw new IllegalStateException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    private Optional<MapDbItem> deserialize(String name, byte[] bytes) {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes))) {
+            byte version = in.readByte();
+            if (version != FORMAT_VERSION) {
+                logger.warn("Ignoring '{}' with unknown format version {}", name, version);
+                return Optional.empty();
+            }
+            long timestamp = in.readLong();
+            State state = StateCodec.read(in);
+            if (state == null) {
+                return Optional.empty();
+            }
+            MapDbItem item = new MapDbItem();
+            item.setName(name);
+            item.setState(state);
+            item.setTimestamp(new Date(timestamp));
+            return Optional.of(item);
+        } catch (IOException | RuntimeException e) {
+            logger.warn("Failed to deserialize '{}': {}", name, e.getMessage());
+            return Optional.empty();
+        }
     }
 
     @SuppressWarnings("null")
-    private Optional<MapDbItem> deserialize(String json) {
+    private Optional<MapDbItem> deserializeJson(String json) {
         MapDbItem item = mapper.fromJson(json, MapDbItem.class);
         if (item == null || !item.isValid()) {
             logger.warn("Deserialized invalid item: {}", item);
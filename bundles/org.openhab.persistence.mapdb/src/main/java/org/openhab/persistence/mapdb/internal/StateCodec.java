@@ -0,0 +1,162 @@
+/**
+ * Copyright (c) 2010-2024 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.persistence.mapdb.internal;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.List;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.openhab.core.library.types.DateTimeType;
+import org.openhab.core.library.types.DecimalType;
+import org.openhab.core.library.types.HSBType;
+import org.openhab.core.library.types.OnOffType;
+import org.openhab.core.library.types.OpenClosedType;
+import org.openhab.core.library.types.PercentType;
+import org.openhab.core.library.types.QuantityType;
+import org.openhab.core.library.types.StringType;
+import org.openhab.core.types.State;
+import org.openhab.core.types.TypeParser;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A compact binary codec for openHAB State values.
+ *
+ * The common state types are written as a type tag followed by their values. All other types are written like the
+ * {@link StateTypeAdapter} does, with their class name and string representation.
+ *
+ * @author Tobias Brandt - Initial contribution
+ */
+@NonNullByDefault
+public class StateCodec {
+    private static final byte GENERIC = 0;
+    private static final byte DECIMAL = 1;
+    private static final byte PERCENT = 2;
+    private static final byte QUANTITY = 3;
+    private static final byte STRING = 4;
+    private static final byte ON_OFF = 5;
+    private static final byte OPEN_CLOSED = 6;
+    private static final byte HSB = 7;
+    private static final byte DATE_TIME = 8;
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(StateCodec.class);
+
+    private StateCodec() {
+        // only static methods
+    }
+
+    public static void write(DataOutput out, State state) throws IOException {
+        Class<? extends State> type = state.getClass();
+        if (type == DecimalType.class) {
+            out.writeByte(DECIMAL);
+            writeDecimal(out, ((DecimalType) state).toBigDecimal());
+        } else if (type == PercentType.class) {
+            out.writeByte(PERCENT);
+            writeDecimal(out, ((PercentType) state).toBigDecimal());
+        } else if (type == QuantityType.class) {
+            out.writeByte(QUANTITY);
+            writeString(out, state.toFullString());
+        } else if (type == StringType.class) {
+            out.writeByte(STRING);
+            writeString(out, state.toFullString());
+        } else if (state instanceof OnOffType onOff) {
+            out.writeByte(ON_OFF);
+            out.writeBoolean(onOff == OnOffType.ON);
+        } else if (state instanceof OpenClosedType openClosed) {
+            out.writeByte(OPEN_CLOSED);
+            out.writeBoolean(openClosed == OpenClosedType.OPEN);
+        } else if (type == HSBType.class) {
+            HSBType hsb = (HSBType) state;
+            out.writeByte(HSB);
+            writeDecimal(out, hsb.getHue().toBigDecimal());
+            writeDecimal(out, hsb.getSaturation().toBigDecimal());
+            writeDecimal(out, hsb.getBrightness().toBigDecimal());
+        } else if (type == DateTimeType.class) {
+            ZonedDateTime dateTime = ((DateTimeType) state).getZonedDateTime();
+            out.writeByte(DATE_TIME);
+            out.writeLong(dateTime.toEpochSecond());
+            out.writeInt(dateTime.getNano());
+            writeString(out, dateTime.getZone().getId());
+        } else {
+            out.writeByte(GENERIC);
+            writeString(out, type.getName());
+            writeString(out, state.toFullString());
+        }
+    }
+
+    public static @Nullable State read(DataInput in) throws IOException {
+        byte tag = in.readByte();
+        return switch (tag) {
+            case DECIMAL -> new DecimalType(readDecimal(in));
+            case PERCENT -> new PercentType(readDecimal(in));
+            case QUANTITY -> new QuantityType<>(readString(in));
+            case STRING -> new StringType(readString(in));
+            case ON_OFF -> OnOffType.from(in.readBoolean());
+            case OPEN_CLOSED -> in.readBoolean() ? OpenClosedType.OPEN : OpenClosedType.CLOSED;
+            case HSB -> new HSBType(new DecimalType(readDecimal(in)), new PercentType(readDecimal(in)),
+                    new PercentType(readDecimal(in)));
+            case DATE_TIME -> {
+                Instant instant = Instant.ofEpochSecond(in.readLong(), in.readInt());
+                yield new DateTimeType(ZonedDateTime.ofInstant(instant, ZoneId.of(readString(in))));
+            }
+            case GENERIC -> readGeneric(readString(in), readString(in));
+            default -> throw new IOException("Unknown state type " + tag);
+        };
+    }
+
+    private static @Nullable State readGeneric(String typeName, String value) {
+        try {
+            @SuppressWarnings("unchecked")
+            Class<? extends State> type = (Class<? extends State>) Class.forName(typeName);
+            return TypeParser.parseState(List.of(type), value);
+        } catch (ClassNotFoundException | ClassCastException e) {
+            LOGGER.warn("Couldn't deserialize state '{}' of type '{}': {}", value, typeName, e.getMessage());
+            return null;
+        }
+    }
+
+    private static void writeDecimal(DataOutput out, BigDecimal value) throws IOException {
+        byte[] unscaled = value.unscaledValue().toByteArray();
+        out.writeInt(value.scale());
+        out.writeInt(unscaled.length);
+        out.write(unscaled);
+    }
+
+    private static BigDecimal readDecimal(DataInput in) throws IOException {
+        int scale = in.readInt();
+        byte[] unscaled = new byte[in.readInt()];
+        in.readFully(unscaled);
+        return new BigDecimal(new BigInteger(unscaled), scale);
+    }
+
+    private static void writeString(DataOutput out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInput in) throws IOException {
+        byte[] bytes = new byte[in.readInt()];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,108 @@
+/**
+ * Copyright (c) 2010-2024 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.persistence.mapdb;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.openhab.core.library.types.DateTimeType;
+import org.openhab.core.library.types.DecimalType;
+import org.openhab.core.library.types.HSBType;
+import org.openhab.core.library.types.OnOffType;
+import org.openhab.core.library.types.OpenClosedType;
+import org.openhab.core.library.types.PercentType;
+import org.openhab.core.library.types.PointType;
+import org.openhab.core.library.types.QuantityType;
+import org.openhab.core.library.types.StringType;
+import org.openhab.core.library.types.UpDownType;
+import org.openhab.core.library.unit.ImperialUnits;
+import org.openhab.core.library.unit.SIUnits;
+import org.openhab.core.library.unit.Units;
+import org.openhab.core.types.State;
+import org.openhab.persistence.mapdb.internal.StateCodec;
+
+/**
+ * The {@link StateCodecTest} contains tests for the binary format of {@link StateCodec}.
+ *
+ * @author Tobias Brandt - Initial contribution
+ */
+@NonNullByDefault
+public class StateCodecTest {
+
+    private static final List<State> VALUES = List.of(DecimalType.ZERO, new DecimalType(1.123),
+            new DecimalType(10000000), new DecimalType(new BigDecimal("-123456789012345678901234567890.12345")),
+            new DecimalType(new BigDecimal(BigInteger.TEN.pow(1000), 2)),
+            HSBType.BLACK, HSBType.fromRGB(11, 22, 33), OnOffType.ON, OnOffType.OFF, OpenClosedType.OPEN,
+            OpenClosedType.CLOSED, PercentType.ZERO, PercentType.HUNDRED, PercentType.valueOf("0.0000001"),
+            QuantityType.valueOf("1 kW"), new QuantityType<>(new BigDecimal("21.23"), SIUnits.CELSIUS),
+            new QuantityType<>(new BigDecimal("75"), ImperialUnits.MILES_PER_HOUR),
+            QuantityType.valueOf(100, Units.METRE_PER_SQUARE_SECOND), StringType.valueOf(""),
+            StringType.valueOf("äöü €  @@@###"),
+            new DateTimeType(ZonedDateTime.of(2022, 5, 31, 10, 0, 0, 123456789, ZoneId.of("Europe/Berlin"))),
+            UpDownType.DOWN, PointType.valueOf("52.5200066,13.4049540"));
+
+    private static byte[] write(State state) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            StateCodec.write(out, state);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static @Nullable State read(byte[] bytes) throws IOException {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes))) {
+            return StateCodec.read(in);
+        }
+    }
+
+    @ParameterizedTest
+    @MethodSource
+    public void readWriteRoundtripShouldRecreateTheWrittenState(State state) throws IOException {
+        State actual = read(write(state));
+        assertThat(actual, is(equalTo(state)));
+        assertThat(actual.getClass(), is(equalTo(state.getClass())));
+    }
+
+    public static Stream<State> readWriteRoundtripShouldRecreateTheWrittenState() {
+        return VALUES.stream();
+    }
+
+    @Test
+    public void commonStatesAreSmallerThanTheirTypeName() throws IOException {
+        assertThat(write(OnOffType.ON).length, is(2));
+        assertThat(write(new DecimalType(21.5)).length < DecimalType.class.getName().length(), is(true));
+    }
+
+    @Test
+    public void unknownTypeIsRejected() {
+        assertThrows(IOException.class, () -> read(new byte[] { 42 }));
+    }
+}
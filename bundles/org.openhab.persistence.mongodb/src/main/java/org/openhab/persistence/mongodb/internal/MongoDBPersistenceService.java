@@ -17,15 +17,22 @@ import java.time.ZonedDateTime;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Date;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
 
 import org.bson.Document;
 import org.bson.types.ObjectId;
 import org.eclipse.jdt.annotation.NonNullByDefault;
 import org.eclipse.jdt.annotation.Nullable;
+import org.openhab.core.common.ThreadPoolManager;
 import org.openhab.core.items.Item;
 import org.openhab.core.items.ItemNotFoundException;
 import org.openhab.core.items.ItemRegistry;
@@ -51,10 +58,14 @@ import org.osgi.service.component.annotations.Reference;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.MongoSocketException;
+import com.mongodb.MongoTimeoutException;
 import com.mongodb.client.MongoClient;
 import com.mongodb.client.MongoClients;
 import com.mongodb.client.MongoCollection;
 import com.mongodb.client.MongoCursor;
+import com.mongodb.client.model.InsertManyOptions;
 import com.mongodb.client.result.DeleteResult;
 
 /**
@@ -63,6 +74,7 @@ import com.mongodb.client.result.DeleteResult;
  * @author Thorsten Hoeger - Initial contribution
  * @author Stephan Brunner - Query fixes, Cleanup
  * @author René Ulbricht - Fixes type handling, driver update and cleanup
+ * @author Tobias Brandt - Cached collections and batched inserts
  */
 @NonNullByDefault
 @Component(service = { PersistenceService.class, QueryablePersistenceService.class,
@@ -70,12 +82,17 @@ import com.mongodb.client.result.DeleteResult;
                 + "=org.openhab.mongodb")
 public class MongoDBPersistenceService implements ModifiablePersistenceService {
 
+    // maximum number of documents kept while the database cannot be reached
+    private static final int MAX_PENDING_DOCUMENTS = 10000;
+
     private final Logger logger = LoggerFactory.getLogger(MongoDBPersistenceService.class);
 
     private String url = "";
     private String db = "";
     private String collection = "";
     private boolean collectionPerItem;
+    private int batchSize;
+    private int batchInterval;
 
     private boolean initialized = false;
 
@@ -83,6 +100,15 @@ public class MongoDBPersistenceService implements ModifiablePersistenceService {
 
     private @Nullable MongoClient cl;
 
+    // collections whose index has been ensured since the last connect
+    private final Map<String, MongoCollection<Document>> collections = new ConcurrentHashMap<>();
+
+    // documents waiting to be inserted, per collection name
+    private final Map<String, List<Document>> pendingDocuments = new LinkedHashMap<>();
+    private int pendingCount;
+    private final ScheduledExecutorService scheduler = ThreadPoolManager.getScheduledPool("persist");
+    private @Nullable ScheduledFuture<?> flushJob;
+
     @Activate
     public MongoDBPersistenceService(final @Reference ItemRegistry itemRegistry) {
         this.itemRegistry = itemRegistry;
@@ -114,6 +140,10 @@ public class MongoDBPersistenceService implements ModifiablePersistenceService {
         collection = dbCollection == null ? "" : dbCollection;
         collectionPerItem = dbCollection == null || dbCollection.isBlank();
 
+        batchSize = parseInt(config.get("batchSize"), 0);
+        batchInterval = parseInt(config.get("batchInterval"), 1000);
+        logger.debug("MongoDB batch size {}, interval {} ms", batchSize, batchInterval);
+
         if (!tryConnectToDatabase()) {
             logger.warn("Failed to connect to MongoDB server. Trying to reconnect later.");
         }
@@ -124,9 +154,38 @@ public class MongoDBPersistenceService implements ModifiablePersistenceService {
     @Deactivate
     public void deactivate(final int reason) {
         logger.debug("MongoDB persistence bundle stopping. Disconnecting from database.");
+        flush();
+        synchronized (pendingDocuments) {
+            ScheduledFuture<?> localFlushJob = flushJob;
+            if (localFlushJob != null) {
+                localFlushJob.cancel(false);
+                flushJob = null;
+            }
+            if (pendingCount > 0) {
+                logger.warn("mongodb: No connection to database. {} queued documents not persisted.", pendingCount);
+            }
+            pendingDocuments.clear();
+            pendingCount = 0;
+        }
         disconnectFromDatabase();
     }
 
+    private int parseInt(@Nullable Object value, int defaultValue) {
+        if (value == null || value.toString().isBlank()) {
+            return defaultValue;
+        }
+        try {
+            return Integer.parseInt(value.toString().trim());
+        } catch (NumberFormatException e) {
+            logger.warn("'{}' is not a valid number, using default {}", value, defaultValue);
+            return defaultValue;
+        }
+    }
+
+    private boolean isBatching() {
+        return batchSize > 1;
+    }
+
     @Override
     public String getId() {
         return "mongodb";
@@ -209,9 +268,15 @@ public class MongoDBPersistenceService implements ModifiablePersistenceService {
     /**
      * Connects to the Collection
      *
+     * The collection handle is cached and its index is only created on the first access after connecting.
+     *
      * @return The collection object when collection creation was successful. Null otherwise.
      */
     private @Nullable MongoCollection<Document> connectToCollection(String collectionName) {
+        MongoCollection<Document> mongoCollection = collections.get(collectionName);
+        if (mongoCollection != null) {
+            return mongoCollection;
+        }
         try {
             @Nullable
             MongoClient db = getDatabase();
@@ -221,12 +286,13 @@ public class MongoDBPersistenceService implements ModifiablePersistenceService {
                 return null;
             }
 
-            MongoCollection<Document> mongoCollection = db.getDatabase(this.db).getCollection(collectionName);
+            mongoCollection = db.getDatabase(this.db).getCollection(collectionName);
 
             Document idx = new Document();
             idx.append(MongoDBFields.FIELD_ITEM, 1).append(MongoDBFields.FIELD_TIMESTAMP, 1);
             mongoCollection.createIndex(idx);
 
+            collections.put(collectionName, mongoCollection);
             return mongoCollection;
         } catch (Exception e) {
             logger.error("Failed to connect to collection {}: {}", collectionName, e.getMessage(), e);
@@ -244,10 +310,13 @@ public class MongoDBPersistenceService implements ModifiablePersistenceService {
         }
 
         cl = null;
+        collections.clear();
     }
 
     @Override
     public Iterable<HistoricItem> query(FilterCriteria filter) {
+        // make queued documents visible to the query
+        flush();
         MongoCollection<Document> collection = prepareCollection(filter);
         // If collection creation failed, return nothing.
         if (collection == null) {
@@ -347,8 +416,8 @@ public class MongoDBPersistenceService implements ModifiablePersistenceService {
         }
 
         // Connect to mongodb server if we're not already connected
-        // If we can't connect, log.
-        if (!tryConnectToDatabase()) {
+        // If we can't connect, log. Queued documents are written by flush(), which checks the connection itself.
+        if (!isBatching() && !tryConnectToDatabase()) {
             logger.warn(
                     "mongodb: No connection to database. Cannot persist item '{}'! Will retry connecting to database next time.",
                     item);
@@ -359,9 +428,9 @@ public class MongoDBPersistenceService implements ModifiablePersistenceService {
         String collectionName = collectionPerItem ? realItemName : this.collection;
 
         @Nullable
-        MongoCollection<Document> collection = connectToCollection(collectionName);
+        MongoCollection<Document> collection = isBatching() ? null : connectToCollection(collectionName);
 
-        if (collection == null) {
+        if (collection == null && !isBatching()) {
             // Logging is done in connectToCollection()
             return;
         }
@@ -378,6 +447,11 @@ public class MongoDBPersistenceService implements ModifiablePersistenceService {
         if (item instanceof NumberItem && state instanceof QuantityType<?>) {
             obj.put(MongoDBFields.FIELD_UNIT, ((QuantityType<?>) state).getUnit().toString());
         }
+        if (collection == null) {
+            enqueue(collectionName, obj);
+            logger.debug("MongoDB queued {}={}", name, value);
+            return;
+        }
         try {
             collection.insertOne(obj);
         } catch (org.bson.BsonMaximumSizeExceededException e) {
@@ -387,6 +461,136 @@ public class MongoDBPersistenceService implements ModifiablePersistenceService {
         logger.debug("MongoDB save {}={}", name, value);
     }
 
+    /**
+     * Queues a document for insertion. The queue is written when it holds batchSize documents or after
+     * batchInterval milliseconds, whichever comes first.
+     */
+    private void enqueue(String collectionName, Document obj) {
+        boolean full;
+        synchronized (pendingDocuments) {
+            pendingDocuments.computeIfAbsent(collectionName, k -> new ArrayList<>()).add(obj);
+            full = ++pendingCount >= batchSize;
+            if (!full && flushJob == null) {
+                flushJob = scheduler.schedule(this::flush, batchInterval, TimeUnit.MILLISECONDS);
+            }
+        }
+        if (full) {
+            flush();
+        }
+    }
+
+    /**
+     * Writes all queued documents with one unordered insertMany per collection.
+     */
+    private void flush() {
+        Map<String, List<Document>> documents;
+        synchronized (pendingDocuments) {
+            ScheduledFuture<?> localFlushJob = flushJob;
+            if (localFlushJob != null) {
+                localFlushJob.cancel(false);
+                flushJob = null;
+            }
+            if (pendingDocuments.isEmpty()) {
+                return;
+            }
+            documents = new LinkedHashMap<>(pendingDocuments);
+            pendingDocuments.clear();
+            pendingCount = 0;
+        }
+
+        if (!tryConnectToDatabase()) {
+            logger.debug("mongodb: No connection to database. Retrying to persist queued documents later.");
+            requeue(documents);
+            return;
+        }
+
+        Map<String, List<Document>> failed = new LinkedHashMap<>();
+        boolean unreachable = false;
+        for (Map.Entry<String, List<Document>> entry : documents.entrySet()) {
+            String collectionName = entry.getKey();
+            List<Document> batch = entry.getValue();
+            MongoCollection<Document> collection = unreachable ? null : connectToCollection(collectionName);
+            if (collection == null) {
+                // Logging is done in connectToCollection()
+                failed.put(collectionName, batch);
+                continue;
+            }
+            try {
+                collection.insertMany(batch, new InsertManyOptions().ordered(false));
+                logger.debug("MongoDB saved {} documents to {}", batch.size(), collectionName);
+            } catch (MongoBulkWriteException e) {
+                // unordered, so all other documents have been written
+                logger.error("Failed to persist {} of {} documents to {}: {}", e.getWriteErrors().size(),
+                        batch.size(), collectionName, e.getMessage());
+            } catch (MongoSocketException | MongoTimeoutException e) {
+                // the database became unreachable, inserting the documents one by one would fail as well
+                logger.debug("mongodb: Lost connection to database, keeping queued documents: {}", e.getMessage());
+                unreachable = true;
+                failed.put(collectionName, batch);
+            } catch (Exception e) {
+                logger.debug("Batch insert into {} failed, inserting documents one by one: {}", collectionName,
+                        e.getMessage());
+                for (int i = 0; i < batch.size(); i++) {
+                    Document obj = batch.get(i);
+                    try {
+                        collection.insertOne(obj);
+                    } catch (MongoSocketException | MongoTimeoutException e1) {
+                        logger.debug("mongodb: Lost connection to database, keeping queued documents: {}",
+                                e1.getMessage());
+                        unreachable = true;
+                        failed.put(collectionName, batch.subList(i, batch.size()));
+                        break;
+                    } catch (org.bson.BsonMaximumSizeExceededException e1) {
+                        logger.error("Document size exceeds maximum size of 16MB. Item {} not persisted.",
+                                obj.get(MongoDBFields.FIELD_ITEM));
+                    } catch (Exception e1) {
+                        logger.error("Failed to persist item {}: {}", obj.get(MongoDBFields.FIELD_ITEM),
+                                e1.getMessage());
+                    }
+                }
+            }
+        }
+        if (!failed.isEmpty()) {
+            requeue(failed);
+        }
+    }
+
+    /**
+     * Puts documents that could not be written back in front of the queue and schedules another flush. If the queue
+     * exceeds {@link #MAX_PENDING_DOCUMENTS}, the oldest documents are dropped.
+     */
+    private void requeue(Map<String, List<Document>> documents) {
+        int dropped = 0;
+        synchronized (pendingDocuments) {
+            Map<String, List<Document>> queue = new LinkedHashMap<>();
+            documents.forEach((collectionName, batch) -> queue.put(collectionName, new ArrayList<>(batch)));
+            pendingDocuments.forEach((collectionName, batch) -> queue
+                    .computeIfAbsent(collectionName, k -> new ArrayList<>()).addAll(batch));
+            pendingDocuments.clear();
+            pendingDocuments.putAll(queue);
+            pendingCount = pendingDocuments.values().stream().mapToInt(List::size).sum();
+
+            Iterator<List<Document>> batches = pendingDocuments.values().iterator();
+            while (pendingCount > MAX_PENDING_DOCUMENTS && batches.hasNext()) {
+                List<Document> batch = batches.next();
+                int remove = Math.min(batch.size(), pendingCount - MAX_PENDING_DOCUMENTS);
+                batch.subList(0, remove).clear();
+                if (batch.isEmpty()) {
+                    batches.remove();
+                }
+                pendingCount -= remove;
+                dropped += remove;
+            }
+
+            if (flushJob == null) {
+                flushJob = scheduler.schedule(this::flush, batchInterval, TimeUnit.MILLISECONDS);
+            }
+        }
+        if (dropped > 0) {
+            logger.warn("mongodb: No connection to database. {} queued documents not persisted.", dropped);
+        }
+    }
+
     @Nullable
     public MongoCollection<Document> prepareCollection(FilterCriteria filter) {
         if (!initialized || !tryConnectToDatabase()) {
@@ -467,6 +671,7 @@ public class MongoDBPersistenceService implements ModifiablePersistenceService {
 
     @Override
     public boolean remove(FilterCriteria filter) {
+        flush();
         MongoCollection<Document> collection = prepareCollection(filter);
         // If collection creation failed, return nothing.
         if (collection == null) {
@@ -341,6 +341,49 @@ public class MongoDBPersistenceServiceTest {
         }
     }
 
+    /**
+     * Tests the store method of MongoDBPersistenceService with batched inserts.
+     *
+     * This test checks if queued items are written to the collection when the batch size is reached and when the
+     * service is deactivated.
+     *
+     * @param dbContainer The container running the MongoDB instance.
+     */
+    @ParameterizedTest
+    @MethodSource("org.openhab.persistence.mongodb.internal.DataCreationHelper#provideDatabaseBackends")
+    public void testStoreBatched(DatabaseTestContainer dbContainer) {
+        try {
+            // Preparation
+            SetupResult setupResult = DataCreationHelper.setupMongoDB("testCollection", dbContainer);
+            MongoDBPersistenceService service = setupResult.service;
+            MongoDatabase database = setupResult.database;
+            setupResult.config.put("batchSize", "2");
+            setupResult.config.put("batchInterval", "60000");
+
+            service.activate(setupResult.bundleContext, setupResult.config);
+
+            MongoCollection<Document> collection = database.getCollection("testCollection");
+
+            // Execution
+            service.store(DataCreationHelper.createStringItem("TestItem1", "TestValue1"), null);
+            assertEquals(0, collection.countDocuments()); // Still queued
+
+            service.store(DataCreationHelper.createStringItem("TestItem2", "TestValue2"), null);
+            assertEquals(2, collection.countDocuments()); // Batch size reached
+
+            service.store(DataCreationHelper.createStringItem("TestItem3", "TestValue3"), null);
+            service.deactivate(1);
+
+            // Verification
+            List<Document> documents = (ArrayList<Document>) collection.find().into(new ArrayList<>());
+
+            assertEquals(3, documents.size());
+            VerificationHelper.verifyDocument(documents.get(2), "TestItem3", "TestValue3");
+        } finally {
+            dbContainer.stop();
+        }
+    }
+
     /**
      * Tests the store method of MongoDBPersistenceService with a StringItem and an alias.
      *
@@ -0,0 +1,160 @@
+/**
+ * Copyright (c) 2010-2024 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.persistence.rrd4j.internal;
+
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.openhab.core.common.NamedThreadFactory;
+import org.rrd4j.core.RrdBackendFactory;
+import org.rrd4j.core.RrdDb;
+import org.rrd4j.core.RrdDb.Builder;
+import org.rrd4j.core.RrdDbPool;
+import org.rrd4j.core.RrdNioBackendFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The {@link RRD4jDatabaseCache} keeps the most recently written databases open, so their files stay memory-mapped
+ * and their headers are not read again on every write.
+ *
+ * Open databases hold a reference from the {@link RrdDbPool}. The least recently used one is closed when the cache is
+ * full. Changes of open databases are written to disk by a sync task every sync interval.
+ *
+ * @author Tobias Brandt - Initial contribution
+ */
+@NonNullByDefault
+public class RRD4jDatabaseCache {
+    private final Logger logger = LoggerFactory.getLogger(RRD4jDatabaseCache.class);
+
+    private final RrdDbPool pool;
+    private final int capacity;
+    private final SyncExecutor syncExecutor = new SyncExecutor();
+    private final RrdBackendFactory factory;
+
+    // access order, the eldest entry is the least recently used database
+    private final Map<String, RrdDb> databases = new LinkedHashMap<>(16, 0.75f, true);
+    private final AtomicLong evictions = new AtomicLong();
+
+    /**
+     * @param pool the pool to open databases from
+     * @param capacity the maximum number of open databases
+     * @param syncInterval the interval in seconds for writing changes of open databases to disk
+     */
+    public RRD4jDatabaseCache(RrdDbPool pool, int capacity, int syncInterval) {
+        this.pool = pool;
+        this.capacity = capacity;
+        this.factory = new RrdNioBackendFactory(syncInterval, syncExecutor);
+    }
+
+    /**
+     * @return the backend factory for opening databases, so they are synced by this cache
+     */
+    public RrdBackendFactory getFactory() {
+        return factory;
+    }
+
+    /**
+     * Keeps a database open until it is evicted or the cache is closed.
+     *
+     * @param path the path of the database file
+     */
+    public synchronized void retain(String path) {
+        if (databases.get(path) != null) {
+            return;
+        }
+        try {
+            Builder builder = RrdDb.getBuilder();
+            builder.setPool(pool);
+            builder.setBackendFactory(factory);
+            builder.setPath(path);
+            databases.put(path, builder.build());
+        } catch (IOException e) {
+            logger.debug("Could not keep rrd4j database '{}' open: {}", path, e.getMessage());
+            return;
+        }
+        Iterator<RrdDb> iterator = databases.values().iterator();
+        while (databases.size() > capacity && iterator.hasNext()) {
+            RrdDb eldest = iterator.next();
+            iterator.remove();
+            evictions.incrementAndGet();
+            close(eldest);
+        }
+    }
+
+    /**
+     * Closes all open databases and stops syncing.
+     */
+    public synchronized void close() {
+        databases.values().forEach(this::close);
+        databases.clear();
+        syncExecutor.shutdown();
+    }
+
+    private void close(RrdDb db) {
+        try {
+            db.close();
+        } catch (IOException e) {
+            logger.debug("Error closing rrd4j database: {}", e.getMessage());
+        }
+    }
+
+    public synchronized int size() {
+        return databases.size();
+    }
+
+    public long getEvictions() {
+        return evictions.get();
+    }
+
+    public long getSyncCount() {
+        return syncExecutor.count.get();
+    }
+
+    public double getSyncNanos() {
+        return syncExecutor.nanos.get();
+    }
+
+    /**
+     * Runs the sync tasks of the backends and measures how long they take.
+     */
+    private static class SyncExecutor extends ScheduledThreadPoolExecutor {
+        private final ThreadLocal<Long> start = new ThreadLocal<>();
+        private final AtomicLong count = new AtomicLong();
+        private final AtomicLong nanos = new AtomicLong();
+
+        private SyncExecutor() {
+            super(1, new NamedThreadFactory("RRD4j-sync"));
+        }
+
+        @Override
+        protected void beforeExecute(@Nullable Thread thread, @Nullable Runnable runnable) {
+            start.set(System.nanoTime());
+        }
+
+        @Override
+        protected void afterExecute(@Nullable Runnable runnable, @Nullable Throwable throwable) {
+            Long started = start.get();
+            if (started != null) {
+                nanos.addAndGet(System.nanoTime() - started);
+                count.incrementAndGet();
+            }
+        }
+    }
+}
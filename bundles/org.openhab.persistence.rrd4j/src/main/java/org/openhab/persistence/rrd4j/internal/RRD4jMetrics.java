@@ -0,0 +1,42 @@
+/**
+ * Copyright (c) 2010-2024 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.persistence.rrd4j.internal;
+
+import java.util.function.Supplier;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+
+/**
+ * Exposes the state of the database cache as metrics.
+ *
+ * The only implementation is {@link RRD4jMicrometerMetrics}, which is only available when the core monitoring is
+ * installed. The persistence service uses this interface, so it does not need the optional micrometer packages.
+ *
+ * @author Tobias Brandt - Initial contribution
+ */
+@NonNullByDefault
+public interface RRD4jMetrics {
+
+    /**
+     * Registers the metrics of the database cache, replacing previously registered metrics.
+     *
+     * @param databaseCache supplies the current database cache, or null if databases are not kept open
+     */
+    void register(Supplier<@Nullable RRD4jDatabaseCache> databaseCache);
+
+    /**
+     * Removes the metrics registered by {@link #register(Supplier)}.
+     */
+    void unregister();
+}
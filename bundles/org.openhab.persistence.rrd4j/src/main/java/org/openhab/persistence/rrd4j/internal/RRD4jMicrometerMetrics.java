@@ -0,0 +1,90 @@
+/**
+ * Copyright (c) 2010-2024 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.persistence.rrd4j.internal;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.function.ToDoubleFunction;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.openhab.core.io.monitor.MeterRegistryProvider;
+import org.osgi.service.component.annotations.Activate;
+import org.osgi.service.component.annotations.Component;
+import org.osgi.service.component.annotations.Deactivate;
+import org.osgi.service.component.annotations.Reference;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Registers the database cache metrics with the {@link MeterRegistryProvider} of the core monitoring.
+ *
+ * This is the only class of the add-on using micrometer. Its component is only satisfied, and the class only loaded,
+ * when the core monitoring and micrometer are installed.
+ *
+ * @author Tobias Brandt - Initial contribution
+ */
+@NonNullByDefault
+@Component(service = RRD4jMetrics.class)
+public class RRD4jMicrometerMetrics implements RRD4jMetrics {
+    private static final String METRIC_PREFIX = "openhab.persistence.rrd4j.";
+
+    private final MeterRegistry meterRegistry;
+    // guarded by this
+    private List<Meter> meters = List.of();
+
+    @Activate
+    public RRD4jMicrometerMetrics(final @Reference MeterRegistryProvider meterRegistryProvider) {
+        this.meterRegistry = meterRegistryProvider.getOHMeterRegistry();
+    }
+
+    @Deactivate
+    public void deactivate() {
+        unregister();
+    }
+
+    @Override
+    public synchronized void register(Supplier<@Nullable RRD4jDatabaseCache> databaseCache) {
+        unregister();
+        meters = List.of(
+                Gauge.builder(METRIC_PREFIX + "cache.open", databaseCache,
+                        cache -> cacheMetric(cache, RRD4jDatabaseCache::size)).description("Databases kept open")
+                        .register(meterRegistry),
+                FunctionCounter
+                        .builder(METRIC_PREFIX + "cache.evictions", databaseCache,
+                                cache -> cacheMetric(cache, RRD4jDatabaseCache::getEvictions))
+                        .description("Databases closed because the cache was full").register(meterRegistry),
+                FunctionTimer
+                        .builder(METRIC_PREFIX + "cache.sync", databaseCache,
+                                cache -> (long) cacheMetric(cache, RRD4jDatabaseCache::getSyncCount),
+                                cache -> cacheMetric(cache, RRD4jDatabaseCache::getSyncNanos), TimeUnit.NANOSECONDS)
+                        .description("Duration of writing open databases to disk").register(meterRegistry));
+    }
+
+    @Override
+    public synchronized void unregister() {
+        meters.forEach(meterRegistry::remove);
+        meters = List.of();
+    }
+
+    private static double cacheMetric(Supplier<@Nullable RRD4jDatabaseCache> databaseCache,
+            ToDoubleFunction<RRD4jDatabaseCache> metric) {
+        RRD4jDatabaseCache cache = databaseCache.get();
+        return cache == null ? 0 : metric.applyAsDouble(cache);
+    }
+}
@@ -22,13 +22,17 @@ import java.time.ZonedDateTime;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.ScheduledExecutorService;
@@ -45,6 +49,7 @@ import org.eclipse.jdt.annotation.NonNullByDefault;
 import org.eclipse.jdt.annotation.Nullable;
 import org.openhab.core.OpenHAB;
 import org.openhab.core.common.NamedThreadFactory;
+import org.openhab.core.config.core.ConfigParser;
 import org.openhab.core.items.GroupItem;
 import org.openhab.core.items.Item;
 import org.openhab.core.items.ItemNotFoundException;
@@ -78,6 +83,8 @@ import org.osgi.service.component.annotations.ConfigurationPolicy;
 import org.osgi.service.component.annotations.Deactivate;
 import org.osgi.service.component.annotations.Modified;
 import org.osgi.service.component.annotations.Reference;
+import org.osgi.service.component.annotations.ReferenceCardinality;
+import org.osgi.service.component.annotations.ReferencePolicy;
 import org.rrd4j.ConsolFun;
 import org.rrd4j.DsType;
 import org.rrd4j.core.FetchData;
@@ -114,6 +121,9 @@ public class RRD4jPersistenceService implements QueryablePersistenceService {
         }
     }
 
+    private record Point(long timestamp, double value) {
+    }
+
     public static final String SERVICE_ID = "rrd4j";
 
     private static final String DEFAULT_OTHER = "default_other";
@@ -123,10 +133,15 @@ public class RRD4jPersistenceService implements QueryablePersistenceService {
     private static final Set<String> SUPPORTED_TYPES = Set.of(CoreItemFactory.SWITCH, CoreItemFactory.CONTACT,
             CoreItemFactory.DIMMER, CoreItemFactory.NUMBER, CoreItemFactory.ROLLERSHUTTER, CoreItemFactory.COLOR);
 
+    private static final int WRITE_THREADS = Math.min(4, Runtime.getRuntime().availableProcessors());
+
     private final ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(1,
             new NamedThreadFactory("RRD4j"));
+    private final ExecutorService writeExecutor = Executors.newFixedThreadPool(WRITE_THREADS,
+            new NamedThreadFactory("RRD4j-write"));
 
     private final Map<String, RrdDefConfig> rrdDefs = new ConcurrentHashMap<>();
+    private final Map<String, Object> databaseLocks = new ConcurrentHashMap<>();
 
     private final ConcurrentSkipListMap<Key, Double> storageMap = new ConcurrentSkipListMap<>(Key::compareTo);
 
@@ -135,11 +150,24 @@ public class RRD4jPersistenceService implements QueryablePersistenceService {
     private static final Path DB_FOLDER = Path.of(OpenHAB.getUserDataFolder(), "persistence", "rrd4j").toAbsolutePath();
 
     private static final RrdDbPool DATABASE_POOL = new RrdDbPool();
+    private static final int DATABASE_POOL_CAPACITY = 200;
+
+    private static final String CACHE_SIZE_CONFIG = "cacheSize";
+    private static final int CACHE_SIZE_DEFAULT = 0; // 0 = disabled
+    private static final String SYNC_INTERVAL_CONFIG = "syncInterval";
+    private static final int SYNC_INTERVAL_DEFAULT = 300; // in seconds
 
     private final Logger logger = LoggerFactory.getLogger(RRD4jPersistenceService.class);
     private final ItemRegistry itemRegistry;
     private boolean active = false;
 
+    private volatile @Nullable RRD4jDatabaseCache databaseCache;
+    private int cacheSize = CACHE_SIZE_DEFAULT;
+    private int syncInterval = SYNC_INTERVAL_DEFAULT;
+
+    // metrics, only available with the core monitoring
+    private @Nullable RRD4jMetrics metrics;
+
     public static Path getDatabasePath(String name) {
         return DB_FOLDER.resolve(name + ".rrd");
     }
@@ -160,6 +188,10 @@ public class RRD4jPersistenceService implements QueryablePersistenceService {
 
     @Modified
     protected void modified(final Map<String, Object> config) {
+        updateDatabaseCache(
+                ConfigParser.valueAsOrElse(config.get(CACHE_SIZE_CONFIG), Integer.class, CACHE_SIZE_DEFAULT),
+                ConfigParser.valueAsOrElse(config.get(SYNC_INTERVAL_CONFIG), Integer.class, SYNC_INTERVAL_DEFAULT));
+
         // clean existing definitions
         rrdDefs.clear();
 
@@ -216,6 +248,11 @@ public class RRD4jPersistenceService implements QueryablePersistenceService {
                 continue;
             }
 
+            if (CACHE_SIZE_CONFIG.equals(key) || SYNC_INTERVAL_CONFIG.equals(key)) {
+                // already applied to the database cache
+                continue;
+            }
+
             String[] subkeys = key.split("\\.");
             if (subkeys.length != 2) {
                 logger.debug("config '{}' should have the format 'name.configkey'", key);
@@ -273,6 +310,33 @@ public class RRD4jPersistenceService implements QueryablePersistenceService {
 
         // make sure we really store everything
         doStore(true);
+        writeExecutor.shutdown();
+        updateDatabaseCache(0, syncInterval);
+    }
+
+    /**
+     * Replaces the cache of open databases if its configuration changed. Runs under the same monitor as
+     * {@link #doStore(boolean)}, so no database of the old cache is written meanwhile.
+     */
+    private synchronized void updateDatabaseCache(int cacheSize, int syncInterval) {
+        if (cacheSize == this.cacheSize && syncInterval == this.syncInterval) {
+            return;
+        }
+        this.cacheSize = cacheSize;
+        this.syncInterval = syncInterval;
+
+        RRD4jDatabaseCache databaseCache = this.databaseCache;
+        if (databaseCache != null) {
+            databaseCache.close();
+        }
+        // cached databases must leave room in the pool for the databases opened by writes and queries
+        DATABASE_POOL.setCapacity(DATABASE_POOL_CAPACITY + Math.max(0, cacheSize));
+        if (cacheSize > 0) {
+            this.databaseCache = new RRD4jDatabaseCache(DATABASE_POOL, cacheSize, Math.max(1, syncInterval));
+            logger.debug("Keeping up to {} rrd4j databases open, syncing every {}s", cacheSize, syncInterval);
+        } else {
+            this.databaseCache = null;
+        }
     }
 
     @Override
@@ -338,22 +402,46 @@ public class RRD4jPersistenceService implements QueryablePersistenceService {
         }
     }
 
-    private void doStore(boolean force) {
+    /**
+     * Writes all due points, grouped by database. Each database is opened once per call and different databases are
+     * written in parallel. Returns when all points are written.
+     */
+    private synchronized void doStore(boolean force) {
         long now = System.currentTimeMillis() / 1000;
+        // points of each database in order of their timestamps
+        Map<String, List<Point>> points = new LinkedHashMap<>();
         while (!storageMap.isEmpty()) {
             Key key = storageMap.firstKey();
             if (now > key.timestamp || force) {
                 // no new elements can be added for this timestamp because we are already past that time or the service
                 // requires forced storing
                 Double value = storageMap.pollFirstEntry().getValue();
-                writePointToDatabase(key.name, value, key.timestamp);
+                points.computeIfAbsent(key.name, name -> new ArrayList<>()).add(new Point(key.timestamp, value));
             } else {
-                return;
+                break;
+            }
+        }
+        if (points.isEmpty()) {
+            return;
+        }
+
+        List<CompletableFuture<Void>> writes = new ArrayList<>(points.size());
+        for (Map.Entry<String, List<Point>> entry : points.entrySet()) {
+            try {
+                writes.add(CompletableFuture.runAsync(() -> writePointsToDatabase(entry.getKey(), entry.getValue()),
+                        writeExecutor));
+            } catch (RejectedExecutionException e) {
+                logger.debug("Could not store '{}' to rrd4j database: {}", entry.getKey(), e.getMessage());
             }
         }
+        try {
+            CompletableFuture.allOf(writes.toArray(CompletableFuture[]::new)).join();
+        } catch (CompletionException e) {
+            logger.warn("Failed to store values in rrd4j databases: {}", e.getMessage());
+        }
     }
 
-    private synchronized void writePointToDatabase(String name, double value, long timestamp) {
+    private void writePointsToDatabase(String name, List<Point> points) {
         RrdDb db = null;
         try {
             db = getDB(name, true);
@@ -363,47 +451,62 @@ public class RRD4jPersistenceService implements QueryablePersistenceService {
         if (db == null) {
             return;
         }
+        RRD4jDatabaseCache databaseCache = this.databaseCache;
+        if (databaseCache != null) {
+            databaseCache.retain(db.getPath());
+        }
 
-        ConsolFun function = getConsolidationFunction(db);
-        if (function != ConsolFun.AVERAGE) {
-            try {
-                // we store the last value again, so that the value change
-                // in the database is not interpolated, but
-                // happens right at this spot
-                if (timestamp - 1 > db.getLastUpdateTime()) {
-                    // only do it if there is not already a value
-                    double lastValue = db.getLastDatasourceValue(DATASOURCE_STATE);
-                    if (!Double.isNaN(lastValue)) {
-                        Sample sample = db.createSample();
-                        sample.setTime(timestamp - 1);
-                        sample.setValue(DATASOURCE_STATE, lastValue);
-                        sample.update();
-                        logger.debug("Stored '{}' as value '{}' with timestamp {} in rrd4j database (again)", name,
-                                lastValue, timestamp - 1);
-                    }
+        try {
+            boolean storeLastValue = getConsolidationFunction(db) != ConsolFun.AVERAGE;
+            // counter values must be adjusted by stepsize
+            long factor = db.getDatasource(DATASOURCE_STATE).getType() == DsType.COUNTER ? db.getRrdDef().getStep()
+                    : 1;
+            for (Point point : points) {
+                if (storeLastValue) {
+                    storeLastValueAgain(db, name, point.timestamp());
                 }
+                try {
+                    Sample sample = db.createSample();
+                    sample.setTime(point.timestamp());
+                    double storeValue = point.value() * factor;
+                    sample.setValue(DATASOURCE_STATE, storeValue);
+                    sample.update();
+                    logger.debug("Stored '{}' as value '{}' with timestamp {} in rrd4j database", name, storeValue,
+                            point.timestamp());
+                } catch (Exception e) {
+                    logger.warn("Could not persist '{}' to rrd4j database: {}", name, e.getMessage());
+                }
+            }
+        } catch (IOException e) {
+            logger.warn("Could not persist '{}' to rrd4j database: {}", name, e.getMessage());
+        } finally {
+            try {
+                db.close();
             } catch (IOException e) {
-                logger.debug("Error storing last value (again) for {}: {}", e.getMessage(), name);
+                logger.debug("Error closing rrd4j database: {}", e.getMessage());
             }
         }
+    }
+
+    private void storeLastValueAgain(RrdDb db, String name, long timestamp) {
         try {
-            Sample sample = db.createSample();
-            sample.setTime(timestamp);
-            double storeValue = value;
-            if (db.getDatasource(DATASOURCE_STATE).getType() == DsType.COUNTER) {
-                // counter values must be adjusted by stepsize
-                storeValue = value * db.getRrdDef().getStep();
+            // we store the last value again, so that the value change
+            // in the database is not interpolated, but
+            // happens right at this spot
+            if (timestamp - 1 > db.getLastUpdateTime()) {
+                // only do it if there is not already a value
+                double lastValue = db.getLastDatasourceValue(DATASOURCE_STATE);
+                if (!Double.isNaN(lastValue)) {
+                    Sample sample = db.createSample();
+                    sample.setTime(timestamp - 1);
+                    sample.setValue(DATASOURCE_STATE, lastValue);
+                    sample.update();
+                    logger.debug("Stored '{}' as value '{}' with timestamp {} in rrd4j database (again)", name,
+                            lastValue, timestamp - 1);
+                }
             }
-            sample.setValue(DATASOURCE_STATE, storeValue);
-            sample.update();
-            logger.debug("Stored '{}' as value '{}' with timestamp {} in rrd4j database", name, storeValue, timestamp);
-        } catch (Exception e) {
-            logger.warn("Could not persist '{}' to rrd4j database: {}", name, e.getMessage());
-        }
-        try {
-            db.close();
         } catch (IOException e) {
-            logger.debug("Error closing rrd4j database: {}", e.getMessage());
+            logger.debug("Error storing last value (again) for {}: {}", e.getMessage(), name);
         }
     }
 
@@ -541,12 +644,27 @@ public class RRD4jPersistenceService implements QueryablePersistenceService {
         return Set.of();
     }
 
-    protected synchronized @Nullable RrdDb getDB(String alias, boolean createFileIfAbsent) {
+    /**
+     * Opens a database through the pool. Callers writing to the same database must not run concurrently, which
+     * {@link #doStore(boolean)} ensures by writing all points of a database in a single task.
+     */
+    protected @Nullable RrdDb getDB(String alias, boolean createFileIfAbsent) {
+        // a database must not be opened while it is still being created
+        synchronized (databaseLocks.computeIfAbsent(alias, name -> new Object())) {
+            return openDB(alias, createFileIfAbsent);
+        }
+    }
+
+    private @Nullable RrdDb openDB(String alias, boolean createFileIfAbsent) {
         RrdDb db = null;
         Path path = getDatabasePath(alias);
         try {
             Builder builder = RrdDb.getBuilder();
             builder.setPool(DATABASE_POOL);
+            RRD4jDatabaseCache databaseCache = this.databaseCache;
+            if (databaseCache != null) {
+                builder.setBackendFactory(databaseCache.getFactory());
+            }
 
             if (Files.exists(path)) {
                 // recreate the RrdDb instance from the file
@@ -576,6 +694,19 @@ public class RRD4jPersistenceService implements QueryablePersistenceService {
         return db;
     }
 
+    @Reference(cardinality = ReferenceCardinality.OPTIONAL, policy = ReferencePolicy.DYNAMIC)
+    public synchronized void setMetrics(RRD4jMetrics metrics) {
+        metrics.register(() -> databaseCache);
+        this.metrics = metrics;
+    }
+
+    public synchronized void unsetMetrics(RRD4jMetrics metrics) {
+        if (this.metrics == metrics) {
+            metrics.unregister();
+            this.metrics = null;
+        }
+    }
+
     private @Nullable RrdDefConfig getRrdDefConfig(String itemName) {
         RrdDefConfig useRdc = null;
         for (Map.Entry<String, RrdDefConfig> e : rrdDefs.entrySet()) {
@@ -0,0 +1,113 @@
+/**
+ * Copyright (c) 2010-2024 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.persistence.rrd4j.internal.charts;
+
+import java.time.ZoneId;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+
+/**
+ * The {@link RRD4jChartCache} keeps encoded chart images until the underlying databases have moved on to their next
+ * archive step, so repeated requests for the same chart are answered without rendering it again.
+ *
+ * The cache is bounded by the total size of the images. The least recently requested image is dropped when the limit
+ * is reached.
+ *
+ * @author Tobias Brandt - Initial contribution
+ */
+@NonNullByDefault
+public class RRD4jChartCache {
+
+    private final long maxBytes;
+    private long bytes;
+
+    // access order, the eldest entry is the least recently requested chart
+    private final Map<Key, Entry> charts = new LinkedHashMap<>(16, 0.75f, true);
+
+    /**
+     * @param maxBytes the maximum total size of the cached images in bytes
+     */
+    public RRD4jChartCache(long maxBytes) {
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * @param key the chart parameters
+     * @param now the current time in milliseconds
+     * @return the encoded image, or <code>null</code> if it is not cached or no longer valid
+     */
+    public synchronized byte @Nullable [] get(Key key, long now) {
+        Entry entry = charts.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (entry.validUntil <= now) {
+            charts.remove(key);
+            bytes -= entry.image.length;
+            return null;
+        }
+        return entry.image;
+    }
+
+    /**
+     * @param key the chart parameters
+     * @param image the encoded image
+     * @param validUntil the time in milliseconds at which the next archive step of the databases begins
+     */
+    public synchronized void put(Key key, byte[] image, long validUntil) {
+        if (image.length > maxBytes) {
+            return;
+        }
+        Entry previous = charts.put(key, new Entry(image, validUntil));
+        if (previous != null) {
+            bytes -= previous.image.length;
+        }
+        bytes += image.length;
+        Iterator<Entry> iterator = charts.values().iterator();
+        while (bytes > maxBytes && iterator.hasNext()) {
+            Entry eldest = iterator.next();
+            iterator.remove();
+            bytes -= eldest.image.length;
+        }
+    }
+
+    public synchronized void clear() {
+        charts.clear();
+        bytes = 0;
+    }
+
+    /**
+     * The inputs of a rendered chart.
+     *
+     * @param items the names of the displayed items, including the members of the requested groups
+     * @param labels the labels of the displayed items
+     * @param period the time span of the chart in seconds
+     * @param width the width of the image
+     * @param height the height of the image
+     * @param theme the requested theme
+     * @param timeZone the time zone of the time axis
+     * @param locale the locale of the axis labels
+     */
+    public record Key(List<String> items, List<@Nullable String> labels, long period, int width, int height,
+            @Nullable String theme, ZoneId timeZone, Locale locale) {
+    }
+
+    private record Entry(byte[] image, long validUntil) {
+    }
+}
@@ -17,11 +17,15 @@ import static java.util.Map.entry;
 import java.awt.Color;
 import java.awt.Font;
 import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.UncheckedIOException;
 import java.time.Duration;
 import java.time.ZonedDateTime;
+import java.util.ArrayList;
 import java.util.Hashtable;
+import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 
 import javax.imageio.ImageIO;
@@ -41,6 +45,7 @@ import org.openhab.core.library.items.NumberItem;
 import org.openhab.core.ui.chart.ChartProvider;
 import org.openhab.core.ui.items.ItemUIRegistry;
 import org.openhab.persistence.rrd4j.internal.RRD4jPersistenceService;
+import org.openhab.persistence.rrd4j.internal.charts.RRD4jChartCache.Key;
 import org.osgi.service.component.annotations.Activate;
 import org.osgi.service.component.annotations.Component;
 import org.osgi.service.component.annotations.Deactivate;
@@ -48,6 +53,7 @@ import org.osgi.service.component.annotations.Reference;
 import org.osgi.service.http.HttpService;
 import org.osgi.service.http.NamespaceException;
 import org.rrd4j.ConsolFun;
+import org.rrd4j.core.Archive;
 import org.rrd4j.core.RrdDb;
 import org.rrd4j.core.RrdDb.Builder;
 import org.rrd4j.graph.RrdGraph;
@@ -67,6 +73,9 @@ import org.slf4j.LoggerFactory;
  * <li>groups: A comma separated list of group names, whose members should be displayed
  * </ul>
  *
+ * Rendered images are cached until the next archive step of the displayed databases, so auto-refreshing pages do not
+ * render the same chart again and again.
+ *
  * @author Kai Kreuzer - Initial contribution
  * @author Chris Jackson - a few improvements
  * @author Jan N. Klug - a few improvements
@@ -93,6 +102,9 @@ public class RRD4jChartServlet implements Servlet, ChartProvider {
 
     private static final Duration DEFAULT_PERIOD = Duration.ofDays(1);
 
+    private static final long CACHE_MAX_BYTES = 16L * 1024 * 1024;
+    private static final long CACHE_DEFAULT_VALIDITY = 60;
+
     private static final Map<String, Duration> PERIODS = Map.ofEntries( //
             entry("h", Duration.ofHours(1)), entry("4h", Duration.ofHours(4)), //
             entry("8h", Duration.ofHours(8)), entry("12h", Duration.ofHours(12)), //
@@ -106,6 +118,7 @@ public class RRD4jChartServlet implements Servlet, ChartProvider {
     private final HttpService httpService;
     private final ItemUIRegistry itemUIRegistry;
     private final TimeZoneProvider timeZoneProvider;
+    private final RRD4jChartCache chartCache = new RRD4jChartCache(CACHE_MAX_BYTES);
 
     @Activate
     public RRD4jChartServlet(final @Reference HttpService httpService, final @Reference ItemUIRegistry itemUIRegistry,
@@ -128,6 +141,7 @@ public class RRD4jChartServlet implements Servlet, ChartProvider {
     @Deactivate
     protected void deactivate() {
         httpService.unregister(SERVLET_NAME);
+        chartCache.clear();
     }
 
     @Override
@@ -138,17 +152,36 @@ public class RRD4jChartServlet implements Servlet, ChartProvider {
         int height = parseInt(req.getParameter("h"), DEFAULT_HEIGHT);
         String periodParam = req.getParameter("period");
         Duration period = periodParam == null ? DEFAULT_PERIOD : PERIODS.getOrDefault(periodParam, DEFAULT_PERIOD);
+        String items = req.getParameter("items");
+        String groups = req.getParameter("groups");
+        String theme = req.getParameter("theme");
 
         // Create the start and stop time
         ZonedDateTime timeEnd = ZonedDateTime.now(timeZoneProvider.getTimeZone());
         ZonedDateTime timeBegin = timeEnd.minus(period);
 
         try {
-            BufferedImage chart = createChart(null, null, timeBegin, timeEnd, height, width, req.getParameter("items"),
-                    req.getParameter("groups"), null, null);
+            // the key holds everything the rendered image depends on, except for the values in the databases
+            List<Item> chartItems = getItems(items, groups);
+            Key key = new Key(chartItems.stream().map(Item::getName).toList(),
+                    chartItems.stream().map(item -> itemUIRegistry.getLabel(item.getName())).toList(),
+                    period.getSeconds(), width, height, theme, timeEnd.getZone(), Locale.getDefault());
+            long now = timeEnd.toInstant().toEpochMilli();
+            byte[] image = chartCache.get(key, now);
+            if (image == null) {
+                BufferedImage chart = createChart(null, theme, timeBegin, timeEnd, height, width, items, groups, null,
+                        null);
+                ByteArrayOutputStream out = new ByteArrayOutputStream();
+                ImageIO.write(chart, getChartType().toString(), out);
+                image = out.toByteArray();
+                chartCache.put(key, image, getNextArchiveStep(chartItems, period, now));
+            } else {
+                logger.trace("Serving cached chart for {}", key);
+            }
             // Set the content type to that provided by the chart provider
             res.setContentType("image/" + getChartType());
-            ImageIO.write(chart, getChartType().toString(), res.getOutputStream());
+            res.setContentLength(image.length);
+            res.getOutputStream().write(image);
         } catch (ItemNotFoundException e) {
             logger.debug("Item not found error while generating chart", e);
             throw new ServletException("Item not found error while generating chart: " + e.getMessage());
@@ -170,6 +203,57 @@ public class RRD4jChartServlet implements Servlet, ChartProvider {
         }
     }
 
+    /**
+     * Determines when the displayed databases move on to their next archive step, i.e. when a rendered chart may
+     * change. For each database, the finest archive that covers the period is considered, as this is the one the
+     * graph is drawn from.
+     *
+     * @param items the displayed items
+     * @param period the time span of the chart
+     * @param now the current time in milliseconds
+     * @return the time in milliseconds until which a rendered chart is valid
+     */
+    private long getNextArchiveStep(List<Item> items, Duration period, long now) {
+        long nowSeconds = now / 1000;
+        long validUntil = Long.MAX_VALUE;
+        for (Item item : items) {
+            String rrdName = RRD4jPersistenceService.getDatabasePath(item.getName()).toString();
+            try {
+                Builder builder = RrdDb.getBuilder();
+                builder.setPool(RRD4jPersistenceService.getDatabasePool());
+                builder.setPath(rrdName);
+
+                RrdDb db = builder.build();
+                try {
+                    long arcStep = 0;
+                    long coarsestStep = 0;
+                    for (int i = 0; i < db.getArcCount(); i++) {
+                        Archive archive = db.getArchive(i);
+                        long step = archive.getArcStep();
+                        coarsestStep = Math.max(coarsestStep, step);
+                        if (step * archive.getRows() >= period.getSeconds() && (arcStep == 0 || step < arcStep)) {
+                            arcStep = step;
+                        }
+                    }
+                    if (arcStep == 0) {
+                        arcStep = coarsestStep;
+                    }
+                    if (arcStep > 0) {
+                        validUntil = Math.min(validUntil, (nowSeconds / arcStep + 1) * arcStep);
+                    }
+                } finally {
+                    db.close();
+                }
+            } catch (IOException e) {
+                logger.trace("Could not read archive steps of '{}': {}", rrdName, e.getMessage());
+            }
+        }
+        if (validUntil == Long.MAX_VALUE) {
+            validUntil = nowSeconds + CACHE_DEFAULT_VALIDITY;
+        }
+        return validUntil * 1000;
+    }
+
     /**
      * Adds a line for the item to the graph definition.
      * The color of the line is determined by the counter, it simply picks the according index from LINECOLORS (and
@@ -253,12 +337,30 @@ public class RRD4jChartServlet implements Servlet, ChartProvider {
 
         int seriesCounter = 0;
 
+        for (Item item : getItems(items, groups)) {
+            addLine(graphDef, item, seriesCounter++);
+        }
+
+        // Write the chart as a PNG image
+        try {
+            RrdGraph graph = new RrdGraph(graphDef);
+            BufferedImage bi = new BufferedImage(graph.getRrdGraphInfo().getWidth(),
+                    graph.getRrdGraphInfo().getHeight(), BufferedImage.TYPE_INT_RGB);
+            graph.render(bi.getGraphics());
+            return bi;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Error generating RrdGraph", e);
+        }
+    }
+
+    private List<Item> getItems(@Nullable String items, @Nullable String groups) throws ItemNotFoundException {
+        List<Item> result = new ArrayList<>();
+
         // Loop through all the items
         if (items != null) {
             String[] itemNames = items.split(",");
             for (String itemName : itemNames) {
-                Item item = itemUIRegistry.getItem(itemName);
-                addLine(graphDef, item, seriesCounter++);
+                result.add(itemUIRegistry.getItem(itemName));
             }
         }
 
@@ -268,25 +370,13 @@ public class RRD4jChartServlet implements Servlet, ChartProvider {
             for (String groupName : groupNames) {
                 Item item = itemUIRegistry.getItem(groupName);
                 if (item instanceof GroupItem groupItem) {
-                    for (Item member : groupItem.getMembers()) {
-                        addLine(graphDef, member, seriesCounter++);
-                    }
+                    result.addAll(groupItem.getMembers());
                 } else {
                     throw new ItemNotFoundException("Item '" + item.getName() + "' defined in groups is not a group.");
                 }
             }
         }
-
-        // Write the chart as a PNG image
-        try {
-            RrdGraph graph = new RrdGraph(graphDef);
-            BufferedImage bi = new BufferedImage(graph.getRrdGraphInfo().getWidth(),
-                    graph.getRrdGraphInfo().getHeight(), BufferedImage.TYPE_INT_RGB);
-            graph.render(bi.getGraphics());
-            return bi;
-        } catch (IOException e) {
-            throw new UncheckedIOException("Error generating RrdGraph", e);
-        }
+        return result;
     }
 
     @Override
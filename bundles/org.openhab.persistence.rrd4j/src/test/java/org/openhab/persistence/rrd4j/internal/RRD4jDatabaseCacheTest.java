@@ -0,0 +1,112 @@
+/**
+ * Copyright (c) 2010-2024 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.persistence.rrd4j.internal;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.rrd4j.ConsolFun;
+import org.rrd4j.DsType;
+import org.rrd4j.core.RrdDb;
+import org.rrd4j.core.RrdDbPool;
+import org.rrd4j.core.RrdDef;
+
+/**
+ * Tests the {@link RRD4jDatabaseCache}.
+ *
+ * @author Tobias Brandt - Initial contribution
+ */
+@NonNullByDefault
+public class RRD4jDatabaseCacheTest {
+
+    private @TempDir @NonNullByDefault({}) Path tempDir;
+
+    private final RrdDbPool pool = new RrdDbPool();
+    private final RRD4jDatabaseCache cache = new RRD4jDatabaseCache(pool, 2, 1);
+
+    @AfterEach
+    public void tearDown() {
+        cache.close();
+    }
+
+    private String createDatabase(String name) throws IOException {
+        String path = tempDir.resolve(name + ".rrd").toString();
+        RrdDef rrdDef = new RrdDef(path, 10);
+        rrdDef.addDatasource("state", DsType.GAUGE, 600, Double.NaN, Double.NaN);
+        rrdDef.addArchive(ConsolFun.LAST, 0.5, 1, 360);
+        RrdDb.getBuilder().setPool(pool).setBackendFactory(cache.getFactory()).setRrdDef(rrdDef).build().close();
+        return path;
+    }
+
+    private List<String> openFiles() {
+        return List.of(pool.getOpenFiles());
+    }
+
+    @Test
+    public void retainedDatabasesStayOpen() throws IOException {
+        String first = createDatabase("first");
+        String second = createDatabase("second");
+        assertThat(openFiles(), is(empty()));
+
+        cache.retain(first);
+        cache.retain(second);
+        cache.retain(first);
+
+        assertThat(cache.size(), is(2));
+        assertThat(openFiles(), hasSize(2));
+        assertThat(cache.getEvictions(), is(0L));
+    }
+
+    @Test
+    public void leastRecentlyUsedDatabaseIsClosedWhenFull() throws IOException {
+        String first = createDatabase("first");
+        String second = createDatabase("second");
+        String third = createDatabase("third");
+
+        cache.retain(first);
+        cache.retain(second);
+        cache.retain(first);
+        cache.retain(third);
+
+        assertThat(cache.size(), is(2));
+        assertThat(cache.getEvictions(), is(1L));
+        assertThat(openFiles(), hasSize(2));
+        assertThat(openFiles(), not(hasItem(containsString("second"))));
+    }
+
+    @Test
+    public void closeReleasesAllDatabases() throws IOException {
+        cache.retain(createDatabase("first"));
+        cache.retain(createDatabase("second"));
+
+        cache.close();
+
+        assertThat(cache.size(), is(0));
+        assertThat(openFiles(), is(empty()));
+    }
+
+    @Test
+    public void missingDatabaseIsNotRetained() {
+        cache.retain(tempDir.resolve("missing.rrd").toString());
+
+        assertThat(cache.size(), is(0));
+    }
+}
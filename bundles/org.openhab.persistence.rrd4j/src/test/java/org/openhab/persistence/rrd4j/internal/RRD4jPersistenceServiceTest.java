@@ -0,0 +1,151 @@
+/**
+ * Copyright (c) 2010-2024 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.persistence.rrd4j.internal;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.openhab.core.OpenHAB;
+import org.openhab.core.items.ItemNotFoundException;
+import org.openhab.core.items.ItemRegistry;
+import org.openhab.core.library.items.NumberItem;
+import org.openhab.core.library.types.DecimalType;
+import org.openhab.core.persistence.FilterCriteria;
+import org.openhab.core.persistence.FilterCriteria.Ordering;
+import org.openhab.core.persistence.HistoricItem;
+import org.rrd4j.core.RrdDb;
+
+/**
+ * Tests the parallel store path of the {@link RRD4jPersistenceService}.
+ *
+ * @author Tobias Brandt - Initial contribution
+ */
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+@NonNullByDefault
+public class RRD4jPersistenceServiceTest {
+    private static final int ITEMS = 20;
+
+    private static @TempDir @NonNullByDefault({}) Path userDataDir;
+
+    private @NonNullByDefault({}) @Mock ItemRegistry itemRegistry;
+    private @NonNullByDefault({}) RRD4jPersistenceService service;
+
+    @BeforeAll
+    public static void setUserDataFolder() {
+        // the database folder is resolved once, when the service class is loaded
+        System.setProperty(OpenHAB.USERDATA_DIR_PROG_ARGUMENT, userDataDir.toString());
+    }
+
+    @BeforeEach
+    public void setUp() throws ItemNotFoundException {
+        when(itemRegistry.getItem(anyString())).thenAnswer(invocation -> new NumberItem(invocation.getArgument(0)));
+        service = new RRD4jPersistenceService(itemRegistry, Map.of());
+    }
+
+    @AfterEach
+    public void tearDown() {
+        service.deactivate();
+    }
+
+    private String itemName(String prefix, int index) {
+        return prefix + "_" + System.nanoTime() + "_" + index;
+    }
+
+    private @Nullable HistoricItem lastValue(String itemName) {
+        FilterCriteria filter = new FilterCriteria();
+        filter.setItemName(itemName);
+        filter.setOrdering(Ordering.DESCENDING);
+        filter.setPageSize(1);
+        List<HistoricItem> result = new ArrayList<>();
+        service.query(filter).forEach(result::add);
+        return result.isEmpty() ? null : result.get(0);
+    }
+
+    @Test
+    public void valuesOfManyItemsAreWrittenInParallel() {
+        List<String> names = new ArrayList<>();
+        for (int i = 0; i < ITEMS; i++) {
+            NumberItem item = new NumberItem(itemName("parallel", i));
+            item.setState(new DecimalType(i));
+            service.store(item);
+            names.add(item.getName());
+        }
+
+        service.deactivate();
+
+        for (int i = 0; i < ITEMS; i++) {
+            HistoricItem historicItem = lastValue(names.get(i));
+            assertThat(historicItem, is(notNullValue()));
+            assertThat(((DecimalType) historicItem.getState()).intValue(), is(i));
+        }
+    }
+
+    @Test
+    public void queriesNeverOpenADatabaseThatIsBeingCreated() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            for (int i = 0; i < ITEMS; i++) {
+                String name = itemName("race", i);
+                List<Callable<@Nullable RrdDb>> tasks = new ArrayList<>();
+                tasks.add(() -> service.getDB(name, true));
+                for (int j = 0; j < 7; j++) {
+                    tasks.add(() -> service.getDB(name, false));
+                }
+                for (Future<@Nullable RrdDb> future : executor.invokeAll(tasks)) {
+                    RrdDb db = future.get();
+                    if (db != null) {
+                        assertThat(db.getDatasource("state"), is(notNullValue()));
+                        close(db);
+                    }
+                }
+
+                RrdDb db = service.getDB(name, false);
+                assertThat(db, is(notNullValue()));
+                close(db);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private void close(@Nullable RrdDb db) throws IOException {
+        if (db != null) {
+            db.close();
+        }
+    }
+}
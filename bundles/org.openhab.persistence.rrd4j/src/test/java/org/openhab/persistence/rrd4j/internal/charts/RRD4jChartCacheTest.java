@@ -0,0 +1,81 @@
+/**
+ * Copyright (c) 2010-2024 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.persistence.rrd4j.internal.charts;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+import java.time.ZoneId;
+import java.util.List;
+import java.util.Locale;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.junit.jupiter.api.Test;
+import org.openhab.persistence.rrd4j.internal.charts.RRD4jChartCache.Key;
+
+/**
+ * Tests the {@link RRD4jChartCache}.
+ *
+ * @author Tobias Brandt - Initial contribution
+ */
+@NonNullByDefault
+public class RRD4jChartCacheTest {
+    private static final ZoneId BERLIN = ZoneId.of("Europe/Berlin");
+
+    private static Key key(String item, String label, ZoneId timeZone) {
+        return new Key(List.of(item), List.of(label), 86400, 480, 240, null, timeZone, Locale.ENGLISH);
+    }
+
+    @Test
+    public void imageIsServedUntilItExpires() {
+        RRD4jChartCache cache = new RRD4jChartCache(1024);
+        byte[] image = new byte[] { 1, 2, 3 };
+        cache.put(key("Temperature", "Temperature", BERLIN), image, 2000);
+
+        assertThat(cache.get(key("Temperature", "Temperature", BERLIN), 1000), is(image));
+        assertThat(cache.get(key("Temperature", "Temperature", BERLIN), 2000), is(nullValue()));
+    }
+
+    @Test
+    public void changedRenderingInputsMissTheCache() {
+        RRD4jChartCache cache = new RRD4jChartCache(1024);
+        cache.put(key("Temperature", "Temperature", BERLIN), new byte[] { 1 }, 2000);
+
+        assertThat(cache.get(key("Temperature", "Temperature", ZoneId.of("UTC")), 1000), is(nullValue()));
+        assertThat(cache.get(key("Temperature", "Outside", BERLIN), 1000), is(nullValue()));
+        assertThat(cache.get(key("Humidity", "Temperature", BERLIN), 1000), is(nullValue()));
+        assertThat(cache.get(new Key(List.of("Temperature"), List.of("Temperature"), 86400, 480, 240, null, BERLIN,
+                Locale.GERMAN), 1000), is(nullValue()));
+    }
+
+    @Test
+    public void leastRecentlyRequestedImageIsDroppedWhenFull() {
+        RRD4jChartCache cache = new RRD4jChartCache(4);
+        cache.put(key("A", "A", BERLIN), new byte[2], 2000);
+        cache.put(key("B", "B", BERLIN), new byte[2], 2000);
+        cache.get(key("A", "A", BERLIN), 1000);
+        cache.put(key("C", "C", BERLIN), new byte[2], 2000);
+
+        assertThat(cache.get(key("A", "A", BERLIN), 1000), is(notNullValue()));
+        assertThat(cache.get(key("B", "B", BERLIN), 1000), is(nullValue()));
+        assertThat(cache.get(key("C", "C", BERLIN), 1000), is(notNullValue()));
+    }
+
+    @Test
+    public void imagesLargerThanTheCacheAreNotKept() {
+        RRD4jChartCache cache = new RRD4jChartCache(4);
+        cache.put(key("A", "A", BERLIN), new byte[5], 2000);
+
+        assertThat(cache.get(key("A", "A", BERLIN), 1000), is(nullValue()));
+    }
+}
@@ -13,40 +13,88 @@
 package org.openhab.transform.jinja.internal;
 
 import java.io.IOException;
+import java.util.AbstractList;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Set;
 
 import org.eclipse.jdt.annotation.NonNullByDefault;
 import org.eclipse.jdt.annotation.Nullable;
 import org.openhab.core.transform.TransformationException;
 import org.openhab.core.transform.TransformationService;
+import org.osgi.service.component.annotations.Activate;
 import org.osgi.service.component.annotations.Component;
+import org.osgi.service.component.annotations.Modified;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.hubspot.jinjava.Jinjava;
+import com.hubspot.jinjava.interpret.Context;
 import com.hubspot.jinjava.interpret.FatalTemplateErrorsException;
+import com.hubspot.jinjava.interpret.InterpretException;
+import com.hubspot.jinjava.interpret.JinjavaInterpreter;
+import com.hubspot.jinjava.interpret.TemplateError;
+import com.hubspot.jinjava.interpret.TemplateError.ErrorType;
+import com.hubspot.jinjava.tree.Node;
 
 /**
  * <p>
  * The implementation of {@link TransformationService} which transforms the input by Jinja2 Expressions.
  *
  * @author Jochen Klein - Initial contribution
+ * @author Tobias Brandt - Cache parsed templates, lazy JSON mode
  *
  */
 @NonNullByDefault
-@Component(property = { "openhab.transform=JINJA" })
+@Component(configurationPid = "org.openhab.jinja", property = { "openhab.transform=JINJA" })
 public class JinjaTransformationService implements TransformationService {
 
+    /** Maximum number of parsed templates kept */
+    private static final int CACHE_SIZE = 256;
+
+    // ObjectMapper is thread-safe once configured
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
     private final Logger logger = LoggerFactory.getLogger(JinjaTransformationService.class);
 
-    private final Jinjava jinjava = new Jinjava();
+    private final Jinjava jinjava;
+
+    // access order, the eldest entry is the least recently used template
+    private final Map<String, Node> templates = new LinkedHashMap<>(16, 0.75f, true) {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Node> eldest) {
+            return size() > CACHE_SIZE;
+        }
+    };
+
+    private boolean lazyJson;
+
+    public JinjaTransformationService() {
+        this(new Jinjava());
+    }
+
+    JinjaTransformationService(Jinjava jinjava) {
+        this.jinjava = jinjava;
+    }
+
+    @Activate
+    @Modified
+    protected void modified(@Nullable Map<String, Object> config) {
+        Object lazyJsonConfig = config == null ? null : config.get("lazyJson");
+        lazyJson = lazyJsonConfig != null && Boolean.parseBoolean(lazyJsonConfig.toString());
+        logger.debug("JSON values are converted {}", lazyJson ? "lazily" : "eagerly");
+    }
 
     /**
      * Transforms the input <code>value</code> by Jinja template.
@@ -65,14 +113,14 @@ public class JinjaTransformationService implements TransformationService {
         bindings.put("value", value);
 
         try {
-            JsonNode tree = new ObjectMapper().readTree(value);
-            bindings.put("value_json", toObject(tree));
+            JsonNode tree = OBJECT_MAPPER.readTree(value);
+            bindings.put("value_json", lazyJson ? wrap(tree) : toObject(tree));
         } catch (IOException e) {
             // ok, then value_json is null...
         }
 
         try {
-            transformationResult = jinjava.render(template, bindings);
+            transformationResult = render(template, bindings);
         } catch (FatalTemplateErrorsException e) {
             throw new TransformationException("An error occurred while transformation. " + e.getMessage(), e);
         }
@@ -82,6 +130,61 @@ public class JinjaTransformationService implements TransformationService {
         return transformationResult;
     }
 
+    /**
+     * Renders the template like {@link Jinjava#render(String, Map)}, but parses it only once.
+     *
+     * @throws FatalTemplateErrorsException if parsing or rendering the template reported fatal errors
+     * @throws TransformationException if rendering the template failed with an exception
+     */
+    private String render(String template, Map<String, @Nullable Object> bindings) throws TransformationException {
+        Context context = new Context(jinjava.getGlobalContext(), bindings, jinjava.getGlobalConfig().getDisabled());
+        JinjavaInterpreter interpreter = jinjava.getGlobalConfig().getInterpreterFactory().newInstance(jinjava, context,
+                jinjava.getGlobalConfig());
+        JinjavaInterpreter.pushCurrent(interpreter);
+        try {
+            String result;
+            try {
+                result = interpreter.render(parse(template, interpreter));
+            } catch (InterpretException e) {
+                // syntax errors and output limits, reported as template errors by Jinjava#renderForResult
+                throw new TransformationException("An error occurred while transformation. " + e.getMessage(), e);
+            } catch (RuntimeException e) {
+                // e.g. a filter or function that failed
+                throw new TransformationException("An error occurred while transformation. " + e.getMessage(), e);
+            }
+            List<TemplateError> fatalErrors = interpreter.getErrorsCopy().stream()
+                    .filter(error -> error.getSeverity() == ErrorType.FATAL).toList();
+            if (!fatalErrors.isEmpty()) {
+                throw new FatalTemplateErrorsException(template, fatalErrors);
+            }
+            return result;
+        } finally {
+            JinjavaInterpreter.popCurrent();
+        }
+    }
+
+    /**
+     * Parses the given template, or returns the cached result of an earlier parse. Templates with parse errors are not
+     * cached, so the errors are reported on every use.
+     */
+    private Node parse(String template, JinjavaInterpreter interpreter) {
+        synchronized (templates) {
+            Node root = templates.get(template);
+            if (root != null) {
+                return root;
+            }
+        }
+
+        int errors = interpreter.getErrorsCopy().size();
+        Node root = interpreter.parse(template);
+        if (interpreter.getErrorsCopy().size() == errors) {
+            synchronized (templates) {
+                templates.put(template, root);
+            }
+        }
+        return root;
+    }
+
     private static @Nullable Object toObject(JsonNode node) {
         switch (node.getNodeType()) {
             case ARRAY: {
@@ -111,4 +214,97 @@ public class JinjaTransformationService implements TransformationService {
                 return null;
         }
     }
+
+    /**
+     * Like {@link #toObject(JsonNode)}, but objects and arrays are returned as read-only views, which convert their
+     * members only when they are accessed.
+     */
+    private static @Nullable Object wrap(JsonNode node) {
+        switch (node.getNodeType()) {
+            case ARRAY:
+                return new JsonNodeList(node);
+            case OBJECT:
+                return new JsonNodeMap(node);
+            default:
+                return toObject(node);
+        }
+    }
+
+    /**
+     * Read-only {@link Map} view of a JSON object.
+     */
+    private static class JsonNodeMap extends AbstractMap<String, @Nullable Object> {
+        private final JsonNode node;
+
+        JsonNodeMap(JsonNode node) {
+            this.node = node;
+        }
+
+        @Override
+        public @Nullable Object get(@Nullable Object key) {
+            JsonNode field = key instanceof String name ? node.get(name) : null;
+            return field == null ? null : wrap(field);
+        }
+
+        @Override
+        public boolean containsKey(@Nullable Object key) {
+            return key instanceof String name && node.has(name);
+        }
+
+        @Override
+        public int size() {
+            return node.size();
+        }
+
+        @Override
+        public Set<Entry<String, @Nullable Object>> entrySet() {
+            return new AbstractSet<>() {
+                @Override
+                public Iterator<Entry<String, @Nullable Object>> iterator() {
+                    Iterator<Entry<String, JsonNode>> fields = node.fields();
+                    return new Iterator<>() {
+                        @Override
+                        public boolean hasNext() {
+                            return fields.hasNext();
+                        }
+
+                        @Override
+                        public Entry<String, @Nullable Object> next() {
+                            Entry<String, JsonNode> field = fields.next();
+                            return new SimpleImmutableEntry<>(field.getKey(), wrap(field.getValue()));
+                        }
+                    };
+                }
+
+                @Override
+                public int size() {
+                    return node.size();
+                }
+            };
+        }
+    }
+
+    /**
+     * Read-only {@link List} view of a JSON array.
+     */
+    private static class JsonNodeList extends AbstractList<@Nullable Object> {
+        private final JsonNode node;
+
+        JsonNodeList(JsonNode node) {
+            this.node = node;
+        }
+
+        @Override
+        public @Nullable Object get(int index) {
+            if (index < 0 || index >= node.size()) {
+                throw new IndexOutOfBoundsException(index);
+            }
+            return wrap(node.get(index));
+        }
+
+        @Override
+        public int size() {
+            return node.size();
+        }
+    }
 }
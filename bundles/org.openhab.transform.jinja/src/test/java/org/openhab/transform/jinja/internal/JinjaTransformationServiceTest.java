@@ -14,10 +14,16 @@ package org.openhab.transform.jinja.internal;
 
 import static org.junit.jupiter.api.Assertions.*;
 
+import java.util.Map;
+
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.openhab.core.transform.TransformationException;
 
+import com.hubspot.jinjava.Jinjava;
+import com.hubspot.jinjava.interpret.JinjavaInterpreter;
+import com.hubspot.jinjava.lib.filter.Filter;
+
 /**
  * @author Jochen Klein - Initial contribution
  */
@@ -113,4 +119,50 @@ public class JinjaTransformationServiceTest {
         // then map key is defined
         assertEquals("true", transformedResponse);
     }
+
+    @Test
+    public void testRepeatedTemplate() throws TransformationException {
+        // the second call uses the cached template
+        assertEquals("Hello world!", processor.transform("Hello {{ value_json.string }}!", "{\"string\": \"world\"}"));
+        assertEquals("Hello moon!", processor.transform("Hello {{ value_json.string }}!", "{\"string\": \"moon\"}"));
+    }
+
+    @Test
+    public void testRepeatedTemplateError() {
+        assertThrows(TransformationException.class,
+                () -> processor.transform("Hello {{{ value_json.string }}!", "{\"string\": \"world\"}"));
+        assertThrows(TransformationException.class,
+                () -> processor.transform("Hello {{{ value_json.string }}!", "{\"string\": \"world\"}"));
+    }
+
+    @Test
+    public void testLazyJson() throws TransformationException {
+        processor.modified(Map.of("lazyJson", "true"));
+        String json = "{\"Time\":\"2019-01-05T22:45:12\",\"AM2301\":{\"Temperature\":4.7,\"Humidity\":99.9},\"List\":[1,2,3]}";
+
+        assertEquals("4.7", processor.transform("{{value_json['AM2301'].Temperature}}", json));
+        assertEquals("2", processor.transform("{{value_json.List[1]}}", json));
+        assertEquals("3", processor.transform("{{value_json.List | length}}", json));
+        assertEquals("false", processor.transform("{{ value_json.missing is defined }}", json));
+        assertEquals("Hello world!", processor.transform("Hello {{ value_json }}!", "\"world\""));
+    }
+
+    @Test
+    public void testFilterError() {
+        Jinjava jinjava = new Jinjava();
+        jinjava.getGlobalContext().registerFilter(new Filter() {
+            @Override
+            public String getName() {
+                return "fail";
+            }
+
+            @Override
+            public Object filter(Object var, JinjavaInterpreter interpreter, String... args) {
+                throw new IllegalArgumentException("invalid argument");
+            }
+        });
+        processor = new JinjaTransformationService(jinjava);
+
+        assertThrows(TransformationException.class, () -> processor.transform("{{ value | fail }}", "world"));
+    }
 }
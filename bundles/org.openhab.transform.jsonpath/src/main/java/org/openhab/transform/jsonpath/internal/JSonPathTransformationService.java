@@ -12,7 +12,9 @@
  */
 package org.openhab.transform.jsonpath.internal;
 
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 import org.eclipse.jdt.annotation.NonNullByDefault;
@@ -24,6 +26,7 @@ import org.osgi.service.component.annotations.Component;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.jayway.jsonpath.Configuration;
 import com.jayway.jsonpath.InvalidJsonException;
 import com.jayway.jsonpath.InvalidPathException;
 import com.jayway.jsonpath.JsonPath;
@@ -34,13 +37,43 @@ import com.jayway.jsonpath.PathNotFoundException;
  *
  * @author Gaël L'hopital - Initial contribution
  * @author Sebastian Janzen - Initial contribution
+ * @author Tobias Brandt - Cache compiled paths and parsed documents
  */
 @NonNullByDefault
 @Component(property = { "openhab.transform=JSONPATH" })
 public class JSonPathTransformationService implements TransformationService {
 
+    /** Maximum number of compiled JsonPath expressions kept */
+    private static final int PATH_CACHE_SIZE = 256;
+    /** Maximum number of parsed documents kept */
+    private static final int DOCUMENT_CACHE_SIZE = 8;
+    /** Time in milliseconds a parsed document is reused for further extractions */
+    private static final long DOCUMENT_CACHE_TTL = 1000;
+
     private final Logger logger = LoggerFactory.getLogger(JSonPathTransformationService.class);
 
+    private final Configuration configuration = Configuration.defaultConfiguration();
+
+    // access order, the eldest entry is the least recently used expression
+    private final Map<String, JsonPath> paths = new LinkedHashMap<>(16, 0.75f, true) {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, JsonPath> eldest) {
+            return size() > PATH_CACHE_SIZE;
+        }
+    };
+
+    // insertion order, so several channels extracting from the same payload share one parse
+    private final Map<String, ParsedDocument> documents = new LinkedHashMap<>(16, 0.75f, false) {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, ParsedDocument> eldest) {
+            return size() > DOCUMENT_CACHE_SIZE;
+        }
+    };
+
     /**
      * Transforms the input <code>source</code> by JSonPath expression.
      *
@@ -62,7 +95,7 @@ public class JSonPathTransformationService implements TransformationService {
             return null;
         }
         try {
-            Object transformationResult = JsonPath.read(source, jsonPathExpression);
+            Object transformationResult = getPath(jsonPathExpression).read(getDocument(source), configuration);
             logger.debug("transformation resulted in '{}'", transformationResult);
             if (transformationResult == null) {
                 return null;
@@ -78,6 +111,43 @@ public class JSonPathTransformationService implements TransformationService {
         }
     }
 
+    /**
+     * @return the compiled expression, compiled on first use
+     * @throws InvalidPathException if the expression is invalid
+     */
+    private JsonPath getPath(String jsonPathExpression) {
+        synchronized (paths) {
+            JsonPath path = paths.get(jsonPathExpression);
+            if (path == null) {
+                path = JsonPath.compile(jsonPathExpression);
+                paths.put(jsonPathExpression, path);
+            }
+            return path;
+        }
+    }
+
+    /**
+     * @return the parsed document, which is shared by all extractions from the same source within
+     *         {@link #DOCUMENT_CACHE_TTL}
+     * @throws InvalidJsonException if the source is not valid JSON
+     */
+    private Object getDocument(String source) {
+        long now = System.currentTimeMillis();
+        synchronized (documents) {
+            ParsedDocument document = documents.get(source);
+            if (document != null && now - document.parsed() < DOCUMENT_CACHE_TTL) {
+                return document.json();
+            }
+        }
+        Object json = configuration.jsonProvider().parse(source);
+        synchronized (documents) {
+            // re-insert, so the document is the newest entry
+            documents.remove(source);
+            documents.put(source, new ParsedDocument(json, now));
+        }
+        return json;
+    }
+
     private String flattenList(List<?> list) {
         if (list.size() == 1) {
             return list.get(0).toString();
@@ -102,4 +172,7 @@ public class JSonPathTransformationService implements TransformationService {
     private String createStringList(List<?> list) {
         return list.stream().map(n -> "\"" + n + "\"").collect(Collectors.joining(", ", "[", "]"));
     }
+
+    private record ParsedDocument(Object json, long parsed) {
+    }
 }
@@ -64,6 +64,22 @@ public class JSonPathTransformationServiceTest {
         assertThrows(TransformationException.class, () -> processor.transform("$$", JSON_ARRAY));
     }
 
+    @Test
+    public void testRepeatedExtractionsFromSameSource() throws TransformationException {
+        for (int i = 0; i < 2; i++) {
+            assertEquals("bob", processor.transform("$[0].name", JSON_ARRAY));
+            assertEquals("alice", processor.transform("$[1].name", JSON_ARRAY));
+            assertEquals("2", processor.transform("$[1].id", JSON_ARRAY));
+        }
+        assertEquals("1", processor.transform("$[1].id", JSON_ARRAY.replace("\"id\":2", "\"id\":1")));
+    }
+
+    @Test
+    public void testRepeatedInvalidPathThrowsException() {
+        assertThrows(TransformationException.class, () -> processor.transform("$$", JSON_ARRAY));
+        assertThrows(TransformationException.class, () -> processor.transform("$$", JSON_ARRAY));
+    }
+
     @Test
     public void testPathMismatchReturnNull() {
         assertThrows(TransformationException.class, () -> processor.transform("$[5].id", JSON_ARRAY));
@@ -12,6 +12,8 @@
  */
 package org.openhab.transform.regex.internal;
 
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -31,6 +33,7 @@ import org.slf4j.LoggerFactory;
  * <b>Note:</b> the given Regular Expression must contain exactly one group!
  *
  * @author Thomas.Eichstaedt-Engelen - Initial contribution
+ * @author Tobias Brandt - Cache compiled expressions
  */
 @NonNullByDefault
 @Component(property = { "openhab.transform=REGEX" })
@@ -40,6 +43,19 @@ public class RegExTransformationService implements TransformationService {
 
     private static final Pattern SUBSTR_PATTERN = Pattern.compile("^s/(.*?[^\\\\])/(.*?[^\\\\])/(.*)$");
 
+    /** Maximum number of compiled expressions kept */
+    private static final int CACHE_SIZE = 256;
+
+    // access order, the eldest entry is the least recently used expression
+    private final Map<String, CompiledExpression> expressions = new LinkedHashMap<>(16, 0.75f, true) {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, CompiledExpression> eldest) {
+            return size() > CACHE_SIZE;
+        }
+    };
+
     @Override
     public @Nullable String transform(String regExpression, String source) throws TransformationException {
         if (regExpression == null || source == null) {
@@ -48,50 +64,71 @@ public class RegExTransformationService implements TransformationService {
 
         logger.debug("about to transform '{}' by the function '{}'", source, regExpression);
 
-        String result = "";
+        CompiledExpression expression = compile(regExpression);
+        Matcher matcher = expression.pattern().matcher(source.trim());
 
-        Matcher substMatcher = SUBSTR_PATTERN.matcher(regExpression);
-        if (substMatcher.matches()) {
+        String substitution = expression.substitution();
+        if (substitution != null) {
             logger.debug("Using substitution form of regex transformation");
-            String regex = substMatcher.group(1);
-            String substitution = substMatcher.group(2);
-            String options = substMatcher.group(3);
-            if ("g".equals(options)) {
-                result = source.trim().replaceAll(regex, substitution);
-            } else {
-                result = source.trim().replaceFirst(regex, substitution);
-            }
-            if (result != null) {
-                return result;
-            }
+            return expression.global() ? matcher.replaceAll(substitution) : matcher.replaceFirst(substitution);
         }
 
-        Matcher matcher = Pattern.compile("^" + regExpression + "$", Pattern.DOTALL).matcher(source.trim());
+        // the pattern is anchored, so there is at most one match
         if (!matcher.matches()) {
             logger.debug(
                     "the given regex '^{}$' doesn't match the given content '{}' -> couldn't compute transformation",
                     regExpression, source);
             return null;
         }
-        matcher.reset();
-
-        while (matcher.find()) {
-            if (matcher.groupCount() == 0) {
-                logger.info(
-                        "the given regular expression '^{}$' doesn't contain a group. No content will be extracted and returned!",
-                        regExpression);
-                continue;
-            }
 
-            result = matcher.group(1);
+        if (matcher.groupCount() == 0) {
+            logger.info(
+                    "the given regular expression '^{}$' doesn't contain a group. No content will be extracted and returned!",
+                    regExpression);
+            return "";
+        }
+        if (matcher.groupCount() > 1) {
+            logger.debug(
+                    "the given regular expression '^{}$' contains more than one group. Only the first group will be returned!",
+                    regExpression);
+        }
+        return matcher.group(1);
+    }
 
-            if (matcher.groupCount() > 1) {
-                logger.debug(
-                        "the given regular expression '^{}$' contains more than one group. Only the first group will be returned!",
-                        regExpression);
+    /**
+     * Compiles the given expression, or returns the cached result of an earlier compilation.
+     *
+     * @param regExpression the expression in match or substitution form
+     * @return the compiled expression
+     * @throws java.util.regex.PatternSyntaxException if the expression is invalid
+     */
+    private CompiledExpression compile(String regExpression) {
+        synchronized (expressions) {
+            CompiledExpression expression = expressions.get(regExpression);
+            if (expression != null) {
+                return expression;
             }
         }
 
-        return result;
+        CompiledExpression expression;
+        Matcher substMatcher = SUBSTR_PATTERN.matcher(regExpression);
+        if (substMatcher.matches()) {
+            expression = new CompiledExpression(Pattern.compile(substMatcher.group(1)), substMatcher.group(2),
+                    "g".equals(substMatcher.group(3)));
+        } else {
+            expression = new CompiledExpression(Pattern.compile("^" + regExpression + "$", Pattern.DOTALL), null,
+                    false);
+        }
+
+        synchronized (expressions) {
+            expressions.put(regExpression, expression);
+        }
+        return expression;
+    }
+
+    /**
+     * A compiled expression. In substitution form, the substitution is not <code>null</code>.
+     */
+    private record CompiledExpression(Pattern pattern, @Nullable String substitution, boolean global) {
     }
 }
@@ -14,7 +14,11 @@ package org.openhab.transform.regex.internal;
 
 import static org.junit.jupiter.api.Assertions.*;
 
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
 import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Disabled;
 import org.junit.jupiter.api.Test;
 import org.openhab.core.transform.TransformationException;
 
@@ -75,4 +79,50 @@ public class RegExTransformationServiceTest extends AbstractTransformationServic
         // Asserts
         assertEquals("varX=12 varY=54 ", transformedResponse);
     }
+
+    @Test
+    public void testTransformByRegex_repeated() throws TransformationException {
+        for (int i = 0; i < 3; i++) {
+            assertEquals("SetMode(42)", processor.transform("s/^OP:(.*?),ARG:(.*)$/$1($2)/", "OP:SetMode,ARG:42"));
+            assertEquals("42", processor.transform("OP:.*?,ARG:(.*)", " OP:SetMode,ARG:42 "));
+            assertNull(processor.transform("OP:.*?,ARG:(.*)", "NOP"));
+        }
+    }
+
+    /**
+     * Compares the throughput of cached expressions with compiling the expression on every call, as before the cache.
+     */
+    @Test
+    @Disabled("benchmark, run manually")
+    public void benchmarkCachedAgainstUncompiled() throws TransformationException {
+        String regex = "OP:.*?,ARG:(.*)";
+        String value = " OP:SetMode,ARG:42 ";
+        int iterations = 1_000_000;
+
+        // warm up both variants
+        for (int i = 0; i < iterations / 10; i++) {
+            transformUncached(regex, value);
+            processor.transform(regex, value);
+        }
+
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            assertEquals("42", transformUncached(regex, value));
+        }
+        long uncached = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            assertEquals("42", processor.transform(regex, value));
+        }
+        long cached = System.nanoTime() - start;
+
+        assertTrue(cached < uncached, "cached: " + cached / 1_000_000 + " ms, compiled per call: "
+                + uncached / 1_000_000 + " ms for " + iterations + " transformations");
+    }
+
+    private static String transformUncached(String regex, String value) {
+        Matcher matcher = Pattern.compile("^" + regex + "$", Pattern.DOTALL).matcher(value.trim());
+        return matcher.find() ? matcher.group(1) : "";
+    }
 }
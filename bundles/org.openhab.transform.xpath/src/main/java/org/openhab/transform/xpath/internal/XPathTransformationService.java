@@ -13,12 +13,18 @@
 package org.openhab.transform.xpath.internal;
 
 import java.io.StringReader;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
 
 import javax.xml.parsers.DocumentBuilder;
 import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
 import javax.xml.xpath.XPath;
 import javax.xml.xpath.XPathConstants;
 import javax.xml.xpath.XPathExpression;
+import javax.xml.xpath.XPathExpressionException;
 import javax.xml.xpath.XPathFactory;
 
 import org.eclipse.jdt.annotation.NonNullByDefault;
@@ -36,6 +42,7 @@ import org.xml.sax.InputSource;
  * The implementation of {@link TransformationService} which transforms the input by XPath Expressions.
  *
  * @author Thomas.Eichstaedt-Engelen - Initial contribution
+ * @author Tobias Brandt - Cache compiled expressions and reuse document builders
  */
 @NonNullByDefault
 @Component(property = { "openhab.transform=XPATH" })
@@ -43,6 +50,28 @@ public class XPathTransformationService implements TransformationService {
 
     private final Logger logger = LoggerFactory.getLogger(XPathTransformationService.class);
 
+    /** Maximum number of compiled expressions kept */
+    private static final int CACHE_SIZE = 256;
+    /** Maximum number of idle document builders kept */
+    private static final int POOL_SIZE = 8;
+
+    // guarded by expressions, XPath is not thread-safe
+    private final XPath xpath = XPathFactory.newInstance().newXPath();
+
+    // access order, the eldest entry is the least recently used expression
+    private final Map<String, XPathExpression> expressions = new LinkedHashMap<>(16, 0.75f, true) {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, XPathExpression> eldest) {
+            return size() > CACHE_SIZE;
+        }
+    };
+
+    // guarded by builders, DocumentBuilderFactory is not thread-safe
+    private @Nullable DocumentBuilderFactory domFactory;
+    private final Queue<DocumentBuilder> builders = new ConcurrentLinkedQueue<>();
+
     @Override
     public @Nullable String transform(String xpathExpression, String source) throws TransformationException {
         if (xpathExpression == null || source == null) {
@@ -52,18 +81,10 @@ public class XPathTransformationService implements TransformationService {
         logger.debug("about to transform '{}' by the function '{}'", source, xpathExpression);
 
         StringReader stringReader = null;
+        DocumentBuilder builder = null;
 
         try {
-            DocumentBuilderFactory domFactory = DocumentBuilderFactory.newInstance();
-            // see https://cheatsheetseries.owasp.org/cheatsheets/XML_External_Entity_Prevention_Cheat_Sheet.html
-            domFactory.setFeature("http://xml.org/sax/features/external-general-entities", false);
-            domFactory.setFeature("http://xml.org/sax/features/external-parameter-entities", false);
-            domFactory.setFeature("http://apache.org/xml/features/nonvalidating/load-external-dtd", false);
-            domFactory.setXIncludeAware(false);
-            domFactory.setExpandEntityReferences(false);
-            domFactory.setNamespaceAware(true);
-            domFactory.setValidating(false);
-            DocumentBuilder builder = domFactory.newDocumentBuilder();
+            builder = acquireBuilder();
 
             stringReader = new StringReader(source);
             InputSource inputSource = new InputSource(stringReader);
@@ -71,10 +92,13 @@ public class XPathTransformationService implements TransformationService {
 
             Document doc = builder.parse(inputSource);
 
-            XPath xpath = XPathFactory.newInstance().newXPath();
-            XPathExpression expr = xpath.compile(xpathExpression);
+            XPathExpression expr = compile(xpathExpression);
 
-            String transformationResult = (String) expr.evaluate(doc, XPathConstants.STRING);
+            String transformationResult;
+            // XPathExpression is neither thread-safe nor reentrant
+            synchronized (expr) {
+                transformationResult = (String) expr.evaluate(doc, XPathConstants.STRING);
+            }
 
             logger.debug("transformation resulted in '{}'", transformationResult);
 
@@ -85,6 +109,63 @@ public class XPathTransformationService implements TransformationService {
             if (stringReader != null) {
                 stringReader.close();
             }
+            if (builder != null) {
+                releaseBuilder(builder);
+            }
+        }
+    }
+
+    /**
+     * Compiles the given expression, or returns the cached result of an earlier compilation.
+     *
+     * @param xpathExpression the expression
+     * @return the compiled expression
+     * @throws XPathExpressionException if the expression is invalid
+     */
+    private XPathExpression compile(String xpathExpression) throws XPathExpressionException {
+        synchronized (expressions) {
+            XPathExpression expr = expressions.get(xpathExpression);
+            if (expr == null) {
+                expr = xpath.compile(xpathExpression);
+                expressions.put(xpathExpression, expr);
+            }
+            return expr;
+        }
+    }
+
+    /**
+     * Takes an idle document builder from the pool, or creates a new one if there is none.
+     */
+    private DocumentBuilder acquireBuilder() throws ParserConfigurationException {
+        DocumentBuilder builder = builders.poll();
+        if (builder != null) {
+            return builder;
+        }
+        synchronized (builders) {
+            DocumentBuilderFactory factory = domFactory;
+            if (factory == null) {
+                factory = DocumentBuilderFactory.newInstance();
+                // see https://cheatsheetseries.owasp.org/cheatsheets/XML_External_Entity_Prevention_Cheat_Sheet.html
+                factory.setFeature("http://xml.org/sax/features/external-general-entities", false);
+                factory.setFeature("http://xml.org/sax/features/external-parameter-entities", false);
+                factory.setFeature("http://apache.org/xml/features/nonvalidating/load-external-dtd", false);
+                factory.setXIncludeAware(false);
+                factory.setExpandEntityReferences(false);
+                factory.setNamespaceAware(true);
+                factory.setValidating(false);
+                domFactory = factory;
+            }
+            return factory.newDocumentBuilder();
+        }
+    }
+
+    /**
+     * Resets the given document builder and returns it to the pool, unless the pool is full.
+     */
+    private void releaseBuilder(DocumentBuilder builder) {
+        if (builders.size() < POOL_SIZE) {
+            builder.reset();
+            builders.offer(builder);
         }
     }
 }
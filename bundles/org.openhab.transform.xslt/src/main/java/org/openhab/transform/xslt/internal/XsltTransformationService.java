@@ -15,9 +15,11 @@ package org.openhab.transform.xslt.internal;
 import java.io.File;
 import java.io.StringReader;
 import java.io.StringWriter;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
-import javax.xml.transform.Source;
-import javax.xml.transform.Transformer;
+import javax.xml.transform.Templates;
+import javax.xml.transform.TransformerConfigurationException;
 import javax.xml.transform.TransformerFactory;
 import javax.xml.transform.stream.StreamResult;
 import javax.xml.transform.stream.StreamSource;
@@ -36,6 +38,7 @@ import org.slf4j.LoggerFactory;
  * The implementation of {@link TransformationService} which transforms the input by XSLT.
  *
  * @author Thomas.Eichstaedt-Engelen - Initial contribution
+ * @author Tobias Brandt - Cache compiled stylesheets
  */
 @NonNullByDefault
 @Component(property = { "openhab.transform=XSLT" })
@@ -43,6 +46,22 @@ public class XsltTransformationService implements TransformationService {
 
     private final Logger logger = LoggerFactory.getLogger(XsltTransformationService.class);
 
+    /** Maximum number of compiled stylesheets kept */
+    private static final int CACHE_SIZE = 64;
+
+    // guarded by templates, the factory is not thread-safe
+    private final TransformerFactory transformerFactory = TransformerFactory.newInstance();
+
+    // access order, the eldest entry is the least recently used stylesheet
+    private final Map<String, CompiledStylesheet> templates = new LinkedHashMap<>(16, 0.75f, true) {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, CompiledStylesheet> eldest) {
+            return size() > CACHE_SIZE;
+        }
+    };
+
     /**
      * Transforms the input <code>source</code> by XSLT.
      *
@@ -60,12 +79,12 @@ public class XsltTransformationService implements TransformationService {
             throw new TransformationException("the given parameters 'filename' and 'source' must not be null");
         }
 
-        Source xsl = null;
+        File xsl;
 
         try {
             String path = OpenHAB.getConfigFolder() + File.separator + TransformationService.TRANSFORM_FOLDER_NAME
                     + File.separator + filename;
-            xsl = new StreamSource(new File(path));
+            xsl = new File(path);
         } catch (Exception e) {
             String message = "opening file '" + filename + "' throws exception";
 
@@ -78,11 +97,9 @@ public class XsltTransformationService implements TransformationService {
         StringReader xml = new StringReader(source);
         StringWriter out = new StringWriter();
 
-        Transformer transformer;
-
         try {
-            transformer = TransformerFactory.newInstance().newTransformer(xsl);
-            transformer.transform(new StreamSource(xml), new StreamResult(out));
+            // Templates are thread-safe, the Transformer created from them is used by this call only
+            getTemplates(xsl).newTransformer().transform(new StreamSource(xml), new StreamResult(out));
         } catch (Exception e) {
             logger.error("transformation throws exception", e);
             throw new TransformationException("transformation throws exception", e);
@@ -92,4 +109,36 @@ public class XsltTransformationService implements TransformationService {
 
         return out.toString();
     }
+
+    /**
+     * Compiles the given stylesheet, or returns the cached result of an earlier compilation. The stylesheet is compiled
+     * again if the file has been modified since.
+     *
+     * @param xsl the stylesheet file
+     * @return the compiled stylesheet
+     * @throws TransformerConfigurationException if the stylesheet cannot be read or compiled
+     */
+    private Templates getTemplates(File xsl) throws TransformerConfigurationException {
+        String path = xsl.getAbsolutePath();
+        long lastModified = xsl.lastModified();
+        long length = xsl.length();
+
+        synchronized (templates) {
+            CompiledStylesheet stylesheet = templates.get(path);
+            if (stylesheet != null && stylesheet.lastModified() == lastModified && stylesheet.length() == length) {
+                return stylesheet.templates();
+            }
+
+            logger.debug("compiling stylesheet '{}'", xsl);
+            Templates compiled = transformerFactory.newTemplates(new StreamSource(xsl));
+            templates.put(path, new CompiledStylesheet(compiled, lastModified, length));
+            return compiled;
+        }
+    }
+
+    /**
+     * A compiled stylesheet with the modification time and size of the file it was compiled from.
+     */
+    private record CompiledStylesheet(Templates templates, long lastModified, long length) {
+    }
 }